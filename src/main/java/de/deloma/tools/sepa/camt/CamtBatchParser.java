@@ -0,0 +1,179 @@
+package de.deloma.tools.sepa.camt;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import de.deloma.tools.sepa.camt.CamtParser.CAMTTYPE;
+import de.deloma.tools.sepa.exception.CamtStreamException;
+import de.deloma.tools.sepa.util.DetectedFormat;
+import de.deloma.tools.sepa.util.SepaFormatDetector;
+
+/**
+ * Parses many camt files in parallel. The type of each file is detected from
+ * its namespace, so files of different camt messages and versions can be
+ * mixed. Files are parsed with the cached JAXB contexts and pooled
+ * unmarshallers, a failing file does not abort the batch.
+ *
+ * <pre>
+ * for (CamtParseResult result : CamtBatchParser.parseFiles(files, executor))
+ * 	if (result.isSuccess())
+ * 		process(result.getDocument());
+ * </pre>
+ *
+ * @author Marco Janc (c) 2025
+ */
+public class CamtBatchParser
+{
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * Opens the stream of a source, which is closed after parsing
+	 */
+	@FunctionalInterface
+	public interface StreamSource
+	{
+		InputStream open() throws IOException;
+	}
+
+	private CamtBatchParser()
+	{
+	}
+
+	/**
+	 * Parses the given files on the common fork-join pool
+	 *
+	 * @param files
+	 * @return results in the order of the files
+	 */
+	public static List<CamtParseResult> parseFiles(final Collection<Path> files)
+	{
+		return CamtBatchParser.parseFiles(files, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Parses the given files on the given executor
+	 *
+	 * @param files
+	 * @param executor
+	 * @return results in the order of the files
+	 */
+	public static List<CamtParseResult> parseFiles(final Collection<Path> files, final Executor executor)
+	{
+		return CamtBatchParser.parseFiles(files, executor, false);
+	}
+
+	/**
+	 * Parses the given files on the given executor
+	 *
+	 * @param files
+	 * @param executor
+	 * @param validate
+	 *            whether to validate each file against the schema of its type
+	 *            while parsing it, invalid files are returned as failure
+	 * @return results in the order of the files
+	 */
+	public static List<CamtParseResult> parseFiles(final Collection<Path> files, final Executor executor, final boolean validate)
+	{
+		final List<String> names = new ArrayList<>(files.size());
+		final List<StreamSource> sources = new ArrayList<>(files.size());
+		for (final Path file : files)
+		{
+			names.add(file.toString());
+			sources.add(() -> Files.newInputStream(file));
+		}
+		return CamtBatchParser.parse(names, sources, executor, validate);
+	}
+
+	/**
+	 * Parses the given named sources on the common fork-join pool
+	 *
+	 * @param sources
+	 * @return results in the iteration order of the sources
+	 */
+	public static List<CamtParseResult> parse(final Map<String, ? extends StreamSource> sources)
+	{
+		return CamtBatchParser.parse(sources, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Parses the given named sources on the given executor and waits for all
+	 * of them
+	 *
+	 * @param sources
+	 * @param executor
+	 * @return results in the iteration order of the sources
+	 */
+	public static List<CamtParseResult> parse(final Map<String, ? extends StreamSource> sources, final Executor executor)
+	{
+		return CamtBatchParser.parse(sources, executor, false);
+	}
+
+	/**
+	 * Parses the given named sources on the given executor and waits for all
+	 * of them
+	 *
+	 * @param sources
+	 * @param executor
+	 * @param validate
+	 *            whether to validate each source against the schema of its
+	 *            type while parsing it, invalid sources are returned as failure
+	 * @return results in the iteration order of the sources
+	 */
+	public static List<CamtParseResult> parse(final Map<String, ? extends StreamSource> sources, final Executor executor,
+		final boolean validate)
+	{
+		return CamtBatchParser.parse(new ArrayList<>(sources.keySet()), new ArrayList<>(sources.values()), executor, validate);
+	}
+
+	private static List<CamtParseResult> parse(final List<String> names, final List<? extends StreamSource> sources, final Executor executor,
+		final boolean validate)
+	{
+		Objects.requireNonNull(executor, "executor must not be null");
+
+		final List<CompletableFuture<CamtParseResult>> futures = new ArrayList<>(sources.size());
+		for (int i = 0; i < sources.size(); i++)
+		{
+			final String name = names.get(i);
+			final StreamSource source = sources.get(i);
+			futures.add(CompletableFuture.supplyAsync(() -> CamtBatchParser.parse(name, source, validate), executor));
+		}
+
+		final List<CamtParseResult> results = new ArrayList<>(futures.size());
+		for (final CompletableFuture<CamtParseResult> future : futures)
+			results.add(future.join());
+		return results;
+	}
+
+	/**
+	 * Parses a single source, failures are returned as result
+	 */
+	static CamtParseResult parse(final String name, final StreamSource source, final boolean validate)
+	{
+		CAMTTYPE type = null;
+		try (InputStream is = new BufferedInputStream(source.open(), CamtBatchParser.BUFFER_SIZE))
+		{
+			final DetectedFormat format = SepaFormatDetector.detect(is);
+			type = format.getCamtType();
+			if (type == null)
+				throw new CamtStreamException("not a supported camt document: " + format.getNamespaceUri());
+
+			final Object document = new CamtParser(type).parse(format.getInputStream(), validate);
+			return CamtParseResult.success(name, type, document);
+		}
+		catch (final Exception e)
+		{
+			return CamtParseResult.failure(name, type, e);
+		}
+	}
+}
@@ -0,0 +1,686 @@
+package de.deloma.tools.sepa.camt;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import de.deloma.tools.sepa.camt.CamtParser.CAMTTYPE;
+import de.deloma.tools.sepa.exception.CamtStreamException;
+import de.deloma.tools.sepa.util.AmountUtils;
+import de.deloma.tools.sepa.util.SepaFormatDetector;
+
+/**
+ * Decodes the entries of camt.052, camt.053 and camt.054 documents of the
+ * versions 001.02 and 001.08 directly into {@link CamtEntryRecord}s with StAX,
+ * without JAXB.
+ *
+ * Elements are matched by their path below the report or entry element, all
+ * other elements are skipped without being decoded. The camt type is taken
+ * from the namespace of the document.
+ *
+ * One record is returned per transaction details ({@code TxDtls}) of an
+ * entry, so the transactions of batch entries are not lost, see
+ * {@link CamtEntryRecord#getTransactionIndex()}.
+ *
+ * The given input stream is not closed.
+ *
+ * @author Marco Janc (c) 2025
+ * @see CamtParser#decode(InputStream)
+ */
+public class CamtEntryDecoder implements Iterator<CamtEntryRecord>, AutoCloseable
+{
+	private static final XMLInputFactory XML_INPUT_FACTORY = CamtEntryDecoder.createXmlInputFactory();
+
+	/**
+	 * Document > message > report > entry
+	 */
+	private static final int REPORT_DEPTH = 3;
+
+	private static final int ENTRY_DEPTH = 4;
+
+	/*
+	 * field codes, BRANCH for elements containing fields
+	 */
+
+	private static final int BRANCH = 0;
+	private static final int REPORT_ID = 1;
+	private static final int ACCOUNT_IBAN = 2;
+	private static final int ENTRY_REFERENCE = 3;
+	private static final int ACCOUNT_SERVICER_REFERENCE = 4;
+	private static final int AMOUNT = 5;
+	private static final int CREDIT_DEBIT = 6;
+	private static final int STATUS = 7;
+	private static final int BOOKING_DATE = 8;
+	private static final int VALUE_DATE = 9;
+	private static final int DOMAIN = 10;
+	private static final int FAMILY = 11;
+	private static final int SUB_FAMILY = 12;
+	private static final int PROPRIETARY = 13;
+	private static final int TRANSACTION = 14;
+	private static final int END_TO_END_ID = 15;
+	private static final int MANDATE_ID = 16;
+	private static final int DEBTOR_NAME = 17;
+	private static final int DEBTOR_IBAN = 18;
+	private static final int DEBTOR_BIC = 19;
+	private static final int CREDITOR_NAME = 20;
+	private static final int CREDITOR_IBAN = 21;
+	private static final int CREDITOR_BIC = 22;
+	private static final int REMITTANCE = 23;
+	private static final int TRANSACTION_AMOUNT = 24;
+
+	private static final Map<String, Integer> REPORT_PATHS = new HashMap<>();
+
+	private static final Map<String, Integer> ENTRY_PATHS_V02 = new HashMap<>();
+
+	private static final Map<String, Integer> ENTRY_PATHS_V08 = new HashMap<>();
+
+	static
+	{
+		CamtEntryDecoder.REPORT_PATHS.put("Id", CamtEntryDecoder.REPORT_ID);
+		CamtEntryDecoder.REPORT_PATHS.put("Acct", CamtEntryDecoder.BRANCH);
+		CamtEntryDecoder.REPORT_PATHS.put("Acct/Id", CamtEntryDecoder.BRANCH);
+		CamtEntryDecoder.REPORT_PATHS.put("Acct/Id/IBAN", CamtEntryDecoder.ACCOUNT_IBAN);
+
+		final Map<String, Integer> common = new HashMap<>();
+		common.put("NtryRef", CamtEntryDecoder.ENTRY_REFERENCE);
+		common.put("AcctSvcrRef", CamtEntryDecoder.ACCOUNT_SERVICER_REFERENCE);
+		common.put("Amt", CamtEntryDecoder.AMOUNT);
+		common.put("CdtDbtInd", CamtEntryDecoder.CREDIT_DEBIT);
+		common.put("BookgDt", CamtEntryDecoder.BRANCH);
+		common.put("BookgDt/Dt", CamtEntryDecoder.BOOKING_DATE);
+		common.put("BookgDt/DtTm", CamtEntryDecoder.BOOKING_DATE);
+		common.put("ValDt", CamtEntryDecoder.BRANCH);
+		common.put("ValDt/Dt", CamtEntryDecoder.VALUE_DATE);
+		common.put("ValDt/DtTm", CamtEntryDecoder.VALUE_DATE);
+		common.put("BkTxCd", CamtEntryDecoder.BRANCH);
+		common.put("BkTxCd/Domn", CamtEntryDecoder.BRANCH);
+		common.put("BkTxCd/Domn/Cd", CamtEntryDecoder.DOMAIN);
+		common.put("BkTxCd/Domn/Fmly", CamtEntryDecoder.BRANCH);
+		common.put("BkTxCd/Domn/Fmly/Cd", CamtEntryDecoder.FAMILY);
+		common.put("BkTxCd/Domn/Fmly/SubFmlyCd", CamtEntryDecoder.SUB_FAMILY);
+		common.put("BkTxCd/Prtry", CamtEntryDecoder.BRANCH);
+		common.put("BkTxCd/Prtry/Cd", CamtEntryDecoder.PROPRIETARY);
+		common.put("NtryDtls", CamtEntryDecoder.BRANCH);
+		common.put("NtryDtls/TxDtls", CamtEntryDecoder.TRANSACTION);
+		common.put("NtryDtls/TxDtls/Refs", CamtEntryDecoder.BRANCH);
+		common.put("NtryDtls/TxDtls/Refs/EndToEndId", CamtEntryDecoder.END_TO_END_ID);
+		common.put("NtryDtls/TxDtls/Refs/MndtId", CamtEntryDecoder.MANDATE_ID);
+		common.put("NtryDtls/TxDtls/AmtDtls", CamtEntryDecoder.BRANCH);
+		common.put("NtryDtls/TxDtls/AmtDtls/TxAmt", CamtEntryDecoder.BRANCH);
+		common.put("NtryDtls/TxDtls/AmtDtls/TxAmt/Amt", CamtEntryDecoder.TRANSACTION_AMOUNT);
+		common.put("NtryDtls/TxDtls/RltdPties", CamtEntryDecoder.BRANCH);
+		common.put("NtryDtls/TxDtls/RltdPties/Dbtr", CamtEntryDecoder.BRANCH);
+		common.put("NtryDtls/TxDtls/RltdPties/DbtrAcct", CamtEntryDecoder.BRANCH);
+		common.put("NtryDtls/TxDtls/RltdPties/DbtrAcct/Id", CamtEntryDecoder.BRANCH);
+		common.put("NtryDtls/TxDtls/RltdPties/DbtrAcct/Id/IBAN", CamtEntryDecoder.DEBTOR_IBAN);
+		common.put("NtryDtls/TxDtls/RltdPties/Cdtr", CamtEntryDecoder.BRANCH);
+		common.put("NtryDtls/TxDtls/RltdPties/CdtrAcct", CamtEntryDecoder.BRANCH);
+		common.put("NtryDtls/TxDtls/RltdPties/CdtrAcct/Id", CamtEntryDecoder.BRANCH);
+		common.put("NtryDtls/TxDtls/RltdPties/CdtrAcct/Id/IBAN", CamtEntryDecoder.CREDITOR_IBAN);
+		common.put("NtryDtls/TxDtls/RltdAgts", CamtEntryDecoder.BRANCH);
+		common.put("NtryDtls/TxDtls/RltdAgts/DbtrAgt", CamtEntryDecoder.BRANCH);
+		common.put("NtryDtls/TxDtls/RltdAgts/DbtrAgt/FinInstnId", CamtEntryDecoder.BRANCH);
+		common.put("NtryDtls/TxDtls/RltdAgts/CdtrAgt", CamtEntryDecoder.BRANCH);
+		common.put("NtryDtls/TxDtls/RltdAgts/CdtrAgt/FinInstnId", CamtEntryDecoder.BRANCH);
+		common.put("NtryDtls/TxDtls/RmtInf", CamtEntryDecoder.BRANCH);
+		common.put("NtryDtls/TxDtls/RmtInf/Ustrd", CamtEntryDecoder.REMITTANCE);
+
+		// 001.02: plain status code, parties with name, BIC
+		CamtEntryDecoder.ENTRY_PATHS_V02.putAll(common);
+		CamtEntryDecoder.ENTRY_PATHS_V02.put("Sts", CamtEntryDecoder.STATUS);
+		CamtEntryDecoder.ENTRY_PATHS_V02.put("NtryDtls/TxDtls/RltdPties/Dbtr/Nm", CamtEntryDecoder.DEBTOR_NAME);
+		CamtEntryDecoder.ENTRY_PATHS_V02.put("NtryDtls/TxDtls/RltdPties/Cdtr/Nm", CamtEntryDecoder.CREDITOR_NAME);
+		CamtEntryDecoder.ENTRY_PATHS_V02.put("NtryDtls/TxDtls/RltdAgts/DbtrAgt/FinInstnId/BIC", CamtEntryDecoder.DEBTOR_BIC);
+		CamtEntryDecoder.ENTRY_PATHS_V02.put("NtryDtls/TxDtls/RltdAgts/CdtrAgt/FinInstnId/BIC", CamtEntryDecoder.CREDITOR_BIC);
+
+		// 001.08: status choice, transaction amount, parties as party choice, BICFI
+		CamtEntryDecoder.ENTRY_PATHS_V08.putAll(common);
+		CamtEntryDecoder.ENTRY_PATHS_V08.put("Sts", CamtEntryDecoder.BRANCH);
+		CamtEntryDecoder.ENTRY_PATHS_V08.put("Sts/Cd", CamtEntryDecoder.STATUS);
+		CamtEntryDecoder.ENTRY_PATHS_V08.put("NtryDtls/TxDtls/Amt", CamtEntryDecoder.TRANSACTION_AMOUNT);
+		CamtEntryDecoder.ENTRY_PATHS_V08.put("NtryDtls/TxDtls/RltdPties/Dbtr/Pty", CamtEntryDecoder.BRANCH);
+		CamtEntryDecoder.ENTRY_PATHS_V08.put("NtryDtls/TxDtls/RltdPties/Dbtr/Pty/Nm", CamtEntryDecoder.DEBTOR_NAME);
+		CamtEntryDecoder.ENTRY_PATHS_V08.put("NtryDtls/TxDtls/RltdPties/Cdtr/Pty", CamtEntryDecoder.BRANCH);
+		CamtEntryDecoder.ENTRY_PATHS_V08.put("NtryDtls/TxDtls/RltdPties/Cdtr/Pty/Nm", CamtEntryDecoder.CREDITOR_NAME);
+		CamtEntryDecoder.ENTRY_PATHS_V08.put("NtryDtls/TxDtls/RltdAgts/DbtrAgt/FinInstnId/BICFI", CamtEntryDecoder.DEBTOR_BIC);
+		CamtEntryDecoder.ENTRY_PATHS_V08.put("NtryDtls/TxDtls/RltdAgts/CdtrAgt/FinInstnId/BICFI", CamtEntryDecoder.CREDITOR_BIC);
+	}
+
+	private final XMLStreamReader xsr;
+
+	private final CAMTTYPE camtType;
+
+	private final Map<String, Integer> entryPaths;
+
+	/**
+	 * path below the current report or entry element
+	 */
+	private final StringBuilder path = new StringBuilder(64);
+
+	/*
+	 * current report
+	 */
+
+	private String reportId;
+
+	private String accountIban;
+
+	/*
+	 * current entry
+	 */
+
+	private final EntryFields fields = new EntryFields();
+
+	/**
+	 * records of the current entry not returned yet
+	 */
+	private final Queue<CamtEntryRecord> records = new ArrayDeque<>();
+
+	private boolean finished;
+
+	private boolean closed;
+
+	CamtEntryDecoder(final InputStream is) throws XMLStreamException
+	{
+		this.xsr = CamtEntryDecoder.XML_INPUT_FACTORY.createXMLStreamReader(is);
+		try
+		{
+			while (this.xsr.hasNext() && this.xsr.next() != XMLStreamConstants.START_ELEMENT)
+			{
+				// prolog
+			}
+			if (!this.xsr.isStartElement())
+				throw new CamtStreamException("empty camt document");
+
+			final String xsdVersion = SepaFormatDetector.getXsdVersion(this.xsr.getNamespaceURI());
+			this.camtType = CAMTTYPE.fromXsdVersion(xsdVersion);
+			if (this.camtType == null)
+				throw new CamtStreamException("unsupported camt namespace: " + this.xsr.getNamespaceURI());
+			this.entryPaths = xsdVersion.endsWith(".08") ? CamtEntryDecoder.ENTRY_PATHS_V08 : CamtEntryDecoder.ENTRY_PATHS_V02;
+		}
+		catch (XMLStreamException | RuntimeException e)
+		{
+			this.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * @return camt type of the document
+	 */
+	public CAMTTYPE getCamtType()
+	{
+		return this.camtType;
+	}
+
+	@Override
+	public boolean hasNext()
+	{
+		if (!this.records.isEmpty())
+			return true;
+		if (this.finished || this.closed)
+			return false;
+
+		try
+		{
+			if (!this.readNext())
+				this.finished = true;
+		}
+		catch (final XMLStreamException | RuntimeException e)
+		{
+			throw new CamtStreamException("unable to decode camt entry", e);
+		}
+		return !this.records.isEmpty();
+	}
+
+	@Override
+	public CamtEntryRecord next()
+	{
+		if (!this.hasNext())
+			throw new NoSuchElementException();
+		return this.records.poll();
+	}
+
+	/**
+	 * @return a sequential stream of the remaining records, closing the stream
+	 *         closes this decoder
+	 */
+	public Stream<CamtEntryRecord> stream()
+	{
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+			.onClose(this::close);
+	}
+
+	@Override
+	public void close()
+	{
+		if (this.closed)
+			return;
+		this.closed = true;
+		try
+		{
+			this.xsr.close();
+		}
+		catch (final XMLStreamException e)
+		{
+			// nothing left to release
+		}
+	}
+
+	/*
+	 * decoding
+	 */
+
+	/**
+	 * Reads up to and including the next entry
+	 *
+	 * @return false at the end of the document
+	 */
+	private boolean readNext() throws XMLStreamException
+	{
+		// the reader is at the root element or the end of an element
+		int depth = this.xsr.isStartElement() ? 1 : CamtEntryDecoder.REPORT_DEPTH;
+		while (this.xsr.hasNext())
+		{
+			final int event = this.xsr.next();
+			if (event == XMLStreamConstants.START_ELEMENT)
+			{
+				depth++;
+				final String name = this.xsr.getLocalName();
+				if (depth < CamtEntryDecoder.REPORT_DEPTH)
+					continue;
+
+				if (depth == CamtEntryDecoder.REPORT_DEPTH)
+				{
+					if (name.equals("Rpt") || name.equals("Stmt") || name.equals("Ntfctn"))
+					{
+						this.reportId = null;
+						this.accountIban = null;
+						this.path.setLength(0);
+					}
+					else
+					{
+						this.skipElement();
+						depth--;
+					}
+				}
+				else if (depth == CamtEntryDecoder.ENTRY_DEPTH && name.equals("Ntry"))
+				{
+					this.path.setLength(0);
+					this.readEntry();
+					return true;
+				}
+				else
+				{
+					final int parentLength = this.push(name);
+					final Integer field = CamtEntryDecoder.REPORT_PATHS.get(this.path.toString());
+					if (field == null || field != CamtEntryDecoder.BRANCH)
+					{
+						if (field != null)
+							this.setReportField(field, this.xsr.getElementText());
+						else
+							this.skipElement();
+						this.path.setLength(parentLength);
+						depth--;
+					}
+				}
+			}
+			else if (event == XMLStreamConstants.END_ELEMENT)
+			{
+				if (depth > CamtEntryDecoder.REPORT_DEPTH)
+					this.pop();
+				depth--;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Reads the current entry up to its end element and queues its records
+	 */
+	private void readEntry() throws XMLStreamException
+	{
+		final EntryFields f = this.fields;
+		f.clear();
+
+		int depth = 0;
+		while (true)
+		{
+			final int event = this.xsr.next();
+			if (event == XMLStreamConstants.START_ELEMENT)
+			{
+				final int parentLength = this.push(this.xsr.getLocalName());
+				final Integer field = this.entryPaths.get(this.path.toString());
+
+				if (field == null)
+					this.skipElement();
+				else if (field == CamtEntryDecoder.BRANCH)
+				{
+					depth++;
+					continue;
+				}
+				else if (field == CamtEntryDecoder.TRANSACTION)
+				{
+					f.addTransaction();
+					depth++;
+					continue;
+				}
+				else
+				{
+					if (field == CamtEntryDecoder.AMOUNT)
+						f.currency = this.xsr.getAttributeValue(null, "Ccy");
+					f.set(field, this.xsr.getElementText());
+				}
+				this.path.setLength(parentLength);
+			}
+			else if (event == XMLStreamConstants.END_ELEMENT)
+			{
+				// end of the entry
+				if (depth == 0)
+				{
+					f.addRecords(this.reportId, this.accountIban, this.records);
+					return;
+				}
+				this.pop();
+				depth--;
+			}
+		}
+	}
+
+	private void setReportField(final int field, final String value)
+	{
+		if (field == CamtEntryDecoder.REPORT_ID)
+			this.reportId = value;
+		else if (field == CamtEntryDecoder.ACCOUNT_IBAN)
+			this.accountIban = value;
+	}
+
+	/**
+	 * @return length of the path before adding the name
+	 */
+	private int push(final String name)
+	{
+		final int length = this.path.length();
+		if (length > 0)
+			this.path.append('/');
+		this.path.append(name);
+		return length;
+	}
+
+	private void pop()
+	{
+		final int index = this.path.lastIndexOf("/");
+		this.path.setLength(index < 0 ? 0 : index);
+	}
+
+	/**
+	 * Skips the current element including its children, stops at its end
+	 */
+	private void skipElement() throws XMLStreamException
+	{
+		int depth = 1;
+		while (depth > 0)
+		{
+			final int event = this.xsr.next();
+			if (event == XMLStreamConstants.START_ELEMENT)
+				depth++;
+			else if (event == XMLStreamConstants.END_ELEMENT)
+				depth--;
+		}
+	}
+
+	private static XMLInputFactory createXmlInputFactory()
+	{
+		final XMLInputFactory xif = XMLInputFactory.newInstance();
+		xif.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+		xif.setProperty(XMLInputFactory.IS_COALESCING, true);
+		xif.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		xif.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		return xif;
+	}
+
+	/**
+	 * mutable fields of the entry being decoded
+	 */
+	private static final class EntryFields
+	{
+		String entryReference;
+		String accountServicerReference;
+		String amount;
+		String currency;
+		String creditDebitIndicator;
+		String status;
+		String bookingDate;
+		String valueDate;
+		String domain;
+		String family;
+		String subFamily;
+		String proprietary;
+
+		/**
+		 * transaction details of the entry, the instances are reused for the
+		 * following entries
+		 */
+		final List<TransactionFields> transactions = new ArrayList<>();
+
+		int transactionCount;
+
+		void addTransaction()
+		{
+			if (this.transactionCount == this.transactions.size())
+				this.transactions.add(new TransactionFields());
+			this.transactions.get(this.transactionCount++).clear();
+		}
+
+		void set(final int field, final String value)
+		{
+			switch (field)
+			{
+				case ENTRY_REFERENCE:
+					this.entryReference = value;
+					break;
+				case ACCOUNT_SERVICER_REFERENCE:
+					this.accountServicerReference = value;
+					break;
+				case AMOUNT:
+					this.amount = value;
+					break;
+				case CREDIT_DEBIT:
+					this.creditDebitIndicator = value;
+					break;
+				case STATUS:
+					this.status = value;
+					break;
+				case BOOKING_DATE:
+					this.bookingDate = value;
+					break;
+				case VALUE_DATE:
+					this.valueDate = value;
+					break;
+				case DOMAIN:
+					this.domain = value;
+					break;
+				case FAMILY:
+					this.family = value;
+					break;
+				case SUB_FAMILY:
+					this.subFamily = value;
+					break;
+				case PROPRIETARY:
+					this.proprietary = value;
+					break;
+				default:
+					// fields below TxDtls belong to the current transaction
+					this.transactions.get(this.transactionCount - 1).set(field, value);
+					break;
+			}
+		}
+
+		/**
+		 * Adds a record per transaction details, or a single record without
+		 * transaction fields if the entry has none
+		 */
+		void addRecords(final String reportId, final String accountIban, final Queue<CamtEntryRecord> records)
+		{
+			final String bankTransactionCode = this.domain != null
+				? this.domain + '-' + this.family + '-' + this.subFamily
+				: this.proprietary;
+
+			// counterparty of a credit is the debtor
+			final boolean credit = CamtEntryRecord.CREDIT.equals(this.creditDebitIndicator);
+
+			// amounts with up to 2 decimals are kept in cents without BigDecimal
+			final long amountCents = EntryFields.toCents(this.amount);
+			final BigDecimal amount = EntryFields.toBigDecimal(this.amount, amountCents);
+			final LocalDate bookingDate = EntryFields.toDate(this.bookingDate);
+			final LocalDate valueDate = EntryFields.toDate(this.valueDate);
+
+			final int count = Math.max(this.transactionCount, 1);
+			for (int i = 0; i < count; i++)
+			{
+				final TransactionFields t = i < this.transactionCount ? this.transactions.get(i) : TransactionFields.NONE;
+				final long transactionAmountCents = EntryFields.toCents(t.amount);
+
+				records.add(new CamtEntryRecord(reportId, accountIban, this.entryReference, this.accountServicerReference, amountCents,
+					amount, this.currency, this.creditDebitIndicator, this.status, bookingDate, valueDate, bankTransactionCode, i,
+					this.transactionCount, transactionAmountCents, EntryFields.toBigDecimal(t.amount, transactionAmountCents),
+					t.endToEndId, t.mandateId, credit ? t.debtorName : t.creditorName, credit ? t.debtorIban : t.creditorIban,
+					credit ? t.debtorBic : t.creditorBic, t.remittance));
+			}
+		}
+
+		void clear()
+		{
+			this.entryReference = null;
+			this.accountServicerReference = null;
+			this.amount = null;
+			this.currency = null;
+			this.creditDebitIndicator = null;
+			this.status = null;
+			this.bookingDate = null;
+			this.valueDate = null;
+			this.domain = null;
+			this.family = null;
+			this.subFamily = null;
+			this.proprietary = null;
+			this.transactionCount = 0;
+		}
+
+		private static long toCents(final String amount)
+		{
+			return amount == null ? AmountUtils.NOT_REPRESENTABLE : AmountUtils.parseCents(amount);
+		}
+
+		/**
+		 * @return amount if not representable in cents, null otherwise
+		 */
+		private static BigDecimal toBigDecimal(final String amount, final long cents)
+		{
+			return amount == null || cents != AmountUtils.NOT_REPRESENTABLE ? null : new BigDecimal(amount.trim());
+		}
+
+		/**
+		 * @param value
+		 *            xs:date or xs:dateTime, the date part is used as is
+		 */
+		private static LocalDate toDate(final String value)
+		{
+			if (value == null)
+				return null;
+			final String trimmed = value.trim();
+			return LocalDate.parse(trimmed.length() > 10 ? trimmed.substring(0, 10) : trimmed);
+		}
+	}
+
+	/**
+	 * mutable fields of a transaction details of the entry being decoded
+	 */
+	private static final class TransactionFields
+	{
+		/**
+		 * fields of an entry without transaction details
+		 */
+		static final TransactionFields NONE = new TransactionFields();
+
+		String amount;
+		String endToEndId;
+		String mandateId;
+		String debtorName;
+		String debtorIban;
+		String debtorBic;
+		String creditorName;
+		String creditorIban;
+		String creditorBic;
+		String remittance;
+
+		void set(final int field, final String value)
+		{
+			switch (field)
+			{
+				case TRANSACTION_AMOUNT:
+					this.amount = value;
+					break;
+				case END_TO_END_ID:
+					this.endToEndId = value;
+					break;
+				case MANDATE_ID:
+					this.mandateId = value;
+					break;
+				case DEBTOR_NAME:
+					this.debtorName = value;
+					break;
+				case DEBTOR_IBAN:
+					this.debtorIban = value;
+					break;
+				case DEBTOR_BIC:
+					this.debtorBic = value;
+					break;
+				case CREDITOR_NAME:
+					this.creditorName = value;
+					break;
+				case CREDITOR_IBAN:
+					this.creditorIban = value;
+					break;
+				case CREDITOR_BIC:
+					this.creditorBic = value;
+					break;
+				case REMITTANCE:
+					this.remittance = this.remittance == null ? value : this.remittance + ' ' + value;
+					break;
+				default:
+					break;
+			}
+		}
+
+		void clear()
+		{
+			this.amount = null;
+			this.endToEndId = null;
+			this.mandateId = null;
+			this.debtorName = null;
+			this.debtorIban = null;
+			this.debtorBic = null;
+			this.creditorName = null;
+			this.creditorIban = null;
+			this.creditorBic = null;
+			this.remittance = null;
+		}
+	}
+}
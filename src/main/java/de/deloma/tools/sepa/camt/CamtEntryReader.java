@@ -0,0 +1,378 @@
+package de.deloma.tools.sepa.camt;
+
+import java.io.InputStream;
+import java.time.ZoneId;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import de.deloma.tools.sepa.camt.CamtParser.CAMTTYPE;
+import de.deloma.tools.sepa.exception.CamtStreamException;
+import de.deloma.tools.sepa.util.JaxbPool;
+import de.deloma.tools.sepa.util.OffsetDateTimeAdapter;
+
+/**
+ * Reads a camt document entry by entry instead of unmarshalling the whole
+ * document tree, so memory stays flat regardless of the number of entries.
+ *
+ * The group header is read on creation and each report header (f.e.
+ * {@code Rpt}, {@code Stmt} or {@code Ntfctn}) before its first entry, both
+ * without their entries. Entries ({@code Ntry}) are then unmarshalled one at a
+ * time on {@link #next()}. The additional info of a report following its
+ * entries is set on the report header once all its entries have been read.
+ *
+ * A pooled unmarshaller is borrowed for each unmarshalled element only, so a
+ * reader which is not closed does not keep an instance of the pool. The given
+ * input stream is not closed.
+ *
+ * @author Marco Janc (c) 2025
+ *
+ * @param <G>
+ *            group header type, f.e. {@code GroupHeader81}
+ * @param <R>
+ *            report type, f.e. {@code AccountReport25}
+ * @param <E>
+ *            entry type, f.e. {@code ReportEntry10}
+ * @see CamtParser#stream(InputStream)
+ */
+public class CamtEntryReader<G, R, E> implements Iterator<E>, AutoCloseable
+{
+	private static final XMLInputFactory XML_INPUT_FACTORY = XMLInputFactory.newInstance();
+
+	private final CAMTTYPE camtType;
+
+	private final CamtStreamLayout layout;
+
+	private final XMLStreamReader xsr;
+
+	private final JaxbPool<Unmarshaller> pool;
+
+	/**
+	 * zone of date times without offset, null for the default zone
+	 */
+	private final ZoneId zone;
+
+	private final G groupHeader;
+
+	private Consumer<? super R> reportListener;
+
+	/**
+	 * report of the entry last returned
+	 */
+	private R report;
+
+	private int reportIndex = -1;
+
+	/**
+	 * report the reader is currently positioned in
+	 */
+	private R readingReport;
+
+	private int readingReportIndex = -1;
+
+	/**
+	 * true if the first entry of {@link #readingReport} was not returned yet
+	 */
+	private boolean reportPending;
+
+	/**
+	 * true if the reader is positioned inside the entries of a report
+	 */
+	private boolean inReport;
+
+	/**
+	 * true if the reader is positioned at the start of an entry
+	 */
+	private boolean atEntry;
+
+	private boolean finished;
+
+	private boolean closed;
+
+	CamtEntryReader(final CAMTTYPE camtType, final InputStream is, final ZoneId zone) throws JAXBException, XMLStreamException
+	{
+		this.camtType = Objects.requireNonNull(camtType, "camtType must not be null");
+		this.layout = CamtStreamLayout.of(camtType);
+
+		this.xsr = CamtEntryReader.XML_INPUT_FACTORY.createXMLStreamReader(is);
+		this.pool = CamtParser.getUnmarshallerPool(camtType);
+		this.zone = zone;
+		try
+		{
+			// Document > message > GrpHdr
+			this.nextStartElement();
+			if (!camtType.getXsdVersion().equals(CamtEntryReader.xsdVersionOf(this.xsr.getNamespaceURI())))
+				throw new CamtStreamException("document namespace " + this.xsr.getNamespaceURI() + " does not match " + camtType);
+			this.nextStartElement();
+			this.nextStartElement();
+			if (!CamtStreamLayout.GROUP_HEADER.equals(this.xsr.getLocalName()))
+				throw new CamtStreamException("missing group header, found: " + this.xsr.getLocalName());
+
+			this.groupHeader = this.unmarshal(this.xsr, this.layout.groupHeaderClass);
+		}
+		catch (JAXBException | XMLStreamException | RuntimeException e)
+		{
+			this.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * @return the group header of the document
+	 */
+	public G getGroupHeader()
+	{
+		return this.groupHeader;
+	}
+
+	/**
+	 * @return the header of the report the entry last returned by
+	 *         {@link #next()} belongs to
+	 */
+	public R getReport()
+	{
+		return this.report;
+	}
+
+	/**
+	 * @return zero based index of {@link #getReport()} in the document
+	 */
+	public int getReportIndex()
+	{
+		return this.reportIndex;
+	}
+
+	public CAMTTYPE getCamtType()
+	{
+		return this.camtType;
+	}
+
+	/**
+	 * Sets a listener called with each report header once read, including
+	 * reports without entries
+	 *
+	 * @param reportListener
+	 */
+	public void setReportListener(final Consumer<? super R> reportListener)
+	{
+		this.reportListener = reportListener;
+	}
+
+	@Override
+	public boolean hasNext()
+	{
+		if (this.atEntry)
+			return true;
+		if (this.finished || this.closed)
+			return false;
+
+		try
+		{
+			this.advance();
+		}
+		catch (JAXBException | XMLStreamException e)
+		{
+			throw new CamtStreamException("unable to read next camt entry", e);
+		}
+		return this.atEntry;
+	}
+
+	@Override
+	public E next()
+	{
+		if (!this.hasNext())
+			throw new NoSuchElementException();
+
+		if (this.reportPending)
+		{
+			this.report = this.readingReport;
+			this.reportIndex = this.readingReportIndex;
+			this.reportPending = false;
+		}
+
+		try
+		{
+			this.atEntry = false;
+			return this.unmarshal(this.xsr, this.layout.entryClass);
+		}
+		catch (final JAXBException e)
+		{
+			throw new CamtStreamException("unable to read camt entry", e);
+		}
+	}
+
+	/**
+	 * @return a sequential stream of the remaining entries, closing the stream
+	 *         closes this reader
+	 */
+	public Stream<E> stream()
+	{
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+			.onClose(this::close);
+	}
+
+	@Override
+	public void close()
+	{
+		if (this.closed)
+			return;
+		this.closed = true;
+		try
+		{
+			this.xsr.close();
+		}
+		catch (final XMLStreamException e)
+		{
+			// nothing left to release
+		}
+	}
+
+	/*
+	 * reading
+	 *
+	 * the current event of the reader is always the next one to process
+	 */
+
+	/**
+	 * Moves to the start of the next entry, reading report headers and
+	 * additional report info on the way
+	 */
+	private void advance() throws JAXBException, XMLStreamException
+	{
+		while (!this.atEntry)
+		{
+			final int event = this.moveToTag();
+			if (event == XMLStreamConstants.END_DOCUMENT)
+			{
+				this.finished = true;
+				return;
+			}
+
+			if (event == XMLStreamConstants.START_ELEMENT)
+			{
+				final String name = this.xsr.getLocalName();
+				if (this.inReport && CamtStreamLayout.ENTRY.equals(name))
+					this.atEntry = true;
+				else if (this.inReport && this.layout.additionalInfoElement.equals(name))
+				{
+					this.layout.additionalInfoSetter.accept(this.readingReport, this.xsr.getElementText());
+					this.xsr.next();
+				}
+				else if (!this.inReport && this.layout.reportElement.equals(name))
+					this.readReportHeader();
+				else
+				{
+					this.skipElement();
+					this.xsr.next();
+				}
+			}
+			// end of report
+			else if (this.inReport)
+			{
+				this.inReport = false;
+				this.xsr.next();
+			}
+			// end of message, nothing else of interest
+			else
+			{
+				this.finished = true;
+				return;
+			}
+		}
+	}
+
+	private void readReportHeader() throws JAXBException
+	{
+		final ReportHeaderStreamReader headerReader = new ReportHeaderStreamReader(this.xsr, CamtStreamLayout.ENTRY);
+		final R header = this.unmarshal(headerReader, this.layout.reportClass);
+
+		this.readingReport = header;
+		this.readingReportIndex++;
+
+		if (this.reportListener != null)
+			this.reportListener.accept(header);
+
+		// positioned at the first entry, otherwise the report had none
+		if (headerReader.isStoppedAtChild())
+		{
+			this.reportPending = true;
+			this.inReport = true;
+			this.atEntry = true;
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> T unmarshal(final XMLStreamReader reader, final Class<?> declaredType) throws JAXBException
+	{
+		try (JaxbPool<Unmarshaller>.Lease lease = this.pool.borrow())
+		{
+			final Unmarshaller unmarshaller = lease.get();
+			if (this.zone == null)
+				return (T) unmarshaller.unmarshal(reader, declaredType).getValue();
+
+			// the pooled unmarshaller is shared, so its zone is reset
+			OffsetDateTimeAdapter.setZone(unmarshaller, this.zone);
+			try
+			{
+				return (T) unmarshaller.unmarshal(reader, declaredType).getValue();
+			}
+			finally
+			{
+				OffsetDateTimeAdapter.setZone(unmarshaller, null);
+			}
+		}
+	}
+
+	private void nextStartElement() throws XMLStreamException
+	{
+		while (this.xsr.hasNext())
+			if (this.xsr.next() == XMLStreamConstants.START_ELEMENT)
+				return;
+		throw new CamtStreamException("unexpected end of camt document");
+	}
+
+	/**
+	 * Skips text, comments etc. up to the next start or end element or the end
+	 * of the document
+	 */
+	private int moveToTag() throws XMLStreamException
+	{
+		int event = this.xsr.getEventType();
+		while (event != XMLStreamConstants.START_ELEMENT && event != XMLStreamConstants.END_ELEMENT && event != XMLStreamConstants.END_DOCUMENT)
+			event = this.xsr.next();
+		return event;
+	}
+
+	/**
+	 * Skips the current element including its children, stops at its end
+	 */
+	private void skipElement() throws XMLStreamException
+	{
+		int depth = 1;
+		while (depth > 0)
+		{
+			final int event = this.xsr.next();
+			if (event == XMLStreamConstants.START_ELEMENT)
+				depth++;
+			else if (event == XMLStreamConstants.END_ELEMENT)
+				depth--;
+		}
+	}
+
+	private static String xsdVersionOf(final String namespaceUri)
+	{
+		return namespaceUri == null ? null : namespaceUri.substring(namespaceUri.lastIndexOf(':') + 1);
+	}
+}
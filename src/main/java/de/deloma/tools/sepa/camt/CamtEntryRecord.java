@@ -0,0 +1,295 @@
+package de.deloma.tools.sepa.camt;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import de.deloma.tools.sepa.util.AmountUtils;
+
+/**
+ * Flat, immutable view of a camt entry ({@code Ntry}) with the fields needed
+ * for reconciliation, independent of the camt message and version.
+ *
+ * There is one record per transaction details ({@code TxDtls}) of an entry,
+ * repeating the entry fields, so a batch entry yields all of its transactions.
+ * An entry without transaction details yields a single record without
+ * transaction fields. The counterparty is the debtor of credit entries and the
+ * creditor of debit entries.
+ *
+ * @author Marco Janc (c) 2025
+ * @see CamtEntryDecoder
+ */
+public final class CamtEntryRecord
+{
+	public static final String CREDIT = "CRDT";
+
+	public static final String DEBIT = "DBIT";
+
+	private final String reportId;
+
+	private final String accountIban;
+
+	private final String entryReference;
+
+	private final String accountServicerReference;
+
+	/**
+	 * created on demand if the amount is representable in cents
+	 */
+	private BigDecimal amount;
+
+	/**
+	 * exact amount in cents or {@link AmountUtils#NOT_REPRESENTABLE}
+	 */
+	private final long amountCents;
+
+	private final String currency;
+
+	private final String creditDebitIndicator;
+
+	private final String status;
+
+	private final LocalDate bookingDate;
+
+	private final LocalDate valueDate;
+
+	private final String bankTransactionCode;
+
+	private final int transactionIndex;
+
+	private final int transactionCount;
+
+	/**
+	 * created on demand if the transaction amount is representable in cents
+	 */
+	private BigDecimal transactionAmount;
+
+	/**
+	 * exact transaction amount in cents or
+	 * {@link AmountUtils#NOT_REPRESENTABLE}
+	 */
+	private final long transactionAmountCents;
+
+	private final String endToEndId;
+
+	private final String mandateId;
+
+	private final String counterpartyName;
+
+	private final String counterpartyIban;
+
+	private final String counterpartyBic;
+
+	private final String remittanceInformation;
+
+	CamtEntryRecord(final String reportId, final String accountIban, final String entryReference, final String accountServicerReference,
+					final long amountCents, final BigDecimal amount, final String currency, final String creditDebitIndicator, final String status,
+					final LocalDate bookingDate, final LocalDate valueDate, final String bankTransactionCode, final int transactionIndex,
+					final int transactionCount, final long transactionAmountCents, final BigDecimal transactionAmount, final String endToEndId,
+					final String mandateId, final String counterpartyName, final String counterpartyIban, final String counterpartyBic,
+					final String remittanceInformation)
+	{
+		this.reportId = reportId;
+		this.accountIban = accountIban;
+		this.entryReference = entryReference;
+		this.accountServicerReference = accountServicerReference;
+		this.amountCents = amountCents;
+		this.amount = amount;
+		this.currency = currency;
+		this.creditDebitIndicator = creditDebitIndicator;
+		this.status = status;
+		this.bookingDate = bookingDate;
+		this.valueDate = valueDate;
+		this.bankTransactionCode = bankTransactionCode;
+		this.transactionIndex = transactionIndex;
+		this.transactionCount = transactionCount;
+		this.transactionAmountCents = transactionAmountCents;
+		this.transactionAmount = transactionAmount;
+		this.endToEndId = endToEndId;
+		this.mandateId = mandateId;
+		this.counterpartyName = counterpartyName;
+		this.counterpartyIban = counterpartyIban;
+		this.counterpartyBic = counterpartyBic;
+		this.remittanceInformation = remittanceInformation;
+	}
+
+	/**
+	 * @return id of the report, statement or notification of the entry
+	 */
+	public String getReportId()
+	{
+		return this.reportId;
+	}
+
+	/**
+	 * @return IBAN of the account reported on
+	 */
+	public String getAccountIban()
+	{
+		return this.accountIban;
+	}
+
+	public String getEntryReference()
+	{
+		return this.entryReference;
+	}
+
+	public String getAccountServicerReference()
+	{
+		return this.accountServicerReference;
+	}
+
+	/**
+	 * @return unsigned amount, see {@link #isCredit()}
+	 */
+	public BigDecimal getAmount()
+	{
+		// racy but safe, BigDecimal is immutable
+		BigDecimal amount = this.amount;
+		if (amount == null && this.amountCents != AmountUtils.NOT_REPRESENTABLE)
+			this.amount = amount = AmountUtils.toBigDecimal(this.amountCents);
+		return amount;
+	}
+
+	/**
+	 * @return whether the amount is exactly representable in cents
+	 */
+	public boolean hasAmountCents()
+	{
+		return this.amountCents != AmountUtils.NOT_REPRESENTABLE;
+	}
+
+	/**
+	 * @return unsigned amount in cents, f.e. to sum entries without
+	 *         BigDecimal
+	 * @throws ArithmeticException
+	 *             if the amount is not representable in cents, see
+	 *             {@link #hasAmountCents()}
+	 */
+	public long getAmountCents()
+	{
+		if (this.amountCents == AmountUtils.NOT_REPRESENTABLE)
+			throw new ArithmeticException("amount not representable in cents: " + this.amount);
+		return this.amountCents;
+	}
+
+	public String getCurrency()
+	{
+		return this.currency;
+	}
+
+	/**
+	 * @return {@link #CREDIT} or {@link #DEBIT}
+	 */
+	public String getCreditDebitIndicator()
+	{
+		return this.creditDebitIndicator;
+	}
+
+	public boolean isCredit()
+	{
+		return CamtEntryRecord.CREDIT.equals(this.creditDebitIndicator);
+	}
+
+	/**
+	 * @return f.e. "BOOK" or "PDNG"
+	 */
+	public String getStatus()
+	{
+		return this.status;
+	}
+
+	public LocalDate getBookingDate()
+	{
+		return this.bookingDate;
+	}
+
+	public LocalDate getValueDate()
+	{
+		return this.valueDate;
+	}
+
+	/**
+	 * @return ISO bank transaction code "Domain-Family-SubFamily", f.e.
+	 *         "PMNT-RCDT-ESCT", or the proprietary code if there is none
+	 */
+	public String getBankTransactionCode()
+	{
+		return this.bankTransactionCode;
+	}
+
+	/**
+	 * @return index of the transaction details within the entry, 0 if the
+	 *         entry has none
+	 */
+	public int getTransactionIndex()
+	{
+		return this.transactionIndex;
+	}
+
+	/**
+	 * @return number of transaction details of the entry, f.e. more than 1 for
+	 *         a batch booking, 0 if the entry has none
+	 */
+	public int getTransactionCount()
+	{
+		return this.transactionCount;
+	}
+
+	/**
+	 * @return unsigned amount of the transaction details or null if not given,
+	 *         part of the entry amount of batch entries
+	 */
+	public BigDecimal getTransactionAmount()
+	{
+		BigDecimal amount = this.transactionAmount;
+		if (amount == null && this.transactionAmountCents != AmountUtils.NOT_REPRESENTABLE)
+			this.transactionAmount = amount = AmountUtils.toBigDecimal(this.transactionAmountCents);
+		return amount;
+	}
+
+	public String getEndToEndId()
+	{
+		return this.endToEndId;
+	}
+
+	public String getMandateId()
+	{
+		return this.mandateId;
+	}
+
+	public String getCounterpartyName()
+	{
+		return this.counterpartyName;
+	}
+
+	public String getCounterpartyIban()
+	{
+		return this.counterpartyIban;
+	}
+
+	public String getCounterpartyBic()
+	{
+		return this.counterpartyBic;
+	}
+
+	/**
+	 * @return unstructured remittance information, multiple lines joined by a
+	 *         space
+	 */
+	public String getRemittanceInformation()
+	{
+		return this.remittanceInformation;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "CamtEntryRecord [entryReference=" + this.entryReference + ", amount=" + this.getAmount() + ", currency=" + this.currency
+			+ ", creditDebitIndicator=" + this.creditDebitIndicator + ", status=" + this.status + ", bookingDate=" + this.bookingDate
+			+ ", valueDate=" + this.valueDate + ", bankTransactionCode=" + this.bankTransactionCode + ", transactionIndex="
+			+ this.transactionIndex + ", transactionCount=" + this.transactionCount + ", transactionAmount=" + this.getTransactionAmount()
+			+ ", endToEndId=" + this.endToEndId
+			+ ", mandateId=" + this.mandateId + ", counterpartyName=" + this.counterpartyName + ", counterpartyIban=" + this.counterpartyIban
+			+ ", counterpartyBic=" + this.counterpartyBic + ", remittanceInformation=" + this.remittanceInformation + "]";
+	}
+}
@@ -0,0 +1,83 @@
+package de.deloma.tools.sepa.camt;
+
+import de.deloma.tools.sepa.camt.CamtParser.CAMTTYPE;
+
+/**
+ * Result of parsing a single file of a batch, either the document or the
+ * failure
+ *
+ * @author Marco Janc (c) 2025
+ * @see CamtBatchParser
+ */
+public final class CamtParseResult
+{
+	private final String name;
+
+	private final CAMTTYPE camtType;
+
+	private final Object document;
+
+	private final Exception error;
+
+	private CamtParseResult(final String name, final CAMTTYPE camtType, final Object document, final Exception error)
+	{
+		this.name = name;
+		this.camtType = camtType;
+		this.document = document;
+		this.error = error;
+	}
+
+	static CamtParseResult success(final String name, final CAMTTYPE camtType, final Object document)
+	{
+		return new CamtParseResult(name, camtType, document, null);
+	}
+
+	static CamtParseResult failure(final String name, final CAMTTYPE camtType, final Exception error)
+	{
+		return new CamtParseResult(name, camtType, null, error);
+	}
+
+	/**
+	 * @return name of the source, f.e. the file path
+	 */
+	public String getName()
+	{
+		return this.name;
+	}
+
+	/**
+	 * @return detected camt type, null if the type could not be detected
+	 */
+	public CAMTTYPE getCamtType()
+	{
+		return this.camtType;
+	}
+
+	public boolean isSuccess()
+	{
+		return this.error == null;
+	}
+
+	/**
+	 * @return parsed Document of {@link #getCamtType()}, null on failure
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> T getDocument()
+	{
+		return (T) this.document;
+	}
+
+	/**
+	 * @return failure or null on success
+	 */
+	public Exception getError()
+	{
+		return this.error;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "CamtParseResult [name=" + this.name + ", camtType=" + this.camtType + (this.error == null ? "" : ", error=" + this.error) + "]";
+	}
+}
@@ -3,13 +3,21 @@ package de.deloma.tools.sepa.camt;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
+import java.time.ZoneId;
 
 import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Unmarshaller;
 import javax.xml.stream.XMLStreamException;
+import javax.xml.validation.Schema;
 
-import org.apache.commons.io.IOUtils;
+import org.xml.sax.SAXException;
 
 import de.deloma.tools.sepa.util.BaseXmlFactory;
+import de.deloma.tools.sepa.util.JaxbContextRegistry;
+import de.deloma.tools.sepa.util.JaxbPool;
+import de.deloma.tools.sepa.util.OffsetDateTimeAdapter;
+import de.deloma.tools.sepa.util.SchemaRegistry;
+import de.deloma.tools.sepa.util.SepaFormatDetector;
 
 /**
  * Main CamtParser class parses xml file to given Class type f.e
@@ -23,18 +31,22 @@ public class CamtParser implements Serializable
 	public enum CAMTTYPE
 	{
 
-		CAMT52_001_02("camt.052.001.02"),
-		CAMT52_001_08("camt.052.001.08"),
-
-		// NOT used yet
-		CAMT53("camt.052.001.08"),
-		CAMT54("camt.052.001.08");
+		CAMT52_001_02("camt.052.001.02", de.deloma.tools.sepa.model.camt.camt5200102.Document.class),
+		CAMT52_001_08("camt.052.001.08", de.deloma.tools.sepa.model.camt.camt5200108.Document.class),
+		CAMT53("camt.053.001.02", de.deloma.tools.sepa.model.camt.camt530102.Document.class),
+		CAMT54("camt.054.001.02", de.deloma.tools.sepa.model.camt.camt540102.Document.class);
 
 		private String xsdVersion;
 
-		private CAMTTYPE(final String xsdVersion)
+		/**
+		 * XML root document class
+		 */
+		private final Class<?> documentClass;
+
+		private CAMTTYPE(final String xsdVersion, final Class<?> documentClass)
 		{
 			this.xsdVersion = xsdVersion;
+			this.documentClass = documentClass;
 		}
 
 		public String getXsdVersion()
@@ -42,10 +54,33 @@ public class CamtParser implements Serializable
 			return this.xsdVersion;
 		}
 
+		public Class<?> getDocumentClass()
+		{
+			return this.documentClass;
+		}
+
+		/**
+		 * @param xsdVersion
+		 *            f.e. "camt.053.001.02"
+		 * @return type of the given version or null if unknown
+		 */
+		public static CAMTTYPE fromXsdVersion(final String xsdVersion)
+		{
+			for (final CAMTTYPE type : CAMTTYPE.values())
+				if (type.xsdVersion.equals(xsdVersion))
+					return type;
+			return null;
+		}
+
 	}
 
 	protected CAMTTYPE camtType;
 
+	/**
+	 * zone of date times without offset, null for the default zone
+	 */
+	private ZoneId zone;
+
 	public CamtParser()
 	{
 
@@ -56,6 +91,24 @@ public class CamtParser implements Serializable
 		this.camtType = camtType;
 	}
 
+	/**
+	 * Sets the zone of date times without offset, f.e. the local times sent by
+	 * German banks, for this parser only
+	 *
+	 * @param zone
+	 *            f.e. "Europe/Berlin" or null for the default zone of
+	 *            {@link OffsetDateTimeAdapter}
+	 */
+	public void setZone(final ZoneId zone)
+	{
+		this.zone = zone;
+	}
+
+	public ZoneId getZone()
+	{
+		return this.zone;
+	}
+
 	/**
 	 * Parses a
 	 * <ul>
@@ -76,68 +129,128 @@ public class CamtParser implements Serializable
 	 */
 	public <T extends Object> T parse(final InputStream is) throws JAXBException, XMLStreamException
 	{
-		switch (this.camtType)
-		{
+		return BaseXmlFactory.<T> parse(is, null, this.zone, this.getCamtDocumentClass());
+	}
 
-			case CAMT52_001_02:
+	/**
+	 * Parses the given camt file and if enabled validates it against the
+	 * schema of the camt type while unmarshalling, in a single pass
+	 *
+	 * @param is
+	 * @param validate
+	 *            whether to validate against the schema
+	 * @return
+	 * @throws JAXBException
+	 *             also if the document is invalid
+	 * @throws XMLStreamException
+	 * @throws SAXException
+	 *             if the bundled schema cannot be compiled
+	 */
+	public <T extends Object> T parse(final InputStream is, final boolean validate) throws JAXBException, XMLStreamException, SAXException
+	{
+		final Schema schema = validate ? CamtParser.getSchema(this.camtType) : null;
+		return BaseXmlFactory.<T> parse(is, schema, this.zone, this.getCamtDocumentClass());
+	}
 
-				return BaseXmlFactory.<T> parse(is, de.deloma.tools.sepa.model.camt.camt5200102.Document.class);
+	/**
+	 * Opens a streaming reader returning the entries of the given camt file one
+	 * at a time, so the memory needed does not grow with the number of entries.
+	 *
+	 * <pre>
+	 * try (CamtEntryReader&lt;GroupHeader81, AccountReport25, ReportEntry10&gt; reader = parser.stream(is))
+	 * {
+	 * 	reader.stream().forEach(entry -&gt; ...);
+	 * }
+	 * </pre>
+	 *
+	 * @param is
+	 * @return reader which must be closed
+	 * @throws JAXBException
+	 * @throws XMLStreamException
+	 */
+	public <G, R, E> CamtEntryReader<G, R, E> stream(final InputStream is) throws JAXBException, XMLStreamException
+	{
+		return new CamtEntryReader<>(this.camtType, is, this.zone);
+	}
 
-			case CAMT52_001_08:
-				return BaseXmlFactory.<T> parse(is, de.deloma.tools.sepa.model.camt.camt5200108.Document.class);
-			default:
-				throw new UnsupportedOperationException("unknown camt type: " + this.camtType);
-		}
+	/**
+	 * Opens a decoder returning flat records of the entries of the given camt
+	 * file without JAXB. The camt type is taken from the document namespace.
+	 *
+	 * @param is
+	 * @return decoder which must be closed
+	 * @throws XMLStreamException
+	 */
+	public static CamtEntryDecoder decode(final InputStream is) throws XMLStreamException
+	{
+		return new CamtEntryDecoder(is);
 	}
 
 	/**
-	 * Get Root Document class from given camt version
+	 * Creates the cached JAXB contexts of all supported {@link CAMTTYPE}s ahead
+	 * of time, f.e. on application startup.
 	 *
-	 * TODO: Retrieve version from input stream dynamically by using regex
+	 * @throws JAXBException
+	 */
+	public static void warmUp() throws JAXBException
+	{
+		for (final CAMTTYPE type : CAMTTYPE.values())
+			JaxbContextRegistry.getContext(type.getDocumentClass());
+	}
+
+	/**
+	 * Returns the pool of unmarshallers used to parse documents of the given
+	 * type, f.e. to report its occupancy and wait time
 	 *
-	 * @param <T>
+	 * @param type
+	 * @return
+	 */
+	public static JaxbPool<Unmarshaller> getUnmarshallerPool(final CAMTTYPE type)
+	{
+		return BaseXmlFactory.getUnmarshallerPool(type.getDocumentClass());
+	}
+
+	/**
+	 * Returns the cached compiled schema of the given type
 	 *
+	 * @param type
 	 * @return
+	 * @throws SAXException
+	 *             if the bundled schema cannot be compiled
 	 */
-	private <T> Class<? extends Object> getCamtDocumentClass()
+	public static Schema getSchema(final CAMTTYPE type) throws SAXException
 	{
-		switch (this.camtType)
-		{
+		if (type == null)
+			throw new UnsupportedOperationException("unknown camt type: " + type);
+		return SchemaRegistry.getSchema(type.getXsdVersion());
+	}
 
-			case CAMT52_001_02:
-				return de.deloma.tools.sepa.model.camt.camt5200102.Document.class;
-			// return BaseXmlFactory.<T>parse(is,
-			// de.deloma.tools.sepa.model.camt.camt5200102.Document.class);
-
-			case CAMT52_001_08:
-				return de.deloma.tools.sepa.model.camt.camt5200108.Document.class;
-
-			// TODO: FIX it after model generating
-			case CAMT53:
-				// return BaseXmlFactory.parse(is,
-				// de.deloma.tools.sepa.model.camt.camt530102.Document.class);
-				// TODO: FIX it after model generating
-			case CAMT54:
-				// return BaseXmlFactory.parse(is,
-				// de.deloma.tools.sepa.model.camt.camt540102.ObjectFactory.class);
-			default:
-				throw new UnsupportedOperationException("unknown camt type: " + this.camtType);
-		}
+	/**
+	 * Get Root Document class from given camt version
+	 *
+	 * @return
+	 */
+	private Class<? extends Object> getCamtDocumentClass()
+	{
+		if (this.camtType == null)
+			throw new UnsupportedOperationException("unknown camt type: " + this.camtType);
+		return this.camtType.getDocumentClass();
 	}
 
 	/**
-	 * Checks if
+	 * Detects the camt type from the root element namespace. Only the first
+	 * bytes of the stream are read, if the stream supports mark / reset it is
+	 * reset to its start afterwards.
 	 *
 	 * @param is
-	 * @return
+	 * @return type or null if not a known camt document
+	 * @see SepaFormatDetector#detect(InputStream)
 	 */
 	public static CAMTTYPE getCamtTypeFromStream(final InputStream is)
 	{
-
 		try
 		{
-			final String fileContent = IOUtils.toString(is);
-			return CamtParser.getCamtTypeFromXml(fileContent);
+			return SepaFormatDetector.detect(is).getCamtType();
 		}
 		catch (final IOException e)
 		{
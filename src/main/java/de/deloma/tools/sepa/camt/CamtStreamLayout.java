@@ -0,0 +1,84 @@
+package de.deloma.tools.sepa.camt;
+
+import java.util.function.BiConsumer;
+
+import de.deloma.tools.sepa.camt.CamtParser.CAMTTYPE;
+
+/**
+ * Element names and model classes needed to read a camt document report by
+ * report and entry by entry
+ *
+ * @author Marco Janc (c) 2025
+ */
+final class CamtStreamLayout
+{
+	static final String GROUP_HEADER = "GrpHdr";
+
+	static final String ENTRY = "Ntry";
+
+	private static final CamtStreamLayout CAMT52_001_02 = new CamtStreamLayout("Rpt",
+		de.deloma.tools.sepa.model.camt.camt5200102.GroupHeader42.class, de.deloma.tools.sepa.model.camt.camt5200102.AccountReport11.class,
+		de.deloma.tools.sepa.model.camt.camt5200102.ReportEntry2.class, "AddtlRptInf",
+		(r, s) -> ((de.deloma.tools.sepa.model.camt.camt5200102.AccountReport11) r).setAddtlRptInf(s));
+
+	private static final CamtStreamLayout CAMT52_001_08 = new CamtStreamLayout("Rpt",
+		de.deloma.tools.sepa.model.camt.camt5200108.GroupHeader81.class, de.deloma.tools.sepa.model.camt.camt5200108.AccountReport25.class,
+		de.deloma.tools.sepa.model.camt.camt5200108.ReportEntry10.class, "AddtlRptInf",
+		(r, s) -> ((de.deloma.tools.sepa.model.camt.camt5200108.AccountReport25) r).setAddtlRptInf(s));
+
+	private static final CamtStreamLayout CAMT53 = new CamtStreamLayout("Stmt",
+		de.deloma.tools.sepa.model.camt.camt530102.GroupHeader42.class, de.deloma.tools.sepa.model.camt.camt530102.AccountStatement2.class,
+		de.deloma.tools.sepa.model.camt.camt530102.ReportEntry2.class, "AddtlStmtInf",
+		(r, s) -> ((de.deloma.tools.sepa.model.camt.camt530102.AccountStatement2) r).setAddtlStmtInf(s));
+
+	private static final CamtStreamLayout CAMT54 = new CamtStreamLayout("Ntfctn",
+		de.deloma.tools.sepa.model.camt.camt540102.GroupHeader42.class, de.deloma.tools.sepa.model.camt.camt540102.AccountNotification2.class,
+		de.deloma.tools.sepa.model.camt.camt540102.ReportEntry2.class, "AddtlNtfctnInf",
+		(r, s) -> ((de.deloma.tools.sepa.model.camt.camt540102.AccountNotification2) r).setAddtlNtfctnInf(s));
+
+	/**
+	 * local name of the report element, f.e. "Rpt", "Stmt" or "Ntfctn"
+	 */
+	final String reportElement;
+
+	final Class<?> groupHeaderClass;
+
+	final Class<?> reportClass;
+
+	final Class<?> entryClass;
+
+	/**
+	 * local name of the additional info element following the entries
+	 */
+	final String additionalInfoElement;
+
+	final BiConsumer<Object, String> additionalInfoSetter;
+
+	private CamtStreamLayout(final String reportElement, final Class<?> groupHeaderClass, final Class<?> reportClass, final Class<?> entryClass,
+								final String additionalInfoElement, final BiConsumer<Object, String> additionalInfoSetter)
+	{
+		this.reportElement = reportElement;
+		this.groupHeaderClass = groupHeaderClass;
+		this.reportClass = reportClass;
+		this.entryClass = entryClass;
+		this.additionalInfoElement = additionalInfoElement;
+		this.additionalInfoSetter = additionalInfoSetter;
+	}
+
+	static CamtStreamLayout of(final CAMTTYPE type)
+	{
+		switch (type)
+		{
+			case CAMT52_001_02:
+				return CamtStreamLayout.CAMT52_001_02;
+			case CAMT52_001_08:
+				return CamtStreamLayout.CAMT52_001_08;
+			case CAMT53:
+				return CamtStreamLayout.CAMT53;
+			case CAMT54:
+				return CamtStreamLayout.CAMT54;
+			default:
+				throw new UnsupportedOperationException("unknown camt type: " + type);
+		}
+	}
+}
@@ -0,0 +1,201 @@
+package de.deloma.tools.sepa.camt;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.util.StreamReaderDelegate;
+
+/**
+ * Presents only the header of a report element to an unmarshaller: reading
+ * stops in front of the first direct child with the given local name (the
+ * first entry) by reporting the end of the report element instead.
+ *
+ * The underlying reader is then still positioned at the start of that child, so
+ * the entries can be unmarshalled one by one afterwards.
+ *
+ * @author Marco Janc (c) 2025
+ */
+final class ReportHeaderStreamReader extends StreamReaderDelegate
+{
+	private final String stopElement;
+
+	private final QName reportName;
+
+	private final String[] nsPrefixes;
+
+	private final String[] nsUris;
+
+	/**
+	 * nesting depth below the report element
+	 */
+	private int depth;
+
+	/**
+	 * true while the synthetic end element is the current event
+	 */
+	private boolean syntheticEnd;
+
+	private boolean stoppedAtChild;
+
+	/**
+	 * @param reader
+	 *            positioned at the start of the report element
+	 * @param stopElement
+	 */
+	ReportHeaderStreamReader(final XMLStreamReader reader, final String stopElement)
+	{
+		super(reader);
+		this.stopElement = stopElement;
+		this.reportName = reader.getName();
+
+		final int nsCount = reader.getNamespaceCount();
+		this.nsPrefixes = new String[nsCount];
+		this.nsUris = new String[nsCount];
+		for (int i = 0; i < nsCount; i++)
+		{
+			this.nsPrefixes[i] = reader.getNamespacePrefix(i);
+			this.nsUris[i] = reader.getNamespaceURI(i);
+		}
+	}
+
+	/**
+	 * @return true if reading stopped in front of the stop element, false if
+	 *         the whole report element was read
+	 */
+	boolean isStoppedAtChild()
+	{
+		return this.stoppedAtChild;
+	}
+
+	@Override
+	public int next() throws XMLStreamException
+	{
+		if (this.syntheticEnd)
+		{
+			// the unmarshaller moves beyond the end tag, stay at the stop element
+			this.syntheticEnd = false;
+			return this.getParent().getEventType();
+		}
+
+		final int event = super.next();
+		if (event == XMLStreamConstants.START_ELEMENT)
+		{
+			if (this.depth == 0 && this.stopElement.equals(super.getLocalName()))
+			{
+				this.syntheticEnd = true;
+				this.stoppedAtChild = true;
+				return XMLStreamConstants.END_ELEMENT;
+			}
+			this.depth++;
+		}
+		else if (event == XMLStreamConstants.END_ELEMENT)
+			this.depth--;
+		return event;
+	}
+
+	@Override
+	public int nextTag() throws XMLStreamException
+	{
+		int event = this.next();
+		while (event != XMLStreamConstants.START_ELEMENT && event != XMLStreamConstants.END_ELEMENT)
+			event = this.next();
+		return event;
+	}
+
+	@Override
+	public boolean hasNext() throws XMLStreamException
+	{
+		return this.syntheticEnd || super.hasNext();
+	}
+
+	@Override
+	public int getEventType()
+	{
+		return this.syntheticEnd ? XMLStreamConstants.END_ELEMENT : super.getEventType();
+	}
+
+	@Override
+	public boolean isStartElement()
+	{
+		return !this.syntheticEnd && super.isStartElement();
+	}
+
+	@Override
+	public boolean isEndElement()
+	{
+		return this.syntheticEnd || super.isEndElement();
+	}
+
+	@Override
+	public boolean isCharacters()
+	{
+		return !this.syntheticEnd && super.isCharacters();
+	}
+
+	@Override
+	public boolean isWhiteSpace()
+	{
+		return !this.syntheticEnd && super.isWhiteSpace();
+	}
+
+	@Override
+	public boolean hasName()
+	{
+		return this.syntheticEnd || super.hasName();
+	}
+
+	@Override
+	public boolean hasText()
+	{
+		return !this.syntheticEnd && super.hasText();
+	}
+
+	@Override
+	public QName getName()
+	{
+		return this.syntheticEnd ? this.reportName : super.getName();
+	}
+
+	@Override
+	public String getLocalName()
+	{
+		return this.syntheticEnd ? this.reportName.getLocalPart() : super.getLocalName();
+	}
+
+	@Override
+	public String getNamespaceURI()
+	{
+		return this.syntheticEnd ? this.reportName.getNamespaceURI() : super.getNamespaceURI();
+	}
+
+	@Override
+	public String getPrefix()
+	{
+		return this.syntheticEnd ? this.reportName.getPrefix() : super.getPrefix();
+	}
+
+	@Override
+	public int getNamespaceCount()
+	{
+		return this.syntheticEnd ? this.nsPrefixes.length : super.getNamespaceCount();
+	}
+
+	@Override
+	public String getNamespacePrefix(final int index)
+	{
+		return this.syntheticEnd ? this.nsPrefixes[index] : super.getNamespacePrefix(index);
+	}
+
+	@Override
+	public String getNamespaceURI(final int index)
+	{
+		return this.syntheticEnd ? this.nsUris[index] : super.getNamespaceURI(index);
+	}
+
+	@Override
+	public int getAttributeCount()
+	{
+		return this.syntheticEnd ? 0 : super.getAttributeCount();
+	}
+}
@@ -0,0 +1,25 @@
+package de.deloma.tools.sepa.exception;
+
+/**
+ * Unchecked exception thrown while lazily reading camt entries, where
+ * {@link java.util.Iterator} and {@link java.util.stream.Stream} do not allow
+ * checked exceptions. The cause holds the original XML or JAXB exception.
+ *
+ * @author Marco Janc (c) 2025
+ */
+public class CamtStreamException extends RuntimeException
+{
+
+	private static final long serialVersionUID = -3185301187254512740L;
+
+	public CamtStreamException(final String msg)
+	{
+		super(msg);
+	}
+
+	public CamtStreamException(final String msg, final Throwable cause)
+	{
+		super(msg, cause);
+	}
+
+}
@@ -0,0 +1,57 @@
+package de.deloma.tools.sepa.exception;
+
+/**
+ * Thrown if a transaction id was already used, see
+ * {@link de.deloma.tools.sepa.pain.DuplicateIdChecker}
+ *
+ * @author Marco Janc (c) 2025
+ */
+public class DuplicateIdException extends PainParserException
+{
+	private static final long serialVersionUID = 2968871150736393414L;
+
+	/**
+	 * checked id
+	 */
+	public enum IdType
+	{
+		/**
+		 * EndToEndId used before, in this or a committed run
+		 */
+		END_TO_END_ID,
+
+		/**
+		 * MandateId collected twice by the same creditor on the same date
+		 */
+		MANDATE_ID;
+	}
+
+	private final IdType idType;
+
+	private final String id;
+
+	private final String paymentInfoId;
+
+	public DuplicateIdException(final IdType idType, final String id, final String paymentInfoId)
+	{
+		super(ParserExceptionType.TRANSACTION_ERROR, "duplicate " + idType + " " + id + " in payment info " + paymentInfoId);
+		this.idType = idType;
+		this.id = id;
+		this.paymentInfoId = paymentInfoId;
+	}
+
+	public IdType getIdType()
+	{
+		return this.idType;
+	}
+
+	public String getId()
+	{
+		return this.id;
+	}
+
+	public String getPaymentInfoId()
+	{
+		return this.paymentInfoId;
+	}
+}
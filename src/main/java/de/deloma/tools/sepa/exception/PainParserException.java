@@ -48,8 +48,37 @@ public class PainParserException extends Exception {
 		this.addSuppressed(new Throwable(getExeptionMsg(), e));
 	}
 
+	/**
+	 * Creates an exception with the message but without stack trace and
+	 * suppressed exceptions, f.e. for expected validation failures which are
+	 * cheap to create.
+	 *
+	 * @param exceptionType
+	 * @param detailMsg
+	 * @param writableStackTrace
+	 *            false to not capture the stack trace
+	 */
+	protected PainParserException(ParserExceptionType exceptionType, String detailMsg, boolean writableStackTrace) {
+
+		super(PainParserException.getExeptionMsg(exceptionType, detailMsg), null, false, writableStackTrace);
+		this.exceptionType = exceptionType;
+		this.detailMsg = detailMsg;
+	}
+
+	public ParserExceptionType getExceptionType() {
+		return this.exceptionType;
+	}
+
+	public String getDetailMsg() {
+		return this.detailMsg;
+	}
+
 	private String getExeptionMsg() {
-		return MessageFormat.format("{0} \n Details: {1} " + this.exceptionType.msg, this.detailMsg);
+		return PainParserException.getExeptionMsg(this.exceptionType, this.detailMsg);
+	}
+
+	private static String getExeptionMsg(ParserExceptionType exceptionType, String detailMsg) {
+		return MessageFormat.format("{0} \n Details: {1} " + exceptionType.msg, detailMsg);
 
 	}
 
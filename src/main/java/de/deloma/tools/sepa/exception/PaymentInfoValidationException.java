@@ -0,0 +1,35 @@
+package de.deloma.tools.sepa.exception;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Thrown when creating a document in parallel if one or more payment infos
+ * are invalid. Contains the failure of each invalid payment info.
+ *
+ * @author Marco Janc (c) 2025
+ */
+public class PaymentInfoValidationException extends PainParserException
+{
+	private static final long serialVersionUID = -3195719626853012573L;
+
+	private final Map<Integer, PainParserException> failures;
+
+	/**
+	 * @param failures
+	 *            failures by index of the payment info, in index order
+	 */
+	public PaymentInfoValidationException(final Map<Integer, PainParserException> failures)
+	{
+		super(ParserExceptionType.PAYMENT_INFO_ERROR, failures.size() + " invalid payment infos at " + failures.keySet());
+		this.failures = Collections.unmodifiableMap(failures);
+	}
+
+	/**
+	 * @return failures by index of the payment info in the given list
+	 */
+	public Map<Integer, PainParserException> getFailures()
+	{
+		return this.failures;
+	}
+}
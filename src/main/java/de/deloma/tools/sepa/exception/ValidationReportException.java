@@ -0,0 +1,27 @@
+package de.deloma.tools.sepa.exception;
+
+import de.deloma.tools.sepa.pain.ValidationReport;
+
+/**
+ * Thrown by {@link ValidationReport#check()} with all violations. Created
+ * without stack trace, the report locates the violations.
+ *
+ * @author Marco Janc (c) 2025
+ */
+public class ValidationReportException extends PainParserException
+{
+	private static final long serialVersionUID = -6412807316503964925L;
+
+	private final transient ValidationReport report;
+
+	public ValidationReportException(final ValidationReport report)
+	{
+		super(ParserExceptionType.DOCUMENT, report.toString(), false);
+		this.report = report;
+	}
+
+	public ValidationReport getReport()
+	{
+		return this.report;
+	}
+}
@@ -0,0 +1,183 @@
+package de.deloma.tools.sepa.pain;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Objects;
+
+import de.deloma.tools.sepa.exception.DuplicateIdException;
+import de.deloma.tools.sepa.exception.DuplicateIdException.IdType;
+import de.deloma.tools.sepa.pain.wrapper.CollectorPaymentInfoPain;
+import de.deloma.tools.sepa.pain.wrapper.PainTransaction;
+import de.deloma.tools.sepa.util.FingerprintSet;
+
+/**
+ * Detects duplicate transaction ids before generation using 64-bit
+ * fingerprints in {@link FingerprintSet}s instead of the id strings:
+ * <ul>
+ * <li>{@code EndToEndId}s must be unique within the current run and against
+ * the history of all committed runs, optionally persisted in a memory-mapped
+ * file</li>
+ * <li>a {@code MndtId} must not be collected twice by the same creditor on the
+ * same collection date within the current run</li>
+ * </ul>
+ *
+ * Checked ids are pending until {@link #commit()}, f.e. once the file was
+ * accepted, or {@link #rollback()}.
+ *
+ * <pre>
+ * try (DuplicateIdChecker checker = new DuplicateIdChecker(historyFile))
+ * {
+ * 	for (CollectorPaymentInfoPain paymentInfo : paymentInfos)
+ * 		CollectorPaymentInfoPain.validate(paymentInfo, checker);
+ * 	...
+ * 	checker.commit();
+ * }
+ * </pre>
+ *
+ * Thread-safe.
+ *
+ * @author Marco Janc (c) 2025
+ */
+public class DuplicateIdChecker implements Closeable
+{
+	private static final int INITIAL_SIZE = 64 * 1024;
+
+	/**
+	 * EndToEndIds of committed runs
+	 */
+	private final FingerprintSet history;
+
+	private final FingerprintSet endToEndIds = FingerprintSet.create(DuplicateIdChecker.INITIAL_SIZE);
+
+	private final FingerprintSet mandateIds = FingerprintSet.create(DuplicateIdChecker.INITIAL_SIZE);
+
+	/**
+	 * Creates a checker with an in-memory history
+	 */
+	public DuplicateIdChecker()
+	{
+		this.history = FingerprintSet.create(DuplicateIdChecker.INITIAL_SIZE);
+	}
+
+	/**
+	 * Creates a checker with the history persisted in the given file, created
+	 * if it does not exist
+	 *
+	 * @param historyFile
+	 * @throws IOException
+	 */
+	public DuplicateIdChecker(final Path historyFile) throws IOException
+	{
+		this.history = FingerprintSet.open(historyFile, DuplicateIdChecker.INITIAL_SIZE);
+	}
+
+	/**
+	 * Checks and records the ids of all transactions of the payment info
+	 *
+	 * @param paymentInfo
+	 * @throws DuplicateIdException
+	 *             on the first duplicate id, ids of the transactions before it
+	 *             stay recorded
+	 */
+	public void check(final CollectorPaymentInfoPain paymentInfo) throws DuplicateIdException
+	{
+		for (final PainTransaction transaction : paymentInfo.getTransactions())
+			this.check(paymentInfo, transaction.getEndToEndId(), transaction.getMandateId());
+	}
+
+	/**
+	 * Checks and records the ids of a transaction of the given payment info
+	 *
+	 * @param paymentInfo
+	 * @param endToEndId
+	 * @param mandateId
+	 * @throws DuplicateIdException
+	 *             if an id is a duplicate, no id is recorded then
+	 */
+	public synchronized void check(final CollectorPaymentInfoPain paymentInfo, final String endToEndId, final String mandateId)
+		throws DuplicateIdException
+	{
+		Objects.requireNonNull(paymentInfo, "paymentInfo must not be null");
+
+		final long endToEndFingerprint = endToEndId == null ? 0 : FingerprintSet.fingerprint(endToEndId);
+		if (endToEndId != null && (this.history.contains(endToEndFingerprint) || this.endToEndIds.contains(endToEndFingerprint)))
+			throw new DuplicateIdException(IdType.END_TO_END_ID, endToEndId, paymentInfo.getPaymentInfoId());
+
+		final long mandateFingerprint = mandateId == null ? 0 : DuplicateIdChecker.mandateFingerprint(paymentInfo, mandateId);
+		if (mandateId != null && this.mandateIds.contains(mandateFingerprint))
+			throw new DuplicateIdException(IdType.MANDATE_ID, mandateId, paymentInfo.getPaymentInfoId());
+
+		try
+		{
+			if (endToEndId != null)
+				this.endToEndIds.add(endToEndFingerprint);
+			if (mandateId != null)
+				this.mandateIds.add(mandateFingerprint);
+		}
+		catch (final IOException e)
+		{
+			// direct memory sets do not do I/O
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * @param endToEndId
+	 * @return whether the id is used in a committed run or recorded in the
+	 *         current run
+	 */
+	public synchronized boolean isUsed(final String endToEndId)
+	{
+		final long fingerprint = FingerprintSet.fingerprint(endToEndId);
+		return this.history.contains(fingerprint) || this.endToEndIds.contains(fingerprint);
+	}
+
+	/**
+	 * Adds the EndToEndIds of the current run to the history, writes a
+	 * persisted history to disk and starts a new run
+	 *
+	 * @throws IOException
+	 */
+	public synchronized void commit() throws IOException
+	{
+		this.history.addAll(this.endToEndIds);
+		this.history.force();
+		this.rollback();
+	}
+
+	/**
+	 * Discards the ids of the current run
+	 */
+	public synchronized void rollback()
+	{
+		if (!this.endToEndIds.isEmpty())
+			this.endToEndIds.clear();
+		if (!this.mandateIds.isEmpty())
+			this.mandateIds.clear();
+	}
+
+	/**
+	 * @return number of EndToEndIds of committed runs
+	 */
+	public synchronized long getHistorySize()
+	{
+		return this.history.size();
+	}
+
+	/**
+	 * Closes a persisted history, uncommitted ids are discarded
+	 */
+	@Override
+	public synchronized void close() throws IOException
+	{
+		this.history.close();
+	}
+
+	private static long mandateFingerprint(final CollectorPaymentInfoPain paymentInfo, final String mandateId)
+	{
+		final String creditorId = paymentInfo.getCreditorInfo() == null ? null : paymentInfo.getCreditorInfo().getGlauebigerId();
+		return FingerprintSet.fingerprint(creditorId + '\u0000' + mandateId + '\u0000' + paymentInfo.getCollectionLocalDate());
+	}
+}
@@ -2,10 +2,12 @@ package de.deloma.tools.sepa.pain;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 import de.deloma.tools.sepa.exception.PainParserException;
 import de.deloma.tools.sepa.exception.PainParserException.ParserExceptionType;
+import de.deloma.tools.sepa.exception.PaymentInfoValidationException;
 import de.deloma.tools.sepa.model.pain.pain0800102.AccountIdentification4Choice;
 import de.deloma.tools.sepa.model.pain.pain0800102.ActiveOrHistoricCurrencyAndAmount;
 import de.deloma.tools.sepa.model.pain.pain0800102.BranchAndFinancialInstitutionIdentification4;
@@ -35,7 +37,6 @@ import de.deloma.tools.sepa.pain.wrapper.CollectorPaymentInfoPain;
 import de.deloma.tools.sepa.pain.wrapper.CreditorInfo;
 import de.deloma.tools.sepa.pain.wrapper.GroupHeaderInfo;
 import de.deloma.tools.sepa.pain.wrapper.PainTransaction;
-import de.deloma.tools.sepa.util.ParserUtils;
 
 /**
  * pain.008.001.02 document creator
@@ -64,10 +65,49 @@ public class PainDocument00800102
 		for (final CollectorPaymentInfoPain collectorPaymentInfo : collectorPaymentInfos)
 			paymentInfoList.add(PainDocument00800102.createPayInstrInf(collectorPaymentInfo));
 
-		// Number of total transactions in all paymentInfos
-		final int numTxs = paymentInfoList.stream().collect(Collectors.summingInt(p -> Integer.parseInt(p.getNbOfTxs())));
-		if (numTxs < 0)
+		return PainDocument00800102.createDocument(groupHeaderInfo, collectorPaymentInfos, paymentInfoList);
+	}
+
+	/**
+	 * Creates the document like {@link #createDocument(GroupHeaderInfo, List)}
+	 * but builds the payment instructions and their transactions concurrently
+	 * on the given executor. The order of the payment infos is kept.
+	 *
+	 * @param groupHeaderInfo
+	 * @param collectorPaymentInfos
+	 * @param executor
+	 *
+	 * @return
+	 *
+	 * @throws PaymentInfoValidationException
+	 *             containing the failure of each invalid payment info
+	 * @throws PainParserException
+	 */
+	public static Document createDocument(final GroupHeaderInfo groupHeaderInfo, final List<CollectorPaymentInfoPain> collectorPaymentInfos,
+		final Executor executor) throws PainParserException
+	{
+		GroupHeaderInfo.validate(groupHeaderInfo);
+
+		final List<PaymentInstructionInformation4> paymentInfoList = ParallelDocumentBuilder.build(collectorPaymentInfos, executor,
+			PainDocument00800102::createPayInstrInfHeader, PainDocument00800102::createTransaction, (p, t) -> p.getDrctDbtTxInves().addAll(t));
+
+		return PainDocument00800102.createDocument(groupHeaderInfo, collectorPaymentInfos, paymentInfoList);
+	}
+
+	private static Document createDocument(final GroupHeaderInfo groupHeaderInfo, final List<CollectorPaymentInfoPain> collectorPaymentInfos,
+		final List<PaymentInstructionInformation4> paymentInfoList) throws PainParserException
+	{
+		// Number of total transactions in all paymentInfos, maintained while
+		// adding the transactions
+		final int numTxs;
+		try
+		{
+			numTxs = CollectorPaymentInfoPain.getNumberOfTransactions(collectorPaymentInfos);
+		}
+		catch (final ArithmeticException e)
+		{
 			throw new PainParserException(ParserExceptionType.GENERAL, "invalid number of transactions!");
+		}
 
 		// There are many other fields for initiating party identification, but
 		// only name is recommended.
@@ -77,7 +117,7 @@ public class PainDocument00800102
 		final GroupHeader39 grpHdr = new GroupHeader39();
 		grpHdr.setMsgId(groupHeaderInfo.getMsgId());
 		grpHdr.setNbOfTxs(String.valueOf(numTxs));
-		grpHdr.setCreDtTm(groupHeaderInfo.getCreationDateTime());
+		grpHdr.setCreDtTm(groupHeaderInfo.getCreationOffsetDateTime());
 		grpHdr.setInitgPty(partyIdentification);
 
 		final CustomerDirectDebitInitiationV02 ddIntiation = new CustomerDirectDebitInitiationV02();
@@ -101,13 +141,30 @@ public class PainDocument00800102
 	 */
 	private static PaymentInstructionInformation4 createPayInstrInf(final CollectorPaymentInfoPain collectorPaymentInfo) throws PainParserException
 	{
-		CollectorPaymentInfoPain.validate(collectorPaymentInfo);
-
-		final CreditorInfo creditorInfo = collectorPaymentInfo.getCreditorInfo();
+		final PaymentInstructionInformation4 paymentInfo = PainDocument00800102.createPayInstrInfHeader(collectorPaymentInfo);
 
 		// -- Transactions
 		final List<DirectDebitTransactionInformation9> transactions = collectorPaymentInfo.getTransactions().stream()
 			.map(t -> PainDocument00800102.createTransaction(t)).collect(Collectors.toList());
+		paymentInfo.getDrctDbtTxInves().addAll(transactions);
+
+		return paymentInfo;
+	}
+
+	/**
+	 * validates the given payment info and creates its payment entity without
+	 * transactions
+	 *
+	 * @param collectorPaymentInfo
+	 * @return
+	 *
+	 * @throws PainParserException
+	 */
+	private static PaymentInstructionInformation4 createPayInstrInfHeader(final CollectorPaymentInfoPain collectorPaymentInfo) throws PainParserException
+	{
+		CollectorPaymentInfoPain.validate(collectorPaymentInfo);
+
+		final CreditorInfo creditorInfo = collectorPaymentInfo.getCreditorInfo();
 
 		// -- Creditor
 		final PartyIdentification32 creditor = new PartyIdentification32();
@@ -130,14 +187,12 @@ public class PainDocument00800102
 		final PaymentInstructionInformation4 paymentInfo = new PaymentInstructionInformation4();
 		paymentInfo.setPmtInfId(collectorPaymentInfo.getPaymentInfoId());
 		paymentInfo.setPmtMtd(PaymentMethod2Code.DD);
-		paymentInfo.setNbOfTxs(String.valueOf(transactions.size()));
+		paymentInfo.setNbOfTxs(String.valueOf(collectorPaymentInfo.getNumberOfTransactions()));
 		paymentInfo.setCtrlSum(collectorPaymentInfo.getTotalAmount());
 		paymentInfo.setPmtTpInf(paymentTypeInfo);
 		// collection date
-		paymentInfo.setReqdColltnDt(collectorPaymentInfo.getCollectionDate());
+		paymentInfo.setReqdColltnDt(collectorPaymentInfo.getCollectionLocalDate());
 		paymentInfo.setCdtr(creditor);
-		// transactions
-		paymentInfo.getDrctDbtTxInves().addAll(transactions);
 
 		// Constant charge bearer: SLEV
 		paymentInfo.setChrgBr(ChargeBearerType1Code.SLEV);
@@ -230,7 +285,7 @@ public class PainDocument00800102
 		mandateInfo.setMndtId(painTransaction.getMandateId());
 
 		// mandate date of signature
-		mandateInfo.setDtOfSgntr(ParserUtils.dateToXmlGregorianNoOffset(painTransaction.getDtOfSgntr()));
+		mandateInfo.setDtOfSgntr(painTransaction.getDtOfSgntrLocalDate());
 		mandateInfo.setAmdmntInd(false);
 		ddtxValue.setMndtRltdInf(mandateInfo);
 		transaction.setDrctDbtTx(ddtxValue);
@@ -248,4 +303,49 @@ public class PainDocument00800102
 		return transaction;
 	}
 
+	/*
+	 * shallow copies for fragment marshalling
+	 */
+
+	/**
+	 * @return new document sharing the group header of the given one, with the
+	 *         given payment instructions
+	 */
+	static Document withPaymentInfos(final Document document, final List<PaymentInstructionInformation4> paymentInfos)
+	{
+		final CustomerDirectDebitInitiationV02 initiation = new CustomerDirectDebitInitiationV02();
+		initiation.setGrpHdr(document.getCstmrDrctDbtInitn().getGrpHdr());
+		initiation.getPmtInves().addAll(paymentInfos);
+
+		final Document copy = new Document();
+		copy.setCstmrDrctDbtInitn(initiation);
+		return copy;
+	}
+
+	/**
+	 * @return new payment instruction sharing the header of the given one, with
+	 *         the given transactions
+	 */
+	static PaymentInstructionInformation4 withTransactions(final PaymentInstructionInformation4 paymentInfo, final List<DirectDebitTransactionInformation9> transactions)
+	{
+		final PaymentInstructionInformation4 copy = new PaymentInstructionInformation4();
+		copy.setPmtInfId(paymentInfo.getPmtInfId());
+		copy.setPmtMtd(paymentInfo.getPmtMtd());
+		copy.setBtchBookg(paymentInfo.isBtchBookg());
+		copy.setNbOfTxs(paymentInfo.getNbOfTxs());
+		copy.setCtrlSum(paymentInfo.getCtrlSum());
+		copy.setPmtTpInf(paymentInfo.getPmtTpInf());
+		copy.setReqdColltnDt(paymentInfo.getReqdColltnDt());
+		copy.setCdtr(paymentInfo.getCdtr());
+		copy.setCdtrAcct(paymentInfo.getCdtrAcct());
+		copy.setCdtrAgt(paymentInfo.getCdtrAgt());
+		copy.setCdtrAgtAcct(paymentInfo.getCdtrAgtAcct());
+		copy.setUltmtCdtr(paymentInfo.getUltmtCdtr());
+		copy.setChrgBr(paymentInfo.getChrgBr());
+		copy.setChrgsAcct(paymentInfo.getChrgsAcct());
+		copy.setChrgsAcctAgt(paymentInfo.getChrgsAcctAgt());
+		copy.setCdtrSchmeId(paymentInfo.getCdtrSchmeId());
+		copy.getDrctDbtTxInves().addAll(transactions);
+		return copy;
+	}
 }
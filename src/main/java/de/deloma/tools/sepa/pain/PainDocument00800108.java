@@ -1,12 +1,13 @@
 package de.deloma.tools.sepa.pain;
 
-import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 import de.deloma.tools.sepa.exception.PainParserException;
 import de.deloma.tools.sepa.exception.PainParserException.ParserExceptionType;
+import de.deloma.tools.sepa.exception.PaymentInfoValidationException;
 import de.deloma.tools.sepa.model.pain.pain0800108.AccountIdentification4Choice;
 import de.deloma.tools.sepa.model.pain.pain0800108.ActiveOrHistoricCurrencyAndAmount;
 import de.deloma.tools.sepa.model.pain.pain0800108.BranchAndFinancialInstitutionIdentification6;
@@ -36,7 +37,6 @@ import de.deloma.tools.sepa.pain.wrapper.CollectorPaymentInfoPain;
 import de.deloma.tools.sepa.pain.wrapper.CreditorInfo;
 import de.deloma.tools.sepa.pain.wrapper.GroupHeaderInfo;
 import de.deloma.tools.sepa.pain.wrapper.PainTransaction;
-import de.deloma.tools.sepa.util.ParserUtils;
 
 /**
  * pain.008.001.08 document creator
@@ -65,11 +65,49 @@ public class PainDocument00800108
 		for (final CollectorPaymentInfoPain collectorPaymentInfo : collectorPaymentInfos)
 			paymentInfoList.add(PainDocument00800108.createPayInstrInf(collectorPaymentInfo));
 
-		// Number of total transactions in all paymentInfos
-		final int numTxs = paymentInfoList.stream()
-			.collect(Collectors.summingInt(p -> Integer.parseInt(p.getNbOfTxs())));
-		if (numTxs < 0)
+		return PainDocument00800108.createDocument(groupHeaderInfo, collectorPaymentInfos, paymentInfoList);
+	}
+
+	/**
+	 * Creates the document like {@link #createDocument(GroupHeaderInfo, List)}
+	 * but builds the payment instructions and their transactions concurrently
+	 * on the given executor. The order of the payment infos is kept.
+	 *
+	 * @param groupHeaderInfo
+	 * @param collectorPaymentInfos
+	 * @param executor
+	 *
+	 * @return
+	 *
+	 * @throws PaymentInfoValidationException
+	 *             containing the failure of each invalid payment info
+	 * @throws PainParserException
+	 */
+	public static Document createDocument(final GroupHeaderInfo groupHeaderInfo, final List<CollectorPaymentInfoPain> collectorPaymentInfos,
+		final Executor executor) throws PainParserException
+	{
+		GroupHeaderInfo.validate(groupHeaderInfo);
+
+		final List<PaymentInstruction29> paymentInfoList = ParallelDocumentBuilder.build(collectorPaymentInfos, executor,
+			PainDocument00800108::createPayInstrInfHeader, PainDocument00800108::createTransaction, (p, t) -> p.getDrctDbtTxInves().addAll(t));
+
+		return PainDocument00800108.createDocument(groupHeaderInfo, collectorPaymentInfos, paymentInfoList);
+	}
+
+	private static Document createDocument(final GroupHeaderInfo groupHeaderInfo, final List<CollectorPaymentInfoPain> collectorPaymentInfos,
+		final List<PaymentInstruction29> paymentInfoList) throws PainParserException
+	{
+		// Number of total transactions in all paymentInfos, maintained while
+		// adding the transactions
+		final int numTxs;
+		try
+		{
+			numTxs = CollectorPaymentInfoPain.getNumberOfTransactions(collectorPaymentInfos);
+		}
+		catch (final ArithmeticException e)
+		{
 			throw new PainParserException(ParserExceptionType.GENERAL, "invalid number of transactions!");
+		}
 
 		// There are many other fields for initiating party identification, but
 		// only name is recommended.
@@ -79,12 +117,10 @@ public class PainDocument00800108
 		final GroupHeader83 grpHdr = new GroupHeader83();
 		grpHdr.setMsgId(groupHeaderInfo.getMsgId());
 		grpHdr.setNbOfTxs(String.valueOf(numTxs));
-		grpHdr.setCreDtTm(groupHeaderInfo.getCreationDateTime());
+		grpHdr.setCreDtTm(groupHeaderInfo.getCreationOffsetDateTime());
 		grpHdr.setInitgPty(partyIdentification);
 
-		final BigDecimal totalAmount = collectorPaymentInfos.stream().map(pi -> pi.getTotalAmount())
-			.reduce(BigDecimal.ZERO, BigDecimal::add);
-		grpHdr.setCtrlSum(totalAmount);
+		grpHdr.setCtrlSum(CollectorPaymentInfoPain.getTotalAmount(collectorPaymentInfos));
 
 		final CustomerDirectDebitInitiationV08 ddIntiation = new CustomerDirectDebitInitiationV08();
 		ddIntiation.setGrpHdr(grpHdr);
@@ -105,16 +141,32 @@ public class PainDocument00800108
 	 *
 	 * @throws PainParserException
 	 */
-	private static PaymentInstruction29 createPayInstrInf(final CollectorPaymentInfoPain collectorPaymentInfo)
-		throws PainParserException
+	private static PaymentInstruction29 createPayInstrInf(final CollectorPaymentInfoPain collectorPaymentInfo) throws PainParserException
 	{
-		CollectorPaymentInfoPain.validate(collectorPaymentInfo);
-
-		final CreditorInfo creditorInfo = collectorPaymentInfo.getCreditorInfo();
+		final PaymentInstruction29 paymentInfo = PainDocument00800108.createPayInstrInfHeader(collectorPaymentInfo);
 
 		// -- Transactions
 		final List<DirectDebitTransactionInformation23> transactions = collectorPaymentInfo.getTransactions().stream()
 			.map(t -> PainDocument00800108.createTransaction(t)).collect(Collectors.toList());
+		paymentInfo.getDrctDbtTxInves().addAll(transactions);
+
+		return paymentInfo;
+	}
+
+	/**
+	 * validates the given payment info and creates its payment entity without
+	 * transactions
+	 *
+	 * @param collectorPaymentInfo
+	 * @return
+	 *
+	 * @throws PainParserException
+	 */
+	private static PaymentInstruction29 createPayInstrInfHeader(final CollectorPaymentInfoPain collectorPaymentInfo) throws PainParserException
+	{
+		CollectorPaymentInfoPain.validate(collectorPaymentInfo);
+
+		final CreditorInfo creditorInfo = collectorPaymentInfo.getCreditorInfo();
 
 		// -- Creditor
 		final PartyIdentification135 creditor = new PartyIdentification135();
@@ -137,14 +189,12 @@ public class PainDocument00800108
 		final PaymentInstruction29 paymentInfo = new PaymentInstruction29();
 		paymentInfo.setPmtInfId(collectorPaymentInfo.getPaymentInfoId());
 		paymentInfo.setPmtMtd(PaymentMethod2Code.DD);
-		paymentInfo.setNbOfTxs(String.valueOf(transactions.size()));
+		paymentInfo.setNbOfTxs(String.valueOf(collectorPaymentInfo.getNumberOfTransactions()));
 		paymentInfo.setCtrlSum(collectorPaymentInfo.getTotalAmount());
 		paymentInfo.setPmtTpInf(paymentTypeInfo);
 		// collection date
-		paymentInfo.setReqdColltnDt(collectorPaymentInfo.getCollectionDate());
+		paymentInfo.setReqdColltnDt(collectorPaymentInfo.getCollectionLocalDate());
 		paymentInfo.setCdtr(creditor);
-		// transactions
-		paymentInfo.getDrctDbtTxInves().addAll(transactions);
 
 		// Constant charge bearer: SLEV
 		paymentInfo.setChrgBr(ChargeBearerType1Code.SLEV);
@@ -237,7 +287,7 @@ public class PainDocument00800108
 		mandateInfo.setMndtId(painTransaction.getMandateId());
 
 		// mandate date of signature
-		mandateInfo.setDtOfSgntr(ParserUtils.dateToXmlGregorianNoOffset(painTransaction.getDtOfSgntr()));
+		mandateInfo.setDtOfSgntr(painTransaction.getDtOfSgntrLocalDate());
 		mandateInfo.setAmdmntInd(false);
 		ddtxValue.setMndtRltdInf(mandateInfo);
 		transaction.setDrctDbtTx(ddtxValue);
@@ -255,4 +305,50 @@ public class PainDocument00800108
 		return transaction;
 	}
 
+	/*
+	 * shallow copies for fragment marshalling
+	 */
+
+	/**
+	 * @return new document sharing the group header of the given one, with the
+	 *         given payment instructions
+	 */
+	static Document withPaymentInfos(final Document document, final List<PaymentInstruction29> paymentInfos)
+	{
+		final CustomerDirectDebitInitiationV08 initiation = new CustomerDirectDebitInitiationV08();
+		initiation.setGrpHdr(document.getCstmrDrctDbtInitn().getGrpHdr());
+		initiation.getPmtInves().addAll(paymentInfos);
+		initiation.getSplmtryDatas().addAll(document.getCstmrDrctDbtInitn().getSplmtryDatas());
+
+		final Document copy = new Document();
+		copy.setCstmrDrctDbtInitn(initiation);
+		return copy;
+	}
+
+	/**
+	 * @return new payment instruction sharing the header of the given one, with
+	 *         the given transactions
+	 */
+	static PaymentInstruction29 withTransactions(final PaymentInstruction29 paymentInfo, final List<DirectDebitTransactionInformation23> transactions)
+	{
+		final PaymentInstruction29 copy = new PaymentInstruction29();
+		copy.setPmtInfId(paymentInfo.getPmtInfId());
+		copy.setPmtMtd(paymentInfo.getPmtMtd());
+		copy.setBtchBookg(paymentInfo.isBtchBookg());
+		copy.setNbOfTxs(paymentInfo.getNbOfTxs());
+		copy.setCtrlSum(paymentInfo.getCtrlSum());
+		copy.setPmtTpInf(paymentInfo.getPmtTpInf());
+		copy.setReqdColltnDt(paymentInfo.getReqdColltnDt());
+		copy.setCdtr(paymentInfo.getCdtr());
+		copy.setCdtrAcct(paymentInfo.getCdtrAcct());
+		copy.setCdtrAgt(paymentInfo.getCdtrAgt());
+		copy.setCdtrAgtAcct(paymentInfo.getCdtrAgtAcct());
+		copy.setUltmtCdtr(paymentInfo.getUltmtCdtr());
+		copy.setChrgBr(paymentInfo.getChrgBr());
+		copy.setChrgsAcct(paymentInfo.getChrgsAcct());
+		copy.setChrgsAcctAgt(paymentInfo.getChrgsAcctAgt());
+		copy.setCdtrSchmeId(paymentInfo.getCdtrSchmeId());
+		copy.getDrctDbtTxInves().addAll(transactions);
+		return copy;
+	}
 }
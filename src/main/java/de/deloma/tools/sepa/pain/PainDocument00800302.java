@@ -2,10 +2,12 @@ package de.deloma.tools.sepa.pain;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 import de.deloma.tools.sepa.exception.PainParserException;
 import de.deloma.tools.sepa.exception.PainParserException.ParserExceptionType;
+import de.deloma.tools.sepa.exception.PaymentInfoValidationException;
 import de.deloma.tools.sepa.model.pain.pain0800302.AccountIdentificationSEPA;
 import de.deloma.tools.sepa.model.pain.pain0800302.ActiveOrHistoricCurrencyAndAmountSEPA;
 import de.deloma.tools.sepa.model.pain.pain0800302.ActiveOrHistoricCurrencyCodeEUR;
@@ -41,7 +43,6 @@ import de.deloma.tools.sepa.pain.wrapper.CollectorPaymentInfoPain;
 import de.deloma.tools.sepa.pain.wrapper.CreditorInfo;
 import de.deloma.tools.sepa.pain.wrapper.GroupHeaderInfo;
 import de.deloma.tools.sepa.pain.wrapper.PainTransaction;
-import de.deloma.tools.sepa.util.ParserUtils;
 
 /**
  * pain.008.003.02 document creator
@@ -76,10 +77,49 @@ public class PainDocument00800302
 		for (final CollectorPaymentInfoPain collectorPaymentInfo : collectorPaymentInfos)
 			paymentInfoList.add(PainDocument00800302.createPayInstrInf(collectorPaymentInfo));
 
-		// Number of total transactions in all paymentInfos
-		final int numTxs = paymentInfoList.stream().collect(Collectors.summingInt(p -> Integer.parseInt(p.getNbOfTxs())));
-		if (numTxs < 0)
+		return PainDocument00800302.createDocument(groupHeaderInfo, collectorPaymentInfos, paymentInfoList);
+	}
+
+	/**
+	 * Creates the document like {@link #createDocument(GroupHeaderInfo, List)}
+	 * but builds the payment instructions and their transactions concurrently
+	 * on the given executor. The order of the payment infos is kept.
+	 *
+	 * @param groupHeaderInfo
+	 * @param collectorPaymentInfos
+	 * @param executor
+	 *
+	 * @return
+	 *
+	 * @throws PaymentInfoValidationException
+	 *             containing the failure of each invalid payment info
+	 * @throws PainParserException
+	 */
+	public static Document createDocument(final GroupHeaderInfo groupHeaderInfo, final List<CollectorPaymentInfoPain> collectorPaymentInfos,
+		final Executor executor) throws PainParserException
+	{
+		GroupHeaderInfo.validate(groupHeaderInfo);
+
+		final List<PaymentInstructionInformationSDD> paymentInfoList = ParallelDocumentBuilder.build(collectorPaymentInfos, executor,
+			PainDocument00800302::createPayInstrInfHeader, PainDocument00800302::createTransaction, (p, t) -> p.getDrctDbtTxInves().addAll(t));
+
+		return PainDocument00800302.createDocument(groupHeaderInfo, collectorPaymentInfos, paymentInfoList);
+	}
+
+	private static Document createDocument(final GroupHeaderInfo groupHeaderInfo, final List<CollectorPaymentInfoPain> collectorPaymentInfos,
+		final List<PaymentInstructionInformationSDD> paymentInfoList) throws PainParserException
+	{
+		// Number of total transactions in all paymentInfos, maintained while
+		// adding the transactions
+		final int numTxs;
+		try
+		{
+			numTxs = CollectorPaymentInfoPain.getNumberOfTransactions(collectorPaymentInfos);
+		}
+		catch (final ArithmeticException e)
+		{
 			throw new PainParserException(ParserExceptionType.GENERAL, "invalid number of transactions!");
+		}
 
 		// There are many other fields for initiating party identification, but
 		// only name is recommended.
@@ -90,7 +130,7 @@ public class PainDocument00800302
 		final GroupHeaderSDD grpHdr = new GroupHeaderSDD();
 		grpHdr.setMsgId(groupHeaderInfo.getMsgId());
 		grpHdr.setNbOfTxs(String.valueOf(numTxs));
-		grpHdr.setCreDtTm(groupHeaderInfo.getCreationDateTime());
+		grpHdr.setCreDtTm(groupHeaderInfo.getCreationOffsetDateTime());
 		grpHdr.setInitgPty(partyIdentification);
 
 		final CustomerDirectDebitInitiationV02 ddIntiation = new CustomerDirectDebitInitiationV02();
@@ -141,13 +181,30 @@ public class PainDocument00800302
 	 */
 	private static PaymentInstructionInformationSDD createPayInstrInf(final CollectorPaymentInfoPain collectorPaymentInfo) throws PainParserException
 	{
-		CollectorPaymentInfoPain.validate(collectorPaymentInfo);
-
-		final CreditorInfo creditorInfo = collectorPaymentInfo.getCreditorInfo();
+		final PaymentInstructionInformationSDD paymentInfo = PainDocument00800302.createPayInstrInfHeader(collectorPaymentInfo);
 
 		// Tansactions
 		final List<DirectDebitTransactionInformationSDD> transactions = collectorPaymentInfo.getTransactions().stream()
 			.map(t -> PainDocument00800302.createTransaction(t)).collect(Collectors.toList());
+		paymentInfo.getDrctDbtTxInves().addAll(transactions);
+
+		return paymentInfo;
+	}
+
+	/**
+	 * validates the given payment info and creates its payment entity without
+	 * transactions
+	 *
+	 * @param collectorPaymentInfo
+	 * @return
+	 *
+	 * @throws PainParserException
+	 */
+	private static PaymentInstructionInformationSDD createPayInstrInfHeader(final CollectorPaymentInfoPain collectorPaymentInfo) throws PainParserException
+	{
+		CollectorPaymentInfoPain.validate(collectorPaymentInfo);
+
+		final CreditorInfo creditorInfo = collectorPaymentInfo.getCreditorInfo();
 
 		// Creditor info
 		final PartyIdentificationSEPA5 creditor = new PartyIdentificationSEPA5();
@@ -176,7 +233,7 @@ public class PainDocument00800302
 		paymentInfo.setPmtMtd(PaymentMethod2Code.DD);
 
 		// Numer of transactions
-		paymentInfo.setNbOfTxs(String.valueOf(transactions.size()));
+		paymentInfo.setNbOfTxs(String.valueOf(collectorPaymentInfo.getNumberOfTransactions()));
 
 		// Total Amount
 		paymentInfo.setCtrlSum(collectorPaymentInfo.getTotalAmount());
@@ -187,13 +244,10 @@ public class PainDocument00800302
 		 * final Date colDate = new Date(2022 - 1900, Calendar.SEPTEMBER, 5);
 		 */
 		// collection date
-		paymentInfo.setReqdColltnDt(collectorPaymentInfo.getCollectionDate());
+		paymentInfo.setReqdColltnDt(collectorPaymentInfo.getCollectionLocalDate());
 
 		paymentInfo.setCdtr(creditor);
 
-		// transactions
-		paymentInfo.getDrctDbtTxInves().addAll(transactions);
-
 		// Constant charge bearer: SLEV
 		paymentInfo.setChrgBr(ChargeBearerTypeSEPACode.SLEV);
 
@@ -287,7 +341,7 @@ public class PainDocument00800302
 		mandateInfo.setMndtId(painTransaction.getMandateId());
 
 		// date of signature
-		mandateInfo.setDtOfSgntr(ParserUtils.dateToXmlGregorianNoOffset(painTransaction.getDtOfSgntr()));
+		mandateInfo.setDtOfSgntr(painTransaction.getDtOfSgntrLocalDate());
 
 		mandateInfo.setAmdmntInd(false);
 		ddtxValue.setMndtRltdInf(mandateInfo);
@@ -305,4 +359,47 @@ public class PainDocument00800302
 
 		return transaction;
 	}
+
+	/*
+	 * shallow copies for fragment marshalling
+	 */
+
+	/**
+	 * @return new document sharing the group header of the given one, with the
+	 *         given payment instructions
+	 */
+	static Document withPaymentInfos(final Document document, final List<PaymentInstructionInformationSDD> paymentInfos)
+	{
+		final CustomerDirectDebitInitiationV02 initiation = new CustomerDirectDebitInitiationV02();
+		initiation.setGrpHdr(document.getCstmrDrctDbtInitn().getGrpHdr());
+		initiation.getPmtInves().addAll(paymentInfos);
+
+		final Document copy = new Document();
+		copy.setCstmrDrctDbtInitn(initiation);
+		return copy;
+	}
+
+	/**
+	 * @return new payment instruction sharing the header of the given one, with
+	 *         the given transactions
+	 */
+	static PaymentInstructionInformationSDD withTransactions(final PaymentInstructionInformationSDD paymentInfo, final List<DirectDebitTransactionInformationSDD> transactions)
+	{
+		final PaymentInstructionInformationSDD copy = new PaymentInstructionInformationSDD();
+		copy.setPmtInfId(paymentInfo.getPmtInfId());
+		copy.setPmtMtd(paymentInfo.getPmtMtd());
+		copy.setBtchBookg(paymentInfo.isBtchBookg());
+		copy.setNbOfTxs(paymentInfo.getNbOfTxs());
+		copy.setCtrlSum(paymentInfo.getCtrlSum());
+		copy.setPmtTpInf(paymentInfo.getPmtTpInf());
+		copy.setReqdColltnDt(paymentInfo.getReqdColltnDt());
+		copy.setCdtr(paymentInfo.getCdtr());
+		copy.setCdtrAcct(paymentInfo.getCdtrAcct());
+		copy.setCdtrAgt(paymentInfo.getCdtrAgt());
+		copy.setUltmtCdtr(paymentInfo.getUltmtCdtr());
+		copy.setChrgBr(paymentInfo.getChrgBr());
+		copy.setCdtrSchmeId(paymentInfo.getCdtrSchmeId());
+		copy.getDrctDbtTxInves().addAll(transactions);
+		return copy;
+	}
 }
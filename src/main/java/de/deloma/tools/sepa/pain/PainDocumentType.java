@@ -8,13 +8,13 @@ public enum PainDocumentType
 {
 	PAIN00800302("pain.008.003.02", "urn:iso:std:iso:20022:tech:xsd:pain.008.003.02 pain.008.003.02.xsd",
 
-		de.deloma.tools.sepa.model.pain.pain0800302.ObjectFactory.class),
+		de.deloma.tools.sepa.model.pain.pain0800302.ObjectFactory.class, de.deloma.tools.sepa.model.pain.pain0800302.Document.class),
 
 	PAIN00800102("pain.008.001.02", "urn:iso:std:iso:20022:tech:xsd:pain.008.001.02 pain.008.001.02.xsd",
-		de.deloma.tools.sepa.model.pain.pain0800102.ObjectFactory.class),
+		de.deloma.tools.sepa.model.pain.pain0800102.ObjectFactory.class, de.deloma.tools.sepa.model.pain.pain0800102.Document.class),
 
 	PAIN00800108("pain.008.001.08", "urn:iso:std:iso:20022:tech:xsd:pain.008.001.08 pain.008.001.08.xsd",
-		de.deloma.tools.sepa.model.pain.pain0800108.ObjectFactory.class);
+		de.deloma.tools.sepa.model.pain.pain0800108.ObjectFactory.class, de.deloma.tools.sepa.model.pain.pain0800108.Document.class);
 
 	/**
 	 * name of the type
@@ -31,11 +31,17 @@ public enum PainDocumentType
 	 */
 	private Class<?> factoryClass;
 
-	private PainDocumentType(final String name, final String schemaLocation, final Class<?> factoryClass)
+	/**
+	 * XML root document class
+	 */
+	private final Class<?> documentClass;
+
+	private PainDocumentType(final String name, final String schemaLocation, final Class<?> factoryClass, final Class<?> documentClass)
 	{
 		this.name = name;
 		this.schemaLocation = schemaLocation;
 		this.factoryClass = factoryClass;
+		this.documentClass = documentClass;
 	}
 
 	public String getName()
@@ -48,9 +54,27 @@ public enum PainDocumentType
 		return this.factoryClass;
 	}
 
+	public Class<?> getDocumentClass()
+	{
+		return this.documentClass;
+	}
+
 	public String getSchemaLocation()
 	{
 		return this.schemaLocation;
 	}
 
+	/**
+	 * @param name
+	 *            f.e. "pain.008.001.08"
+	 * @return type of the given name or null if unknown
+	 */
+	public static PainDocumentType fromName(final String name)
+	{
+		for (final PainDocumentType type : PainDocumentType.values())
+			if (type.name.equals(name))
+				return type;
+		return null;
+	}
+
 }
\ No newline at end of file
@@ -0,0 +1,283 @@
+package de.deloma.tools.sepa.pain;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import de.deloma.tools.sepa.exception.PainParserException;
+import de.deloma.tools.sepa.exception.PainParserException.ParserExceptionType;
+import de.deloma.tools.sepa.pain.wrapper.CollectorPaymentInfoPain;
+import de.deloma.tools.sepa.pain.wrapper.GroupHeaderInfo;
+import de.deloma.tools.sepa.pain.wrapper.PainTransaction;
+
+/**
+ * Splits one logical batch of payment infos into several pain.008 files
+ * bounded by the number of transactions, the file size and the number of
+ * payment infos per file.
+ *
+ * The order of payment infos and transactions is kept. A payment info
+ * exceeding a limit is continued in the next file, its parts get the
+ * {@code PmtInfId} suffix "-1", "-2"... If the batch is split, the files get
+ * the {@code MsgId} of the group header with the suffix "-1", "-2"... The
+ * files are written in parallel by the {@link PainStreamWriter}.
+ *
+ * <pre>
+ * PainSplitManifest manifest = new PainFileSplitter(100_000, 10L * 1024 * 1024, PainFileSplitter.UNLIMITED)
+ * 	.write(type, headerInfo, paymentInfos, directory, executor);
+ * </pre>
+ *
+ * @author Marco Janc (c) 2025
+ */
+public class PainFileSplitter
+{
+	/**
+	 * no limit
+	 */
+	public static final int UNLIMITED = Integer.MAX_VALUE;
+
+	private final int maxTransactions;
+
+	private final long maxBytes;
+
+	private final int maxPaymentInfos;
+
+	/**
+	 * @param maxTransactions
+	 *            maximum number of transactions per file or {@link #UNLIMITED}
+	 * @param maxBytes
+	 *            maximum size per file in bytes or {@link Long#MAX_VALUE}
+	 * @param maxPaymentInfos
+	 *            maximum number of {@code PmtInf} per file or
+	 *            {@link #UNLIMITED}
+	 */
+	public PainFileSplitter(final int maxTransactions, final long maxBytes, final int maxPaymentInfos)
+	{
+		if (maxTransactions < 1 || maxBytes < 1 || maxPaymentInfos < 1)
+			throw new IllegalArgumentException("limits must be positive");
+		this.maxTransactions = maxTransactions;
+		this.maxBytes = maxBytes;
+		this.maxPaymentInfos = maxPaymentInfos;
+	}
+
+	/**
+	 * Splits the payment infos and writes the files named by their
+	 * {@code MsgId} f.e. "MSG-1-2.xml" to the given directory in parallel, see
+	 * {@link #getFileName(String)}. Existing files are never overwritten, f.e.
+	 * of another message whose {@code MsgId} maps to the same file name. On
+	 * failure the files written by this call are deleted.
+	 *
+	 * @param type
+	 * @param groupHeaderInfo
+	 *            group header, its msgId must leave room for the suffix
+	 * @param paymentInfos
+	 * @param directory
+	 * @param executor
+	 * @return written files
+	 * @throws IOException
+	 *             {@link FileAlreadyExistsException} if a file exists
+	 * @throws PainParserException
+	 *             if a payment info is invalid or a single transaction
+	 *             exceeds the size limit
+	 */
+	public PainSplitManifest write(final PainDocumentType type, final GroupHeaderInfo groupHeaderInfo, final List<CollectorPaymentInfoPain> paymentInfos,
+		final Path directory, final Executor executor) throws IOException, PainParserException
+	{
+		Objects.requireNonNull(type, "type must not be null");
+		Objects.requireNonNull(directory, "directory must not be null");
+		GroupHeaderInfo.validate(groupHeaderInfo);
+		for (final CollectorPaymentInfoPain paymentInfo : paymentInfos)
+			CollectorPaymentInfoPain.validate(paymentInfo);
+
+		final List<List<CollectorPaymentInfoPain>> files = this.split(type, groupHeaderInfo, paymentInfos);
+
+		// headers first, so no file is written for an invalid msgId
+		final List<GroupHeaderInfo> headers = new ArrayList<>(files.size());
+		final List<Path> paths = new ArrayList<>(files.size());
+		for (int i = 0; i < files.size(); i++)
+		{
+			final String msgId = files.size() == 1 ? groupHeaderInfo.getMsgId() : groupHeaderInfo.getMsgId() + "-" + (i + 1);
+			final GroupHeaderInfo header = new GroupHeaderInfo(msgId, groupHeaderInfo.getCreationOffsetDateTime(), groupHeaderInfo.getInitiator());
+			GroupHeaderInfo.validate(header);
+			headers.add(header);
+			paths.add(directory.resolve(PainFileSplitter.getFileName(msgId)));
+		}
+
+		final List<CompletableFuture<PainSplitManifest.Part>> futures = new ArrayList<>(files.size());
+		for (int i = 0; i < files.size(); i++)
+		{
+			final GroupHeaderInfo header = headers.get(i);
+			final List<CollectorPaymentInfoPain> filePaymentInfos = files.get(i);
+			final Path file = paths.get(i);
+			futures.add(CompletableFuture.supplyAsync(() -> {
+				try
+				{
+					return PainFileSplitter.write(type, header, filePaymentInfos, file);
+				}
+				catch (IOException | PainParserException e)
+				{
+					throw new CompletionException(e);
+				}
+			}, executor));
+		}
+
+		final List<PainSplitManifest.Part> parts = new ArrayList<>(files.size());
+		Throwable failure = null;
+		for (final CompletableFuture<PainSplitManifest.Part> future : futures)
+			try
+			{
+				parts.add(future.join());
+			}
+			catch (final CompletionException e)
+			{
+				if (failure == null)
+					failure = e.getCause();
+			}
+
+		if (failure != null)
+		{
+			// failed parts deleted their own file
+			for (final PainSplitManifest.Part part : parts)
+				Files.deleteIfExists(part.getFile());
+			if (failure instanceof PainParserException)
+				throw (PainParserException) failure;
+			if (failure instanceof IOException)
+				throw (IOException) failure;
+			throw new IOException("unable to write " + type, failure);
+		}
+		return new PainSplitManifest(parts);
+	}
+
+	/**
+	 * The {@code MsgId} may contain characters like '/', ':' or '?' which are
+	 * not allowed in file names, all characters except ASCII letters, digits,
+	 * '.', '-' and '_' are replaced by '_'.
+	 *
+	 * @param msgId
+	 * @return file name of the message f.e. "2025_10_MSG-1.xml" for
+	 *         "2025/10/MSG-1"
+	 */
+	public static String getFileName(final String msgId)
+	{
+		final StringBuilder fileName = new StringBuilder(msgId.length() + 4);
+		for (int i = 0; i < msgId.length(); i++)
+		{
+			final char c = msgId.charAt(i);
+			final boolean allowed = c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '.' || c == '-' || c == '_';
+			fileName.append(allowed ? c : '_');
+		}
+		// no hidden or relative names like "." or ".."
+		if (fileName.charAt(0) == '.')
+			fileName.setCharAt(0, '_');
+		return fileName.append(".xml").toString();
+	}
+
+	/**
+	 * Splits the payment infos into the payment infos of each file
+	 *
+	 * @param type
+	 * @param groupHeaderInfo
+	 * @param paymentInfos
+	 * @return payment infos per file
+	 * @throws IOException
+	 * @throws PainParserException
+	 *             if a single transaction exceeds the size limit
+	 */
+	List<List<CollectorPaymentInfoPain>> split(final PainDocumentType type, final GroupHeaderInfo groupHeaderInfo,
+		final List<CollectorPaymentInfoPain> paymentInfos) throws IOException, PainParserException
+	{
+		// sizes are only measured if limited
+		final boolean measure = this.maxBytes != Long.MAX_VALUE;
+		final long documentSize = measure ? PainStreamWriter.getSize(type, groupHeaderInfo) : 0;
+
+		final List<List<CollectorPaymentInfoPain>> files = new ArrayList<>();
+		files.add(new ArrayList<>());
+		int filePaymentInfos = 0;
+		int fileTxs = 0;
+		long fileSize = documentSize;
+
+		for (final CollectorPaymentInfoPain paymentInfo : paymentInfos)
+		{
+			final List<PainTransaction> transactions = paymentInfo.getTransactions();
+			final int numTxs = transactions.size();
+			final long paymentInfoSize = measure ? PainStreamWriter.getSize(type, paymentInfo) : 0;
+
+			// transactions [from, to) per file index
+			final List<int[]> slices = new ArrayList<>(1);
+			int from = 0;
+			long transactionSize = measure ? PainStreamWriter.getSize(type, transactions.get(0)) : 0;
+			while (from < numTxs)
+			{
+				if (filePaymentInfos >= this.maxPaymentInfos || fileTxs >= this.maxTransactions
+					|| fileSize + paymentInfoSize + transactionSize > this.maxBytes)
+				{
+					if (filePaymentInfos == 0)
+						throw new PainParserException(ParserExceptionType.PAYMENT_INFO_ERROR,
+							"transaction " + transactions.get(from).getEndToEndId() + " exceeds the file size limit");
+					files.add(new ArrayList<>());
+					filePaymentInfos = 0;
+					fileTxs = 0;
+					fileSize = documentSize;
+					continue;
+				}
+
+				// as many transactions as fit into the file
+				filePaymentInfos++;
+				fileSize += paymentInfoSize;
+				final int start = from;
+				do
+				{
+					fileSize += transactionSize;
+					fileTxs++;
+					from++;
+					transactionSize = measure && from < numTxs ? PainStreamWriter.getSize(type, transactions.get(from)) : 0;
+				}
+				while (from < numTxs && fileTxs < this.maxTransactions && fileSize + transactionSize <= this.maxBytes);
+				slices.add(new int[] { start, from, files.size() - 1 });
+			}
+
+			if (slices.size() == 1)
+			{
+				files.get(files.size() - 1).add(paymentInfo);
+				continue;
+			}
+			for (int i = 0; i < slices.size(); i++)
+			{
+				final int[] slice = slices.get(i);
+				files.get(slice[2]).add(new CollectorPaymentInfoPain(paymentInfo.getCreditorInfo(), paymentInfo.getPaymentInfoId() + "-" + (i + 1),
+					paymentInfo.getSepaLocalInstrumentCode(), paymentInfo.getSequenceTypeCode(), paymentInfo.getCollectionLocalDate(),
+					transactions.subList(slice[0], slice[1])));
+			}
+		}
+		return files;
+	}
+
+	private static PainSplitManifest.Part write(final PainDocumentType type, final GroupHeaderInfo groupHeaderInfo,
+		final List<CollectorPaymentInfoPain> paymentInfos, final Path file) throws IOException, PainParserException
+	{
+		// fails if the file exists, so only files created here are deleted
+		final OutputStream out = Files.newOutputStream(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+		try (OutputStream os = new BufferedOutputStream(out))
+		{
+			PainStreamWriter.write(type, groupHeaderInfo, paymentInfos, os);
+		}
+		catch (IOException | PainParserException | RuntimeException e)
+		{
+			Files.deleteIfExists(file);
+			throw e;
+		}
+		final BigDecimal ctrlSum = CollectorPaymentInfoPain.getTotalAmount(paymentInfos);
+		return new PainSplitManifest.Part(file, groupHeaderInfo.getMsgId(), paymentInfos.size(),
+			CollectorPaymentInfoPain.getNumberOfTransactions(paymentInfos), ctrlSum, Files.size(file));
+	}
+}
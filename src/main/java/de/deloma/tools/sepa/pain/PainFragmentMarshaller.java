@@ -0,0 +1,319 @@
+package de.deloma.tools.sepa.pain;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Marshaller;
+
+import de.deloma.tools.sepa.util.JaxbPool;
+
+/**
+ * Marshals the payment instructions ({@code PmtInf}) of a pain document in
+ * parallel and joins them in order. Large payment instructions are split into
+ * chunks of transactions ({@code DrctDbtTxInf}) marshalled in parallel as well.
+ *
+ * Each part is marshalled as a small document sharing the group header (and
+ * payment instruction header) of the original document with the same
+ * marshaller settings, the part is then cut out of it. So indentation and
+ * namespace declarations are exactly as in the sequential output and the result
+ * is byte-identical to it. Only a window of parts is marshalled ahead of the
+ * writer, each part is written and dropped as soon as it is next in order.
+ *
+ * @author Marco Janc (c) 2025
+ */
+final class PainFragmentMarshaller
+{
+	/**
+	 * payment instructions with more transactions are marshalled in chunks of
+	 * this size
+	 */
+	static final int TRANSACTION_CHUNK_SIZE = 2048;
+
+	private static final String GROUP_HEADER_END = "</GrpHdr>";
+
+	private static final Layout<?, ?, ?> PAIN00800302 = new Layout<>(de.deloma.tools.sepa.model.pain.pain0800302.Document.class,
+		d -> d.getCstmrDrctDbtInitn().getPmtInves(), PainDocument00800302::withPaymentInfos, p -> p.getDrctDbtTxInves(),
+		PainDocument00800302::withTransactions);
+
+	private static final Layout<?, ?, ?> PAIN00800102 = new Layout<>(de.deloma.tools.sepa.model.pain.pain0800102.Document.class,
+		d -> d.getCstmrDrctDbtInitn().getPmtInves(), PainDocument00800102::withPaymentInfos, p -> p.getDrctDbtTxInves(),
+		PainDocument00800102::withTransactions);
+
+	private static final Layout<?, ?, ?> PAIN00800108 = new Layout<>(de.deloma.tools.sepa.model.pain.pain0800108.Document.class,
+		d -> d.getCstmrDrctDbtInitn().getPmtInves(), PainDocument00800108::withPaymentInfos, p -> p.getDrctDbtTxInves(),
+		PainDocument00800108::withTransactions);
+
+	private PainFragmentMarshaller()
+	{
+	}
+
+	/**
+	 * Marshals the given document of the given type to the writer
+	 *
+	 * @param type
+	 * @param document
+	 * @param writer
+	 *            flushed but not closed
+	 * @param executor
+	 * @param validate
+	 *            whether to validate the payment instructions against the
+	 *            schema while marshalling them
+	 * @throws IOException
+	 */
+	static void marshal(final PainDocumentType type, final Object document, final Writer writer, final Executor executor,
+		final boolean validate) throws IOException
+	{
+		// the skeleton and payment instructions without transactions are
+		// incomplete documents, so only the parts carrying the transactions are
+		// validated, each with the full group and payment instruction header
+		final JaxbPool<Marshaller> pool = PainParser.getMarshallerPool(type, false);
+		final JaxbPool<Marshaller> validatingPool = PainParser.getMarshallerPool(type, validate);
+		try
+		{
+			PainFragmentMarshaller.marshal(type, PainFragmentMarshaller.of(type), document, writer, executor, pool, validatingPool);
+		}
+		catch (final CompletionException e)
+		{
+			throw new IOException("unable to marshal " + type, e.getCause());
+		}
+		writer.flush();
+	}
+
+	private static <D, P, T> void marshal(final PainDocumentType type, final Layout<D, P, T> layout, final Object document,
+		final Writer writer, final Executor executor, final JaxbPool<Marshaller> pool, final JaxbPool<Marshaller> validatingPool)
+		throws IOException
+	{
+		final D doc = layout.documentClass.cast(document);
+		final List<P> paymentInfos = layout.paymentInfos.apply(doc);
+
+		// document without payment instructions: prologue up to the group
+		// header end, epilogue after it
+		final String skeleton = PainFragmentMarshaller.marshal(type, pool, layout.withPaymentInfos.apply(doc, Collections.emptyList()));
+		final int split = skeleton.indexOf(PainFragmentMarshaller.GROUP_HEADER_END);
+		if (split < 0)
+			throw new IOException("no group header in " + type);
+		final Parts parts = new Parts(skeleton, split + PainFragmentMarshaller.GROUP_HEADER_END.length());
+
+		// a task per payment instruction or transaction chunk, none waits for
+		// another
+		final List<Task<P>> tasks = new ArrayList<>(paymentInfos.size());
+		for (final P paymentInfo : paymentInfos)
+		{
+			final List<T> transactions = layout.transactions.apply(paymentInfo);
+			if (transactions.size() <= PainFragmentMarshaller.TRANSACTION_CHUNK_SIZE)
+			{
+				tasks.add(new Task<>(paymentInfo, validatingPool, Task.Kind.WHOLE));
+				continue;
+			}
+			tasks.add(new Task<>(layout.withTransactions.apply(paymentInfo, Collections.emptyList()), pool, Task.Kind.HEADER));
+			for (int from = 0; from < transactions.size(); from += PainFragmentMarshaller.TRANSACTION_CHUNK_SIZE)
+			{
+				final int to = Math.min(transactions.size(), from + PainFragmentMarshaller.TRANSACTION_CHUNK_SIZE);
+				tasks.add(new Task<>(layout.withTransactions.apply(paymentInfo, transactions.subList(from, to)), validatingPool,
+					to == transactions.size() ? Task.Kind.LAST_CHUNK : Task.Kind.CHUNK));
+			}
+		}
+
+		// join in order, at most window parts are marshalled or waiting to be
+		// written at the same time
+		final int window = PainFragmentMarshaller.getWindow(executor);
+		final Deque<CompletableFuture<String>> inFlight = new ArrayDeque<>(window);
+		int submitted = 0;
+		String header = null;
+		String closingTag = null;
+		writer.write(parts.prologue);
+		for (final Task<P> task : tasks)
+		{
+			for (; submitted < tasks.size() && inFlight.size() < window; submitted++)
+			{
+				final Task<P> next = tasks.get(submitted);
+				inFlight.add(PainFragmentMarshaller.marshalAsync(type, next.pool, layout, doc, next.paymentInfo, executor));
+			}
+
+			final String paymentInfo = parts.cut(inFlight.poll().join());
+			switch (task.kind)
+			{
+				case WHOLE:
+					writer.write(paymentInfo);
+					break;
+				case HEADER:
+					// payment instruction without transactions: header and
+					// closing tag
+					final int closing = paymentInfo.lastIndexOf('\n');
+					header = paymentInfo.substring(0, closing);
+					closingTag = paymentInfo.substring(closing);
+					writer.write(header);
+					break;
+				default:
+					if (!paymentInfo.startsWith(header) || !paymentInfo.endsWith(closingTag))
+						throw new IOException("unexpected transaction fragment layout in " + type);
+					writer.write(paymentInfo, header.length(), paymentInfo.length() - header.length() - closingTag.length());
+					if (task.kind == Task.Kind.LAST_CHUNK)
+						writer.write(closingTag);
+					break;
+			}
+		}
+		writer.write(parts.epilogue);
+	}
+
+	/**
+	 * @return number of parts in flight, twice the parallelism of the executor
+	 *         if known, otherwise of the available processors
+	 */
+	private static int getWindow(final Executor executor)
+	{
+		int parallelism = Runtime.getRuntime().availableProcessors();
+		if (executor instanceof ForkJoinPool)
+			parallelism = ((ForkJoinPool) executor).getParallelism();
+		else if (executor instanceof ThreadPoolExecutor && ((ThreadPoolExecutor) executor).getCorePoolSize() > 0)
+			parallelism = ((ThreadPoolExecutor) executor).getCorePoolSize();
+		return 2 * parallelism;
+	}
+
+	/**
+	 * @return the XML of a document containing only the given payment
+	 *         instruction
+	 */
+	private static <D, P, T> CompletableFuture<String> marshalAsync(final PainDocumentType type, final JaxbPool<Marshaller> pool,
+		final Layout<D, P, T> layout, final D document, final P paymentInfo, final Executor executor)
+	{
+		final Object single = layout.withPaymentInfos.apply(document, Collections.singletonList(paymentInfo));
+		return CompletableFuture.supplyAsync(() -> {
+			try
+			{
+				return PainFragmentMarshaller.marshal(type, pool, single);
+			}
+			catch (final IOException e)
+			{
+				throw new CompletionException(e);
+			}
+		}, executor);
+	}
+
+	private static String marshal(final PainDocumentType type, final JaxbPool<Marshaller> pool, final Object document) throws IOException
+	{
+		final StringWriter sw = new StringWriter();
+		try (JaxbPool<Marshaller>.Lease lease = pool.borrow())
+		{
+			lease.get().marshal(document, sw);
+		}
+		catch (final JAXBException e)
+		{
+			throw new IOException("unable to marshal " + type, e);
+		}
+		return sw.toString();
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <D, P, T> Layout<D, P, T> of(final PainDocumentType type)
+	{
+		switch (type)
+		{
+			case PAIN00800302:
+				return (Layout<D, P, T>) PainFragmentMarshaller.PAIN00800302;
+			case PAIN00800102:
+				return (Layout<D, P, T>) PainFragmentMarshaller.PAIN00800102;
+			case PAIN00800108:
+				return (Layout<D, P, T>) PainFragmentMarshaller.PAIN00800108;
+			default:
+				throw new UnsupportedOperationException("unknown type");
+		}
+	}
+
+	/**
+	 * prologue and epilogue of the document, cuts the payment instruction out
+	 * of a single payment instruction document
+	 */
+	private static final class Parts
+	{
+		final String prologue;
+
+		final String epilogue;
+
+		Parts(final String skeleton, final int split)
+		{
+			this.prologue = skeleton.substring(0, split);
+			this.epilogue = skeleton.substring(split);
+		}
+
+		String cut(final String single) throws IOException
+		{
+			if (!single.startsWith(this.prologue) || !single.endsWith(this.epilogue))
+				throw new IOException("unexpected payment instruction fragment layout");
+			return single.substring(this.prologue.length(), single.length() - this.epilogue.length());
+		}
+	}
+
+	/**
+	 * a payment instruction or transaction chunk to marshal
+	 */
+	private static final class Task<P>
+	{
+		enum Kind
+		{
+			/**
+			 * payment instruction with all its transactions
+			 */
+			WHOLE,
+			/**
+			 * payment instruction without transactions, followed by its chunks
+			 */
+			HEADER,
+			CHUNK,
+			LAST_CHUNK
+		}
+
+		final P paymentInfo;
+
+		final JaxbPool<Marshaller> pool;
+
+		final Kind kind;
+
+		Task(final P paymentInfo, final JaxbPool<Marshaller> pool, final Kind kind)
+		{
+			this.paymentInfo = paymentInfo;
+			this.pool = pool;
+			this.kind = kind;
+		}
+	}
+
+	/**
+	 * access to the payment instructions and transactions of a document type
+	 */
+	private static final class Layout<D, P, T>
+	{
+		final Class<D> documentClass;
+
+		final Function<D, List<P>> paymentInfos;
+
+		final BiFunction<D, List<P>, D> withPaymentInfos;
+
+		final Function<P, List<T>> transactions;
+
+		final BiFunction<P, List<T>, P> withTransactions;
+
+		Layout(final Class<D> documentClass, final Function<D, List<P>> paymentInfos, final BiFunction<D, List<P>, D> withPaymentInfos,
+				final Function<P, List<T>> transactions, final BiFunction<P, List<T>, P> withTransactions)
+		{
+			this.documentClass = documentClass;
+			this.paymentInfos = paymentInfos;
+			this.withPaymentInfos = withPaymentInfos;
+			this.transactions = transactions;
+			this.withTransactions = withTransactions;
+		}
+	}
+}
@@ -1,15 +1,35 @@
 package de.deloma.tools.sepa.pain;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Marshaller;
+import javax.xml.validation.Schema;
+
+import org.xml.sax.SAXException;
 
 import de.deloma.tools.sepa.exception.PainParserException;
-import de.deloma.tools.sepa.model.pain.pain0800302.Document;
+import de.deloma.tools.sepa.exception.PaymentInfoValidationException;
 import de.deloma.tools.sepa.pain.wrapper.CollectorPaymentInfoPain;
 import de.deloma.tools.sepa.pain.wrapper.GroupHeaderInfo;
+import de.deloma.tools.sepa.pain.wrapper.PainTransaction;
 import de.deloma.tools.sepa.util.BaseXmlFactory;
+import de.deloma.tools.sepa.util.JaxbContextRegistry;
+import de.deloma.tools.sepa.util.JaxbPool;
+import de.deloma.tools.sepa.util.SchemaRegistry;
 
 /**
  * class to generate pain XML files
@@ -47,16 +67,71 @@ public class PainParser
 		switch (this.documentType)
 		{
 			case PAIN00800302:
-				return (T) BaseXmlFactory.parse(is, de.deloma.tools.sepa.model.pain.pain0800302.ObjectFactory.class);
 			case PAIN00800102:
-				return (T) BaseXmlFactory.parse(is, de.deloma.tools.sepa.model.pain.pain0800102.ObjectFactory.class);
 			case PAIN00800108:
-				return (T) BaseXmlFactory.parse(is, de.deloma.tools.sepa.model.pain.pain0800108.ObjectFactory.class);
+				// same class set as used for XML creation to share the cached
+				// context
+				return (T) BaseXmlFactory.parse(is, this.documentType.getDocumentClass(), this.documentType.getFactoryClass());
 			default:
 				throw new UnsupportedOperationException("invalid type");
 		}
 	}
 
+	/**
+	 * Creates the cached JAXB contexts of all {@link PainDocumentType}s ahead of
+	 * time, f.e. on application startup.
+	 *
+	 * @throws JAXBException
+	 */
+	public static void warmUp() throws JAXBException
+	{
+		for (final PainDocumentType type : PainDocumentType.values())
+			JaxbContextRegistry.getContext(type.getFactoryClass(), type.getDocumentClass());
+	}
+
+	/**
+	 * Returns the pool of marshallers used to create XML documents of the given
+	 * type, f.e. to report its occupancy and wait time
+	 *
+	 * @param type
+	 * @return
+	 */
+	public static JaxbPool<Marshaller> getMarshallerPool(final PainDocumentType type)
+	{
+		return BaseXmlFactory.getMarshallerPool(type.getSchemaLocation(), type.getFactoryClass(), type.getDocumentClass());
+	}
+
+	/**
+	 * Returns the pool of marshallers used to create XML documents of the given
+	 * type
+	 *
+	 * @param type
+	 * @param validate
+	 *            whether the pooled marshallers validate against the schema of
+	 *            the type
+	 * @return
+	 * @throws IOException
+	 *             if the bundled schema cannot be compiled
+	 */
+	public static JaxbPool<Marshaller> getMarshallerPool(final PainDocumentType type, final boolean validate) throws IOException
+	{
+		return BaseXmlFactory.getMarshallerPool(type.getSchemaLocation(), PainParser.getSchema(type, validate), type.getFactoryClass(),
+			type.getDocumentClass());
+	}
+
+	/**
+	 * Returns the cached compiled schema of the given type
+	 *
+	 * @param type
+	 * @return
+	 * @throws SAXException
+	 *             if the bundled schema cannot be compiled
+	 */
+	public static Schema getSchema(final PainDocumentType type) throws SAXException
+	{
+		return SchemaRegistry.getSchema(type.getName());
+	}
+
 	public PainDocumentType getDocumentType()
 	{
 		return this.documentType;
@@ -80,22 +155,149 @@ public class PainParser
 	 */
 	public static String createDocumentXml(final PainDocumentType type, final GroupHeaderInfo headerInfo,
 		final List<CollectorPaymentInfoPain> paymentInfoList) throws IOException, PainParserException
+	{
+		return PainParser.createDocumentXml(type, PainParser.createDocument(type, headerInfo, paymentInfoList));
+	}
+
+	/**
+	 * Creates the XML document of given type and writes it as UTF-8 to the
+	 * output stream, which is flushed but not closed
+	 *
+	 * @param type
+	 * @param headerInfo
+	 * @param paymentInfoList
+	 * @param os
+	 *
+	 * @throws IOException
+	 * @throws PainParserException
+	 */
+	public static void createDocumentXml(final PainDocumentType type, final GroupHeaderInfo headerInfo,
+		final List<CollectorPaymentInfoPain> paymentInfoList, final OutputStream os) throws IOException, PainParserException
+	{
+		PainParser.createDocumentXml(type, PainParser.createDocument(type, headerInfo, paymentInfoList), os, BaseXmlFactory.DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * Creates the XML document of given type and writes it atomically to the
+	 * given file
+	 *
+	 * @param type
+	 * @param headerInfo
+	 * @param paymentInfoList
+	 * @param file
+	 *
+	 * @throws IOException
+	 * @throws PainParserException
+	 */
+	public static void createDocumentXml(final PainDocumentType type, final GroupHeaderInfo headerInfo,
+		final List<CollectorPaymentInfoPain> paymentInfoList, final Path file) throws IOException, PainParserException
+	{
+		PainParser.createDocumentXml(type, PainParser.createDocument(type, headerInfo, paymentInfoList), file, BaseXmlFactory.DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * Creates the XML document of given type and writes it as UTF-8 to the
+	 * channel, which is not closed
+	 *
+	 * @param type
+	 * @param headerInfo
+	 * @param paymentInfoList
+	 * @param channel
+	 *
+	 * @throws IOException
+	 * @throws PainParserException
+	 */
+	public static void createDocumentXml(final PainDocumentType type, final GroupHeaderInfo headerInfo,
+		final List<CollectorPaymentInfoPain> paymentInfoList, final WritableByteChannel channel) throws IOException, PainParserException
+	{
+		PainParser.createDocumentXml(type, PainParser.createDocument(type, headerInfo, paymentInfoList), channel,
+			BaseXmlFactory.DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * Creates the XML document of given type and writes it as UTF-8 to the
+	 * output stream, which is flushed but not closed. Payment instructions are
+	 * built and marshalled concurrently on the given executor, the output is
+	 * identical to the sequential one.
+	 *
+	 * @param type
+	 * @param headerInfo
+	 * @param paymentInfoList
+	 * @param os
+	 * @param executor
+	 *
+	 * @throws IOException
+	 * @throws PaymentInfoValidationException
+	 *             containing the failure of each invalid payment info
+	 * @throws PainParserException
+	 */
+	public static void createDocumentXml(final PainDocumentType type, final GroupHeaderInfo headerInfo,
+		final List<CollectorPaymentInfoPain> paymentInfoList, final OutputStream os, final Executor executor)
+		throws IOException, PainParserException
+	{
+		PainParser.createDocumentXml(type, PainParser.createDocument(type, headerInfo, paymentInfoList, executor), os,
+			BaseXmlFactory.DEFAULT_BUFFER_SIZE, executor);
+	}
+
+	/**
+	 * Creates the JAXB document of given type
+	 *
+	 * @param type
+	 * @param headerInfo
+	 * @param paymentInfoList
+	 *
+	 * @return
+	 *
+	 * @throws PainParserException
+	 */
+	public static Object createDocument(final PainDocumentType type, final GroupHeaderInfo headerInfo,
+		final List<CollectorPaymentInfoPain> paymentInfoList) throws PainParserException
+	{
+		switch (type)
+		{
+			case PAIN00800302:
+				return PainDocument00800302.createDocument(headerInfo, paymentInfoList);
+
+			case PAIN00800102:
+				return PainDocument00800102.createDocument(headerInfo, paymentInfoList);
+
+			case PAIN00800108:
+				return PainDocument00800108.createDocument(headerInfo, paymentInfoList);
+
+			default:
+				throw new UnsupportedOperationException("unknown type");
+
+		}
+	}
+
+	/**
+	 * Creates the JAXB document of given type, building the payment
+	 * instructions concurrently on the given executor
+	 *
+	 * @param type
+	 * @param headerInfo
+	 * @param paymentInfoList
+	 * @param executor
+	 *
+	 * @return
+	 *
+	 * @throws PaymentInfoValidationException
+	 *             containing the failure of each invalid payment info
+	 * @throws PainParserException
+	 */
+	public static Object createDocument(final PainDocumentType type, final GroupHeaderInfo headerInfo,
+		final List<CollectorPaymentInfoPain> paymentInfoList, final Executor executor) throws PainParserException
 	{
 		switch (type)
 		{
 			case PAIN00800302:
-				final Document document00800302 = PainDocument00800302.createDocument(headerInfo, paymentInfoList);
-				return PainParser.createDocumentXml(type, document00800302);
+				return PainDocument00800302.createDocument(headerInfo, paymentInfoList, executor);
 
 			case PAIN00800102:
-				final de.deloma.tools.sepa.model.pain.pain0800102.Document document00800102 = PainDocument00800102
-					.createDocument(headerInfo, paymentInfoList);
-				return PainParser.createDocumentXml(type, document00800102);
+				return PainDocument00800102.createDocument(headerInfo, paymentInfoList, executor);
 
 			case PAIN00800108:
-				final de.deloma.tools.sepa.model.pain.pain0800108.Document document00800108 = PainDocument00800108
-					.createDocument(headerInfo, paymentInfoList);
-				return PainParser.createDocumentXml(type, document00800108);
+				return PainDocument00800108.createDocument(headerInfo, paymentInfoList, executor);
 
 			default:
 				throw new UnsupportedOperationException("unknown type");
@@ -103,6 +305,56 @@ public class PainParser
 		}
 	}
 
+	/**
+	 * Writes the XML document of given type directly to the output stream
+	 * without building the JAXB object tree
+	 *
+	 * @param type
+	 * @param headerInfo
+	 * @param paymentInfoList
+	 * @param os
+	 *            output stream, flushed but not closed
+	 *
+	 * @throws IOException
+	 * @throws PainParserException
+	 *
+	 * @see PainStreamWriter
+	 */
+	public static void writeDocumentXml(final PainDocumentType type, final GroupHeaderInfo headerInfo,
+		final List<CollectorPaymentInfoPain> paymentInfoList, final OutputStream os) throws IOException, PainParserException
+	{
+		PainStreamWriter.write(type, headerInfo, paymentInfoList, os);
+	}
+
+	/**
+	 * Writes the XML document of given type directly to the output stream,
+	 * pulling the transactions of each payment info lazily from its stream
+	 * without holding them in memory
+	 *
+	 * @param type
+	 * @param headerInfo
+	 * @param paymentInfos
+	 *            payment infos, their own transactions are ignored
+	 * @param transactions
+	 *            opens the transaction stream of a payment info, closed once
+	 *            written
+	 * @param os
+	 *            output stream, flushed but not closed
+	 *
+	 * @throws IOException
+	 * @throws PainParserException
+	 *
+	 * @see PainStreamWriter#write(PainDocumentType, GroupHeaderInfo, Iterable,
+	 *      Function, OutputStream)
+	 */
+	public static void writeDocumentXml(final PainDocumentType type, final GroupHeaderInfo headerInfo,
+		final Iterable<CollectorPaymentInfoPain> paymentInfos,
+		final Function<CollectorPaymentInfoPain, ? extends Stream<? extends PainTransaction>> transactions, final OutputStream os)
+		throws IOException, PainParserException
+	{
+		PainStreamWriter.write(type, headerInfo, paymentInfos, transactions, os);
+	}
+
 	/**
 	 * Creates the XML document of given type and Document instance
 	 *
@@ -124,4 +376,195 @@ public class PainParser
 		return BaseXmlFactory.createXmlFile(document, schemaLocation, factoryClass);
 	}
 
+	/**
+	 * Writes the XML document of given type and Document instance as UTF-8 to
+	 * the output stream, which is flushed but not closed
+	 *
+	 * @param type
+	 * @param document
+	 * @param os
+	 * @param bufferSize
+	 *            size of the output buffer in bytes
+	 *
+	 * @throws IOException
+	 */
+	public static void createDocumentXml(final PainDocumentType type, final Object document, final OutputStream os, final int bufferSize)
+		throws IOException
+	{
+		PainParser.createDocumentXml(type, document, os, bufferSize, false);
+	}
+
+	/**
+	 * Writes the XML document of given type and Document instance as UTF-8 to
+	 * the output stream, which is flushed but not closed
+	 *
+	 * @param type
+	 * @param document
+	 * @param os
+	 * @param bufferSize
+	 *            size of the output buffer in bytes
+	 * @param validate
+	 *            whether to validate against the schema of the type while
+	 *            marshalling
+	 *
+	 * @throws IOException
+	 *             also if the document is invalid
+	 */
+	public static void createDocumentXml(final PainDocumentType type, final Object document, final OutputStream os, final int bufferSize,
+		final boolean validate) throws IOException
+	{
+		Objects.requireNonNull(type, "type must not be null");
+		BaseXmlFactory.createXmlFile(document, os, bufferSize, PainParser.getSchema(type, validate), type.getSchemaLocation(),
+			type.getFactoryClass());
+	}
+
+	/**
+	 * Writes the XML document of given type and Document instance atomically
+	 * to the given file
+	 *
+	 * @param type
+	 * @param document
+	 * @param file
+	 * @param bufferSize
+	 *            size of the output buffer in bytes
+	 *
+	 * @throws IOException
+	 */
+	public static void createDocumentXml(final PainDocumentType type, final Object document, final Path file, final int bufferSize)
+		throws IOException
+	{
+		PainParser.createDocumentXml(type, document, file, bufferSize, false);
+	}
+
+	/**
+	 * Writes the XML document of given type and Document instance atomically
+	 * to the given file, which is not touched if the document is invalid
+	 *
+	 * @param type
+	 * @param document
+	 * @param file
+	 * @param bufferSize
+	 *            size of the output buffer in bytes
+	 * @param validate
+	 *            whether to validate against the schema of the type while
+	 *            marshalling
+	 *
+	 * @throws IOException
+	 *             also if the document is invalid
+	 */
+	public static void createDocumentXml(final PainDocumentType type, final Object document, final Path file, final int bufferSize,
+		final boolean validate) throws IOException
+	{
+		Objects.requireNonNull(type, "type must not be null");
+		BaseXmlFactory.createXmlFile(document, file, bufferSize, PainParser.getSchema(type, validate), type.getSchemaLocation(),
+			type.getFactoryClass());
+	}
+
+	/**
+	 * Writes the XML document of given type and Document instance as UTF-8 to
+	 * the channel, which is not closed
+	 *
+	 * @param type
+	 * @param document
+	 * @param channel
+	 * @param bufferSize
+	 *            size of the output buffer in bytes
+	 *
+	 * @throws IOException
+	 */
+	public static void createDocumentXml(final PainDocumentType type, final Object document, final WritableByteChannel channel,
+		final int bufferSize) throws IOException
+	{
+		PainParser.createDocumentXml(type, document, channel, bufferSize, false);
+	}
+
+	/**
+	 * Writes the XML document of given type and Document instance as UTF-8 to
+	 * the channel, which is not closed
+	 *
+	 * @param type
+	 * @param document
+	 * @param channel
+	 * @param bufferSize
+	 *            size of the output buffer in bytes
+	 * @param validate
+	 *            whether to validate against the schema of the type while
+	 *            marshalling
+	 *
+	 * @throws IOException
+	 *             also if the document is invalid
+	 */
+	public static void createDocumentXml(final PainDocumentType type, final Object document, final WritableByteChannel channel,
+		final int bufferSize, final boolean validate) throws IOException
+	{
+		Objects.requireNonNull(type, "type must not be null");
+		BaseXmlFactory.createXmlFile(document, channel, bufferSize, PainParser.getSchema(type, validate), type.getSchemaLocation(),
+			type.getFactoryClass());
+	}
+
+	/**
+	 * Writes the XML document of given type and Document instance as UTF-8 to
+	 * the output stream, marshalling its payment instructions concurrently on
+	 * the given executor. The output is identical to the sequential one.
+	 *
+	 * @param type
+	 * @param document
+	 * @param os
+	 *            output stream, flushed but not closed
+	 * @param bufferSize
+	 *            size of the output buffer in bytes
+	 * @param executor
+	 *
+	 * @throws IOException
+	 */
+	public static void createDocumentXml(final PainDocumentType type, final Object document, final OutputStream os, final int bufferSize,
+		final Executor executor) throws IOException
+	{
+		PainParser.createDocumentXml(type, document, os, bufferSize, executor, false);
+	}
+
+	/**
+	 * Writes the XML document of given type and Document instance as UTF-8 to
+	 * the output stream, marshalling its payment instructions concurrently on
+	 * the given executor. If enabled each payment instruction is validated
+	 * against the schema of the type while it is marshalled.
+	 *
+	 * @param type
+	 * @param document
+	 * @param os
+	 *            output stream, flushed but not closed
+	 * @param bufferSize
+	 *            size of the output buffer in bytes
+	 * @param executor
+	 * @param validate
+	 *            whether to validate while marshalling
+	 *
+	 * @throws IOException
+	 *             also if the document is invalid
+	 */
+	public static void createDocumentXml(final PainDocumentType type, final Object document, final OutputStream os, final int bufferSize,
+		final Executor executor, final boolean validate) throws IOException
+	{
+		Objects.requireNonNull(type, "type must not be null");
+		final Writer writer = new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8), bufferSize);
+		PainFragmentMarshaller.marshal(type, document, writer, executor, validate);
+	}
+
+	/**
+	 * @return schema of the type or null if not validating
+	 */
+	private static Schema getSchema(final PainDocumentType type, final boolean validate) throws IOException
+	{
+		if (!validate)
+			return null;
+		try
+		{
+			return PainParser.getSchema(type);
+		}
+		catch (final SAXException e)
+		{
+			throw new IOException("unable to compile schema " + type.getName(), e);
+		}
+	}
+
 }
@@ -0,0 +1,137 @@
+package de.deloma.tools.sepa.pain;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of {@link PainFileSplitter}: the written files in order with their
+ * message id, counts and control sum.
+ *
+ * @author Marco Janc (c) 2025
+ */
+public class PainSplitManifest
+{
+	private final List<Part> parts;
+
+	PainSplitManifest(final List<Part> parts)
+	{
+		this.parts = Collections.unmodifiableList(parts);
+	}
+
+	/**
+	 * @return written files in order
+	 */
+	public List<Part> getParts()
+	{
+		return this.parts;
+	}
+
+	/**
+	 * @return number of transactions of all files
+	 */
+	public long getNumberOfTransactions()
+	{
+		long numTxs = 0;
+		for (final Part part : this.parts)
+			numTxs += part.numberOfTransactions;
+		return numTxs;
+	}
+
+	/**
+	 * @return control sum of all files
+	 */
+	public BigDecimal getCtrlSum()
+	{
+		BigDecimal ctrlSum = BigDecimal.ZERO;
+		for (final Part part : this.parts)
+			ctrlSum = ctrlSum.add(part.ctrlSum);
+		return ctrlSum;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "PainSplitManifest " + this.parts;
+	}
+
+	/**
+	 * single written file
+	 */
+	public static class Part
+	{
+		private final Path file;
+
+		private final String msgId;
+
+		private final int numberOfPaymentInfos;
+
+		private final int numberOfTransactions;
+
+		private final BigDecimal ctrlSum;
+
+		private final long size;
+
+		Part(final Path file, final String msgId, final int numberOfPaymentInfos, final int numberOfTransactions, final BigDecimal ctrlSum,
+				final long size)
+		{
+			this.file = file;
+			this.msgId = msgId;
+			this.numberOfPaymentInfos = numberOfPaymentInfos;
+			this.numberOfTransactions = numberOfTransactions;
+			this.ctrlSum = ctrlSum;
+			this.size = size;
+		}
+
+		/**
+		 * @return written file, its name is derived from the {@code MsgId} by
+		 *         {@link PainFileSplitter#getFileName(String)}
+		 */
+		public Path getFile()
+		{
+			return this.file;
+		}
+
+		public String getMsgId()
+		{
+			return this.msgId;
+		}
+
+		/**
+		 * @return number of {@code PmtInf} elements
+		 */
+		public int getNumberOfPaymentInfos()
+		{
+			return this.numberOfPaymentInfos;
+		}
+
+		public int getNumberOfTransactions()
+		{
+			return this.numberOfTransactions;
+		}
+
+		/**
+		 * @return sum of the control sums of the payment infos
+		 */
+		public BigDecimal getCtrlSum()
+		{
+			return this.ctrlSum;
+		}
+
+		/**
+		 * @return file size in bytes
+		 */
+		public long getSize()
+		{
+			return this.size;
+		}
+
+		@Override
+		public String toString()
+		{
+			return this.file.getFileName() + " [msgId=" + this.msgId + ", pmtInf=" + this.numberOfPaymentInfos + ", nbOfTxs=" + this.numberOfTransactions
+				+ ", ctrlSum=" + this.ctrlSum.toPlainString() + ", size=" + this.size + "]";
+		}
+	}
+}
@@ -0,0 +1,983 @@
+package de.deloma.tools.sepa.pain;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+
+import org.apache.commons.io.IOUtils;
+
+import de.deloma.tools.sepa.exception.DuplicateIdException;
+import de.deloma.tools.sepa.exception.PainParserException;
+import de.deloma.tools.sepa.exception.PainParserException.ParserExceptionType;
+import de.deloma.tools.sepa.pain.wrapper.CollectorPaymentInfoPain;
+import de.deloma.tools.sepa.pain.wrapper.CreditorInfo;
+import de.deloma.tools.sepa.pain.wrapper.GroupHeaderInfo;
+import de.deloma.tools.sepa.pain.wrapper.PainTransaction;
+import de.deloma.tools.sepa.pain.wrapper.TransactionBatch;
+import de.deloma.tools.sepa.util.AmountUtils;
+import de.deloma.tools.sepa.util.BankDirectory;
+import de.deloma.tools.sepa.util.IndentingXmlWriter;
+import de.deloma.tools.sepa.util.ParserUtils;
+
+/**
+ * Streaming pain.008 writer for all {@link PainDocumentType}s. Transactions are
+ * written one at a time without building the JAXB object tree, the output is
+ * identical to {@link PainParser#createDocumentXml(PainDocumentType, Object)}.
+ *
+ * As {@code NbOfTxs} and {@code CtrlSum} precede the transactions, the
+ * transactions are spooled to a temporary file while their count and sum are
+ * collected. {@link #finish()} then writes the group header, each payment info
+ * header and copies its spooled transactions to the output stream.
+ *
+ * <pre>
+ * try (PainStreamWriter writer = new PainStreamWriter(type, headerInfo, os))
+ * {
+ * 	writer.beginPaymentInfo(collector);
+ * 	for (PainTransaction transaction : rows)
+ * 		writer.writeTransaction(transaction);
+ * 	writer.endPaymentInfo();
+ * 	writer.finish();
+ * }
+ * </pre>
+ *
+ * Transactions can also be pulled lazily from an {@link Iterator},
+ * {@link Spliterator} or {@link Stream}, f.e. backed by a database cursor, see
+ * {@link #write(PainDocumentType, GroupHeaderInfo, Iterable, Function, OutputStream)}.
+ *
+ * If all transactions are in memory anyway,
+ * {@link #write(PainDocumentType, GroupHeaderInfo, List, OutputStream)} sums
+ * them up front and writes without spooling.
+ *
+ * @author Marco Janc (c) 2025
+ */
+public class PainStreamWriter implements Closeable
+{
+	/**
+	 * Depth of {@code DrctDbtTxInf} elements: Document > CstmrDrctDbtInitn >
+	 * PmtInf
+	 */
+	private static final int TRANSACTION_DEPTH = 3;
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final PainDocumentType type;
+
+	private final GroupHeaderInfo groupHeaderInfo;
+
+	private final OutputStream os;
+
+	/*
+	 * spool of the transactions
+	 */
+
+	private final Path spoolFile;
+
+	private final FileChannel spoolChannel;
+
+	private final Writer spoolWriter;
+
+	private final IndentingXmlWriter spoolXml;
+
+	/**
+	 * written payment infos waiting for {@link #finish()}
+	 */
+	private final List<SpooledPaymentInfo> paymentInfos = new ArrayList<>();
+
+	private SpooledPaymentInfo current;
+
+	/**
+	 * spool position after the transactions of the last ended payment info
+	 */
+	private long spoolEnd;
+
+	private long numTxs;
+
+	private DuplicateIdChecker duplicateIdChecker;
+
+	/**
+	 * first duplicate id, thrown when the payment info ends
+	 */
+	private DuplicateIdException duplicate;
+
+	/**
+	 * first invalid transaction, thrown when the payment info ends
+	 */
+	private PainParserException invalid;
+
+	private BankDirectory bankDirectory;
+
+	private boolean finished;
+
+	private boolean closed;
+
+	/**
+	 * Creates a writer spooling to the default temporary-file directory
+	 *
+	 * @param type
+	 * @param groupHeaderInfo
+	 * @param os
+	 *            output stream, not closed by this writer
+	 * @throws IOException
+	 * @throws PainParserException
+	 */
+	public PainStreamWriter(final PainDocumentType type, final GroupHeaderInfo groupHeaderInfo, final OutputStream os)
+		throws IOException, PainParserException
+	{
+		this(type, groupHeaderInfo, os, Paths.get(System.getProperty("java.io.tmpdir")));
+	}
+
+	/**
+	 * @param type
+	 * @param groupHeaderInfo
+	 * @param os
+	 *            output stream, not closed by this writer
+	 * @param spoolDirectory
+	 *            directory of the temporary spool file
+	 * @throws IOException
+	 * @throws PainParserException
+	 */
+	public PainStreamWriter(final PainDocumentType type, final GroupHeaderInfo groupHeaderInfo, final OutputStream os, final Path spoolDirectory)
+		throws IOException, PainParserException
+	{
+		this.type = Objects.requireNonNull(type, "type must not be null");
+		this.os = Objects.requireNonNull(os, "os must not be null");
+		GroupHeaderInfo.validate(groupHeaderInfo);
+		this.groupHeaderInfo = groupHeaderInfo;
+
+		this.spoolFile = Files.createTempFile(spoolDirectory, "pain-", ".spool");
+		this.spoolChannel = FileChannel.open(this.spoolFile, StandardOpenOption.WRITE, StandardOpenOption.READ);
+		this.spoolWriter = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(this.spoolChannel), StandardCharsets.UTF_8),
+			PainStreamWriter.BUFFER_SIZE);
+		this.spoolXml = new IndentingXmlWriter(this.spoolWriter, PainStreamWriter.TRANSACTION_DEPTH);
+	}
+
+	/**
+	 * Sets the checker of the transaction ids. A duplicate id fails the
+	 * payment info on {@link #endPaymentInfo()}. Checked ids are not
+	 * committed.
+	 *
+	 * @param duplicateIdChecker
+	 *            or null to not check
+	 */
+	public void setDuplicateIdChecker(final DuplicateIdChecker duplicateIdChecker)
+	{
+		this.duplicateIdChecker = duplicateIdChecker;
+	}
+
+	/**
+	 * Sets the directory deriving missing debtor BICs from the debtor IBAN
+	 *
+	 * @param bankDirectory
+	 *            or null to write missing BICs as they are
+	 */
+	public void setBankDirectory(final BankDirectory bankDirectory)
+	{
+		this.bankDirectory = bankDirectory;
+	}
+
+	/**
+	 * Starts a payment info, its transactions of the given instance are ignored
+	 *
+	 * @param paymentInfo
+	 * @throws PainParserException
+	 */
+	public void beginPaymentInfo(final CollectorPaymentInfoPain paymentInfo) throws PainParserException
+	{
+		this.checkOpen();
+		if (this.current != null)
+			throw new IllegalStateException("payment info " + this.current.paymentInfo.getPaymentInfoId() + " not ended");
+
+		CollectorPaymentInfoPain.validateHeader(paymentInfo);
+		this.current = new SpooledPaymentInfo(paymentInfo);
+	}
+
+	/**
+	 * Writes a transaction to the current payment info. An invalid transaction,
+	 * see {@link PainTransaction#validate(PainTransaction)}, is not written
+	 * and fails the payment info on {@link #endPaymentInfo()}.
+	 *
+	 * @param transaction
+	 * @throws IOException
+	 */
+	public void writeTransaction(final PainTransaction transaction) throws IOException
+	{
+		this.checkOpen();
+		if (this.current == null)
+			throw new IllegalStateException("no payment info started");
+
+		if (!this.checkTransaction(transaction))
+			return;
+		this.checkIds(transaction.getEndToEndId(), transaction.getMandateId());
+		PainStreamWriter.writeTransaction(this.spoolXml, this.type, transaction, this.bankDirectory);
+		this.current.numTxs++;
+		this.current.add(transaction);
+	}
+
+	/**
+	 * Writes the remaining transactions of the iterator to the current payment
+	 * info
+	 *
+	 * @param transactions
+	 * @throws IOException
+	 */
+	public void writeTransactions(final Iterator<? extends PainTransaction> transactions) throws IOException
+	{
+		while (transactions.hasNext())
+			this.writeTransaction(transactions.next());
+	}
+
+	/**
+	 * Writes the remaining transactions of the spliterator to the current
+	 * payment info
+	 *
+	 * @param transactions
+	 * @throws IOException
+	 */
+	public void writeTransactions(final Spliterator<? extends PainTransaction> transactions) throws IOException
+	{
+		try
+		{
+			transactions.forEachRemaining(transaction -> {
+				try
+				{
+					this.writeTransaction(transaction);
+				}
+				catch (final IOException e)
+				{
+					throw new UncheckedIOException(e);
+				}
+			});
+		}
+		catch (final UncheckedIOException e)
+		{
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Writes the transactions of the stream to the current payment info in
+	 * encounter order
+	 *
+	 * @param transactions
+	 *            sequential stream, not closed
+	 * @throws IOException
+	 */
+	public void writeTransactions(final Stream<? extends PainTransaction> transactions) throws IOException
+	{
+		this.writeTransactions(transactions.sequential().spliterator());
+	}
+
+	/**
+	 * Writes all transactions of the given batch to the current payment info
+	 * directly from its columns. Invalid transactions are handled as by
+	 * {@link #writeTransaction(PainTransaction)}.
+	 *
+	 * @param batch
+	 * @throws IOException
+	 */
+	public void writeTransactions(final TransactionBatch batch) throws IOException
+	{
+		this.checkOpen();
+		if (this.current == null)
+			throw new IllegalStateException("no payment info started");
+
+		for (int i = 0; i < batch.size(); i++)
+		{
+			if (!this.checkTransaction(batch.get(i)))
+				return;
+			this.checkIds(batch.getEndToEndId(i), batch.getMandateId(i));
+			PainStreamWriter.writeTransaction(this.spoolXml, this.type, batch, i, this.bankDirectory);
+		}
+		this.current.numTxs += batch.size();
+		this.current.add(batch.getTotalAmountCents());
+	}
+
+	public void endPaymentInfo() throws IOException, PainParserException
+	{
+		this.checkOpen();
+		if (this.current == null)
+			throw new IllegalStateException("no payment info started");
+		if (this.current.numTxs < 1)
+			throw new PainParserException(ParserExceptionType.PAYMENT_INFO_ERROR,
+				"no transactions in payment info " + this.current.paymentInfo.getPaymentInfoId());
+		if (this.invalid != null)
+			throw this.invalid;
+		if (this.duplicate != null)
+			throw this.duplicate;
+
+		this.spoolWriter.flush();
+		final long position = this.spoolChannel.position();
+		this.current.spoolLength = position - this.spoolEnd;
+		this.spoolEnd = position;
+		if (this.current.ctrlSum != null)
+			this.current.ctrlSum = this.current.ctrlSum.setScale(2, RoundingMode.CEILING);
+		this.numTxs += this.current.numTxs;
+		this.paymentInfos.add(this.current);
+		this.current = null;
+	}
+
+	/**
+	 * Writes the given payment info including all its transactions
+	 *
+	 * @param paymentInfo
+	 * @throws IOException
+	 * @throws PainParserException
+	 */
+	public void writePaymentInfo(final CollectorPaymentInfoPain paymentInfo) throws IOException, PainParserException
+	{
+		this.beginPaymentInfo(paymentInfo);
+		final TransactionBatch batch = paymentInfo.getTransactionBatch();
+		if (batch != null)
+			this.writeTransactions(batch);
+		else
+			for (final PainTransaction transaction : paymentInfo.getTransactions())
+				this.writeTransaction(transaction);
+		this.endPaymentInfo();
+	}
+
+	/**
+	 * Writes the given payment info with the remaining transactions of the
+	 * iterator, the transactions of the payment info instance are ignored
+	 *
+	 * @param paymentInfo
+	 * @param transactions
+	 * @throws IOException
+	 * @throws PainParserException
+	 */
+	public void writePaymentInfo(final CollectorPaymentInfoPain paymentInfo, final Iterator<? extends PainTransaction> transactions)
+		throws IOException, PainParserException
+	{
+		this.beginPaymentInfo(paymentInfo);
+		this.writeTransactions(transactions);
+		this.endPaymentInfo();
+	}
+
+	/**
+	 * Writes the given payment info with the transactions of the stream, the
+	 * transactions of the payment info instance are ignored
+	 *
+	 * @param paymentInfo
+	 * @param transactions
+	 *            sequential stream, not closed
+	 * @throws IOException
+	 * @throws PainParserException
+	 */
+	public void writePaymentInfo(final CollectorPaymentInfoPain paymentInfo, final Stream<? extends PainTransaction> transactions)
+		throws IOException, PainParserException
+	{
+		this.beginPaymentInfo(paymentInfo);
+		this.writeTransactions(transactions);
+		this.endPaymentInfo();
+	}
+
+	/**
+	 * Writes the complete document to the output stream and flushes it
+	 *
+	 * @throws IOException
+	 * @throws PainParserException
+	 */
+	public void finish() throws IOException, PainParserException
+	{
+		this.checkOpen();
+		if (this.current != null)
+			throw new IllegalStateException("payment info " + this.current.paymentInfo.getPaymentInfoId() + " not ended");
+		if (this.paymentInfos.isEmpty())
+			throw new PainParserException(ParserExceptionType.DOCUMENT, "no payment infos written");
+		this.finished = true;
+
+		this.spoolWriter.flush();
+
+		final SpooledPaymentInfo total = new SpooledPaymentInfo(null);
+		for (final SpooledPaymentInfo paymentInfo : this.paymentInfos)
+			total.add(paymentInfo);
+
+		final BufferedOutputStream out = new BufferedOutputStream(this.os, PainStreamWriter.BUFFER_SIZE);
+		final Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+		final IndentingXmlWriter xml = new IndentingXmlWriter(writer);
+
+		PainStreamWriter.writeDocumentStart(xml, this.type, this.groupHeaderInfo, this.numTxs, total.getCtrlSum());
+
+		// spooled payment infos follow each other, read them in one pass
+		final InputStream spoolIn = new BufferedInputStream(Channels.newInputStream(this.spoolChannel.position(0)), PainStreamWriter.BUFFER_SIZE);
+		for (final SpooledPaymentInfo paymentInfo : this.paymentInfos)
+		{
+			PainStreamWriter.writePaymentInfoStart(xml, this.type, paymentInfo.paymentInfo, paymentInfo.numTxs, paymentInfo.getCtrlSum());
+
+			// spooled transactions as they are
+			xml.closeStartTag();
+			writer.flush();
+			IOUtils.copyLarge(spoolIn, out, 0, paymentInfo.spoolLength);
+
+			PainStreamWriter.writePaymentInfoEnd(xml);
+		}
+
+		PainStreamWriter.writeDocumentEnd(xml);
+		writer.flush();
+	}
+
+	/**
+	 * Deletes the spool file. The output stream is not closed.
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		if (this.closed)
+			return;
+		this.closed = true;
+		try
+		{
+			this.spoolWriter.close();
+		}
+		finally
+		{
+			Files.deleteIfExists(this.spoolFile);
+		}
+	}
+
+	/**
+	 * @return number of transactions of all ended payment infos
+	 */
+	public long getNumberOfTransactions()
+	{
+		return this.numTxs;
+	}
+
+	/**
+	 * @return whether the transaction is valid and no invalid transaction was
+	 *         written before
+	 */
+	private boolean checkTransaction(final PainTransaction transaction)
+	{
+		if (this.invalid != null)
+			return false;
+		try
+		{
+			PainTransaction.validate(transaction);
+			return true;
+		}
+		catch (final PainParserException e)
+		{
+			this.invalid = e;
+			return false;
+		}
+	}
+
+	private void checkIds(final String endToEndId, final String mandateId)
+	{
+		if (this.duplicateIdChecker == null || this.duplicate != null)
+			return;
+		try
+		{
+			this.duplicateIdChecker.check(this.current.paymentInfo, endToEndId, mandateId);
+		}
+		catch (final DuplicateIdException e)
+		{
+			this.duplicate = e;
+		}
+	}
+
+	private void checkOpen()
+	{
+		if (this.closed || this.finished)
+			throw new IllegalStateException("writer already " + (this.closed ? "closed" : "finished"));
+	}
+
+	/*
+	 * static writers
+	 */
+
+	/**
+	 * Writes the document of the given payment infos, pulling the transactions
+	 * of each payment info lazily from its stream. The streams are opened one
+	 * after the other and closed once written, so at most one is open at a
+	 * time, f.e. for a database cursor per payment info. Transactions are
+	 * spooled to the default temporary-file directory.
+	 *
+	 * @param type
+	 * @param groupHeaderInfo
+	 * @param paymentInfos
+	 *            payment infos, their own transactions are ignored
+	 * @param transactions
+	 *            opens the transaction stream of a payment info
+	 * @param os
+	 *            output stream, flushed but not closed
+	 * @throws IOException
+	 * @throws PainParserException
+	 */
+	public static void write(final PainDocumentType type, final GroupHeaderInfo groupHeaderInfo, final Iterable<CollectorPaymentInfoPain> paymentInfos,
+		final Function<CollectorPaymentInfoPain, ? extends Stream<? extends PainTransaction>> transactions, final OutputStream os)
+		throws IOException, PainParserException
+	{
+		try (PainStreamWriter writer = new PainStreamWriter(type, groupHeaderInfo, os))
+		{
+			for (final CollectorPaymentInfoPain paymentInfo : paymentInfos)
+				try (Stream<? extends PainTransaction> stream = transactions.apply(paymentInfo))
+				{
+					writer.writePaymentInfo(paymentInfo, stream);
+				}
+			writer.finish();
+		}
+	}
+
+	/**
+	 * Writes the document of the given payment infos without building the JAXB
+	 * object tree. Number of transactions and control sums are computed up
+	 * front, so nothing is spooled.
+	 *
+	 * @param type
+	 * @param groupHeaderInfo
+	 * @param paymentInfos
+	 * @param os
+	 *            output stream, flushed but not closed
+	 * @throws IOException
+	 * @throws PainParserException
+	 */
+	public static void write(final PainDocumentType type, final GroupHeaderInfo groupHeaderInfo, final List<CollectorPaymentInfoPain> paymentInfos,
+		final OutputStream os) throws IOException, PainParserException
+	{
+		PainStreamWriter.write(type, groupHeaderInfo, paymentInfos, os, null);
+	}
+
+	/**
+	 * Writes the document like
+	 * {@link #write(PainDocumentType, GroupHeaderInfo, List, OutputStream)},
+	 * checking the transaction ids for duplicates before anything is written
+	 *
+	 * @param type
+	 * @param groupHeaderInfo
+	 * @param paymentInfos
+	 * @param os
+	 *            output stream, flushed but not closed
+	 * @param duplicateIdChecker
+	 *            or null to not check, checked ids are not committed
+	 * @throws IOException
+	 * @throws PainParserException
+	 *             {@link DuplicateIdException} on a duplicate id
+	 */
+	public static void write(final PainDocumentType type, final GroupHeaderInfo groupHeaderInfo, final List<CollectorPaymentInfoPain> paymentInfos,
+		final OutputStream os, final DuplicateIdChecker duplicateIdChecker) throws IOException, PainParserException
+	{
+		Objects.requireNonNull(type, "type must not be null");
+		GroupHeaderInfo.validate(groupHeaderInfo);
+
+		// pre-pass for the group header
+		long numTxs = 0;
+		final List<String> ctrlSums = new ArrayList<>(paymentInfos.size());
+		for (final CollectorPaymentInfoPain paymentInfo : paymentInfos)
+		{
+			if (duplicateIdChecker != null)
+				CollectorPaymentInfoPain.validate(paymentInfo, duplicateIdChecker);
+			else
+				CollectorPaymentInfoPain.validate(paymentInfo);
+			numTxs += paymentInfo.getNumberOfTransactions();
+			ctrlSums.add(paymentInfo.getTotalAmount().toPlainString());
+		}
+		final String ctrlSum = CollectorPaymentInfoPain.getTotalAmount(paymentInfos).toPlainString();
+
+		final Writer writer = new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8),
+			PainStreamWriter.BUFFER_SIZE);
+		final IndentingXmlWriter xml = new IndentingXmlWriter(writer);
+
+		PainStreamWriter.writeDocumentStart(xml, type, groupHeaderInfo, numTxs, ctrlSum);
+		for (int i = 0; i < paymentInfos.size(); i++)
+		{
+			final CollectorPaymentInfoPain paymentInfo = paymentInfos.get(i);
+			PainStreamWriter.writePaymentInfoStart(xml, type, paymentInfo, paymentInfo.getNumberOfTransactions(), ctrlSums.get(i));
+			final TransactionBatch batch = paymentInfo.getTransactionBatch();
+			if (batch != null)
+				for (int j = 0; j < batch.size(); j++)
+					PainStreamWriter.writeTransaction(xml, type, batch, j, null);
+			else
+				for (final PainTransaction transaction : paymentInfo.getTransactions())
+					PainStreamWriter.writeTransaction(xml, type, transaction, null);
+			PainStreamWriter.writePaymentInfoEnd(xml);
+		}
+		PainStreamWriter.writeDocumentEnd(xml);
+		writer.flush();
+	}
+
+	/*
+	 * elements, in the order and layout of the PainDocument* classes
+	 */
+
+	private static void writeDocumentStart(final IndentingXmlWriter xml, final PainDocumentType type, final GroupHeaderInfo groupHeaderInfo,
+		final long numTxs, final String ctrlSum) throws IOException
+	{
+		xml.writeDeclaration();
+		xml.startElement("Document");
+		xml.attribute("xsi:schemaLocation", type.getSchemaLocation());
+		xml.attribute("xmlns", PainStreamWriter.getNamespace(type));
+		xml.attribute("xmlns:xsi", "http://www.w3.org/2001/XMLSchema-instance");
+		xml.startElement("CstmrDrctDbtInitn");
+
+		xml.startElement("GrpHdr");
+		xml.element("MsgId", groupHeaderInfo.getMsgId());
+		xml.element("CreDtTm", ParserUtils.printDateTime(groupHeaderInfo.getCreationOffsetDateTime()));
+		xml.element("NbOfTxs", String.valueOf(numTxs));
+		// only pain.008.001.08 carries the overall control sum
+		if (type == PainDocumentType.PAIN00800108)
+			xml.element("CtrlSum", ctrlSum);
+		xml.startElement("InitgPty");
+		xml.element("Nm", groupHeaderInfo.getInitiator());
+		xml.endElement("InitgPty");
+		xml.endElement("GrpHdr");
+	}
+
+	private static void writeDocumentEnd(final IndentingXmlWriter xml) throws IOException
+	{
+		xml.endElement("CstmrDrctDbtInitn");
+		xml.endElement("Document");
+		xml.endDocument();
+	}
+
+	private static void writePaymentInfoStart(final IndentingXmlWriter xml, final PainDocumentType type, final CollectorPaymentInfoPain paymentInfo,
+		final long numTxs, final String ctrlSum) throws IOException
+	{
+		final CreditorInfo creditorInfo = paymentInfo.getCreditorInfo();
+
+		xml.startElement("PmtInf");
+		xml.element("PmtInfId", paymentInfo.getPaymentInfoId());
+		xml.element("PmtMtd", "DD");
+		xml.element("NbOfTxs", String.valueOf(numTxs));
+		xml.element("CtrlSum", ctrlSum);
+
+		xml.startElement("PmtTpInf");
+		xml.startElement("SvcLvl");
+		xml.element("Cd", "SEPA");
+		xml.endElement("SvcLvl");
+		xml.startElement("LclInstrm");
+		xml.element("Cd", paymentInfo.getSepaLocalInstrumentCode().getValue());
+		xml.endElement("LclInstrm");
+		xml.element("SeqTp", paymentInfo.getSequenceTypeCode().toString());
+		xml.endElement("PmtTpInf");
+
+		xml.element("ReqdColltnDt", ParserUtils.printDate(paymentInfo.getCollectionLocalDate()));
+
+		xml.startElement("Cdtr");
+		xml.element("Nm", creditorInfo.getName());
+		xml.endElement("Cdtr");
+
+		PainStreamWriter.writeAccount(xml, "CdtrAcct", creditorInfo.getIban());
+		PainStreamWriter.writeAgent(xml, type, "CdtrAgt", creditorInfo.getBic());
+
+		xml.element("ChrgBr", "SLEV");
+
+		xml.startElement("CdtrSchmeId");
+		xml.startElement("Id");
+		xml.startElement("PrvtId");
+		xml.startElement("Othr");
+		xml.element("Id", creditorInfo.getGlauebigerId());
+		xml.startElement("SchmeNm");
+		xml.element("Prtry", "SEPA");
+		xml.endElement("SchmeNm");
+		xml.endElement("Othr");
+		xml.endElement("PrvtId");
+		xml.endElement("Id");
+		xml.endElement("CdtrSchmeId");
+	}
+
+	private static void writePaymentInfoEnd(final IndentingXmlWriter xml) throws IOException
+	{
+		xml.endElement("PmtInf");
+	}
+
+	/**
+	 * @param bankDirectory
+	 *            deriving a missing debtor BIC, may be null
+	 */
+	private static void writeTransaction(final IndentingXmlWriter xml, final PainDocumentType type, final PainTransaction transaction,
+		final BankDirectory bankDirectory) throws IOException
+	{
+		final String dbtrIban = transaction.getDbtrIban();
+		PainStreamWriter.writeTransaction(xml, type, transaction.getEndToEndId(), transaction.getAmountPlainString(), transaction.getMandateId(),
+			transaction.getDtOfSgntrLocalDate(), PainStreamWriter.getBic(transaction.getDbtrBic(), dbtrIban, bankDirectory),
+			transaction.getDbtrName(), dbtrIban, transaction.getUltDbtrName(), transaction.getUstrdRemInf());
+	}
+
+	/**
+	 * writes the transaction at the given index without a
+	 * {@link PainTransaction} view
+	 */
+	private static void writeTransaction(final IndentingXmlWriter xml, final PainDocumentType type, final TransactionBatch batch,
+		final int index, final BankDirectory bankDirectory) throws IOException
+	{
+		final String dbtrIban = batch.getDbtrIban(index);
+		PainStreamWriter.writeTransaction(xml, type, batch.getEndToEndId(index), AmountUtils.toPlainString(batch.getAmountCents(index)),
+			batch.getMandateId(index), batch.getDtOfSgntr(index), PainStreamWriter.getBic(batch.getDbtrBic(index), dbtrIban, bankDirectory),
+			batch.getDbtrName(index), dbtrIban, batch.getUltDbtrName(index), batch.getUstrdRemInf(index));
+	}
+
+	/**
+	 * @return the BIC or if missing the BIC of the IBAN in the directory
+	 */
+	private static String getBic(final String bic, final String iban, final BankDirectory bankDirectory)
+	{
+		return bic != null || bankDirectory == null ? bic : bankDirectory.getBic(iban);
+	}
+
+	private static void writeTransaction(final IndentingXmlWriter xml, final PainDocumentType type, final String endToEndId, final String amount,
+		final String mandateId, final LocalDate dtOfSgntr, final String dbtrBic, final String dbtrName, final String dbtrIban,
+		final String ultDbtrName, final String ustrdRemInf) throws IOException
+	{
+		xml.startElement("DrctDbtTxInf");
+
+		xml.startElement("PmtId");
+		xml.element("EndToEndId", endToEndId);
+		xml.endElement("PmtId");
+
+		xml.startElement("InstdAmt");
+		xml.attribute("Ccy", "EUR");
+		if (amount != null)
+			xml.text(amount);
+		xml.endElement("InstdAmt");
+
+		xml.startElement("DrctDbtTx");
+		xml.startElement("MndtRltdInf");
+		xml.element("MndtId", mandateId);
+		xml.element("DtOfSgntr", ParserUtils.printDate(dtOfSgntr));
+		xml.element("AmdmntInd", "false");
+		xml.endElement("MndtRltdInf");
+		xml.endElement("DrctDbtTx");
+
+		PainStreamWriter.writeAgent(xml, type, "DbtrAgt", dbtrBic);
+
+		xml.startElement("Dbtr");
+		xml.element("Nm", dbtrName);
+		xml.endElement("Dbtr");
+
+		PainStreamWriter.writeAccount(xml, "DbtrAcct", dbtrIban);
+
+		xml.startElement("UltmtDbtr");
+		xml.element("Nm", ultDbtrName);
+		xml.endElement("UltmtDbtr");
+
+		xml.startElement("RmtInf");
+		xml.element("Ustrd", ustrdRemInf);
+		xml.endElement("RmtInf");
+
+		xml.endElement("DrctDbtTxInf");
+	}
+
+	private static void writeAccount(final IndentingXmlWriter xml, final String name, final String iban) throws IOException
+	{
+		xml.startElement(name);
+		xml.startElement("Id");
+		xml.element("IBAN", iban);
+		xml.endElement("Id");
+		xml.endElement(name);
+	}
+
+	private static void writeAgent(final IndentingXmlWriter xml, final PainDocumentType type, final String name, final String bic)
+		throws IOException
+	{
+		xml.startElement(name);
+		xml.startElement("FinInstnId");
+		xml.element(type == PainDocumentType.PAIN00800108 ? "BICFI" : "BIC", bic);
+		xml.endElement("FinInstnId");
+		xml.endElement(name);
+	}
+
+	/**
+	 * @param type
+	 * @return target namespace of the given type
+	 */
+	static String getNamespace(final PainDocumentType type)
+	{
+		final String schemaLocation = type.getSchemaLocation();
+		return schemaLocation.substring(0, schemaLocation.indexOf(' '));
+	}
+
+	/*
+	 * sizes in UTF-8 bytes, f.e. to split files by size
+	 */
+
+	/**
+	 * upper bound of {@code NbOfTxs} and {@code CtrlSum} values
+	 */
+	private static final String MAX_NUMBER = "-99999999999999999.99";
+
+	/**
+	 * @return size of the document without payment infos, an upper bound for
+	 *         any number of transactions and control sum
+	 */
+	static long getSize(final PainDocumentType type, final GroupHeaderInfo groupHeaderInfo) throws IOException
+	{
+		final ByteCountingWriter counter = new ByteCountingWriter();
+		final IndentingXmlWriter xml = new IndentingXmlWriter(counter);
+		PainStreamWriter.writeDocumentStart(xml, type, groupHeaderInfo, Long.MAX_VALUE, PainStreamWriter.MAX_NUMBER);
+		PainStreamWriter.writeDocumentEnd(xml);
+		return counter.size;
+	}
+
+	/**
+	 * @return size of the payment info without transactions, an upper bound
+	 *         for any number of transactions and control sum
+	 */
+	static long getSize(final PainDocumentType type, final CollectorPaymentInfoPain paymentInfo) throws IOException
+	{
+		final ByteCountingWriter counter = new ByteCountingWriter();
+		final IndentingXmlWriter xml = new IndentingXmlWriter(counter, PainStreamWriter.TRANSACTION_DEPTH - 1);
+		PainStreamWriter.writePaymentInfoStart(xml, type, paymentInfo, Long.MAX_VALUE, PainStreamWriter.MAX_NUMBER);
+		PainStreamWriter.writePaymentInfoEnd(xml);
+		return counter.size;
+	}
+
+	/**
+	 * @return exact size of the transaction
+	 */
+	static long getSize(final PainDocumentType type, final PainTransaction transaction) throws IOException
+	{
+		final ByteCountingWriter counter = new ByteCountingWriter();
+		PainStreamWriter.writeTransaction(new IndentingXmlWriter(counter, PainStreamWriter.TRANSACTION_DEPTH), type, transaction, null);
+		return counter.size;
+	}
+
+	/**
+	 * counts the UTF-8 encoded size of the written characters
+	 */
+	private static final class ByteCountingWriter extends Writer
+	{
+		long size;
+
+		@Override
+		public void write(final char[] cbuf, final int off, final int len)
+		{
+			for (int i = off; i < off + len; i++)
+				this.count(cbuf[i]);
+		}
+
+		@Override
+		public void write(final String str, final int off, final int len)
+		{
+			for (int i = off; i < off + len; i++)
+				this.count(str.charAt(i));
+		}
+
+		@Override
+		public void write(final int c)
+		{
+			this.count((char) c);
+		}
+
+		private void count(final char c)
+		{
+			if (c < 0x80)
+				this.size++;
+			else if (c < 0x800)
+				this.size += 2;
+			// a surrogate pair is 4 bytes
+			else if (Character.isSurrogate(c))
+				this.size += 2;
+			else
+				this.size += 3;
+		}
+
+		@Override
+		public void flush()
+		{
+		}
+
+		@Override
+		public void close()
+		{
+		}
+	}
+
+	/**
+	 * payment info with its spooled transactions
+	 */
+	private static final class SpooledPaymentInfo
+	{
+		final CollectorPaymentInfoPain paymentInfo;
+
+		long spoolLength;
+
+		long numTxs;
+
+		/**
+		 * control sum in cents while all amounts are representable in cents
+		 */
+		long ctrlSumCents;
+
+		/**
+		 * control sum once an amount is not representable in cents
+		 */
+		BigDecimal ctrlSum;
+
+		SpooledPaymentInfo(final CollectorPaymentInfoPain paymentInfo)
+		{
+			this.paymentInfo = paymentInfo;
+		}
+
+		void add(final PainTransaction transaction)
+		{
+			if (this.ctrlSum == null && transaction.hasAmountCents())
+				this.add(transaction.getAmountCents());
+			else
+				this.ctrlSum = this.toBigDecimal().add(transaction.getAmount());
+		}
+
+		void add(final SpooledPaymentInfo paymentInfo)
+		{
+			if (this.ctrlSum == null && paymentInfo.ctrlSum == null)
+				this.add(paymentInfo.ctrlSumCents);
+			else
+				this.ctrlSum = this.toBigDecimal().add(paymentInfo.toBigDecimal());
+		}
+
+		void add(final long cents)
+		{
+			if (this.ctrlSum != null)
+			{
+				this.ctrlSum = this.ctrlSum.add(AmountUtils.toBigDecimal(cents));
+				return;
+			}
+			try
+			{
+				this.ctrlSumCents = AmountUtils.add(this.ctrlSumCents, cents);
+			}
+			catch (final ArithmeticException e)
+			{
+				this.ctrlSum = AmountUtils.toBigDecimal(this.ctrlSumCents).add(AmountUtils.toBigDecimal(cents));
+			}
+		}
+
+		private BigDecimal toBigDecimal()
+		{
+			return this.ctrlSum != null ? this.ctrlSum : AmountUtils.toBigDecimal(this.ctrlSumCents);
+		}
+
+		/**
+		 * @return lexical form of the control sum
+		 */
+		String getCtrlSum()
+		{
+			return this.ctrlSum != null ? this.ctrlSum.toPlainString() : AmountUtils.toPlainString(this.ctrlSumCents);
+		}
+	}
+}
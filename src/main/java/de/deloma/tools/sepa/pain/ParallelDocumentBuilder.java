@@ -0,0 +1,126 @@
+package de.deloma.tools.sepa.pain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import de.deloma.tools.sepa.exception.PainParserException;
+import de.deloma.tools.sepa.exception.PainParserException.ParserExceptionType;
+import de.deloma.tools.sepa.exception.PaymentInfoValidationException;
+import de.deloma.tools.sepa.pain.wrapper.CollectorPaymentInfoPain;
+import de.deloma.tools.sepa.pain.wrapper.PainTransaction;
+
+/**
+ * Builds the payment instructions of a pain document concurrently: each
+ * payment info header and each chunk of its transactions is a separate task.
+ * Tasks do not wait for each other, so any executor can be used. The results
+ * are assembled in the order of the given payment infos.
+ *
+ * @author Marco Janc (c) 2025
+ */
+final class ParallelDocumentBuilder
+{
+	/**
+	 * transactions mapped per task
+	 */
+	static final int CHUNK_SIZE = 1024;
+
+	/**
+	 * Validates and creates a payment instruction without transactions
+	 */
+	@FunctionalInterface
+	interface HeaderFactory<P>
+	{
+		P create(CollectorPaymentInfoPain paymentInfo) throws PainParserException;
+	}
+
+	private ParallelDocumentBuilder()
+	{
+	}
+
+	/**
+	 * @param paymentInfos
+	 * @param executor
+	 * @param headerFactory
+	 * @param transactionFactory
+	 * @param transactionAdder
+	 *            adds a chunk of transactions to the payment instruction
+	 * @return payment instructions in the order of the payment infos
+	 * @throws PaymentInfoValidationException
+	 *             containing the failure of each invalid payment info
+	 */
+	static <P, T> List<P> build(final List<CollectorPaymentInfoPain> paymentInfos, final Executor executor,
+		final HeaderFactory<P> headerFactory, final Function<PainTransaction, T> transactionFactory,
+		final BiConsumer<P, List<T>> transactionAdder) throws PainParserException
+	{
+		final int size = paymentInfos.size();
+		final List<CompletableFuture<P>> headers = new ArrayList<>(size);
+		final List<List<CompletableFuture<List<T>>>> chunks = new ArrayList<>(size);
+
+		for (final CollectorPaymentInfoPain paymentInfo : paymentInfos)
+		{
+			final CompletableFuture<P> header = CompletableFuture.supplyAsync(() -> {
+				try
+				{
+					return headerFactory.create(paymentInfo);
+				}
+				catch (final PainParserException e)
+				{
+					throw new CompletionException(e);
+				}
+			}, executor);
+			headers.add(header);
+
+			// transactions only once the payment info is known to be valid
+			final List<PainTransaction> transactions = paymentInfo == null ? null : paymentInfo.getTransactions();
+			final int numTxs = transactions == null ? 0 : transactions.size();
+			final List<CompletableFuture<List<T>>> paymentInfoChunks = new ArrayList<>(numTxs / ParallelDocumentBuilder.CHUNK_SIZE + 1);
+			for (int from = 0; from < numTxs; from += ParallelDocumentBuilder.CHUNK_SIZE)
+			{
+				final List<PainTransaction> chunk = transactions.subList(from, Math.min(numTxs, from + ParallelDocumentBuilder.CHUNK_SIZE));
+				paymentInfoChunks.add(header.thenApplyAsync(h -> {
+					final List<T> result = new ArrayList<>(chunk.size());
+					for (final PainTransaction transaction : chunk)
+						result.add(transactionFactory.apply(transaction));
+					return result;
+				}, executor));
+			}
+			chunks.add(paymentInfoChunks);
+		}
+
+		// assemble in order, collecting all invalid payment infos
+		final List<P> result = new ArrayList<>(size);
+		final Map<Integer, PainParserException> failures = new TreeMap<>();
+		for (int i = 0; i < size; i++)
+		{
+			try
+			{
+				final P paymentInstruction = headers.get(i).join();
+				for (final CompletableFuture<List<T>> chunk : chunks.get(i))
+					transactionAdder.accept(paymentInstruction, chunk.join());
+				result.add(paymentInstruction);
+			}
+			catch (final CompletionException e)
+			{
+				failures.put(i, ParallelDocumentBuilder.toParserException(e.getCause()));
+			}
+		}
+
+		if (!failures.isEmpty())
+			throw new PaymentInfoValidationException(failures);
+		return result;
+	}
+
+	private static PainParserException toParserException(final Throwable e)
+	{
+		if (e instanceof PainParserException)
+			return (PainParserException) e;
+		return new PainParserException(ParserExceptionType.PAYMENT_INFO_ERROR, String.valueOf(e), e);
+	}
+}
@@ -0,0 +1,608 @@
+package de.deloma.tools.sepa.pain;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import de.deloma.tools.sepa.exception.PainParserException;
+import de.deloma.tools.sepa.pain.wrapper.CollectorPaymentInfoPain;
+import de.deloma.tools.sepa.pain.wrapper.CreditorInfo;
+import de.deloma.tools.sepa.pain.wrapper.DirectDebit;
+import de.deloma.tools.sepa.pain.wrapper.PainTransaction;
+import de.deloma.tools.sepa.pain.wrapper.SepaLocalInstrumentCode;
+import de.deloma.tools.sepa.pain.wrapper.SequenceTypeCode;
+import de.deloma.tools.sepa.pain.wrapper.TransactionBatch;
+import de.deloma.tools.sepa.util.TargetCalendar;
+
+/**
+ * Groups flat direct debits into payment infos ({@code PmtInf}) by creditor,
+ * local instrument, sequence type and collection date in a single pass hash
+ * aggregation. Payment infos keep the order in which their first debit was
+ * added, their transactions the order in which they were added.
+ *
+ * Transactions are buffered per group in {@link TransactionBatch}es. If the
+ * number of buffered groups or their size exceeds the memory budget, all
+ * buffered transactions are spilled to a temporary file and read back while
+ * writing.
+ *
+ * <pre>
+ * try (PaymentInfoGrouper grouper = new PaymentInfoGrouper("PMT-");
+ * 	PainStreamWriter writer = new PainStreamWriter(type, headerInfo, os))
+ * {
+ * 	grouper.addAll(debits);
+ * 	grouper.write(writer);
+ * 	writer.finish();
+ * }
+ * </pre>
+ *
+ * All amounts must be representable in cents. Not thread-safe.
+ *
+ * @author Marco Janc (c) 2025
+ */
+public class PaymentInfoGrouper implements Closeable
+{
+	/**
+	 * default maximum number of groups with buffered transactions
+	 */
+	public static final int DEFAULT_MAX_GROUPS = 10_000;
+
+	/**
+	 * default maximum size of the buffered transactions in bytes
+	 */
+	public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * initial capacity of the transaction batch of a group
+	 */
+	private static final int GROUP_CAPACITY = 16;
+
+	private static final int NO_DATE = Integer.MIN_VALUE;
+
+	private final String paymentInfoIdPrefix;
+
+	private final int maxGroups;
+
+	private final long maxBytes;
+
+	private final Path spillDirectory;
+
+	private final Map<GroupKey, Group> groups = new HashMap<>();
+
+	/**
+	 * groups in order of their first debit
+	 */
+	private final List<Group> order = new ArrayList<>();
+
+	/**
+	 * group of the last debit, rows are often sorted by group
+	 */
+	private Group last;
+
+	private int bufferedGroups;
+
+	private long bufferedBytes;
+
+	private long numTxs;
+
+	private int spills;
+
+	/*
+	 * spill file, created on the first spill
+	 */
+
+	private Path spillFile;
+
+	private OutputStream spillOut;
+
+	/**
+	 * separate channel for reading, so reads do not move the append position
+	 * of {@link #spillOut}
+	 */
+	private FileChannel spillReadChannel;
+
+	private long spillLength;
+
+	private boolean closed;
+
+	private TargetCalendar targetCalendar;
+
+	private LocalDate submissionDate;
+
+	/**
+	 * Creates a grouper with the default memory budget spilling to the default
+	 * temporary-file directory
+	 *
+	 * @param paymentInfoIdPrefix
+	 *            prefix of the payment info ids, followed by the number of the
+	 *            group starting at 1
+	 */
+	public PaymentInfoGrouper(final String paymentInfoIdPrefix)
+	{
+		this(paymentInfoIdPrefix, PaymentInfoGrouper.DEFAULT_MAX_GROUPS, PaymentInfoGrouper.DEFAULT_MAX_BYTES,
+			Paths.get(System.getProperty("java.io.tmpdir")));
+	}
+
+	/**
+	 * @param paymentInfoIdPrefix
+	 *            prefix of the payment info ids, followed by the number of the
+	 *            group starting at 1
+	 * @param maxGroups
+	 *            maximum number of groups with buffered transactions
+	 * @param maxBytes
+	 *            maximum size of the buffered transactions in bytes
+	 * @param spillDirectory
+	 *            directory of the temporary spill file
+	 */
+	public PaymentInfoGrouper(final String paymentInfoIdPrefix, final int maxGroups, final long maxBytes, final Path spillDirectory)
+	{
+		if (maxGroups < 1 || maxBytes < 1)
+			throw new IllegalArgumentException("invalid memory budget");
+		this.paymentInfoIdPrefix = Objects.requireNonNull(paymentInfoIdPrefix, "paymentInfoIdPrefix must not be null");
+		this.maxGroups = maxGroups;
+		this.maxBytes = maxBytes;
+		this.spillDirectory = Objects.requireNonNull(spillDirectory, "spillDirectory must not be null");
+	}
+
+	/**
+	 * Sets the calendar moving the collection date of subsequently added
+	 * debits to the next valid collection date, see
+	 * {@link TargetCalendar#getNextCollectionDate(LocalDate, LocalDate, SepaLocalInstrumentCode, SequenceTypeCode)}
+	 *
+	 * @param targetCalendar
+	 *            or null to keep the collection dates
+	 * @param submissionDate
+	 *            date the file is submitted to the bank
+	 */
+	public void setTargetCalendar(final TargetCalendar targetCalendar, final LocalDate submissionDate)
+	{
+		if (targetCalendar != null)
+			Objects.requireNonNull(submissionDate, "submissionDate must not be null");
+		this.targetCalendar = targetCalendar;
+		this.submissionDate = submissionDate;
+	}
+
+	public void add(final DirectDebit debit) throws IOException
+	{
+		this.add(debit.getCreditorInfo(), debit.getSepaLocalInstrumentCode(), debit.getSequenceTypeCode(), debit.getCollectionDate(),
+			debit.getTransaction());
+	}
+
+	/**
+	 * Adds the transaction to the payment info of the given creditor,
+	 * instrument, sequence type and collection date
+	 *
+	 * @throws IOException
+	 *             if spilling fails
+	 * @throws ArithmeticException
+	 *             if the amount is not representable in cents
+	 */
+	public void add(final CreditorInfo creditorInfo, final SepaLocalInstrumentCode sepaLocalInstrumentCode, final SequenceTypeCode sequenceTypeCode,
+		final LocalDate requestedCollectionDate, final PainTransaction transaction) throws IOException
+	{
+		this.checkOpen();
+		Objects.requireNonNull(creditorInfo, "creditorInfo must not be null");
+		Objects.requireNonNull(transaction, "transaction must not be null");
+
+		final LocalDate collectionDate = this.targetCalendar == null ? requestedCollectionDate
+			: this.targetCalendar.getNextCollectionDate(requestedCollectionDate, this.submissionDate, sepaLocalInstrumentCode, sequenceTypeCode);
+
+		Group group = this.last;
+		if (group == null || !group.key.matches(creditorInfo, sepaLocalInstrumentCode, sequenceTypeCode, collectionDate))
+		{
+			final GroupKey key = new GroupKey(creditorInfo, sepaLocalInstrumentCode, sequenceTypeCode, collectionDate);
+			group = this.groups.get(key);
+			if (group == null)
+			{
+				group = new Group(key, this.paymentInfoIdPrefix + (this.order.size() + 1), creditorInfo);
+				this.groups.put(key, group);
+				this.order.add(group);
+			}
+			this.last = group;
+		}
+
+		if (group.batch == null)
+		{
+			group.batch = new TransactionBatch(PaymentInfoGrouper.GROUP_CAPACITY);
+			this.bufferedGroups++;
+			this.bufferedBytes += group.batch.getSizeInBytes();
+		}
+		final long size = group.batch.getSizeInBytes();
+		group.batch.add(transaction);
+		this.bufferedBytes += group.batch.getSizeInBytes() - size;
+		group.numTxs++;
+		this.numTxs++;
+
+		if (this.bufferedGroups > this.maxGroups || this.bufferedBytes > this.maxBytes)
+			this.spill();
+	}
+
+	/**
+	 * Adds the remaining debits of the iterator
+	 *
+	 * @param debits
+	 * @throws IOException
+	 */
+	public void addAll(final Iterator<? extends DirectDebit> debits) throws IOException
+	{
+		while (debits.hasNext())
+			this.add(debits.next());
+	}
+
+	/**
+	 * Adds the debits of the stream in encounter order
+	 *
+	 * @param debits
+	 *            sequential stream, not closed
+	 * @throws IOException
+	 */
+	public void addAll(final Stream<? extends DirectDebit> debits) throws IOException
+	{
+		try
+		{
+			debits.sequential().forEachOrdered(debit -> {
+				try
+				{
+					this.add(debit);
+				}
+				catch (final IOException e)
+				{
+					throw new UncheckedIOException(e);
+				}
+			});
+		}
+		catch (final UncheckedIOException e)
+		{
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * @return number of payment infos
+	 */
+	public int getNumberOfGroups()
+	{
+		return this.order.size();
+	}
+
+	/**
+	 * @return number of added transactions
+	 */
+	public long getNumberOfTransactions()
+	{
+		return this.numTxs;
+	}
+
+	/**
+	 * @return number of times the buffered transactions were spilled to disk
+	 */
+	public int getNumberOfSpills()
+	{
+		return this.spills;
+	}
+
+	/**
+	 * Writes all payment infos with their transactions to the given writer,
+	 * debits may still be added afterwards
+	 *
+	 * @param writer
+	 *            not finished
+	 * @throws IOException
+	 * @throws PainParserException
+	 */
+	public void write(final PainStreamWriter writer) throws IOException, PainParserException
+	{
+		this.checkOpen();
+		this.flushSpill();
+		for (final Group group : this.order)
+		{
+			writer.beginPaymentInfo(group.createPaymentInfo(Collections.emptyList()));
+			for (int i = 0; i < group.segments; i++)
+				this.readSegment(group.offsets[i], group.counts[i], writer::writeTransaction);
+			if (group.batch != null)
+				writer.writeTransactions(group.batch);
+			writer.endPaymentInfo();
+		}
+	}
+
+	/**
+	 * Reads all payment infos with their transactions into memory, each
+	 * backed by a {@link TransactionBatch}, f.e. to create the JAXB document.
+	 * Debits may still be added afterwards.
+	 *
+	 * @return payment infos in order of their first debit
+	 * @throws IOException
+	 */
+	public List<CollectorPaymentInfoPain> toPaymentInfos() throws IOException
+	{
+		this.checkOpen();
+		this.flushSpill();
+		final List<CollectorPaymentInfoPain> paymentInfos = new ArrayList<>(this.order.size());
+		for (final Group group : this.order)
+		{
+			final TransactionBatch batch = new TransactionBatch(Math.toIntExact(group.numTxs));
+			for (int i = 0; i < group.segments; i++)
+				this.readSegment(group.offsets[i], group.counts[i], batch::add);
+			if (group.batch != null)
+				for (int i = 0; i < group.batch.size(); i++)
+					batch.add(group.batch.get(i));
+			batch.trimToSize();
+			paymentInfos.add(group.createPaymentInfo(batch));
+		}
+		return paymentInfos;
+	}
+
+	/**
+	 * Deletes the spill file
+	 */
+	@Override
+	public void close() throws IOException
+	{
+		if (this.closed)
+			return;
+		this.closed = true;
+		if (this.spillFile == null)
+			return;
+		try
+		{
+			this.spillOut.close();
+		}
+		finally
+		{
+			try
+			{
+				this.spillReadChannel.close();
+			}
+			finally
+			{
+				Files.deleteIfExists(this.spillFile);
+			}
+		}
+	}
+
+	private void checkOpen()
+	{
+		if (this.closed)
+			throw new IllegalStateException("grouper already closed");
+	}
+
+	/**
+	 * Writes the buffered transactions of all groups to the spill file, each
+	 * group as one segment
+	 */
+	private void spill() throws IOException
+	{
+		if (this.spillFile == null)
+		{
+			this.spillFile = Files.createTempFile(this.spillDirectory, "pain-group-", ".spill");
+			this.spillOut = new BufferedOutputStream(Files.newOutputStream(this.spillFile, StandardOpenOption.APPEND), PaymentInfoGrouper.BUFFER_SIZE);
+			this.spillReadChannel = FileChannel.open(this.spillFile, StandardOpenOption.READ);
+		}
+
+		for (final Group group : this.order)
+		{
+			final TransactionBatch batch = group.batch;
+			if (batch == null)
+				continue;
+
+			final DataOutputStream out = new DataOutputStream(this.spillOut);
+			for (int i = 0; i < batch.size(); i++)
+				PaymentInfoGrouper.writeTransaction(out, batch, i);
+			group.addSegment(this.spillLength, batch.size());
+			this.spillLength += out.size();
+			group.batch = null;
+		}
+		this.bufferedGroups = 0;
+		this.bufferedBytes = 0;
+		this.spills++;
+	}
+
+	private void flushSpill() throws IOException
+	{
+		if (this.spillOut != null)
+			this.spillOut.flush();
+	}
+
+	private void readSegment(final long offset, final int count, final TransactionConsumer consumer) throws IOException
+	{
+		// not closed, closing would close the channel
+		final DataInputStream in = new DataInputStream(
+			new BufferedInputStream(Channels.newInputStream(this.spillReadChannel.position(offset)), PaymentInfoGrouper.BUFFER_SIZE));
+		for (int i = 0; i < count; i++)
+			consumer.accept(PaymentInfoGrouper.readTransaction(in));
+	}
+
+	private static void writeTransaction(final DataOutputStream out, final TransactionBatch batch, final int index) throws IOException
+	{
+		PaymentInfoGrouper.writeString(out, batch.getEndToEndId(index));
+		out.writeLong(batch.getAmountCents(index));
+		PaymentInfoGrouper.writeString(out, batch.getDbtrName(index));
+		PaymentInfoGrouper.writeString(out, batch.getDbtrIban(index));
+		PaymentInfoGrouper.writeString(out, batch.getDbtrBic(index));
+		PaymentInfoGrouper.writeString(out, batch.getMandateId(index));
+		final LocalDate dtOfSgntr = batch.getDtOfSgntr(index);
+		out.writeInt(dtOfSgntr == null ? PaymentInfoGrouper.NO_DATE : Math.toIntExact(dtOfSgntr.toEpochDay()));
+		PaymentInfoGrouper.writeString(out, batch.getUltDbtrName(index));
+		PaymentInfoGrouper.writeString(out, batch.getUstrdRemInf(index));
+	}
+
+	private static PainTransaction readTransaction(final DataInputStream in) throws IOException
+	{
+		final String endToEndId = PaymentInfoGrouper.readString(in);
+		final long amountCents = in.readLong();
+		final String dbtrName = PaymentInfoGrouper.readString(in);
+		final String dbtrIban = PaymentInfoGrouper.readString(in);
+		final String dbtrBic = PaymentInfoGrouper.readString(in);
+		final String mandateId = PaymentInfoGrouper.readString(in);
+		final int epochDay = in.readInt();
+		final String ultDbtrName = PaymentInfoGrouper.readString(in);
+		final String ustrdRemInf = PaymentInfoGrouper.readString(in);
+		return new PainTransaction(endToEndId, amountCents, dbtrName, dbtrIban, dbtrBic, mandateId,
+			epochDay == PaymentInfoGrouper.NO_DATE ? null : LocalDate.ofEpochDay(epochDay), ultDbtrName, ustrdRemInf);
+	}
+
+	private static void writeString(final DataOutputStream out, final String value) throws IOException
+	{
+		out.writeBoolean(value != null);
+		if (value != null)
+			out.writeUTF(value);
+	}
+
+	private static String readString(final DataInputStream in) throws IOException
+	{
+		return in.readBoolean() ? in.readUTF() : null;
+	}
+
+	@FunctionalInterface
+	private interface TransactionConsumer
+	{
+		void accept(PainTransaction transaction) throws IOException;
+	}
+
+	/**
+	 * payment info with its buffered transactions and spilled segments
+	 */
+	private static final class Group
+	{
+		final GroupKey key;
+
+		final String paymentInfoId;
+
+		/**
+		 * creditor of the first debit
+		 */
+		final CreditorInfo creditorInfo;
+
+		TransactionBatch batch;
+
+		long numTxs;
+
+		/*
+		 * spilled segments
+		 */
+
+		long[] offsets = new long[0];
+
+		int[] counts = new int[0];
+
+		int segments;
+
+		Group(final GroupKey key, final String paymentInfoId, final CreditorInfo creditorInfo)
+		{
+			this.key = key;
+			this.paymentInfoId = paymentInfoId;
+			this.creditorInfo = creditorInfo;
+		}
+
+		void addSegment(final long offset, final int count)
+		{
+			if (this.segments == this.offsets.length)
+			{
+				final int capacity = Math.max(4, this.segments * 2);
+				this.offsets = Arrays.copyOf(this.offsets, capacity);
+				this.counts = Arrays.copyOf(this.counts, capacity);
+			}
+			this.offsets[this.segments] = offset;
+			this.counts[this.segments] = count;
+			this.segments++;
+		}
+
+		CollectorPaymentInfoPain createPaymentInfo(final List<PainTransaction> transactions)
+		{
+			return new CollectorPaymentInfoPain(this.creditorInfo, this.paymentInfoId, this.key.sepaLocalInstrumentCode, this.key.sequenceTypeCode,
+				this.key.collectionDate, transactions);
+		}
+
+		CollectorPaymentInfoPain createPaymentInfo(final TransactionBatch transactions)
+		{
+			return new CollectorPaymentInfoPain(this.creditorInfo, this.paymentInfoId, this.key.sepaLocalInstrumentCode, this.key.sequenceTypeCode,
+				this.key.collectionDate, transactions);
+		}
+	}
+
+	/**
+	 * grouping criteria of a payment info
+	 */
+	private static final class GroupKey
+	{
+		final String name;
+
+		final String iban;
+
+		final String bic;
+
+		final String glauebigerId;
+
+		final SepaLocalInstrumentCode sepaLocalInstrumentCode;
+
+		final SequenceTypeCode sequenceTypeCode;
+
+		final LocalDate collectionDate;
+
+		private final int hash;
+
+		GroupKey(final CreditorInfo creditorInfo, final SepaLocalInstrumentCode sepaLocalInstrumentCode, final SequenceTypeCode sequenceTypeCode,
+				final LocalDate collectionDate)
+		{
+			this.name = creditorInfo.getName();
+			this.iban = creditorInfo.getIban();
+			this.bic = creditorInfo.getBic();
+			this.glauebigerId = creditorInfo.getGlauebigerId();
+			this.sepaLocalInstrumentCode = sepaLocalInstrumentCode;
+			this.sequenceTypeCode = sequenceTypeCode;
+			this.collectionDate = collectionDate;
+			this.hash = Objects.hash(this.name, this.iban, this.bic, this.glauebigerId, sepaLocalInstrumentCode, sequenceTypeCode, collectionDate);
+		}
+
+		boolean matches(final CreditorInfo creditorInfo, final SepaLocalInstrumentCode sepaLocalInstrumentCode, final SequenceTypeCode sequenceTypeCode,
+			final LocalDate collectionDate)
+		{
+			return this.sepaLocalInstrumentCode == sepaLocalInstrumentCode && this.sequenceTypeCode == sequenceTypeCode
+				&& Objects.equals(this.collectionDate, collectionDate) && Objects.equals(this.iban, creditorInfo.getIban())
+				&& Objects.equals(this.glauebigerId, creditorInfo.getGlauebigerId()) && Objects.equals(this.bic, creditorInfo.getBic())
+				&& Objects.equals(this.name, creditorInfo.getName());
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return this.hash;
+		}
+
+		@Override
+		public boolean equals(final Object obj)
+		{
+			if (this == obj)
+				return true;
+			if (!(obj instanceof GroupKey))
+				return false;
+			final GroupKey other = (GroupKey) obj;
+			return this.hash == other.hash && this.sepaLocalInstrumentCode == other.sepaLocalInstrumentCode
+				&& this.sequenceTypeCode == other.sequenceTypeCode && Objects.equals(this.collectionDate, other.collectionDate)
+				&& Objects.equals(this.iban, other.iban) && Objects.equals(this.glauebigerId, other.glauebigerId)
+				&& Objects.equals(this.bic, other.bic) && Objects.equals(this.name, other.name);
+		}
+	}
+}
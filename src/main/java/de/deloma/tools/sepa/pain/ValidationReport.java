@@ -0,0 +1,465 @@
+package de.deloma.tools.sepa.pain;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import de.deloma.tools.sepa.exception.ValidationReportException;
+import de.deloma.tools.sepa.pain.wrapper.CollectorPaymentInfoPain;
+import de.deloma.tools.sepa.pain.wrapper.CreditorInfo;
+import de.deloma.tools.sepa.pain.wrapper.GroupHeaderInfo;
+import de.deloma.tools.sepa.pain.wrapper.PainTransaction;
+import de.deloma.tools.sepa.util.BankDirectory;
+import de.deloma.tools.sepa.util.SepaIdValidator;
+import de.deloma.tools.sepa.util.TargetCalendar;
+
+/**
+ * Collects all violations of a document instead of failing on the first like
+ * the {@code validate} methods of the wrappers, f.e. to report every invalid
+ * row of a large batch at once. Each violation is stored compactly as its
+ * payment info index, transaction index, {@link Field} and {@link ErrorCode}
+ * in primitive columns, no exception is created.
+ *
+ * Besides the checks of the {@code validate} methods the transactions are
+ * checked and IBANs, BICs and creditor identifiers are checked by
+ * {@link SepaIdValidator}.
+ *
+ * <pre>
+ * ValidationReport report = ValidationReport.validate(headerInfo, paymentInfos);
+ * for (int i = 0; i &lt; report.size(); i++)
+ * 	log(report.getPaymentInfoIndex(i), report.getTransactionIndex(i), report.getField(i), report.getErrorCode(i));
+ * report.check();
+ * </pre>
+ *
+ * Not thread-safe.
+ *
+ * @author Marco Janc (c) 2025
+ */
+public class ValidationReport
+{
+	/**
+	 * index of a violation which is not located in a payment info or
+	 * transaction
+	 */
+	public static final int NONE = -1;
+
+	/**
+	 * default maximum number of stored violations
+	 */
+	public static final int DEFAULT_MAX_VIOLATIONS = 1_000_000;
+
+	/**
+	 * validated field
+	 */
+	public enum Field
+	{
+		MSG_ID,
+		INITIATOR,
+		CREDITOR,
+		CREDITOR_NAME,
+		CREDITOR_IBAN,
+		CREDITOR_BIC,
+		CREDITOR_ID,
+		PAYMENT_INFO_ID,
+		LOCAL_INSTRUMENT,
+		SEQUENCE_TYPE,
+		COLLECTION_DATE,
+		TRANSACTIONS,
+		END_TO_END_ID,
+		AMOUNT,
+		DBTR_NAME,
+		DBTR_IBAN,
+		DBTR_BIC,
+		MANDATE_ID,
+		DT_OF_SGNTR,
+		ULT_DBTR_NAME,
+		USTRD_REM_INF;
+
+		private static final Field[] VALUES = Field.values();
+	}
+
+	/**
+	 * kind of violation
+	 */
+	public enum ErrorCode
+	{
+		/**
+		 * required value missing or empty
+		 */
+		MISSING,
+
+		/**
+		 * value too long or too short
+		 */
+		LENGTH,
+
+		/**
+		 * invalid structure or check digits
+		 */
+		INVALID,
+
+		/**
+		 * value out of its range, f.e. amount or date
+		 */
+		RANGE,
+
+		/**
+		 * BIC not matching the bank of the IBAN in the {@link BankDirectory}
+		 */
+		MISMATCH;
+
+		private static final ErrorCode[] VALUES = ErrorCode.values();
+	}
+
+	private final int maxViolations;
+
+	private int[] paymentInfoIndexes = new int[16];
+
+	private int[] transactionIndexes = new int[16];
+
+	/**
+	 * {@link Field} ordinal
+	 */
+	private byte[] fields = new byte[16];
+
+	/**
+	 * {@link ErrorCode} ordinal
+	 */
+	private byte[] errorCodes = new byte[16];
+
+	private int size;
+
+	/**
+	 * number of violations including the ones not stored
+	 */
+	private long count;
+
+	private BankDirectory bankDirectory;
+
+	private TargetCalendar targetCalendar;
+
+	private LocalDate submissionDate;
+
+	public ValidationReport()
+	{
+		this(ValidationReport.DEFAULT_MAX_VIOLATIONS);
+	}
+
+	/**
+	 * @param maxViolations
+	 *            maximum number of stored violations, further violations are
+	 *            only counted
+	 */
+	public ValidationReport(final int maxViolations)
+	{
+		if (maxViolations < 0)
+			throw new IllegalArgumentException("maxViolations must not be negative");
+		this.maxViolations = maxViolations;
+	}
+
+	/**
+	 * Sets the directory to check whether the BICs match the banks of the
+	 * IBANs
+	 *
+	 * @param bankDirectory
+	 *            or null to not check
+	 */
+	public void setBankDirectory(final BankDirectory bankDirectory)
+	{
+		this.bankDirectory = bankDirectory;
+	}
+
+	/**
+	 * Sets the calendar to check the collection dates by TARGET business days
+	 * and lead times instead of only being after today
+	 *
+	 * @param targetCalendar
+	 *            or null for the default check
+	 * @param submissionDate
+	 *            date the file is submitted to the bank
+	 */
+	public void setTargetCalendar(final TargetCalendar targetCalendar, final LocalDate submissionDate)
+	{
+		if (targetCalendar != null)
+			Objects.requireNonNull(submissionDate, "submissionDate must not be null");
+		this.targetCalendar = targetCalendar;
+		this.submissionDate = submissionDate;
+	}
+
+	/**
+	 * Validates the group header and all payment infos with their
+	 * transactions
+	 *
+	 * @param groupHeaderInfo
+	 * @param paymentInfos
+	 * @return report of all violations
+	 */
+	public static ValidationReport validate(final GroupHeaderInfo groupHeaderInfo, final List<CollectorPaymentInfoPain> paymentInfos)
+	{
+		final ValidationReport report = new ValidationReport();
+		report.validate(groupHeaderInfo);
+		report.validate(paymentInfos);
+		return report;
+	}
+
+	/**
+	 * Validates the group header
+	 *
+	 * @param groupHeaderInfo
+	 */
+	public void validate(final GroupHeaderInfo groupHeaderInfo)
+	{
+		Objects.requireNonNull(groupHeaderInfo, "groupHeaderInfo must not be null");
+		this.checkLength(ValidationReport.NONE, ValidationReport.NONE, Field.MSG_ID, groupHeaderInfo.getMsgId(), PainTransaction.MAX_ID_LENGTH);
+		this.checkLength(ValidationReport.NONE, ValidationReport.NONE, Field.INITIATOR, groupHeaderInfo.getInitiator(), PainTransaction.MAX_NAME_LENGTH);
+	}
+
+	/**
+	 * Validates the payment infos with their transactions, located by their
+	 * index in the list
+	 *
+	 * @param paymentInfos
+	 */
+	public void validate(final List<CollectorPaymentInfoPain> paymentInfos)
+	{
+		for (int i = 0; i < paymentInfos.size(); i++)
+			this.validate(i, paymentInfos.get(i));
+	}
+
+	/**
+	 * Validates the payment info with its transactions
+	 *
+	 * @param paymentInfoIndex
+	 *            index of the payment info in the document
+	 * @param paymentInfo
+	 */
+	public void validate(final int paymentInfoIndex, final CollectorPaymentInfoPain paymentInfo)
+	{
+		Objects.requireNonNull(paymentInfo, "paymentInfo must not be null");
+		final int none = ValidationReport.NONE;
+
+		final CreditorInfo creditorInfo = paymentInfo.getCreditorInfo();
+		if (creditorInfo == null)
+			this.add(paymentInfoIndex, none, Field.CREDITOR, ErrorCode.MISSING);
+		else
+		{
+			this.checkLength(paymentInfoIndex, none, Field.CREDITOR_NAME, creditorInfo.getName(), PainTransaction.MAX_NAME_LENGTH);
+			this.checkIban(paymentInfoIndex, none, Field.CREDITOR_IBAN, creditorInfo.getIban());
+			if (creditorInfo.getBic() == null)
+				this.add(paymentInfoIndex, none, Field.CREDITOR_BIC, ErrorCode.MISSING);
+			else if (!SepaIdValidator.isValidBic(creditorInfo.getBic()))
+				this.add(paymentInfoIndex, none, Field.CREDITOR_BIC, ErrorCode.INVALID);
+			else
+				this.checkConsistent(paymentInfoIndex, none, Field.CREDITOR_BIC, creditorInfo.getIban(), creditorInfo.getBic());
+			if (this.checkLength(paymentInfoIndex, none, Field.CREDITOR_ID, creditorInfo.getGlauebigerId(), PainTransaction.MAX_ID_LENGTH)
+				&& !SepaIdValidator.isValidCreditorId(creditorInfo.getGlauebigerId()))
+				this.add(paymentInfoIndex, none, Field.CREDITOR_ID, ErrorCode.INVALID);
+		}
+
+		this.checkLength(paymentInfoIndex, none, Field.PAYMENT_INFO_ID, paymentInfo.getPaymentInfoId(), PainTransaction.MAX_ID_LENGTH);
+		if (paymentInfo.getSepaLocalInstrumentCode() == null)
+			this.add(paymentInfoIndex, none, Field.LOCAL_INSTRUMENT, ErrorCode.MISSING);
+		if (paymentInfo.getSequenceTypeCode() == null)
+			this.add(paymentInfoIndex, none, Field.SEQUENCE_TYPE, ErrorCode.MISSING);
+
+		final LocalDate collectionDate = paymentInfo.getCollectionLocalDate();
+		if (collectionDate == null)
+			this.add(paymentInfoIndex, none, Field.COLLECTION_DATE, ErrorCode.MISSING);
+		else if (this.targetCalendar == null ? !CollectorPaymentInfoPain.isValidCollectionDate(collectionDate)
+			: !CollectorPaymentInfoPain.isValidCollectionDate(paymentInfo, this.targetCalendar, this.submissionDate))
+			this.add(paymentInfoIndex, none, Field.COLLECTION_DATE, ErrorCode.RANGE);
+
+		final List<PainTransaction> transactions = paymentInfo.getTransactions();
+		if (transactions.isEmpty())
+			this.add(paymentInfoIndex, none, Field.TRANSACTIONS, ErrorCode.MISSING);
+		for (int i = 0; i < transactions.size(); i++)
+			this.validate(paymentInfoIndex, i, transactions.get(i));
+	}
+
+	/**
+	 * Validates the transaction
+	 *
+	 * @param paymentInfoIndex
+	 * @param transactionIndex
+	 *            index of the transaction in its payment info
+	 * @param transaction
+	 */
+	public void validate(final int paymentInfoIndex, final int transactionIndex, final PainTransaction transaction)
+	{
+		this.checkLength(paymentInfoIndex, transactionIndex, Field.END_TO_END_ID, transaction.getEndToEndId(), PainTransaction.MAX_ID_LENGTH);
+
+		if (!transaction.hasAmountCents())
+			this.add(paymentInfoIndex, transactionIndex, Field.AMOUNT, transaction.getAmount() == null ? ErrorCode.MISSING : ErrorCode.INVALID);
+		else
+		{
+			final long amountCents = transaction.getAmountCents();
+			if (amountCents < 1 || amountCents > PainTransaction.MAX_AMOUNT_CENTS)
+				this.add(paymentInfoIndex, transactionIndex, Field.AMOUNT, ErrorCode.RANGE);
+		}
+
+		this.checkLength(paymentInfoIndex, transactionIndex, Field.DBTR_NAME, transaction.getDbtrName(), PainTransaction.MAX_NAME_LENGTH);
+		this.checkIban(paymentInfoIndex, transactionIndex, Field.DBTR_IBAN, transaction.getDbtrIban());
+		final String dbtrBic = transaction.getDbtrBic();
+		if (dbtrBic != null && !SepaIdValidator.isValidBic(dbtrBic))
+			this.add(paymentInfoIndex, transactionIndex, Field.DBTR_BIC, ErrorCode.INVALID);
+		else
+			this.checkConsistent(paymentInfoIndex, transactionIndex, Field.DBTR_BIC, transaction.getDbtrIban(), dbtrBic);
+		this.checkLength(paymentInfoIndex, transactionIndex, Field.MANDATE_ID, transaction.getMandateId(), PainTransaction.MAX_ID_LENGTH);
+		if (transaction.getDtOfSgntrLocalDate() == null)
+			this.add(paymentInfoIndex, transactionIndex, Field.DT_OF_SGNTR, ErrorCode.MISSING);
+		if (transaction.getUltDbtrName() != null)
+			this.checkLength(paymentInfoIndex, transactionIndex, Field.ULT_DBTR_NAME, transaction.getUltDbtrName(), PainTransaction.MAX_NAME_LENGTH);
+		if (transaction.getUstrdRemInf() != null)
+			this.checkLength(paymentInfoIndex, transactionIndex, Field.USTRD_REM_INF, transaction.getUstrdRemInf(), PainTransaction.MAX_REMITTANCE_INFO_LENGTH);
+	}
+
+	/**
+	 * Adds a violation
+	 *
+	 * @param paymentInfoIndex
+	 *            or {@link #NONE}
+	 * @param transactionIndex
+	 *            or {@link #NONE}
+	 * @param field
+	 * @param errorCode
+	 */
+	public void add(final int paymentInfoIndex, final int transactionIndex, final Field field, final ErrorCode errorCode)
+	{
+		this.count++;
+		if (this.size == this.maxViolations)
+			return;
+		if (this.size == this.fields.length)
+		{
+			final int capacity = (int) Math.min(this.maxViolations, this.size * 2L);
+			this.paymentInfoIndexes = Arrays.copyOf(this.paymentInfoIndexes, capacity);
+			this.transactionIndexes = Arrays.copyOf(this.transactionIndexes, capacity);
+			this.fields = Arrays.copyOf(this.fields, capacity);
+			this.errorCodes = Arrays.copyOf(this.errorCodes, capacity);
+		}
+		this.paymentInfoIndexes[this.size] = paymentInfoIndex;
+		this.transactionIndexes[this.size] = transactionIndex;
+		this.fields[this.size] = (byte) field.ordinal();
+		this.errorCodes[this.size] = (byte) errorCode.ordinal();
+		this.size++;
+	}
+
+	/**
+	 * @return whether there is no violation
+	 */
+	public boolean isValid()
+	{
+		return this.count == 0;
+	}
+
+	/**
+	 * @return number of stored violations
+	 */
+	public int size()
+	{
+		return this.size;
+	}
+
+	/**
+	 * @return number of all violations, including the ones exceeding the
+	 *         maximum number of stored violations
+	 */
+	public long getViolationCount()
+	{
+		return this.count;
+	}
+
+	/**
+	 * @param index
+	 *            of the stored violation
+	 * @return index of the payment info or {@link #NONE}
+	 */
+	public int getPaymentInfoIndex(final int index)
+	{
+		return this.paymentInfoIndexes[Objects.checkIndex(index, this.size)];
+	}
+
+	/**
+	 * @param index
+	 *            of the stored violation
+	 * @return index of the transaction in its payment info or {@link #NONE}
+	 */
+	public int getTransactionIndex(final int index)
+	{
+		return this.transactionIndexes[Objects.checkIndex(index, this.size)];
+	}
+
+	public Field getField(final int index)
+	{
+		return Field.VALUES[this.fields[Objects.checkIndex(index, this.size)]];
+	}
+
+	public ErrorCode getErrorCode(final int index)
+	{
+		return ErrorCode.VALUES[this.errorCodes[Objects.checkIndex(index, this.size)]];
+	}
+
+	/**
+	 * @throws ValidationReportException
+	 *             without stack trace if there is a violation
+	 */
+	public void check() throws ValidationReportException
+	{
+		if (!this.isValid())
+			throw new ValidationReportException(this);
+	}
+
+	@Override
+	public String toString()
+	{
+		final StringBuilder sb = new StringBuilder("ValidationReport [violations=").append(this.count);
+		for (int i = 0; i < Math.min(this.size, 10); i++)
+			sb.append(i == 0 ? ": " : ", ").append(this.toString(i));
+		if (this.count > 10)
+			sb.append(", ...");
+		return sb.append(']').toString();
+	}
+
+	/**
+	 * @param index
+	 *            of the stored violation
+	 * @return f.e. "PmtInf[3].Tx[17].DBTR_IBAN INVALID"
+	 */
+	public String toString(final int index)
+	{
+		final StringBuilder sb = new StringBuilder();
+		if (this.getPaymentInfoIndex(index) != ValidationReport.NONE)
+			sb.append("PmtInf[").append(this.getPaymentInfoIndex(index)).append("].");
+		if (this.getTransactionIndex(index) != ValidationReport.NONE)
+			sb.append("Tx[").append(this.getTransactionIndex(index)).append("].");
+		return sb.append(this.getField(index)).append(' ').append(this.getErrorCode(index)).toString();
+	}
+
+	/**
+	 * @return whether the value is present and not longer than max
+	 */
+	private boolean checkLength(final int paymentInfoIndex, final int transactionIndex, final Field field, final String value, final int max)
+	{
+		if (value == null || value.isEmpty())
+			this.add(paymentInfoIndex, transactionIndex, field, ErrorCode.MISSING);
+		else if (value.length() > max)
+			this.add(paymentInfoIndex, transactionIndex, field, ErrorCode.LENGTH);
+		else
+			return true;
+		return false;
+	}
+
+	private void checkConsistent(final int paymentInfoIndex, final int transactionIndex, final Field field, final String iban, final String bic)
+	{
+		if (this.bankDirectory != null && !this.bankDirectory.isConsistent(iban, bic))
+			this.add(paymentInfoIndex, transactionIndex, field, ErrorCode.MISMATCH);
+	}
+
+	private void checkIban(final int paymentInfoIndex, final int transactionIndex, final Field field, final String iban)
+	{
+		if (iban == null || iban.isEmpty())
+			this.add(paymentInfoIndex, transactionIndex, field, ErrorCode.MISSING);
+		else if (!SepaIdValidator.isValidIban(iban))
+			this.add(paymentInfoIndex, transactionIndex, field, ErrorCode.INVALID);
+	}
+}
@@ -2,16 +2,24 @@ package de.deloma.tools.sepa.pain.wrapper;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Objects;
 
 import javax.xml.datatype.XMLGregorianCalendar;
 
+import de.deloma.tools.sepa.exception.DuplicateIdException;
 import de.deloma.tools.sepa.exception.PainParserException;
 import de.deloma.tools.sepa.exception.PainParserException.ParserExceptionType;
+import de.deloma.tools.sepa.pain.DuplicateIdChecker;
+import de.deloma.tools.sepa.util.AmountUtils;
 import de.deloma.tools.sepa.util.ParserUtils;
+import de.deloma.tools.sepa.util.TargetCalendar;
 
 /**
  * Direct debit collector info holding a creditor, instrument and sequence type
@@ -30,23 +38,70 @@ public class CollectorPaymentInfoPain
 
 	private SequenceTypeCode sequenceTypeCode;
 
-	private XMLGregorianCalendar collectionDate;
+	private LocalDate collectionDate;
 
-	private final List<PainTransaction> transactions = new ArrayList<>();
+	/**
+	 * transactions if not stored in {@link #batch}
+	 */
+	private final List<PainTransaction> transactions;
+
+	/**
+	 * compact transaction storage, maintains its own total
+	 */
+	private final TransactionBatch batch;
+
+	/**
+	 * sum of the transaction amounts in cents or
+	 * {@link AmountUtils#NOT_REPRESENTABLE} once an amount is not
+	 * representable in cents or the sum overflows
+	 */
+	private long totalCents;
+
+	/**
+	 * exact sum of the transaction amounts, only maintained once
+	 * {@link #totalCents} is not representable
+	 */
+	private BigDecimal total;
 
 	public CollectorPaymentInfoPain()
 	{
+		this.transactions = new ArrayList<>();
+		this.batch = null;
 	}
 
 	public CollectorPaymentInfoPain(final CreditorInfo creditorInfo, final String paymentInfoId, final SepaLocalInstrumentCode sepaLocalInstrumentCode,
 									final SequenceTypeCode sequenceTypeCode, final Date collectionDate, final List<PainTransaction> transactions)
+	{
+		this(creditorInfo, paymentInfoId, sepaLocalInstrumentCode, sequenceTypeCode, ParserUtils.toLocalDate(collectionDate), transactions);
+	}
+
+	public CollectorPaymentInfoPain(final CreditorInfo creditorInfo, final String paymentInfoId, final SepaLocalInstrumentCode sepaLocalInstrumentCode,
+									final SequenceTypeCode sequenceTypeCode, final LocalDate collectionDate, final List<PainTransaction> transactions)
 	{
 		this.creditorInfo = creditorInfo;
 		this.paymentInfoId = paymentInfoId;
 		this.sepaLocalInstrumentCode = sepaLocalInstrumentCode;
 		this.sequenceTypeCode = sequenceTypeCode;
-		this.collectionDate = ParserUtils.dateToXmlGregorianNoOffset(collectionDate);
-		this.transactions.addAll(transactions);
+		this.collectionDate = collectionDate;
+		this.transactions = new ArrayList<>(transactions.size());
+		this.batch = null;
+		this.addTransactions(transactions);
+	}
+
+	/**
+	 * Creates the payment info with transactions stored in the given batch,
+	 * later added transactions are added to the batch
+	 */
+	public CollectorPaymentInfoPain(final CreditorInfo creditorInfo, final String paymentInfoId, final SepaLocalInstrumentCode sepaLocalInstrumentCode,
+									final SequenceTypeCode sequenceTypeCode, final LocalDate collectionDate, final TransactionBatch batch)
+	{
+		this.creditorInfo = creditorInfo;
+		this.paymentInfoId = paymentInfoId;
+		this.sepaLocalInstrumentCode = sepaLocalInstrumentCode;
+		this.sequenceTypeCode = sequenceTypeCode;
+		this.collectionDate = collectionDate;
+		this.transactions = null;
+		this.batch = Objects.requireNonNull(batch, "batch must not be null");
 	}
 
 	public CreditorInfo getCreditorInfo()
@@ -69,35 +124,314 @@ public class CollectorPaymentInfoPain
 		return this.sequenceTypeCode;
 	}
 
+	/**
+	 * @deprecated use {@link #getCollectionLocalDate()}, the generated model
+	 *             uses java.time
+	 */
+	@Deprecated
 	public XMLGregorianCalendar getCollectionDate()
+	{
+		return ParserUtils.toXmlGregorian(this.collectionDate);
+	}
+
+	public LocalDate getCollectionLocalDate()
 	{
 		return this.collectionDate;
 	}
 
+	/**
+	 * @return unmodifiable transactions, use
+	 *         {@link #addTransaction(PainTransaction)} to add transactions
+	 */
 	public List<PainTransaction> getTransactions()
 	{
-		return this.transactions;
+		if (this.batch != null)
+			return this.batch.asList();
+		return Collections.unmodifiableList(this.transactions);
 	}
 
+	/**
+	 * @return compact transaction storage or null if the transactions are
+	 *         stored as {@link PainTransaction}s
+	 */
+	public TransactionBatch getTransactionBatch()
+	{
+		return this.batch;
+	}
+
+	/**
+	 * Adds the transaction and updates the number of transactions and the
+	 * control sum
+	 *
+	 * @param transaction
+	 * @throws ArithmeticException
+	 *             if stored in a {@link TransactionBatch} and the amount is not
+	 *             representable in cents
+	 */
+	public void addTransaction(final PainTransaction transaction)
+	{
+		Objects.requireNonNull(transaction, "transaction must not be null");
+
+		if (this.batch != null)
+		{
+			this.batch.add(transaction);
+			return;
+		}
+
+		this.transactions.add(transaction);
+
+		if (this.totalCents != AmountUtils.NOT_REPRESENTABLE)
+		{
+			if (transaction.hasAmountCents())
+			{
+				final long sum = CollectorPaymentInfoPain.add(this.totalCents, transaction.getAmountCents());
+				if (sum != AmountUtils.NOT_REPRESENTABLE)
+				{
+					this.totalCents = sum;
+					return;
+				}
+			}
+
+			// switch to BigDecimal for this and all following transactions
+			this.total = AmountUtils.toBigDecimal(this.totalCents);
+			this.totalCents = AmountUtils.NOT_REPRESENTABLE;
+		}
+		this.total = this.total.add(transaction.getAmount());
+	}
+
+	/**
+	 * Adds the transactions in order
+	 *
+	 * @param transactions
+	 * @see #addTransaction(PainTransaction)
+	 */
+	public void addTransactions(final Collection<PainTransaction> transactions)
+	{
+		for (final PainTransaction transaction : transactions)
+			this.addTransaction(transaction);
+	}
+
+	/**
+	 * @return number of transactions
+	 */
+	public int getNumberOfTransactions()
+	{
+		return this.batch != null ? this.batch.size() : this.transactions.size();
+	}
+
+	/**
+	 * Validates the payment info header and all its transactions, see
+	 * {@link PainTransaction#validate(PainTransaction)}
+	 *
+	 * @param paymentInfo
+	 * @throws PainParserException
+	 */
 	public static void validate(final CollectorPaymentInfoPain paymentInfo) throws PainParserException
+	{
+		CollectorPaymentInfoPain.validateHeader(paymentInfo);
+
+		ParserUtils.checkPropertyLengthMin(paymentInfo.getTransactions(), 1);
+		for (final PainTransaction transaction : paymentInfo.getTransactions())
+			PainTransaction.validate(transaction);
+	}
+
+	/**
+	 * Validates the payment info and checks its transaction ids for
+	 * duplicates
+	 *
+	 * @param paymentInfo
+	 * @param checker
+	 * @throws PainParserException
+	 *             if invalid, {@link DuplicateIdException} on a duplicate id
+	 */
+	public static void validate(final CollectorPaymentInfoPain paymentInfo, final DuplicateIdChecker checker) throws PainParserException
+	{
+		CollectorPaymentInfoPain.validate(paymentInfo);
+
+		checker.check(paymentInfo);
+	}
+
+	/**
+	 * Validates the identifiers of the creditor, see
+	 * {@link CreditorInfo#validateIdentifiers(CreditorInfo)}, and the debtor
+	 * accounts of all transactions, batch-backed transactions in parallel on
+	 * their stored bytes
+	 *
+	 * @param paymentInfo
+	 * @throws PainParserException
+	 *             on the first invalid identifier or account
+	 */
+	public static void validateAccounts(final CollectorPaymentInfoPain paymentInfo) throws PainParserException
+	{
+		Objects.requireNonNull(paymentInfo, "paymentInfo must not be null");
+
+		CreditorInfo.validateIdentifiers(paymentInfo.getCreditorInfo());
+
+		if (paymentInfo.batch == null)
+		{
+			for (final PainTransaction transaction : paymentInfo.transactions)
+				PainTransaction.validateAccount(transaction);
+			return;
+		}
+
+		final BitSet invalid = paymentInfo.batch.validateAccounts();
+		if (!invalid.isEmpty())
+			PainTransaction.validateAccount(paymentInfo.batch.get(invalid.nextSetBit(0)));
+	}
+
+	/**
+	 * Validates the collection date by TARGET business days and the lead time
+	 * of the instrument and sequence type
+	 *
+	 * @param paymentInfo
+	 * @param targetCalendar
+	 * @param submissionDate
+	 *            date the file is submitted to the bank
+	 * @throws PainParserException
+	 *             if the collection date is invalid
+	 * @see TargetCalendar#isValidCollectionDate(LocalDate, LocalDate,
+	 *      SepaLocalInstrumentCode, SequenceTypeCode)
+	 */
+	public static void validateCollectionDate(final CollectorPaymentInfoPain paymentInfo, final TargetCalendar targetCalendar,
+		final LocalDate submissionDate) throws PainParserException
+	{
+		if (!CollectorPaymentInfoPain.isValidCollectionDate(paymentInfo, targetCalendar, submissionDate))
+			throw new PainParserException(ParserExceptionType.PAYMENT_INFO_ERROR,
+				"Invalid collection date " + paymentInfo.collectionDate + " for submission on " + submissionDate);
+	}
+
+	/**
+	 * @param paymentInfo
+	 * @param targetCalendar
+	 * @param submissionDate
+	 * @return whether the collection date is valid, false if it or the
+	 *         submission date is outside of the calendar
+	 * @see #validateCollectionDate(CollectorPaymentInfoPain, TargetCalendar,
+	 *      LocalDate)
+	 */
+	public static boolean isValidCollectionDate(final CollectorPaymentInfoPain paymentInfo, final TargetCalendar targetCalendar,
+		final LocalDate submissionDate)
+	{
+		if (paymentInfo.collectionDate == null || paymentInfo.sepaLocalInstrumentCode == null || paymentInfo.sequenceTypeCode == null)
+			return false;
+		try
+		{
+			return targetCalendar.isValidCollectionDate(paymentInfo.collectionDate, submissionDate, paymentInfo.sepaLocalInstrumentCode,
+				paymentInfo.sequenceTypeCode);
+		}
+		catch (final IllegalArgumentException e)
+		{
+			return false;
+		}
+	}
+
+	/**
+	 * Validates the payment info without its transactions, f.e. before
+	 * streaming the transactions
+	 *
+	 * @param paymentInfo
+	 * @throws PainParserException
+	 */
+	public static void validateHeader(final CollectorPaymentInfoPain paymentInfo) throws PainParserException
 	{
 		Objects.requireNonNull(paymentInfo, "paymentInfo must not be null");
 
 		CreditorInfo.validate(paymentInfo.getCreditorInfo());
 
-		ParserUtils.checkPropertyLengthMin(paymentInfo.transactions, 1);
-		ParserUtils.checkPropertyLengthMax(paymentInfo.paymentInfoId, 35);
+		ParserUtils.checkPropertyLengthMax(paymentInfo.paymentInfoId, PainTransaction.MAX_ID_LENGTH);
 
-		if (!paymentInfo.collectionDate.isValid() || paymentInfo.collectionDate.toGregorianCalendar().before(new Date()))
+		if (!CollectorPaymentInfoPain.isValidCollectionDate(paymentInfo.collectionDate))
 			throw new PainParserException(ParserExceptionType.PAYMENT_INFO_ERROR, "Invalid collection date");
 
 	}
 
+	/**
+	 * @param collectionDate
+	 * @return whether the collection date is present and after today, the
+	 *         check of {@link #validateHeader(CollectorPaymentInfoPain)}
+	 */
+	public static boolean isValidCollectionDate(final LocalDate collectionDate)
+	{
+		return collectionDate != null && collectionDate.isAfter(LocalDate.now());
+	}
+
+	/**
+	 * @return sum of the transaction amounts with 2 decimals, maintained while
+	 *         adding the transactions
+	 */
 	public BigDecimal getTotalAmount()
 	{
-		final BigDecimal totalAmount = this.transactions.stream().map(t -> t.getAmount()).reduce(BigDecimal.ZERO, BigDecimal::add).setScale(2,
-			RoundingMode.CEILING);
-		return totalAmount;
+		final long totalCents = this.getTotalCents();
+		if (totalCents != AmountUtils.NOT_REPRESENTABLE)
+			return AmountUtils.toBigDecimal(totalCents);
+
+		return this.total.setScale(2, RoundingMode.CEILING);
+	}
+
+	/**
+	 * @return exact sum of the transaction amounts in cents
+	 * @throws ArithmeticException
+	 *             if an amount is not representable in cents or on overflow
+	 */
+	public long getTotalAmountCents()
+	{
+		final long totalCents = this.getTotalCents();
+		if (totalCents == AmountUtils.NOT_REPRESENTABLE)
+			throw new ArithmeticException("total amount not representable in cents: " + this.paymentInfoId);
+		return totalCents;
+	}
+
+	/**
+	 * @param paymentInfos
+	 * @return sum of the total amounts of the given payment infos with 2
+	 *         decimals
+	 */
+	public static BigDecimal getTotalAmount(final List<CollectorPaymentInfoPain> paymentInfos)
+	{
+		long totalCents = 0;
+		for (final CollectorPaymentInfoPain paymentInfo : paymentInfos)
+		{
+			final long cents = paymentInfo.getTotalCents();
+			if (cents == AmountUtils.NOT_REPRESENTABLE || (totalCents = CollectorPaymentInfoPain.add(totalCents, cents)) == AmountUtils.NOT_REPRESENTABLE)
+				return paymentInfos.stream().map(CollectorPaymentInfoPain::getTotalAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
+		}
+		return AmountUtils.toBigDecimal(totalCents);
 	}
 
+	/**
+	 * @param paymentInfos
+	 * @return sum of the number of transactions of the given payment infos
+	 * @throws ArithmeticException
+	 *             on overflow
+	 */
+	public static int getNumberOfTransactions(final List<CollectorPaymentInfoPain> paymentInfos)
+	{
+		int numTxs = 0;
+		for (final CollectorPaymentInfoPain paymentInfo : paymentInfos)
+			numTxs = Math.addExact(numTxs, paymentInfo.getNumberOfTransactions());
+		return numTxs;
+	}
+
+	/**
+	 * @return total in cents or {@link AmountUtils#NOT_REPRESENTABLE}
+	 */
+	private long getTotalCents()
+	{
+		return this.batch != null ? this.batch.getTotalAmountCents() : this.totalCents;
+	}
+
+	/**
+	 * @return sum or {@link AmountUtils#NOT_REPRESENTABLE} on overflow
+	 */
+	private static long add(final long a, final long b)
+	{
+		try
+		{
+			return AmountUtils.add(a, b);
+		}
+		catch (final ArithmeticException e)
+		{
+			return AmountUtils.NOT_REPRESENTABLE;
+		}
+	}
 }
@@ -5,6 +5,7 @@ import java.util.Objects;
 import de.deloma.tools.sepa.exception.PainParserException;
 import de.deloma.tools.sepa.pain.PainParser;
 import de.deloma.tools.sepa.util.ParserUtils;
+import de.deloma.tools.sepa.util.SepaIdValidator;
 
 /**
  * A wrapper class to populate creditor informations in Camt and Pain file
@@ -38,10 +39,27 @@ public class CreditorInfo
 	public static void validate(final CreditorInfo creditorInfo) throws PainParserException
 	{
 		Objects.requireNonNull(creditorInfo, "creditorInfo must not be null");
-		ParserUtils.checkPropertyLengthMax(creditorInfo.name, 70);
-		ParserUtils.checkPropertyLength(creditorInfo.iban, 5, 34);
+		ParserUtils.checkPropertyLengthMax(creditorInfo.name, PainTransaction.MAX_NAME_LENGTH);
+		ParserUtils.checkPropertyLength(creditorInfo.iban, 5, PainTransaction.MAX_IBAN_LENGTH);
 		ParserUtils.checkPropertyLength(creditorInfo.bic, 8, 11);
-		ParserUtils.checkPropertyLengthMax(creditorInfo.glauebigerId, 35);
+		ParserUtils.checkPropertyLengthMax(creditorInfo.glauebigerId, PainTransaction.MAX_ID_LENGTH);
+	}
+
+	/**
+	 * Validates the creditor like {@link #validate(CreditorInfo)} and the
+	 * checksums of its IBAN and creditor identifier and the structure of its
+	 * BIC
+	 *
+	 * @param creditorInfo
+	 * @throws PainParserException
+	 * @see SepaIdValidator
+	 */
+	public static void validateIdentifiers(final CreditorInfo creditorInfo) throws PainParserException
+	{
+		CreditorInfo.validate(creditorInfo);
+		SepaIdValidator.checkIban(creditorInfo.iban);
+		SepaIdValidator.checkBic(creditorInfo.bic);
+		SepaIdValidator.checkCreditorId(creditorInfo.glauebigerId);
 	}
 
 	public String getName()
@@ -0,0 +1,59 @@
+package de.deloma.tools.sepa.pain.wrapper;
+
+import java.time.LocalDate;
+
+/**
+ * Single direct debit transaction carrying the payment info it belongs to:
+ * creditor, instrument, sequence type and collection date. Input of a
+ * {@link de.deloma.tools.sepa.pain.PaymentInfoGrouper} building the payment
+ * infos from flat rows.
+ *
+ * @author Marco Janc (c) 2025
+ */
+public class DirectDebit
+{
+	private final CreditorInfo creditorInfo;
+
+	private final SepaLocalInstrumentCode sepaLocalInstrumentCode;
+
+	private final SequenceTypeCode sequenceTypeCode;
+
+	private final LocalDate collectionDate;
+
+	private final PainTransaction transaction;
+
+	public DirectDebit(	final CreditorInfo creditorInfo, final SepaLocalInstrumentCode sepaLocalInstrumentCode, final SequenceTypeCode sequenceTypeCode,
+						final LocalDate collectionDate, final PainTransaction transaction)
+	{
+		this.creditorInfo = creditorInfo;
+		this.sepaLocalInstrumentCode = sepaLocalInstrumentCode;
+		this.sequenceTypeCode = sequenceTypeCode;
+		this.collectionDate = collectionDate;
+		this.transaction = transaction;
+	}
+
+	public CreditorInfo getCreditorInfo()
+	{
+		return this.creditorInfo;
+	}
+
+	public SepaLocalInstrumentCode getSepaLocalInstrumentCode()
+	{
+		return this.sepaLocalInstrumentCode;
+	}
+
+	public SequenceTypeCode getSequenceTypeCode()
+	{
+		return this.sequenceTypeCode;
+	}
+
+	public LocalDate getCollectionDate()
+	{
+		return this.collectionDate;
+	}
+
+	public PainTransaction getTransaction()
+	{
+		return this.transaction;
+	}
+}
@@ -1,8 +1,9 @@
 package de.deloma.tools.sepa.pain.wrapper;
 
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.Date;
 import java.util.Objects;
-import java.util.TimeZone;
 
 import javax.xml.datatype.XMLGregorianCalendar;
 
@@ -33,7 +34,7 @@ public class GroupHeaderInfo
 	/**
 	 * required property when the file is created, max length 35
 	 */
-	private XMLGregorianCalendar creationDateTime;
+	private OffsetDateTime creationDateTime;
 
 	/**
 	 * For identification : Initiating party, xml tag = <InitgPty>
@@ -49,10 +50,19 @@ public class GroupHeaderInfo
 
 	public GroupHeaderInfo(final String msgId, final Date creationDateTime, final String initiator)
 	{
+		this(msgId, creationDateTime == null ? null : creationDateTime.toInstant().atOffset(ZoneOffset.UTC), initiator);
+	}
 
-		final XMLGregorianCalendar creationDateTimeXml = ParserUtils.dateToXmlGregorian(creationDateTime, TimeZone.getTimeZone(ParserUtils.utcZoneID));
+	/**
+	 * @param msgId
+	 * @param creationDateTime
+	 *            written with its offset
+	 * @param initiator
+	 */
+	public GroupHeaderInfo(final String msgId, final OffsetDateTime creationDateTime, final String initiator)
+	{
 		this.msgId = msgId;
-		this.creationDateTime = creationDateTimeXml;
+		this.creationDateTime = creationDateTime;
 
 		this.initiator = initiator;
 
@@ -61,8 +71,8 @@ public class GroupHeaderInfo
 	public static void validate(final GroupHeaderInfo groupHeaderInfo) throws PainParserException
 	{
 		Objects.requireNonNull(groupHeaderInfo, "groupHeaderInfo must not be null");
-		ParserUtils.checkPropertyLength(groupHeaderInfo.getMsgId(), 1, 35);
-		ParserUtils.checkPropertyLength(groupHeaderInfo.getInitiator(), 1, 70);
+		ParserUtils.checkPropertyLength(groupHeaderInfo.getMsgId(), 1, PainTransaction.MAX_ID_LENGTH);
+		ParserUtils.checkPropertyLength(groupHeaderInfo.getInitiator(), 1, PainTransaction.MAX_NAME_LENGTH);
 	}
 
 	/*
@@ -79,12 +89,31 @@ public class GroupHeaderInfo
 		this.msgId = msgId;
 	}
 
+	/**
+	 * @deprecated use {@link #getCreationOffsetDateTime()}, the generated model
+	 *             uses java.time
+	 */
+	@Deprecated
 	public XMLGregorianCalendar getCreationDateTime()
 	{
-		return this.creationDateTime;
+		return ParserUtils.toXmlGregorian(this.creationDateTime);
 	}
 
+	/**
+	 * @deprecated use {@link #setCreationOffsetDateTime(OffsetDateTime)}
+	 */
+	@Deprecated
 	public void setCreationDateTime(final XMLGregorianCalendar creationDateTime)
+	{
+		this.creationDateTime = creationDateTime == null ? null : creationDateTime.toGregorianCalendar().toZonedDateTime().toOffsetDateTime();
+	}
+
+	public OffsetDateTime getCreationOffsetDateTime()
+	{
+		return this.creationDateTime;
+	}
+
+	public void setCreationOffsetDateTime(final OffsetDateTime creationDateTime)
 	{
 		this.creationDateTime = creationDateTime;
 	}
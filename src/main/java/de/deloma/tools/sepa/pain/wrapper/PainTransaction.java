@@ -1,7 +1,16 @@
 package de.deloma.tools.sepa.pain.wrapper;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.Date;
+import java.util.Objects;
+
+import de.deloma.tools.sepa.exception.PainParserException;
+import de.deloma.tools.sepa.exception.PainParserException.ParserExceptionType;
+import de.deloma.tools.sepa.util.AmountUtils;
+import de.deloma.tools.sepa.util.ParserUtils;
+import de.deloma.tools.sepa.util.SepaIdValidator;
 
 /**
  * PAIN transaction definition class
@@ -11,29 +20,163 @@ import java.util.Date;
 public class PainTransaction
 {
 	private final String endToEndId;
-	private final BigDecimal amount;
+	/**
+	 * created on demand if the transaction was created in cents
+	 */
+	private BigDecimal amount;
+	/**
+	 * exact amount in cents or {@link AmountUtils#NOT_REPRESENTABLE}
+	 */
+	private final long amountCents;
 	private final String dbtrName;
 	private final String dbtrIban;
 	private final String dbtrBic;
 	private final String mandateId;
-	private final Date dtOfSgntr;
+	private final LocalDate dtOfSgntr;
+	/**
+	 * date of signature as passed to the {@link Date} constructor, including
+	 * its time, otherwise null
+	 */
+	private final Date dtOfSgntrDate;
 	private final String ultDbtrName;
 	private final String ustrdRemInf;
 
 	public PainTransaction(	final String endToEndId, final BigDecimal amount, final String dbtrName, final String dbtrIban, final String dbtrBic,
 							final String mandateId, final Date dtOfSgntr, final String ultDbtrName, final String ustrdRemInf)
+	{
+		this(endToEndId, amount, AmountUtils.toCentsOrNotRepresentable(amount), dbtrName, dbtrIban, dbtrBic, mandateId,
+			ParserUtils.toLocalDate(dtOfSgntr), dtOfSgntr == null ? null : new Date(dtOfSgntr.getTime()), ultDbtrName, ustrdRemInf);
+	}
+
+	public PainTransaction(	final String endToEndId, final BigDecimal amount, final String dbtrName, final String dbtrIban, final String dbtrBic,
+							final String mandateId, final LocalDate dtOfSgntr, final String ultDbtrName, final String ustrdRemInf)
+	{
+		this(endToEndId, amount, AmountUtils.toCentsOrNotRepresentable(amount), dbtrName, dbtrIban, dbtrBic, mandateId, dtOfSgntr, null,
+			ultDbtrName, ustrdRemInf);
+	}
+
+	/**
+	 * Creates a transaction with an exact amount in cents, the amount is
+	 * written and summed without BigDecimal
+	 */
+	public PainTransaction(	final String endToEndId, final long amountCents, final String dbtrName, final String dbtrIban, final String dbtrBic,
+							final String mandateId, final LocalDate dtOfSgntr, final String ultDbtrName, final String ustrdRemInf)
+	{
+		this(endToEndId, null, amountCents, dbtrName, dbtrIban, dbtrBic, mandateId, dtOfSgntr, null, ultDbtrName, ustrdRemInf);
+		if (amountCents == AmountUtils.NOT_REPRESENTABLE)
+			throw new IllegalArgumentException("invalid amount in cents");
+	}
+
+	/**
+	 * for views overriding all getters, see {@link TransactionBatch#get(int)}
+	 */
+	PainTransaction()
+	{
+		this(null, null, AmountUtils.NOT_REPRESENTABLE, null, null, null, null, null, null, null, null);
+	}
+
+	private PainTransaction(final String endToEndId, final BigDecimal amount, final long amountCents, final String dbtrName, final String dbtrIban,
+							final String dbtrBic, final String mandateId, final LocalDate dtOfSgntr, final Date dtOfSgntrDate, final String ultDbtrName,
+							final String ustrdRemInf)
 	{
 		this.endToEndId = endToEndId;
 		this.amount = amount;
+		this.amountCents = amountCents;
 		this.dbtrName = dbtrName;
 		this.dbtrIban = dbtrIban;
 		this.dbtrBic = dbtrBic;
 		this.mandateId = mandateId;
 		this.dtOfSgntr = dtOfSgntr;
+		this.dtOfSgntrDate = dtOfSgntrDate;
 		this.ultDbtrName = ultDbtrName;
 		this.ustrdRemInf = ustrdRemInf;
 	}
 
+	/**
+	 * Largest amount in cents allowed by the schemas, 999999999.99
+	 */
+	public static final long MAX_AMOUNT_CENTS = 99_999_999_999L;
+
+	/**
+	 * Maximum length of identifiers like the end to end, mandate, message or
+	 * payment info id (Max35Text)
+	 */
+	public static final int MAX_ID_LENGTH = 35;
+
+	/**
+	 * Maximum length of party names (Max70Text)
+	 */
+	public static final int MAX_NAME_LENGTH = 70;
+
+	/**
+	 * Maximum length of an IBAN
+	 */
+	public static final int MAX_IBAN_LENGTH = 34;
+
+	/**
+	 * Maximum length of the unstructured remittance information (Max140Text)
+	 */
+	public static final int MAX_REMITTANCE_INFO_LENGTH = 140;
+
+	/**
+	 * Validates the mandatory fields, the field lengths and that the amount is
+	 * positive and exactly representable in cents. The debtor account is only
+	 * checked for presence, see {@link #validateAccount(PainTransaction)}.
+	 *
+	 * @param transaction
+	 * @throws PainParserException
+	 *             on the first invalid field
+	 */
+	public static void validate(final PainTransaction transaction) throws PainParserException
+	{
+		Objects.requireNonNull(transaction, "transaction must not be null");
+
+		final String endToEndId = transaction.getEndToEndId();
+		PainTransaction.checkLength(endToEndId, endToEndId, "end to end id", PainTransaction.MAX_ID_LENGTH);
+		if (!transaction.hasAmountCents())
+			throw new PainParserException(ParserExceptionType.TRANSACTION_ERROR,
+				"Amount " + transaction.getAmount() + " of transaction " + endToEndId + " is not representable in cents");
+		final long amountCents = transaction.getAmountCents();
+		if (amountCents < 1 || amountCents > PainTransaction.MAX_AMOUNT_CENTS)
+			throw new PainParserException(ParserExceptionType.TRANSACTION_ERROR,
+				"Amount " + transaction.getAmountPlainString() + " of transaction " + endToEndId + " out of range");
+		PainTransaction.checkLength(endToEndId, transaction.getDbtrName(), "debtor name", PainTransaction.MAX_NAME_LENGTH);
+		PainTransaction.checkLength(endToEndId, transaction.getDbtrIban(), "debtor IBAN", PainTransaction.MAX_IBAN_LENGTH);
+		PainTransaction.checkLength(endToEndId, transaction.getMandateId(), "mandate id", PainTransaction.MAX_ID_LENGTH);
+		if (transaction.getDtOfSgntrLocalDate() == null)
+			throw new PainParserException(ParserExceptionType.TRANSACTION_ERROR, "Missing date of signature of transaction " + endToEndId);
+		if (transaction.getUltDbtrName() != null)
+			PainTransaction.checkLength(endToEndId, transaction.getUltDbtrName(), "ultimate debtor name", PainTransaction.MAX_NAME_LENGTH);
+		if (transaction.getUstrdRemInf() != null)
+			PainTransaction.checkLength(endToEndId, transaction.getUstrdRemInf(), "remittance information", PainTransaction.MAX_REMITTANCE_INFO_LENGTH);
+	}
+
+	private static void checkLength(final String endToEndId, final String value, final String name, final int max) throws PainParserException
+	{
+		if (value == null || value.isEmpty())
+			throw new PainParserException(ParserExceptionType.TRANSACTION_ERROR, "Missing " + name + " of transaction " + endToEndId);
+		if (value.length() > max)
+			throw new PainParserException(ParserExceptionType.TRANSACTION_ERROR,
+				"Invalid length of " + name + " of transaction " + endToEndId + ": " + value);
+	}
+
+	/**
+	 * Validates the checksum of the debtor IBAN and the structure of the
+	 * optional debtor BIC
+	 *
+	 * @param transaction
+	 * @throws PainParserException
+	 *             if the IBAN or BIC is invalid
+	 * @see SepaIdValidator
+	 */
+	public static void validateAccount(final PainTransaction transaction) throws PainParserException
+	{
+		final String dbtrBic = transaction.getDbtrBic();
+		if (!SepaIdValidator.isValidIban(transaction.getDbtrIban()) || dbtrBic != null && !SepaIdValidator.isValidBic(dbtrBic))
+			throw new PainParserException(ParserExceptionType.TRANSACTION_ERROR,
+				"Invalid debtor account " + transaction.getDbtrIban() + " " + dbtrBic + " of transaction " + transaction.getEndToEndId());
+	}
+
 	public String getEndToEndId()
 	{
 		return this.endToEndId;
@@ -41,7 +184,47 @@ public class PainTransaction
 
 	public BigDecimal getAmount()
 	{
-		return this.amount;
+		// racy but safe, BigDecimal is immutable
+		BigDecimal amount = this.amount;
+		if (amount == null && this.amountCents != AmountUtils.NOT_REPRESENTABLE)
+			this.amount = amount = AmountUtils.toBigDecimal(this.amountCents);
+		return amount;
+	}
+
+	/**
+	 * @return whether the amount is exactly representable in cents
+	 */
+	public boolean hasAmountCents()
+	{
+		return this.amountCents != AmountUtils.NOT_REPRESENTABLE;
+	}
+
+	/**
+	 * @return exact amount in cents
+	 * @throws ArithmeticException
+	 *             if the amount is not representable in cents, see
+	 *             {@link #hasAmountCents()}
+	 */
+	public long getAmountCents()
+	{
+		if (this.amountCents == AmountUtils.NOT_REPRESENTABLE)
+			throw new ArithmeticException("amount not representable in cents: " + this.amount);
+		return this.amountCents;
+	}
+
+	/**
+	 * @return lexical xs:decimal form of the amount as marshalled, without
+	 *         creating a BigDecimal for amounts created in cents, null if
+	 *         there is no amount
+	 */
+	public String getAmountPlainString()
+	{
+		final BigDecimal amount = this.amount;
+		if (amount != null)
+			return amount.toPlainString();
+		if (this.amountCents == AmountUtils.NOT_REPRESENTABLE)
+			return null;
+		return AmountUtils.toPlainString(this.amountCents);
 	}
 
 	public String getDbtrName()
@@ -64,7 +247,23 @@ public class PainTransaction
 		return this.mandateId;
 	}
 
+	/**
+	 * @return the date passed to the constructor including its time,
+	 *         otherwise the start of the signature day in the default time
+	 *         zone. Only the date is written, DtOfSgntr is an xs:date.
+	 * @deprecated use {@link #getDtOfSgntrLocalDate()}, the generated model
+	 *             uses java.time
+	 */
+	@Deprecated
 	public Date getDtOfSgntr()
+	{
+		if (this.dtOfSgntrDate != null)
+			return new Date(this.dtOfSgntrDate.getTime());
+		final LocalDate dtOfSgntr = this.getDtOfSgntrLocalDate();
+		return dtOfSgntr == null ? null : Date.from(dtOfSgntr.atStartOfDay(ZoneId.systemDefault()).toInstant());
+	}
+
+	public LocalDate getDtOfSgntrLocalDate()
 	{
 		return this.dtOfSgntr;
 	}
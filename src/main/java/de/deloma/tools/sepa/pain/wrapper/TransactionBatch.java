@@ -0,0 +1,493 @@
+package de.deloma.tools.sepa.pain.wrapper;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import de.deloma.tools.sepa.util.AmountUtils;
+import de.deloma.tools.sepa.util.SepaIdValidator;
+
+/**
+ * Compact append-only container of direct debit transactions for millions of
+ * debits. Instead of one {@link PainTransaction} with its {@link BigDecimal},
+ * date and strings per debit, the fields are stored column-wise: amounts in
+ * cents in a {@code long[]}, signature dates as epoch days in an {@code int[]}
+ * and all strings UTF-8 encoded in one shared byte array indexed by end
+ * offsets.
+ *
+ * Writers read the columns by index, f.e. {@link #getAmountCents(int)}.
+ * {@link #get(int)} and {@link #asList()} present the transactions as
+ * {@link PainTransaction} flyweights for existing callers, creating their
+ * values on access.
+ *
+ * All amounts must be representable in cents. Adding is not thread-safe,
+ * reading a batch which is not modified anymore is.
+ *
+ * @author Marco Janc (c) 2025
+ */
+public final class TransactionBatch implements Iterable<PainTransaction>
+{
+	private static final int DEFAULT_CAPACITY = 1024;
+
+	/**
+	 * transactions per parallel validation task, a multiple of 64 so tasks
+	 * set disjoint words of the result
+	 */
+	private static final int VALIDATION_CHUNK = 64 * 1024;
+
+	/*
+	 * string columns
+	 */
+
+	private static final int END_TO_END_ID = 0;
+	private static final int DBTR_NAME = 1;
+	private static final int DBTR_IBAN = 2;
+	private static final int DBTR_BIC = 3;
+	private static final int MANDATE_ID = 4;
+	private static final int ULT_DBTR_NAME = 5;
+	private static final int USTRD_REM_INF = 6;
+
+	private static final int STRINGS = 7;
+
+	/**
+	 * epoch day of a missing date
+	 */
+	private static final int NO_DATE = Integer.MIN_VALUE;
+
+	private long[] amountCents;
+
+	private int[] dtOfSgntr;
+
+	/**
+	 * end offset in {@link #data} per transaction and string column, the
+	 * complement {@code ~end} for null strings
+	 */
+	private int[] stringEnds;
+
+	private byte[] data;
+
+	private int dataLength;
+
+	private int size;
+
+	private long totalAmountCents;
+
+	private final List<PainTransaction> list = new ListView();
+
+	public TransactionBatch()
+	{
+		this(TransactionBatch.DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * @param expectedSize
+	 *            expected number of transactions
+	 */
+	public TransactionBatch(final int expectedSize)
+	{
+		final int capacity = Math.max(1, expectedSize);
+		this.amountCents = new long[capacity];
+		this.dtOfSgntr = new int[capacity];
+		this.stringEnds = new int[capacity * TransactionBatch.STRINGS];
+		// about 128 bytes of strings per transaction
+		this.data = new byte[(int) Math.min(Integer.MAX_VALUE - 8, capacity * 128L)];
+	}
+
+	/**
+	 * Adds a transaction
+	 *
+	 * @return index of the transaction
+	 * @throws ArithmeticException
+	 *             if the total amount overflows
+	 */
+	public int add(	final String endToEndId, final long amountCents, final String dbtrName, final String dbtrIban, final String dbtrBic,
+					final String mandateId, final LocalDate dtOfSgntr, final String ultDbtrName, final String ustrdRemInf)
+	{
+		if (amountCents == AmountUtils.NOT_REPRESENTABLE)
+			throw new IllegalArgumentException("invalid amount in cents");
+		final long totalAmountCents = AmountUtils.add(this.totalAmountCents, amountCents);
+
+		final byte[][] strings = { TransactionBatch.encode(endToEndId), TransactionBatch.encode(dbtrName), TransactionBatch.encode(dbtrIban),
+			TransactionBatch.encode(dbtrBic), TransactionBatch.encode(mandateId), TransactionBatch.encode(ultDbtrName),
+			TransactionBatch.encode(ustrdRemInf) };
+		long length = this.dataLength;
+		for (final byte[] string : strings)
+			if (string != null)
+				length += string.length;
+		if (length > Integer.MAX_VALUE - 8)
+			throw new IllegalStateException("batch full");
+
+		this.ensureCapacity(this.size + 1, (int) length);
+
+		final int index = this.size;
+		this.amountCents[index] = amountCents;
+		this.dtOfSgntr[index] = dtOfSgntr == null ? TransactionBatch.NO_DATE : Math.toIntExact(dtOfSgntr.toEpochDay());
+		for (int i = 0; i < TransactionBatch.STRINGS; i++)
+		{
+			final byte[] string = strings[i];
+			if (string == null)
+				this.stringEnds[index * TransactionBatch.STRINGS + i] = ~this.dataLength;
+			else
+			{
+				System.arraycopy(string, 0, this.data, this.dataLength, string.length);
+				this.dataLength += string.length;
+				this.stringEnds[index * TransactionBatch.STRINGS + i] = this.dataLength;
+			}
+		}
+		this.totalAmountCents = totalAmountCents;
+		this.size++;
+		return index;
+	}
+
+	/**
+	 * Adds a copy of the given transaction
+	 *
+	 * @param transaction
+	 * @return index of the transaction
+	 * @throws ArithmeticException
+	 *             if the amount is not representable in cents or the total
+	 *             amount overflows
+	 */
+	public int add(final PainTransaction transaction)
+	{
+		Objects.requireNonNull(transaction, "transaction must not be null");
+		return this.add(transaction.getEndToEndId(), transaction.getAmountCents(), transaction.getDbtrName(), transaction.getDbtrIban(),
+			transaction.getDbtrBic(), transaction.getMandateId(), transaction.getDtOfSgntrLocalDate(), transaction.getUltDbtrName(),
+			transaction.getUstrdRemInf());
+	}
+
+	/**
+	 * @return number of transactions
+	 */
+	public int size()
+	{
+		return this.size;
+	}
+
+	public boolean isEmpty()
+	{
+		return this.size == 0;
+	}
+
+	/**
+	 * @return sum of all amounts in cents, maintained while adding
+	 */
+	public long getTotalAmountCents()
+	{
+		return this.totalAmountCents;
+	}
+
+	/**
+	 * @return approximate memory retained by the arrays of this batch in bytes
+	 */
+	public long getSizeInBytes()
+	{
+		return this.amountCents.length * 8L + this.dtOfSgntr.length * 4L + this.stringEnds.length * 4L + this.data.length;
+	}
+
+	/**
+	 * Shrinks the arrays to the current size, f.e. once all transactions are
+	 * added
+	 */
+	public void trimToSize()
+	{
+		final int capacity = Math.max(1, this.size);
+		this.amountCents = Arrays.copyOf(this.amountCents, capacity);
+		this.dtOfSgntr = Arrays.copyOf(this.dtOfSgntr, capacity);
+		this.stringEnds = Arrays.copyOf(this.stringEnds, capacity * TransactionBatch.STRINGS);
+		this.data = Arrays.copyOf(this.data, this.dataLength);
+	}
+
+	/*
+	 * columns
+	 */
+
+	public String getEndToEndId(final int index)
+	{
+		return this.getString(index, TransactionBatch.END_TO_END_ID);
+	}
+
+	public long getAmountCents(final int index)
+	{
+		return this.amountCents[this.checkIndex(index)];
+	}
+
+	public String getDbtrName(final int index)
+	{
+		return this.getString(index, TransactionBatch.DBTR_NAME);
+	}
+
+	public String getDbtrIban(final int index)
+	{
+		return this.getString(index, TransactionBatch.DBTR_IBAN);
+	}
+
+	public String getDbtrBic(final int index)
+	{
+		return this.getString(index, TransactionBatch.DBTR_BIC);
+	}
+
+	public String getMandateId(final int index)
+	{
+		return this.getString(index, TransactionBatch.MANDATE_ID);
+	}
+
+	public LocalDate getDtOfSgntr(final int index)
+	{
+		final int epochDay = this.dtOfSgntr[this.checkIndex(index)];
+		return epochDay == TransactionBatch.NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+	}
+
+	public String getUltDbtrName(final int index)
+	{
+		return this.getString(index, TransactionBatch.ULT_DBTR_NAME);
+	}
+
+	public String getUstrdRemInf(final int index)
+	{
+		return this.getString(index, TransactionBatch.USTRD_REM_INF);
+	}
+
+	/*
+	 * validation
+	 */
+
+	/**
+	 * Validates the debtor IBANs and the optional debtor BICs of the given
+	 * transactions on their stored bytes without creating strings, see
+	 * {@link SepaIdValidator}
+	 *
+	 * @param from
+	 *            first index
+	 * @param to
+	 *            end index, exclusive
+	 * @param invalid
+	 *            receives the indexes of the transactions with an invalid
+	 *            account in ascending order
+	 * @return number of transactions with an invalid account
+	 */
+	public int validateAccounts(final int from, final int to, final IntConsumer invalid)
+	{
+		Objects.checkFromToIndex(from, to, this.size);
+		int count = 0;
+		for (int i = from; i < to; i++)
+			if (!this.isValidAccount(i))
+			{
+				invalid.accept(i);
+				count++;
+			}
+		return count;
+	}
+
+	/**
+	 * Validates the accounts of all transactions like
+	 * {@link #validateAccounts(int, int, IntConsumer)}, large batches in
+	 * parallel on the common pool
+	 *
+	 * @return indexes of the transactions with an invalid account
+	 */
+	public BitSet validateAccounts()
+	{
+		final long[] words = new long[(this.size + 63) >>> 6];
+		final int chunks = (this.size + TransactionBatch.VALIDATION_CHUNK - 1) / TransactionBatch.VALIDATION_CHUNK;
+		IntStream.range(0, chunks).parallel().forEach(chunk -> {
+			final int from = chunk * TransactionBatch.VALIDATION_CHUNK;
+			this.validateAccounts(from, Math.min(this.size, from + TransactionBatch.VALIDATION_CHUNK), i -> words[i >>> 6] |= 1L << i);
+		});
+		return BitSet.valueOf(words);
+	}
+
+	/*
+	 * flyweights
+	 */
+
+	/**
+	 * @param index
+	 * @return view of the transaction at the given index, its values are
+	 *         created on access
+	 */
+	public PainTransaction get(final int index)
+	{
+		return new View(this, this.checkIndex(index));
+	}
+
+	/**
+	 * @return unmodifiable random access list of {@link #get(int)} views
+	 *         reflecting later additions
+	 */
+	public List<PainTransaction> asList()
+	{
+		return this.list;
+	}
+
+	@Override
+	public Iterator<PainTransaction> iterator()
+	{
+		return this.list.iterator();
+	}
+
+	private int checkIndex(final int index)
+	{
+		return Objects.checkIndex(index, this.size);
+	}
+
+	private boolean isValidAccount(final int index)
+	{
+		final int k = index * TransactionBatch.STRINGS + TransactionBatch.DBTR_IBAN;
+		final int ibanEnd = this.stringEnds[k];
+		if (ibanEnd < 0 || !SepaIdValidator.isValidIban(this.data, TransactionBatch.end(this.stringEnds[k - 1]), ibanEnd))
+			return false;
+		final int bicEnd = this.stringEnds[k + 1];
+		return bicEnd < 0 || SepaIdValidator.isValidBic(this.data, ibanEnd, bicEnd);
+	}
+
+	private String getString(final int index, final int column)
+	{
+		final int k = this.checkIndex(index) * TransactionBatch.STRINGS + column;
+		final int end = this.stringEnds[k];
+		if (end < 0)
+			return null;
+		final int start = k == 0 ? 0 : TransactionBatch.end(this.stringEnds[k - 1]);
+		return new String(this.data, start, end - start, StandardCharsets.UTF_8);
+	}
+
+	private void ensureCapacity(final int size, final int dataLength)
+	{
+		if (size > this.amountCents.length)
+		{
+			final int capacity = (int) Math.min(Integer.MAX_VALUE / TransactionBatch.STRINGS, Math.max(size, this.amountCents.length * 2L));
+			if (capacity < size)
+				throw new IllegalStateException("batch full");
+			this.amountCents = Arrays.copyOf(this.amountCents, capacity);
+			this.dtOfSgntr = Arrays.copyOf(this.dtOfSgntr, capacity);
+			this.stringEnds = Arrays.copyOf(this.stringEnds, capacity * TransactionBatch.STRINGS);
+		}
+		if (dataLength > this.data.length)
+			this.data = Arrays.copyOf(this.data, (int) Math.min(Integer.MAX_VALUE - 8, Math.max(dataLength, this.data.length * 2L)));
+	}
+
+	/**
+	 * @return end offset of an encoded string end
+	 */
+	private static int end(final int stringEnd)
+	{
+		return stringEnd < 0 ? ~stringEnd : stringEnd;
+	}
+
+	private static byte[] encode(final String value)
+	{
+		return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * transaction at an index of the batch
+	 */
+	private static final class View extends PainTransaction
+	{
+		private final TransactionBatch batch;
+
+		private final int index;
+
+		View(final TransactionBatch batch, final int index)
+		{
+			this.batch = batch;
+			this.index = index;
+		}
+
+		@Override
+		public String getEndToEndId()
+		{
+			return this.batch.getEndToEndId(this.index);
+		}
+
+		@Override
+		public BigDecimal getAmount()
+		{
+			return AmountUtils.toBigDecimal(this.batch.getAmountCents(this.index));
+		}
+
+		@Override
+		public boolean hasAmountCents()
+		{
+			return true;
+		}
+
+		@Override
+		public long getAmountCents()
+		{
+			return this.batch.getAmountCents(this.index);
+		}
+
+		@Override
+		public String getAmountPlainString()
+		{
+			return AmountUtils.toPlainString(this.batch.getAmountCents(this.index));
+		}
+
+		@Override
+		public String getDbtrName()
+		{
+			return this.batch.getDbtrName(this.index);
+		}
+
+		@Override
+		public String getDbtrIban()
+		{
+			return this.batch.getDbtrIban(this.index);
+		}
+
+		@Override
+		public String getDbtrBic()
+		{
+			return this.batch.getDbtrBic(this.index);
+		}
+
+		@Override
+		public String getMandateId()
+		{
+			return this.batch.getMandateId(this.index);
+		}
+
+		@Override
+		public LocalDate getDtOfSgntrLocalDate()
+		{
+			return this.batch.getDtOfSgntr(this.index);
+		}
+
+		@Override
+		public String getUltDbtrName()
+		{
+			return this.batch.getUltDbtrName(this.index);
+		}
+
+		@Override
+		public String getUstrdRemInf()
+		{
+			return this.batch.getUstrdRemInf(this.index);
+		}
+	}
+
+	private final class ListView extends AbstractList<PainTransaction> implements RandomAccess
+	{
+		@Override
+		public PainTransaction get(final int index)
+		{
+			return TransactionBatch.this.get(index);
+		}
+
+		@Override
+		public int size()
+		{
+			return TransactionBatch.this.size;
+		}
+	}
+}
@@ -0,0 +1,190 @@
+package de.deloma.tools.sepa.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Exact amounts in cents as {@code long}, f.e. for EUR SEPA amounts with at
+ * most 2 decimals. Sums are overflow-checked, conversion to and from the XML
+ * lexical form needs no {@link BigDecimal}.
+ *
+ * @author Marco Janc (c) 2025
+ */
+public final class AmountUtils
+{
+	/**
+	 * marks an amount which cannot be represented in cents, f.e. with more
+	 * than 2 decimals
+	 */
+	public static final long NOT_REPRESENTABLE = Long.MIN_VALUE;
+
+	private AmountUtils()
+	{
+	}
+
+	/**
+	 * @param amount
+	 * @return exact amount in cents
+	 * @throws ArithmeticException
+	 *             if the amount has more than 2 decimals or is too large
+	 */
+	public static long toCents(final BigDecimal amount)
+	{
+		final long cents = AmountUtils.toCentsOrNotRepresentable(amount);
+		if (cents == AmountUtils.NOT_REPRESENTABLE)
+			throw new ArithmeticException("amount not representable in cents: " + amount);
+		return cents;
+	}
+
+	/**
+	 * @param amount
+	 * @return exact amount in cents or {@link #NOT_REPRESENTABLE}, also if
+	 *         amount is null
+	 */
+	public static long toCentsOrNotRepresentable(final BigDecimal amount)
+	{
+		if (amount == null)
+			return AmountUtils.NOT_REPRESENTABLE;
+		if (amount.scale() > 2 && amount.stripTrailingZeros().scale() > 2)
+			return AmountUtils.NOT_REPRESENTABLE;
+		try
+		{
+			return amount.setScale(2, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+		}
+		catch (final ArithmeticException e)
+		{
+			return AmountUtils.NOT_REPRESENTABLE;
+		}
+	}
+
+	/**
+	 * @param cents
+	 * @return amount with 2 decimals
+	 */
+	public static BigDecimal toBigDecimal(final long cents)
+	{
+		AmountUtils.checkRepresentable(cents);
+		return BigDecimal.valueOf(cents, 2);
+	}
+
+	/**
+	 * @param a
+	 *            cents
+	 * @param b
+	 *            cents
+	 * @return sum in cents
+	 * @throws ArithmeticException
+	 *             on overflow or if a summand is {@link #NOT_REPRESENTABLE}
+	 */
+	public static long add(final long a, final long b)
+	{
+		AmountUtils.checkRepresentable(a);
+		AmountUtils.checkRepresentable(b);
+		final long sum = Math.addExact(a, b);
+		AmountUtils.checkRepresentable(sum);
+		return sum;
+	}
+
+	/**
+	 * @param cents
+	 * @return lexical xs:decimal form with 2 decimals, same as
+	 *         {@link BigDecimal#toPlainString()} of {@link #toBigDecimal(long)}
+	 */
+	public static String toPlainString(final long cents)
+	{
+		return AmountUtils.appendTo(new StringBuilder(24), cents).toString();
+	}
+
+	/**
+	 * Appends the lexical xs:decimal form with 2 decimals
+	 *
+	 * @param sb
+	 * @param cents
+	 * @return sb
+	 */
+	public static StringBuilder appendTo(final StringBuilder sb, final long cents)
+	{
+		AmountUtils.checkRepresentable(cents);
+		final long abs = Math.abs(cents);
+		if (cents < 0)
+			sb.append('-');
+		sb.append(abs / 100).append('.');
+		final long fraction = abs % 100;
+		if (fraction < 10)
+			sb.append('0');
+		return sb.append(fraction);
+	}
+
+	/**
+	 * Parses the lexical xs:decimal form f.e. "1234.5" into cents
+	 *
+	 * @param value
+	 * @return exact amount in cents or {@link #NOT_REPRESENTABLE} if it has
+	 *         more than 2 non zero decimals or is too large
+	 * @throws NumberFormatException
+	 *             if value is not a decimal
+	 */
+	public static long parseCents(final CharSequence value)
+	{
+		int start = 0;
+		int end = value.length();
+		while (start < end && Character.isWhitespace(value.charAt(start)))
+			start++;
+		while (end > start && Character.isWhitespace(value.charAt(end - 1)))
+			end--;
+
+		boolean negative = false;
+		if (start < end && (value.charAt(start) == '-' || value.charAt(start) == '+'))
+			negative = value.charAt(start++) == '-';
+
+		long units = 0;
+		long fraction = 0;
+		int digits = 0;
+		int decimals = -1;
+		boolean representable = true;
+		for (int i = start; i < end; i++)
+		{
+			final char c = value.charAt(i);
+			if (c == '.' && decimals < 0)
+			{
+				decimals = 0;
+				continue;
+			}
+			if (c < '0' || c > '9')
+				throw new NumberFormatException("not a decimal: " + value);
+			digits++;
+			final int digit = c - '0';
+			if (decimals < 0)
+			{
+				// at most Long.MAX_VALUE / 100 units fit in cents
+				if (units > (Long.MAX_VALUE / 100 - digit) / 10)
+					representable = false;
+				else
+					units = units * 10 + digit;
+			}
+			else if (++decimals <= 2)
+				fraction = fraction * 10 + digit;
+			else if (digit != 0)
+				representable = false;
+		}
+		if (digits == 0)
+			throw new NumberFormatException("not a decimal: " + value);
+		if (!representable)
+			return AmountUtils.NOT_REPRESENTABLE;
+
+		if (decimals < 1)
+			fraction *= 100;
+		else if (decimals == 1)
+			fraction *= 10;
+		if (units > (Long.MAX_VALUE - fraction) / 100)
+			return AmountUtils.NOT_REPRESENTABLE;
+		final long cents = units * 100 + fraction;
+		return negative ? -cents : cents;
+	}
+
+	private static void checkRepresentable(final long cents)
+	{
+		if (cents == AmountUtils.NOT_REPRESENTABLE)
+			throw new ArithmeticException("amount not representable in cents");
+	}
+}
@@ -0,0 +1,337 @@
+package de.deloma.tools.sepa.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Immutable directory of the BIC per bank code, f.e. loaded from the
+ * Bundesbank bank code file ("Bankleitzahlendatei"), to derive the BIC of an
+ * IBAN or to detect IBAN/BIC mismatches.
+ *
+ * The bank code is the start of the BBAN, following the country code and
+ * check digits of the IBAN, its length is set per country by the added
+ * entries. Country and bank code are packed into a {@code long} key, the keys
+ * are held in a sorted {@code long[]} searched binary, so a lookup allocates
+ * nothing. The BICs are shared instances.
+ *
+ * <pre>
+ * BankDirectory directory = BankDirectory.readBundesbank(Paths.get("blz-aktuell-txt-data.txt"));
+ * String bic = directory.getBic("DE89370400440532013000"); // COBADEFFXXX
+ * </pre>
+ *
+ * Thread-safe.
+ *
+ * @author Marco Janc (c) 2025
+ */
+public final class BankDirectory
+{
+	/**
+	 * radix of a bank code char, 0 is unused so codes of different length
+	 * differ
+	 */
+	private static final int RADIX = 37;
+
+	private static final int MAX_BANK_CODE_LENGTH = 10;
+
+	/**
+	 * {@code RADIX ^ MAX_BANK_CODE_LENGTH}, multiplier of the country
+	 */
+	private static final long COUNTRY_FACTOR = 4_808_584_372_417_849L;
+
+	private static final int COUNTRIES = 26 * 26;
+
+	/*
+	 * Bundesbank bank code file, fixed-width columns of a record
+	 */
+
+	private static final int BLZ_START = 0;
+	private static final int BLZ_END = 8;
+	private static final int MERKMAL = 8;
+	private static final int BIC_START = 139;
+	private static final int BIC_END = 150;
+
+	/**
+	 * sorted keys of country and bank code
+	 */
+	private final long[] keys;
+
+	/**
+	 * BIC per key
+	 */
+	private final String[] bics;
+
+	/**
+	 * bank code length per country index, 0 if unknown
+	 */
+	private final byte[] bankCodeLengths;
+
+	private BankDirectory(final long[] keys, final String[] bics, final byte[] bankCodeLengths)
+	{
+		this.keys = keys;
+		this.bics = bics;
+		this.bankCodeLengths = bankCodeLengths;
+	}
+
+	public static Builder builder()
+	{
+		return new Builder();
+	}
+
+	/**
+	 * Reads the Bundesbank bank code file
+	 *
+	 * @param file
+	 *            Bundesbank bank code file in fixed-width text format
+	 * @return directory of the German bank codes
+	 * @throws IOException
+	 * @see Builder#readBundesbank(Path)
+	 */
+	public static BankDirectory readBundesbank(final Path file) throws IOException
+	{
+		return BankDirectory.builder().readBundesbank(file).build();
+	}
+
+	/**
+	 * @param iban
+	 * @return BIC of the bank of the IBAN or null if unknown
+	 */
+	public String getBic(final CharSequence iban)
+	{
+		final int index = this.indexOf(iban);
+		return index < 0 ? null : this.bics[index];
+	}
+
+	/**
+	 * @param countryCode
+	 *            f.e. "DE"
+	 * @param bankCode
+	 *            f.e. "37040044"
+	 * @return BIC of the bank or null if unknown
+	 */
+	public String getBic(final String countryCode, final String bankCode)
+	{
+		final long key = BankDirectory.key(countryCode, bankCode, 0, bankCode.length());
+		final int index = key < 0 ? -1 : Arrays.binarySearch(this.keys, key);
+		return index < 0 ? null : this.bics[index];
+	}
+
+	/**
+	 * Checks whether the BIC belongs to the bank of the IBAN, comparing the
+	 * institution, country and location of the BIC but not its branch code
+	 *
+	 * @param iban
+	 * @param bic
+	 * @return false if the bank of the IBAN is known and has a different BIC,
+	 *         true otherwise
+	 */
+	public boolean isConsistent(final CharSequence iban, final CharSequence bic)
+	{
+		final String known = this.getBic(iban);
+		if (known == null || bic == null || bic.length() < 8)
+			return true;
+		for (int i = 0; i < 8; i++)
+			if (known.charAt(i) != bic.charAt(i))
+				return false;
+		return true;
+	}
+
+	/**
+	 * @return number of bank codes
+	 */
+	public int size()
+	{
+		return this.keys.length;
+	}
+
+	private int indexOf(final CharSequence iban)
+	{
+		if (iban == null || iban.length() < 4)
+			return -1;
+		final int country = BankDirectory.country(iban);
+		if (country < 0)
+			return -1;
+		final int length = this.bankCodeLengths[country];
+		if (length == 0 || iban.length() < 4 + length)
+			return -1;
+		final long key = BankDirectory.key(country, iban, 4, 4 + length);
+		return key < 0 ? -1 : Arrays.binarySearch(this.keys, key);
+	}
+
+	/**
+	 * @return country index of the first 2 chars or -1 if they are not upper
+	 *         case letters
+	 */
+	private static int country(final CharSequence value)
+	{
+		final char c1 = value.charAt(0);
+		final char c2 = value.charAt(1);
+		if (c1 < 'A' || c1 > 'Z' || c2 < 'A' || c2 > 'Z')
+			return -1;
+		return (c1 - 'A') * 26 + c2 - 'A';
+	}
+
+	private static long key(final String countryCode, final CharSequence bankCode, final int from, final int to)
+	{
+		if (countryCode == null || countryCode.length() != 2)
+			return -1;
+		final int country = BankDirectory.country(countryCode);
+		return country < 0 ? -1 : BankDirectory.key(country, bankCode, from, to);
+	}
+
+	/**
+	 * @return key of the country and the alphanumeric bank code or -1 if the
+	 *         bank code is invalid
+	 */
+	private static long key(final int country, final CharSequence bankCode, final int from, final int to)
+	{
+		if (to - from < 1 || to - from > BankDirectory.MAX_BANK_CODE_LENGTH)
+			return -1;
+		long code = 0;
+		for (int i = from; i < to; i++)
+		{
+			final char c = bankCode.charAt(i);
+			final int digit;
+			if (c >= '0' && c <= '9')
+				digit = c - '0' + 1;
+			else if (c >= 'A' && c <= 'Z')
+				digit = c - 'A' + 11;
+			else
+				return -1;
+			code = code * BankDirectory.RADIX + digit;
+		}
+		return country * BankDirectory.COUNTRY_FACTOR + code;
+	}
+
+	/**
+	 * Collects the bank codes of a {@link BankDirectory}. Not thread-safe.
+	 */
+	public static final class Builder
+	{
+		private final Map<Long, String> bics = new HashMap<>();
+
+		/**
+		 * shared BIC instances
+		 */
+		private final Map<String, String> instances = new HashMap<>();
+
+		private final byte[] bankCodeLengths = new byte[BankDirectory.COUNTRIES];
+
+		private Builder()
+		{
+		}
+
+		/**
+		 * Adds the BIC of a bank code, the first BIC added for a bank code is
+		 * kept
+		 *
+		 * @param countryCode
+		 *            f.e. "DE"
+		 * @param bankCode
+		 *            bank code at the start of the BBAN, f.e. "37040044", of
+		 *            the same length for all bank codes of a country
+		 * @param bic
+		 *            BIC with 8 or 11 chars
+		 * @return this
+		 * @throws IllegalArgumentException
+		 *             if a value is invalid or the bank code length differs
+		 *             from the other bank codes of the country
+		 */
+		public Builder add(final String countryCode, final String bankCode, final String bic)
+		{
+			Objects.requireNonNull(bankCode, "bankCode must not be null");
+			final long key = BankDirectory.key(countryCode, bankCode, 0, bankCode.length());
+			if (key < 0)
+				throw new IllegalArgumentException("invalid bank code " + countryCode + " " + bankCode);
+			if (!SepaIdValidator.isValidBic(bic))
+				throw new IllegalArgumentException("invalid BIC " + bic + " of bank code " + bankCode);
+
+			final int country = BankDirectory.country(countryCode);
+			if (this.bankCodeLengths[country] == 0)
+				this.bankCodeLengths[country] = (byte) bankCode.length();
+			else if (this.bankCodeLengths[country] != bankCode.length())
+				throw new IllegalArgumentException("bank code " + bankCode + " must have " + this.bankCodeLengths[country] + " chars");
+
+			this.bics.putIfAbsent(key, this.instances.computeIfAbsent(bic, b -> b));
+			return this;
+		}
+
+		/**
+		 * Adds the German bank codes of the Bundesbank bank code file in the
+		 * fixed-width text format, ISO-8859-1 encoded with one record per line:
+		 * numeric bank code in columns 1-8, feature ("Merkmal") in column 9 and BIC in
+		 * columns 140-150. Only the bank codes of the payment service
+		 * providers (feature "1") with a BIC are added.
+		 *
+		 * @param file
+		 * @return this
+		 * @throws IOException
+		 *             if the file cannot be read or a record is invalid
+		 */
+		public Builder readBundesbank(final Path file) throws IOException
+		{
+			try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.ISO_8859_1))
+			{
+				return this.readBundesbank(reader);
+			}
+		}
+
+		/**
+		 * @param reader
+		 * @return this
+		 * @throws IOException
+		 * @see #readBundesbank(Path)
+		 */
+		public Builder readBundesbank(final BufferedReader reader) throws IOException
+		{
+			String line;
+			int lineNumber = 0;
+			while ((line = reader.readLine()) != null)
+			{
+				lineNumber++;
+				if (line.isEmpty())
+					continue;
+				if (line.length() < BankDirectory.BIC_END)
+					throw new IOException("invalid bank code record in line " + lineNumber);
+				if (line.charAt(BankDirectory.MERKMAL) != '1')
+					continue;
+				final String bic = line.substring(BankDirectory.BIC_START, BankDirectory.BIC_END).trim();
+				if (bic.isEmpty())
+					continue;
+				final String bankCode = line.substring(BankDirectory.BLZ_START, BankDirectory.BLZ_END);
+				for (int i = 0; i < bankCode.length(); i++)
+					if (bankCode.charAt(i) < '0' || bankCode.charAt(i) > '9')
+						throw new IOException("invalid bank code " + bankCode + " in line " + lineNumber);
+				try
+				{
+					this.add("DE", bankCode, bic);
+				}
+				catch (final IllegalArgumentException e)
+				{
+					throw new IOException("invalid bank code record in line " + lineNumber + ": " + e.getMessage(), e);
+				}
+			}
+			return this;
+		}
+
+		public BankDirectory build()
+		{
+			final long[] keys = new long[this.bics.size()];
+			int i = 0;
+			for (final Long key : this.bics.keySet())
+				keys[i++] = key;
+			Arrays.sort(keys);
+
+			final String[] bics = new String[keys.length];
+			for (i = 0; i < keys.length; i++)
+				bics[i] = this.bics.get(keys[i]);
+			return new BankDirectory(keys, bics, this.bankCodeLengths.clone());
+		}
+	}
+}
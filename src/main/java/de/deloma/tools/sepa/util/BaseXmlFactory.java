@@ -1,12 +1,28 @@
 package de.deloma.tools.sepa.util;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
-import jakarta.xml.bind.JAXBContext;
 import jakarta.xml.bind.JAXBException;
 import jakarta.xml.bind.JAXBIntrospector;
 import jakarta.xml.bind.Marshaller;
@@ -14,6 +30,7 @@ import jakarta.xml.bind.Unmarshaller;
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
+import javax.xml.validation.Schema;
 
 
 /**
@@ -21,7 +38,37 @@ import javax.xml.stream.XMLStreamReader;
  *
  */
 public class BaseXmlFactory {
-	
+
+	/**
+	 * Default number of pooled marshallers / unmarshallers per format
+	 */
+	public static final int DEFAULT_POOL_CAPACITY = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+	/**
+	 * Default output buffer size in bytes of the stream based createXmlFile
+	 * methods
+	 */
+	public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * Default maximum wait in milliseconds for a pooled marshaller /
+	 * unmarshaller, fails instead of hanging if leases are leaked
+	 */
+	public static final long DEFAULT_BORROW_TIMEOUT_MILLIS = 5L * 60 * 1000;
+
+	private static volatile int poolCapacity = DEFAULT_POOL_CAPACITY;
+
+	private static volatile long borrowTimeoutMillis = DEFAULT_BORROW_TIMEOUT_MILLIS;
+
+	private static final ConcurrentMap<List<Object>, JaxbPool<Marshaller>> MARSHALLER_POOLS = new ConcurrentHashMap<>();
+
+	private static final ConcurrentMap<List<Object>, JaxbPool<Unmarshaller>> UNMARSHALLER_POOLS = new ConcurrentHashMap<>();
+
+	/**
+	 * StAX factory, configured once and shared as creating readers is
+	 * thread-safe
+	 */
+	private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
 
 	/**
 	 * Writes from Java objects classes to Xml file & validates against given
@@ -36,47 +83,22 @@ public class BaseXmlFactory {
 	 */
 	public static <T> String createXmlFile(T t, String schemaLocation, Class<?>... classes) throws IOException {
 
-		try {
-
-						
-			// Resize the classes array
-			Class<?>[] classesParam = Arrays.copyOf(classes, classes.length + 1);
-			
-			
-			// Provided document type
-			classesParam[classesParam.length - 1] = t.getClass();
-			// Base document always
-
-			// Create JAXB Context
-			JAXBContext jaxbContext = JAXBContext.newInstance(classesParam);
-			
-			// Create Marshaller
-			Marshaller jaxbMarshaller = jaxbContext.createMarshaller();
-
-			jaxbMarshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
-			jaxbMarshaller.setProperty(Marshaller.JAXB_SCHEMA_LOCATION, schemaLocation);
-			jaxbMarshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
-
-			// jaxbMarshaller.setSchema(schema);
-			 StringWriter sw = new StringWriter();
-			 		       
+		// Resize the classes array
+		Class<?>[] classesParam = Arrays.copyOf(classes, classes.length + 1);
+
+		// Provided document type
+		classesParam[classesParam.length - 1] = t.getClass();
+
+		// Pooled, preconfigured Marshaller of the cached JAXB Context
+		try (JaxbPool<Marshaller>.Lease lease = getMarshallerPool(schemaLocation, classesParam).borrow()) {
+
+			StringWriter sw = new StringWriter();
+
 			// Writes XML file to file-system
-			jaxbMarshaller.marshal(t, sw);
-			
-			//jaxbMarshaller.marshal(t, System.out);
-			
-			//OutputStream os  = new FileOutputStream(file);
-			//XMLOutputFactory outputFactory = XMLOutputFactory.newInstance(); 
-			
-			//XMLStreamWriter  w = outputFactory.createXMLStreamWriter(os);
-			
-
-			// Validate against given schema file
-
-			//SchemaFactory factory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
-			//Schema schema = factory.newSchema(xsdFile);
-			//jaxbMarshaller.setSchema(schema);
-			//schema.newValidator().validate(new StreamSource(file));
+			lease.get().marshal(t, sw);
+
+			// validation is done while marshalling by the stream variants with
+			// a compiled schema of the SchemaRegistry
 			return sw.toString();
 
 		} catch (JAXBException  e)
@@ -90,8 +112,211 @@ public class BaseXmlFactory {
 
 	}
 
-	@SuppressWarnings("unchecked")
+	/**
+	 * Writes the XML of the given Java object as UTF-8 directly to the output
+	 * stream, without an intermediate String. The stream is flushed but not
+	 * closed.
+	 *
+	 * @param t
+	 * @param os
+	 * @param bufferSize
+	 *            size of the output buffer in bytes
+	 * @param schemaLocation
+	 * @param classes
+	 * @throws IOException
+	 *             on write errors and marshalling failures
+	 */
+	public static <T> void createXmlFile(T t, OutputStream os, int bufferSize, String schemaLocation, Class<?>... classes) throws IOException {
+		createXmlFile(t, os, bufferSize, null, schemaLocation, classes);
+	}
+
+	/**
+	 * Writes the XML of the given Java object as UTF-8 directly to the output
+	 * stream and validates it against the given schema while marshalling. The
+	 * stream is flushed but not closed.
+	 *
+	 * @param t
+	 * @param os
+	 * @param bufferSize
+	 *            size of the output buffer in bytes
+	 * @param schema
+	 *            schema to validate against or null to skip validation
+	 * @param schemaLocation
+	 * @param classes
+	 * @throws IOException
+	 *             on write errors, marshalling and validation failures
+	 * @see SchemaRegistry
+	 */
+	public static <T> void createXmlFile(T t, OutputStream os, int bufferSize, Schema schema, String schemaLocation, Class<?>... classes)
+		throws IOException {
+
+		Objects.requireNonNull(os, "os");
+
+		// Resize the classes array
+		Class<?>[] classesParam = Arrays.copyOf(classes, classes.length + 1);
+
+		// Provided document type
+		classesParam[classesParam.length - 1] = t.getClass();
+
+		// marshalled as characters like the String variant, the byte stream
+		// output of JAXB orders the root attributes differently
+		final Writer writer = new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8), bufferSize);
+
+		try (JaxbPool<Marshaller>.Lease lease = getMarshallerPool(schemaLocation, schema, classesParam).borrow()) {
+			lease.get().marshal(t, writer);
+		} catch (JAXBException e) {
+			throw new IOException("unable to marshal " + t.getClass().getName(), e);
+		}
+		writer.flush();
+	}
+
+	/**
+	 * Writes the XML of the given Java object as UTF-8 to the given file. The
+	 * XML is written to a temporary file in the same directory first, which
+	 * then replaces the target atomically if the file system supports it, so
+	 * readers never see a partially written file.
+	 *
+	 * @param t
+	 * @param file
+	 * @param bufferSize
+	 *            size of the output buffer in bytes
+	 * @param schemaLocation
+	 * @param classes
+	 * @throws IOException
+	 */
+	public static <T> void createXmlFile(T t, Path file, int bufferSize, String schemaLocation, Class<?>... classes) throws IOException {
+		createXmlFile(t, file, bufferSize, null, schemaLocation, classes);
+	}
+
+	/**
+	 * Writes the XML of the given Java object as UTF-8 atomically to the given
+	 * file and validates it against the given schema while marshalling. The
+	 * target is not touched if the validation fails.
+	 *
+	 * @param t
+	 * @param file
+	 * @param bufferSize
+	 *            size of the output buffer in bytes
+	 * @param schema
+	 *            schema to validate against or null to skip validation
+	 * @param schemaLocation
+	 * @param classes
+	 * @throws IOException
+	 */
+	public static <T> void createXmlFile(T t, Path file, int bufferSize, Schema schema, String schemaLocation, Class<?>... classes)
+		throws IOException {
+
+		final Path absoluteFile = file.toAbsolutePath();
+		final Path tempFile = Files.createTempFile(absoluteFile.getParent(), absoluteFile.getFileName().toString(), ".tmp");
+		try
+		{
+			try (OutputStream os = Files.newOutputStream(tempFile))
+			{
+				createXmlFile(t, os, bufferSize, schema, schemaLocation, classes);
+			}
+
+			try
+			{
+				Files.move(tempFile, absoluteFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			}
+			catch (AtomicMoveNotSupportedException e)
+			{
+				Files.move(tempFile, absoluteFile, StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		finally
+		{
+			Files.deleteIfExists(tempFile);
+		}
+	}
+
+	/**
+	 * Writes the XML of the given Java object as UTF-8 to the channel. The
+	 * channel is not closed.
+	 *
+	 * @param t
+	 * @param channel
+	 * @param bufferSize
+	 *            size of the output buffer in bytes
+	 * @param schemaLocation
+	 * @param classes
+	 * @throws IOException
+	 */
+	public static <T> void createXmlFile(T t, WritableByteChannel channel, int bufferSize, String schemaLocation, Class<?>... classes)
+		throws IOException {
+		createXmlFile(t, channel, bufferSize, null, schemaLocation, classes);
+	}
+
+	/**
+	 * Writes the XML of the given Java object as UTF-8 to the channel and
+	 * validates it against the given schema while marshalling. The channel is
+	 * not closed.
+	 *
+	 * @param t
+	 * @param channel
+	 * @param bufferSize
+	 *            size of the output buffer in bytes
+	 * @param schema
+	 *            schema to validate against or null to skip validation
+	 * @param schemaLocation
+	 * @param classes
+	 * @throws IOException
+	 */
+	public static <T> void createXmlFile(T t, WritableByteChannel channel, int bufferSize, Schema schema, String schemaLocation,
+		Class<?>... classes) throws IOException {
+
+		Objects.requireNonNull(channel, "channel");
+
+		// the stream of the channel is not closed as that would close the channel
+		createXmlFile(t, Channels.newOutputStream(channel), bufferSize, schema, schemaLocation, classes);
+	}
+
 	public static <T > T parse(InputStream is, Class<? extends Object> documentClass, Class<?>... classes) throws JAXBException, XMLStreamException 
+	{
+		return parse(is, null, documentClass, classes);
+	}
+
+	/**
+	 * Parses the given stream and validates it against the given schema while
+	 * unmarshalling, so no separate validation pass is needed
+	 *
+	 * @param is
+	 * @param schema
+	 *            schema to validate against or null to skip validation
+	 * @param documentClass
+	 * @param classes
+	 * @return
+	 * @throws JAXBException
+	 *             also if the document is invalid
+	 * @throws XMLStreamException
+	 * @see SchemaRegistry
+	 */
+	public static <T> T parse(InputStream is, Schema schema, Class<? extends Object> documentClass, Class<?>... classes)
+		throws JAXBException, XMLStreamException
+	{
+		return parse(is, schema, null, documentClass, classes);
+	}
+
+	/**
+	 * Parses the given stream like {@link #parse(InputStream, Schema, Class, Class...)},
+	 * date times without offset are read in the given zone
+	 *
+	 * @param is
+	 * @param schema
+	 *            schema to validate against or null to skip validation
+	 * @param zone
+	 *            zone of date times without offset or null for the default
+	 *            zone, see {@link OffsetDateTimeAdapter}
+	 * @param documentClass
+	 * @param classes
+	 * @return
+	 * @throws JAXBException
+	 *             also if the document is invalid
+	 * @throws XMLStreamException
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> T parse(InputStream is, Schema schema, ZoneId zone, Class<? extends Object> documentClass, Class<?>... classes)
+		throws JAXBException, XMLStreamException
 	{
 		
 		Objects.requireNonNull(documentClass, "documentClass"); 
@@ -101,32 +326,166 @@ public class BaseXmlFactory {
 		// Provided document type
 		classesParam[classesParam.length - 1] = documentClass;
 
-		// adds also abstract classes in the jaxbcontext
-		JAXBContext jc = JAXBContext.newInstance(classesParam);
+		final XMLStreamReader xsr = XML_INPUT_FACTORY.createXMLStreamReader(is);
 
-		final XMLInputFactory xif = XMLInputFactory.newInstance();
+		// adds also abstract classes in the jaxbcontext, pooled per class set
+		try (JaxbPool<Unmarshaller>.Lease lease = getUnmarshallerPool(schema, classesParam).borrow())
+		{
+			/* 
+			 * There was a Class cast exception for generic casting 
+			 * Resolves here using JAXBIntrospector
+			 * see ref: https://stackoverflow.com/a/27875551
+			 */
+			final Unmarshaller unmarshaller = lease.get();
+			if (zone == null)
+				return (T) JAXBIntrospector.getValue(unmarshaller.unmarshal(xsr));
 
-		// set namespace-check to false
-		xif.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
-		
-		final XMLStreamReader xsr = xif.createXMLStreamReader(is);
+			// the pooled unmarshaller is shared, so its zone is reset
+			OffsetDateTimeAdapter.setZone(unmarshaller, zone);
+			try
+			{
+				return (T) JAXBIntrospector.getValue(unmarshaller.unmarshal(xsr));
+			}
+			finally
+			{
+				OffsetDateTimeAdapter.setZone(unmarshaller, null);
+			}
+		}
+		finally
+		{
+			xsr.close();
+		}
+	}
 
-		Unmarshaller unmarshaller = jc.createUnmarshaller();
+	/*
+	 * pools
+	 */
 
-		/* 
-		 * There was a Class cast exception for generic casting 
-		 * Resolves here using JAXBIntrospector
-		 * see ref: https://stackoverflow.com/a/27875551
-		 */
-		T t = (T) JAXBIntrospector.getValue(unmarshaller.unmarshal(xsr));
+	/**
+	 * Returns the pool of marshallers for the given schema location and bound
+	 * classes. Pooled marshallers are configured for UTF-8, formatted output and
+	 * the schema location.
+	 *
+	 * @param schemaLocation
+	 * @param classes
+	 * @return
+	 */
+	public static JaxbPool<Marshaller> getMarshallerPool(final String schemaLocation, final Class<?>... classes)
+	{
+		return getMarshallerPool(schemaLocation, null, classes);
+	}
 
-		// Marshaller marshaller = jc.createMarshaller();
-		// marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
-		// marshaller.marshal(t, System.out);
+	/**
+	 * Returns the pool of marshallers for the given schema location and bound
+	 * classes validating against the given schema. Validating and non
+	 * validating marshallers are pooled separately, so the schema of a pooled
+	 * marshaller never changes.
+	 *
+	 * @param schemaLocation
+	 * @param schema
+	 *            schema to validate against or null
+	 * @param classes
+	 * @return
+	 */
+	public static JaxbPool<Marshaller> getMarshallerPool(final String schemaLocation, final Schema schema, final Class<?>... classes)
+	{
+		final Set<Class<?>> classKey = JaxbContextRegistry.createKey(classes);
+		return MARSHALLER_POOLS.computeIfAbsent(Arrays.asList(classKey, schemaLocation, schema),
+			k -> new JaxbPool<>((schema == null ? "marshaller " : "validating marshaller ") + schemaLocation, poolCapacity, borrowTimeoutMillis, () -> {
+				final Marshaller marshaller = JaxbContextRegistry.getContext(classes).createMarshaller();
+				marshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
+				marshaller.setProperty(Marshaller.JAXB_SCHEMA_LOCATION, schemaLocation);
+				marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
+				marshaller.setSchema(schema);
+				return marshaller;
+			}));
+	}
 
-	
-		return 	t;
+	/**
+	 * Returns the pool of unmarshallers for the given bound classes
+	 *
+	 * @param classes
+	 * @return
+	 */
+	public static JaxbPool<Unmarshaller> getUnmarshallerPool(final Class<?>... classes)
+	{
+		return getUnmarshallerPool(null, classes);
+	}
 
+	/**
+	 * Returns the pool of unmarshallers for the given bound classes validating
+	 * against the given schema
+	 *
+	 * @param schema
+	 *            schema to validate against or null
+	 * @param classes
+	 * @return
+	 */
+	public static JaxbPool<Unmarshaller> getUnmarshallerPool(final Schema schema, final Class<?>... classes)
+	{
+		final Set<Class<?>> classKey = JaxbContextRegistry.createKey(classes);
+		return UNMARSHALLER_POOLS.computeIfAbsent(Arrays.asList(classKey, schema),
+			k -> new JaxbPool<>((schema == null ? "unmarshaller " : "validating unmarshaller ") + classes[classes.length - 1].getName(),
+				poolCapacity, borrowTimeoutMillis, () -> {
+					final Unmarshaller unmarshaller = JaxbContextRegistry.getContext(classes).createUnmarshaller();
+					unmarshaller.setSchema(schema);
+					return unmarshaller;
+				}));
+	}
 
+	/**
+	 * @return all marshaller and unmarshaller pools created so far, f.e. to
+	 *         report their metrics
+	 */
+	public static List<JaxbPool<?>> getPools()
+	{
+		final List<JaxbPool<?>> pools = new ArrayList<>(MARSHALLER_POOLS.values());
+		pools.addAll(UNMARSHALLER_POOLS.values());
+		return pools;
+	}
+
+	/**
+	 * Sets the capacity of pools created afterwards
+	 *
+	 * @param capacity
+	 */
+	public static void setPoolCapacity(final int capacity)
+	{
+		if (capacity < 1)
+			throw new IllegalArgumentException("capacity must be positive: " + capacity);
+		poolCapacity = capacity;
+	}
+
+	public static int getPoolCapacity()
+	{
+		return poolCapacity;
+	}
+
+	/**
+	 * Sets the maximum wait for a pooled marshaller / unmarshaller of pools
+	 * created afterwards
+	 *
+	 * @param timeoutMillis
+	 *            or {@link JaxbPool#NO_TIMEOUT} to wait until interrupted
+	 */
+	public static void setBorrowTimeout(final long timeoutMillis)
+	{
+		if (timeoutMillis < 0)
+			throw new IllegalArgumentException("timeout must not be negative: " + timeoutMillis);
+		borrowTimeoutMillis = timeoutMillis;
+	}
+
+	public static long getBorrowTimeout()
+	{
+		return borrowTimeoutMillis;
+	}
+
+	private static XMLInputFactory createXmlInputFactory()
+	{
+		final XMLInputFactory xif = XMLInputFactory.newInstance();
+
+		// set namespace-check to false
+		xif.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+		return xif;
 	}
 }
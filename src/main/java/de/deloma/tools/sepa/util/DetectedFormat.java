@@ -0,0 +1,101 @@
+package de.deloma.tools.sepa.util;
+
+import java.io.InputStream;
+
+import de.deloma.tools.sepa.camt.CamtParser.CAMTTYPE;
+import de.deloma.tools.sepa.pain.PainDocumentType;
+
+/**
+ * Result of {@link SepaFormatDetector#detect(InputStream)}: the format of a
+ * document together with its stream, which is still readable from the start.
+ *
+ * @author Marco Janc (c) 2025
+ */
+public class DetectedFormat
+{
+	private final String namespaceUri;
+
+	private final String xsdVersion;
+
+	private final CAMTTYPE camtType;
+
+	private final PainDocumentType painType;
+
+	private final InputStream inputStream;
+
+	DetectedFormat(final String namespaceUri, final String xsdVersion, final CAMTTYPE camtType, final PainDocumentType painType,
+					final InputStream inputStream)
+	{
+		this.namespaceUri = namespaceUri;
+		this.xsdVersion = xsdVersion;
+		this.camtType = camtType;
+		this.painType = painType;
+		this.inputStream = inputStream;
+	}
+
+	/**
+	 * @return namespace URI of the root element, null if no root element was
+	 *         found in the examined prefix
+	 */
+	public String getNamespaceUri()
+	{
+		return this.namespaceUri;
+	}
+
+	/**
+	 * @return message version of the namespace, f.e. "camt.053.001.02"
+	 */
+	public String getXsdVersion()
+	{
+		return this.xsdVersion;
+	}
+
+	/**
+	 * @return camt type or null if not a bundled camt format
+	 */
+	public CAMTTYPE getCamtType()
+	{
+		return this.camtType;
+	}
+
+	/**
+	 * @return pain type or null if not a bundled pain format
+	 */
+	public PainDocumentType getPainType()
+	{
+		return this.painType;
+	}
+
+	/**
+	 * @return stream positioned at the start of the document, to be used
+	 *         instead of the stream given for detection
+	 */
+	public InputStream getInputStream()
+	{
+		return this.inputStream;
+	}
+
+	public boolean isCamt()
+	{
+		return this.camtType != null;
+	}
+
+	public boolean isPain()
+	{
+		return this.painType != null;
+	}
+
+	/**
+	 * @return true if the document is one of the bundled formats
+	 */
+	public boolean isKnown()
+	{
+		return this.isCamt() || this.isPain();
+	}
+
+	@Override
+	public String toString()
+	{
+		return "DetectedFormat [" + (this.xsdVersion == null ? "unknown" : this.xsdVersion) + "]";
+	}
+}
@@ -0,0 +1,498 @@
+package de.deloma.tools.sepa.util;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Set of 64-bit fingerprints in an open-addressing {@code long} table with
+ * linear probing, stored outside the Java heap: either in direct memory or
+ * memory-mapped from a file, so it persists between runs and opens without
+ * loading. 50 million fingerprints take about 512 MB of table at most.
+ *
+ * A file backed set grows in place: the fingerprints are written behind the
+ * doubled table first, so a grow interrupted by a crash is completed when the
+ * file is opened again.
+ *
+ * Fingerprints are 64-bit hashes, see {@link #fingerprint(CharSequence)}.
+ * Different values may share a fingerprint, but for a million-scale set the
+ * probability is negligible (about {@code n / 2^64} per lookup).
+ *
+ * Not thread-safe.
+ *
+ * @author Marco Janc (c) 2025
+ */
+public final class FingerprintSet implements Closeable
+{
+	private static final long MAGIC = 0x5345504146505331L;
+
+	/**
+	 * file header: magic, capacity, size, growing flag
+	 */
+	private static final int HEADER_SIZE = 4096;
+
+	/**
+	 * buffer to write and read the fingerprints while growing
+	 */
+	private static final int GROW_BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * slots per buffer, a buffer is limited to 2 GB
+	 */
+	private static final int SEGMENT_SHIFT = 27;
+
+	private static final int SEGMENT_SLOTS = 1 << FingerprintSet.SEGMENT_SHIFT;
+
+	private static final int SEGMENT_MASK = FingerprintSet.SEGMENT_SLOTS - 1;
+
+	private static final int MIN_CAPACITY = 1024;
+
+	/**
+	 * marks an empty slot, the fingerprint 0 is stored as {@link #ZERO}
+	 */
+	private static final long EMPTY = 0L;
+
+	private static final long ZERO = 0x9E3779B97F4A7C15L;
+
+	/**
+	 * maximum load factor 3/4
+	 */
+	private static final int LOAD_NUMERATOR = 3;
+
+	private static final int LOAD_DENOMINATOR = 4;
+
+	/**
+	 * backing file or null for direct memory
+	 */
+	private final Path file;
+
+	private FileChannel channel;
+
+	private MappedByteBuffer header;
+
+	/**
+	 * mapped buffers of the segments of a file backed set
+	 */
+	private MappedByteBuffer[] mapped;
+
+	private LongBuffer[] segments;
+
+	private long capacity;
+
+	private long mask;
+
+	private long size;
+
+	private FingerprintSet(final Path file)
+	{
+		this.file = file;
+	}
+
+	/**
+	 * Creates a set in direct memory
+	 *
+	 * @param expectedSize
+	 * @return
+	 */
+	public static FingerprintSet create(final long expectedSize)
+	{
+		final FingerprintSet set = new FingerprintSet(null);
+		set.allocate(FingerprintSet.capacityFor(expectedSize));
+		return set;
+	}
+
+	/**
+	 * Opens the set persisted in the given file or creates the file
+	 *
+	 * @param file
+	 * @param expectedSize
+	 *            initial size if the file is created
+	 * @return
+	 * @throws IOException
+	 *             if the file is not a fingerprint set
+	 */
+	public static FingerprintSet open(final Path file, final long expectedSize) throws IOException
+	{
+		final FingerprintSet set = new FingerprintSet(file);
+		if (Files.exists(file) && Files.size(file) > 0)
+			set.map();
+		else
+			set.map(FingerprintSet.capacityFor(expectedSize));
+		return set;
+	}
+
+	/**
+	 * 64-bit fingerprint of the given value
+	 *
+	 * @param value
+	 * @return
+	 */
+	public static long fingerprint(final CharSequence value)
+	{
+		// FNV-1a over the chars with the murmur3 finalizer
+		long h = 0xcbf29ce484222325L;
+		for (int i = 0; i < value.length(); i++)
+		{
+			h ^= value.charAt(i);
+			h *= 0x100000001b3L;
+		}
+		return FingerprintSet.mix(h ^ value.length());
+	}
+
+	/**
+	 * Adds the fingerprint
+	 *
+	 * @param fingerprint
+	 * @return true if it was not contained
+	 * @throws IOException
+	 *             if growing a file backed set fails
+	 */
+	public boolean add(final long fingerprint) throws IOException
+	{
+		if (!this.insert(fingerprint == FingerprintSet.EMPTY ? FingerprintSet.ZERO : fingerprint))
+			return false;
+		this.size++;
+		if (this.header != null)
+			this.header.putLong(16, this.size);
+
+		if (this.size * FingerprintSet.LOAD_DENOMINATOR > this.capacity * FingerprintSet.LOAD_NUMERATOR)
+			this.grow();
+		return true;
+	}
+
+	public boolean contains(final long fingerprint)
+	{
+		final long key = fingerprint == FingerprintSet.EMPTY ? FingerprintSet.ZERO : fingerprint;
+		long slot = FingerprintSet.mix(key) & this.mask;
+		long current;
+		while ((current = this.get(slot)) != FingerprintSet.EMPTY)
+		{
+			if (current == key)
+				return true;
+			slot = (slot + 1) & this.mask;
+		}
+		return false;
+	}
+
+	/**
+	 * Adds all fingerprints of the given set
+	 *
+	 * @param other
+	 * @throws IOException
+	 */
+	public void addAll(final FingerprintSet other) throws IOException
+	{
+		for (long slot = 0; slot < other.capacity; slot++)
+		{
+			final long key = other.get(slot);
+			if (key != FingerprintSet.EMPTY)
+				this.add(key);
+		}
+	}
+
+	/**
+	 * Removes all fingerprints, keeping the capacity
+	 */
+	public void clear()
+	{
+		this.clearSegments();
+		this.size = 0;
+		if (this.header != null)
+			this.header.putLong(16, 0);
+	}
+
+	public long size()
+	{
+		return this.size;
+	}
+
+	public boolean isEmpty()
+	{
+		return this.size == 0;
+	}
+
+	/**
+	 * @return number of slots
+	 */
+	public long getCapacity()
+	{
+		return this.capacity;
+	}
+
+	/**
+	 * Writes a file backed set to disk
+	 *
+	 * @throws IOException
+	 */
+	public void force() throws IOException
+	{
+		if (this.channel == null)
+			return;
+		this.header.force();
+		for (final MappedByteBuffer buffer : this.mapped)
+			buffer.force();
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		if (this.channel != null)
+		{
+			this.force();
+			this.channel.close();
+			this.channel = null;
+
+			// the mappings are released once unreachable
+			this.header = null;
+			this.mapped = null;
+			this.segments = null;
+		}
+	}
+
+	/**
+	 * @return false if the key is contained
+	 */
+	private boolean insert(final long key)
+	{
+		long slot = FingerprintSet.mix(key) & this.mask;
+		long current;
+		while ((current = this.get(slot)) != FingerprintSet.EMPTY)
+		{
+			if (current == key)
+				return false;
+			slot = (slot + 1) & this.mask;
+		}
+		this.set(slot, key);
+		return true;
+	}
+
+	private long get(final long slot)
+	{
+		return this.segments[(int) (slot >>> FingerprintSet.SEGMENT_SHIFT)].get((int) (slot & FingerprintSet.SEGMENT_MASK));
+	}
+
+	private void set(final long slot, final long key)
+	{
+		this.segments[(int) (slot >>> FingerprintSet.SEGMENT_SHIFT)].put((int) (slot & FingerprintSet.SEGMENT_MASK), key);
+	}
+
+	/**
+	 * Doubles the capacity and rehashes. A file backed set writes its
+	 * fingerprints behind the doubled table and marks the grow in the header
+	 * before rebuilding the table in place.
+	 */
+	private void grow() throws IOException
+	{
+		final long capacity = this.capacity * 2;
+		if (this.file == null)
+		{
+			final LongBuffer[] oldSegments = this.segments;
+			this.allocate(capacity);
+			this.size = 0;
+			this.addAll(oldSegments);
+			return;
+		}
+
+		final ByteBuffer buffer = ByteBuffer.allocate(FingerprintSet.GROW_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		long position = FingerprintSet.tableEnd(capacity);
+		for (long slot = 0; slot < this.capacity; slot++)
+		{
+			final long key = this.get(slot);
+			if (key == FingerprintSet.EMPTY)
+				continue;
+			buffer.putLong(key);
+			if (!buffer.hasRemaining())
+				position = this.write(buffer, position);
+		}
+		this.write(buffer, position);
+		this.channel.force(false);
+
+		this.header.putLong(8, capacity);
+		this.header.putLong(24, 1);
+		this.header.force();
+		this.rebuild(capacity);
+	}
+
+	/**
+	 * Maps the table with the given capacity and inserts the fingerprints
+	 * written behind it by {@link #grow()}, the size is unchanged
+	 */
+	private void rebuild(final long capacity) throws IOException
+	{
+		this.mapSegments(capacity);
+		this.clearSegments();
+
+		final ByteBuffer buffer = ByteBuffer.allocate(FingerprintSet.GROW_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		long position = FingerprintSet.tableEnd(capacity);
+		long remaining = this.size * Long.BYTES;
+		while (remaining > 0)
+		{
+			buffer.clear();
+			buffer.limit((int) Math.min(buffer.capacity(), remaining));
+			while (buffer.hasRemaining())
+				if (this.channel.read(buffer, position + buffer.position()) < 0)
+					throw new EOFException("incomplete fingerprint set: " + this.file);
+			position += buffer.limit();
+			remaining -= buffer.limit();
+
+			buffer.flip();
+			while (buffer.hasRemaining())
+				this.insert(buffer.getLong());
+		}
+
+		this.header.putLong(24, 0);
+		this.force();
+	}
+
+	/**
+	 * Writes the buffer at the position and clears it
+	 *
+	 * @return position behind the written bytes
+	 */
+	private long write(final ByteBuffer buffer, final long position) throws IOException
+	{
+		long end = position;
+		buffer.flip();
+		while (buffer.hasRemaining())
+			end += this.channel.write(buffer, end);
+		buffer.clear();
+		return end;
+	}
+
+	private void clearSegments()
+	{
+		for (final LongBuffer segment : this.segments)
+			for (int i = 0; i < segment.capacity(); i++)
+				segment.put(i, FingerprintSet.EMPTY);
+	}
+
+	private void addAll(final LongBuffer[] segments) throws IOException
+	{
+		for (final LongBuffer segment : segments)
+			for (int i = 0; i < segment.capacity(); i++)
+			{
+				final long key = segment.get(i);
+				if (key != FingerprintSet.EMPTY)
+					this.add(key);
+			}
+	}
+
+	private void allocate(final long capacity)
+	{
+		this.setCapacity(capacity);
+		this.segments = new LongBuffer[FingerprintSet.segmentCount(capacity)];
+		for (int i = 0; i < this.segments.length; i++)
+			this.segments[i] = ByteBuffer.allocateDirect(FingerprintSet.segmentSlots(capacity, i) * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN)
+				.asLongBuffer();
+	}
+
+	/**
+	 * creates the file with the given capacity
+	 */
+	private void map(final long capacity) throws IOException
+	{
+		this.channel = FileChannel.open(this.file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		this.mapSegments(capacity);
+		this.header.putLong(0, FingerprintSet.MAGIC);
+		this.header.putLong(8, capacity);
+		this.header.putLong(16, 0);
+		this.header.putLong(24, 0);
+		this.size = 0;
+	}
+
+	/**
+	 * maps the existing file, completing an interrupted grow
+	 */
+	private void map() throws IOException
+	{
+		this.channel = FileChannel.open(this.file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		final ByteBuffer header = ByteBuffer.allocate(32);
+		this.channel.read(header, 0);
+		if (header.getLong(0) != FingerprintSet.MAGIC)
+		{
+			this.channel.close();
+			throw new IOException("not a fingerprint set: " + new String(header.array(), 0, 8, StandardCharsets.ISO_8859_1));
+		}
+		this.mapSegments(header.getLong(8));
+		this.size = header.getLong(16);
+		if (header.getLong(24) != 0)
+			this.rebuild(this.capacity);
+	}
+
+	/**
+	 * maps the header and the table, segments already mapped with their full
+	 * length are kept
+	 */
+	private void mapSegments(final long capacity) throws IOException
+	{
+		this.setCapacity(capacity);
+		if (this.header == null)
+			this.header = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, FingerprintSet.HEADER_SIZE);
+
+		final MappedByteBuffer[] previous = this.mapped;
+		this.segments = new LongBuffer[FingerprintSet.segmentCount(capacity)];
+		this.mapped = new MappedByteBuffer[this.segments.length];
+		for (int i = 0; i < this.segments.length; i++)
+		{
+			final long length = (long) FingerprintSet.segmentSlots(capacity, i) * Long.BYTES;
+			MappedByteBuffer buffer = previous != null && i < previous.length && previous[i].capacity() == length ? previous[i] : null;
+			if (buffer == null)
+				buffer = this.channel.map(FileChannel.MapMode.READ_WRITE,
+					FingerprintSet.HEADER_SIZE + (long) i * FingerprintSet.SEGMENT_SLOTS * Long.BYTES, length);
+			this.mapped[i] = buffer;
+			this.segments[i] = buffer.order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+		}
+	}
+
+	private void setCapacity(final long capacity)
+	{
+		this.capacity = capacity;
+		this.mask = capacity - 1;
+	}
+
+	/**
+	 * @return file position behind the table of the given capacity
+	 */
+	private static long tableEnd(final long capacity)
+	{
+		return FingerprintSet.HEADER_SIZE + capacity * Long.BYTES;
+	}
+
+	private static int segmentCount(final long capacity)
+	{
+		return (int) ((capacity + FingerprintSet.SEGMENT_SLOTS - 1) >>> FingerprintSet.SEGMENT_SHIFT);
+	}
+
+	private static int segmentSlots(final long capacity, final int segment)
+	{
+		return (int) Math.min(FingerprintSet.SEGMENT_SLOTS, capacity - ((long) segment << FingerprintSet.SEGMENT_SHIFT));
+	}
+
+	/**
+	 * @return power of two capacity keeping the load factor for the size
+	 */
+	private static long capacityFor(final long expectedSize)
+	{
+		final long min = Math.max(FingerprintSet.MIN_CAPACITY, expectedSize * FingerprintSet.LOAD_DENOMINATOR / FingerprintSet.LOAD_NUMERATOR + 1);
+		return Long.highestOneBit(min - 1) << 1;
+	}
+
+	private static long mix(long h)
+	{
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+}
@@ -0,0 +1,235 @@
+package de.deloma.tools.sepa.util;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Minimal XML writer producing the same layout as a JAXB marshaller with
+ * {@code JAXB_FORMATTED_OUTPUT}: four spaces per level, text content on the
+ * line of its element and empty elements as {@code <Name/>}.
+ *
+ * Used by the streaming writers to write elements directly without building
+ * the JAXB object tree. Element names are written as given, so they must not
+ * need escaping.
+ *
+ * @author Marco Janc (c) 2025
+ */
+public class IndentingXmlWriter
+{
+	private static final String INDENT = "    ";
+
+	private final Writer writer;
+
+	private int depth;
+
+	/**
+	 * true while the start tag of the current element is not closed yet
+	 */
+	private boolean startTagOpen;
+
+	/**
+	 * true if the current element has text content
+	 */
+	private boolean hasText;
+
+	/**
+	 * @param writer
+	 * @param depth
+	 *            nesting depth of the first element written, f.e. to write a
+	 *            fragment which is later inserted into a document
+	 */
+	public IndentingXmlWriter(final Writer writer, final int depth)
+	{
+		this.writer = writer;
+		this.depth = depth;
+	}
+
+	public IndentingXmlWriter(final Writer writer)
+	{
+		this(writer, 0);
+	}
+
+	/**
+	 * Writes the XML declaration as written by JAXB
+	 *
+	 * @throws IOException
+	 */
+	public void writeDeclaration() throws IOException
+	{
+		this.writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>");
+	}
+
+	public void startElement(final String name) throws IOException
+	{
+		this.closeStartTag();
+		this.writer.write('\n');
+		this.indent(this.depth);
+		this.writer.write('<');
+		this.writer.write(name);
+		this.startTagOpen = true;
+		this.hasText = false;
+		this.depth++;
+	}
+
+	/**
+	 * Adds an attribute to the element just started
+	 *
+	 * @param name
+	 * @param value
+	 * @throws IOException
+	 */
+	public void attribute(final String name, final String value) throws IOException
+	{
+		if (!this.startTagOpen)
+			throw new IllegalStateException("no open start tag for attribute " + name);
+		this.writer.write(' ');
+		this.writer.write(name);
+		this.writer.write("=\"");
+		this.escape(value, true);
+		this.writer.write('"');
+	}
+
+	public void text(final CharSequence text) throws IOException
+	{
+		this.closeStartTag();
+		this.escape(text, false);
+		this.hasText = true;
+	}
+
+	public void endElement(final String name) throws IOException
+	{
+		this.depth--;
+		if (this.startTagOpen)
+		{
+			this.writer.write("/>");
+			this.startTagOpen = false;
+		}
+		else
+		{
+			if (!this.hasText)
+			{
+				this.writer.write('\n');
+				this.indent(this.depth);
+			}
+			this.writer.write("</");
+			this.writer.write(name);
+			this.writer.write('>');
+		}
+		this.hasText = false;
+	}
+
+	/**
+	 * Writes a leaf element with text content, nothing if the value is null
+	 * like JAXB does for absent properties
+	 *
+	 * @param name
+	 * @param value
+	 * @throws IOException
+	 */
+	public void element(final String name, final CharSequence value) throws IOException
+	{
+		if (value == null)
+			return;
+		this.startElement(name);
+		this.text(value);
+		this.endElement(name);
+	}
+
+	/**
+	 * Ends the document with the line break JAXB writes after the root element
+	 *
+	 * @throws IOException
+	 */
+	public void endDocument() throws IOException
+	{
+		this.writer.write('\n');
+	}
+
+	/**
+	 * Writes the given, already serialized content of the current element as
+	 * is, f.e. a fragment written by another writer at the matching depth
+	 *
+	 * @param content
+	 * @throws IOException
+	 */
+	public void raw(final CharSequence content) throws IOException
+	{
+		this.closeStartTag();
+		this.writer.append(content);
+	}
+
+	/**
+	 * Closes the pending start tag so content can be written to the underlying
+	 * writer or stream directly
+	 *
+	 * @throws IOException
+	 */
+	public void closeStartTag() throws IOException
+	{
+		if (this.startTagOpen)
+		{
+			this.writer.write('>');
+			this.startTagOpen = false;
+		}
+	}
+
+	public void flush() throws IOException
+	{
+		this.writer.flush();
+	}
+
+	public int getDepth()
+	{
+		return this.depth;
+	}
+
+	private void indent(final int level) throws IOException
+	{
+		for (int i = 0; i < level; i++)
+			this.writer.write(IndentingXmlWriter.INDENT);
+	}
+
+	private void escape(final CharSequence text, final boolean attribute) throws IOException
+	{
+		final int length = text.length();
+		int start = 0;
+		for (int i = 0; i < length; i++)
+		{
+			final String replacement;
+			switch (text.charAt(i))
+			{
+				case '&':
+					replacement = "&amp;";
+					break;
+				case '<':
+					replacement = "&lt;";
+					break;
+				case '>':
+					replacement = "&gt;";
+					break;
+				case '"':
+					replacement = attribute ? "&quot;" : null;
+					break;
+				default:
+					replacement = null;
+			}
+			if (replacement != null)
+			{
+				this.write(text, start, i);
+				this.writer.write(replacement);
+				start = i + 1;
+			}
+		}
+		this.write(text, start, length);
+	}
+
+	private void write(final CharSequence text, final int start, final int end) throws IOException
+	{
+		if (start == end)
+			return;
+		if (text instanceof String)
+			this.writer.write((String) text, start, end - start);
+		else
+			this.writer.append(text, start, end);
+	}
+}
@@ -0,0 +1,144 @@
+package de.deloma.tools.sepa.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBException;
+
+/**
+ * Thread-safe registry of {@link JAXBContext} instances keyed by the set of
+ * bound classes.
+ *
+ * Creating a context is expensive (reflection over the whole generated model),
+ * while a created context is immutable and thread-safe. Each context is
+ * therefore built only once and shared by all callers.
+ *
+ * @author Marco Janc (c) 2025
+ */
+public final class JaxbContextRegistry
+{
+	private static final ConcurrentMap<Set<Class<?>>, JAXBContext> CONTEXTS = new ConcurrentHashMap<>();
+
+	private static final LongAdder HITS = new LongAdder();
+
+	private static final LongAdder MISSES = new LongAdder();
+
+	private JaxbContextRegistry()
+	{
+	}
+
+	/**
+	 * Returns the cached context for the given bound classes, creating it on
+	 * first access. The order of the classes does not matter.
+	 *
+	 * @param classes
+	 * @return
+	 * @throws JAXBException
+	 */
+	public static JAXBContext getContext(final Class<?>... classes) throws JAXBException
+	{
+		final Set<Class<?>> key = JaxbContextRegistry.createKey(classes);
+
+		final JAXBContext cached = JaxbContextRegistry.CONTEXTS.get(key);
+		if (cached != null)
+		{
+			JaxbContextRegistry.HITS.increment();
+			return cached;
+		}
+
+		try
+		{
+			return JaxbContextRegistry.CONTEXTS.computeIfAbsent(key, k -> {
+				JaxbContextRegistry.MISSES.increment();
+				try
+				{
+					return JAXBContext.newInstance(classes);
+				}
+				catch (final JAXBException e)
+				{
+					throw new ContextCreationException(e);
+				}
+			});
+		}
+		catch (final ContextCreationException e)
+		{
+			throw (JAXBException) e.getCause();
+		}
+	}
+
+	/**
+	 * Creates the contexts for the given sets of bound classes ahead of time,
+	 * f.e. on application startup.
+	 *
+	 * @param classSets
+	 * @throws JAXBException
+	 */
+	public static void warmUp(final Class<?>[]... classSets) throws JAXBException
+	{
+		for (final Class<?>[] classes : classSets)
+			JaxbContextRegistry.getContext(classes);
+	}
+
+	/**
+	 * @return number of lookups served by an already created context
+	 */
+	public static long getHitCount()
+	{
+		return JaxbContextRegistry.HITS.sum();
+	}
+
+	/**
+	 * @return number of lookups which had to create a new context
+	 */
+	public static long getMissCount()
+	{
+		return JaxbContextRegistry.MISSES.sum();
+	}
+
+	/**
+	 * @return number of cached contexts
+	 */
+	public static int size()
+	{
+		return JaxbContextRegistry.CONTEXTS.size();
+	}
+
+	/**
+	 * Removes all cached contexts and resets the counters.
+	 */
+	public static void clear()
+	{
+		JaxbContextRegistry.CONTEXTS.clear();
+		JaxbContextRegistry.HITS.reset();
+		JaxbContextRegistry.MISSES.reset();
+	}
+
+	static Set<Class<?>> createKey(final Class<?>... classes)
+	{
+		Objects.requireNonNull(classes, "classes must not be null");
+		if (classes.length == 1)
+			return Collections.singleton(classes[0]);
+		return Collections.unmodifiableSet(new HashSet<>(Arrays.asList(classes)));
+	}
+
+	/**
+	 * Transports a checked {@link JAXBException} out of
+	 * {@link ConcurrentMap#computeIfAbsent}
+	 */
+	private static final class ContextCreationException extends RuntimeException
+	{
+		private static final long serialVersionUID = 6020174420512953140L;
+
+		ContextCreationException(final JAXBException cause)
+		{
+			super(cause);
+		}
+	}
+}
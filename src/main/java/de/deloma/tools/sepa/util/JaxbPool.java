@@ -0,0 +1,292 @@
+package de.deloma.tools.sepa.util;
+
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.Marshaller;
+import jakarta.xml.bind.Unmarshaller;
+
+/**
+ * Bounded pool of preconfigured, not thread-safe JAXB objects like
+ * {@link Marshaller} and {@link Unmarshaller}.
+ *
+ * At most {@link #getCapacity()} instances are in use at the same time, further
+ * callers wait in {@link #borrow()} until an instance is returned. Instances are
+ * created lazily and kept for reuse.
+ *
+ * The wait is interruptible and bounded by the borrow timeout of the pool, so
+ * a leaked lease fails the waiting callers instead of blocking them forever.
+ *
+ * <pre>
+ * try (JaxbPool&lt;Marshaller&gt;.Lease lease = pool.borrow())
+ * {
+ * 	lease.get().marshal(document, os);
+ * }
+ * </pre>
+ *
+ * @author Marco Janc (c) 2025
+ *
+ * @param <T>
+ *            pooled type
+ */
+public final class JaxbPool<T>
+{
+	/**
+	 * Creates a new preconfigured instance for the pool
+	 */
+	@FunctionalInterface
+	public interface Factory<T>
+	{
+		T create() throws JAXBException;
+	}
+
+	/**
+	 * borrow timeout waiting until interrupted
+	 */
+	public static final long NO_TIMEOUT = Long.MAX_VALUE;
+
+	private final String name;
+
+	private final int capacity;
+
+	private final long borrowTimeoutMillis;
+
+	private final Factory<T> factory;
+
+	private final BlockingQueue<T> idle;
+
+	private final Semaphore permits;
+
+	/*
+	 * metrics
+	 */
+
+	private final LongAdder created = new LongAdder();
+
+	private final LongAdder borrowed = new LongAdder();
+
+	private final LongAdder waitNanos = new LongAdder();
+
+	private final AtomicLong maxWaitNanos = new AtomicLong();
+
+	public JaxbPool(final String name, final int capacity, final Factory<T> factory)
+	{
+		this(name, capacity, JaxbPool.NO_TIMEOUT, factory);
+	}
+
+	/**
+	 * @param name
+	 * @param capacity
+	 *            maximum number of instances in use at the same time
+	 * @param borrowTimeoutMillis
+	 *            maximum wait of {@link #borrow()} or {@link #NO_TIMEOUT}
+	 * @param factory
+	 */
+	public JaxbPool(final String name, final int capacity, final long borrowTimeoutMillis, final Factory<T> factory)
+	{
+		if (capacity < 1)
+			throw new IllegalArgumentException("capacity must be positive: " + capacity);
+		if (borrowTimeoutMillis < 0)
+			throw new IllegalArgumentException("borrowTimeoutMillis must not be negative: " + borrowTimeoutMillis);
+		this.name = name;
+		this.capacity = capacity;
+		this.borrowTimeoutMillis = borrowTimeoutMillis;
+		this.factory = Objects.requireNonNull(factory, "factory must not be null");
+		this.idle = new ArrayBlockingQueue<>(capacity);
+		this.permits = new Semaphore(capacity, true);
+	}
+
+	/**
+	 * Borrows an instance, waiting at most the borrow timeout of the pool if
+	 * all instances are in use. The returned lease must be closed to give the
+	 * instance back.
+	 *
+	 * @return
+	 * @throws JAXBException
+	 *             if a new instance could not be created, no instance was
+	 *             returned in time or the thread was interrupted
+	 */
+	public Lease borrow() throws JAXBException
+	{
+		return this.borrow(this.borrowTimeoutMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Borrows an instance, waiting at most the given time if all instances are
+	 * in use. The returned lease must be closed to give the instance back.
+	 *
+	 * @param timeout
+	 * @param unit
+	 * @return
+	 * @throws JAXBException
+	 *             if a new instance could not be created, no instance was
+	 *             returned in time or the thread was interrupted, which keeps
+	 *             its interrupt status
+	 */
+	public Lease borrow(final long timeout, final TimeUnit unit) throws JAXBException
+	{
+		final long start = System.nanoTime();
+		try
+		{
+			if (!this.permits.tryAcquire(timeout, unit))
+				throw new JAXBException("no instance of " + this.name + " returned within " + unit.toMillis(timeout) + " ms, " + this.getInUse()
+					+ " in use, is a lease not closed?");
+		}
+		catch (final InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new JAXBException("interrupted while waiting for an instance of " + this.name, e);
+		}
+		final long waited = System.nanoTime() - start;
+
+		this.borrowed.increment();
+		this.waitNanos.add(waited);
+		this.maxWaitNanos.accumulateAndGet(waited, Math::max);
+
+		T instance = this.idle.poll();
+		if (instance == null)
+			try
+			{
+				instance = this.factory.create();
+				this.created.increment();
+			}
+			catch (final JAXBException | RuntimeException e)
+			{
+				this.permits.release();
+				throw e;
+			}
+
+		return new Lease(instance);
+	}
+
+	private void giveBack(final T instance)
+	{
+		this.idle.offer(instance);
+		this.permits.release();
+	}
+
+	/*
+	 * metrics
+	 */
+
+	public String getName()
+	{
+		return this.name;
+	}
+
+	/**
+	 * @return maximum number of instances in use at the same time
+	 */
+	public int getCapacity()
+	{
+		return this.capacity;
+	}
+
+	/**
+	 * @return maximum wait of {@link #borrow()} in milliseconds or
+	 *         {@link #NO_TIMEOUT}
+	 */
+	public long getBorrowTimeoutMillis()
+	{
+		return this.borrowTimeoutMillis;
+	}
+
+	/**
+	 * @return number of currently borrowed instances
+	 */
+	public int getInUse()
+	{
+		return this.capacity - this.permits.availablePermits();
+	}
+
+	/**
+	 * @return number of created instances waiting for reuse
+	 */
+	public int getIdle()
+	{
+		return this.idle.size();
+	}
+
+	/**
+	 * @return estimated number of threads waiting for an instance
+	 */
+	public int getWaiting()
+	{
+		return this.permits.getQueueLength();
+	}
+
+	/**
+	 * @return number of instances created so far
+	 */
+	public long getCreatedCount()
+	{
+		return this.created.sum();
+	}
+
+	/**
+	 * @return number of borrow calls so far
+	 */
+	public long getBorrowCount()
+	{
+		return this.borrowed.sum();
+	}
+
+	/**
+	 * @return total time in nanoseconds callers waited for an instance
+	 */
+	public long getTotalWaitNanos()
+	{
+		return this.waitNanos.sum();
+	}
+
+	/**
+	 * @return longest single wait in nanoseconds
+	 */
+	public long getMaxWaitNanos()
+	{
+		return this.maxWaitNanos.get();
+	}
+
+	@Override
+	public String toString()
+	{
+		return "JaxbPool[" + this.name + ", inUse=" + this.getInUse() + "/" + this.capacity + ", idle=" + this.getIdle() + ", waiting="
+			+ this.getWaiting() + ", borrowed=" + this.getBorrowCount() + ", totalWaitNanos=" + this.getTotalWaitNanos() + "]";
+	}
+
+	/**
+	 * A borrowed instance, given back to the pool on {@link #close()}
+	 */
+	public final class Lease implements AutoCloseable
+	{
+		private T instance;
+
+		private Lease(final T instance)
+		{
+			this.instance = instance;
+		}
+
+		public T get()
+		{
+			if (this.instance == null)
+				throw new IllegalStateException("lease already closed");
+			return this.instance;
+		}
+
+		@Override
+		public void close()
+		{
+			if (this.instance == null)
+				return;
+			final T returned = this.instance;
+			this.instance = null;
+			JaxbPool.this.giveBack(returned);
+		}
+	}
+}
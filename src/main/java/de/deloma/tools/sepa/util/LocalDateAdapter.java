@@ -0,0 +1,26 @@
+package de.deloma.tools.sepa.util;
+
+import java.time.LocalDate;
+
+import jakarta.xml.bind.annotation.adapters.XmlAdapter;
+
+/**
+ * Maps xs:date (ISODate) to {@link LocalDate} in the generated model. A
+ * timezone of the lexical value is ignored.
+ *
+ * @author Marco Janc (c) 2025
+ */
+public class LocalDateAdapter extends XmlAdapter<String, LocalDate>
+{
+	@Override
+	public LocalDate unmarshal(final String value)
+	{
+		return ParserUtils.parseDate(value);
+	}
+
+	@Override
+	public String marshal(final LocalDate value)
+	{
+		return ParserUtils.printDate(value);
+	}
+}
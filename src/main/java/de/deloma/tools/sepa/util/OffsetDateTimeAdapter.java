@@ -0,0 +1,109 @@
+package de.deloma.tools.sepa.util;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.Objects;
+
+import jakarta.xml.bind.Unmarshaller;
+import jakarta.xml.bind.annotation.adapters.XmlAdapter;
+
+/**
+ * Maps xs:dateTime (ISODateTime) to {@link OffsetDateTime} in the generated
+ * model. Values are written with milliseconds and offset like the former
+ * XMLGregorianCalendar output.
+ *
+ * Values without offset, f.e. the local times sent by German banks, are local
+ * date times of the zone of the adapter and get the offset of that zone at
+ * that time. So such a value does not round trip lexically, f.e.
+ * "2025-04-17T18:30:00" is marshalled again as
+ * "2025-04-17T18:30:00.000+02:00" for Europe/Berlin, the local date time is
+ * kept.
+ *
+ * JAXB creates the adapter with the default zone, the system default. The
+ * zone should be set per parse instead, see
+ * {@link de.deloma.tools.sepa.camt.CamtParser#setZone(ZoneId)}, or per
+ * unmarshaller with {@link #setZone(Unmarshaller, ZoneId)}.
+ *
+ * @author Marco Janc (c) 2025
+ */
+public class OffsetDateTimeAdapter extends XmlAdapter<String, OffsetDateTime>
+{
+	private static volatile ZoneId defaultZone = ZoneId.systemDefault();
+
+	/**
+	 * zone of values without offset, null for the default zone at the time of
+	 * unmarshalling
+	 */
+	private final ZoneId zone;
+
+	public OffsetDateTimeAdapter()
+	{
+		this.zone = null;
+	}
+
+	/**
+	 * @param zone
+	 *            zone of values without offset
+	 */
+	public OffsetDateTimeAdapter(final ZoneId zone)
+	{
+		this.zone = Objects.requireNonNull(zone, "zone must not be null");
+	}
+
+	/**
+	 * @return zone of values without offset of adapters created by JAXB
+	 */
+	public static ZoneId getDefaultZone()
+	{
+		return OffsetDateTimeAdapter.defaultZone;
+	}
+
+	/**
+	 * Sets the zone of values without offset for all adapters created by JAXB,
+	 * also of the pooled unmarshallers
+	 *
+	 * @param zone
+	 *            f.e. "Europe/Berlin"
+	 * @deprecated global for all parsers of the application, set the zone per
+	 *             parse with
+	 *             {@link de.deloma.tools.sepa.camt.CamtParser#setZone(ZoneId)}
+	 */
+	@Deprecated
+	public static void setDefaultZone(final ZoneId zone)
+	{
+		OffsetDateTimeAdapter.defaultZone = Objects.requireNonNull(zone, "zone must not be null");
+	}
+
+	/**
+	 * Sets an adapter of the given zone on the unmarshaller, f.e. a pooled one
+	 * while borrowed
+	 *
+	 * @param unmarshaller
+	 * @param zone
+	 *            zone of values without offset or null for the default zone
+	 */
+	public static void setZone(final Unmarshaller unmarshaller, final ZoneId zone)
+	{
+		unmarshaller.setAdapter(OffsetDateTimeAdapter.class, zone == null ? null : new OffsetDateTimeAdapter(zone));
+	}
+
+	/**
+	 * @return zone of values without offset
+	 */
+	public ZoneId getZone()
+	{
+		return this.zone != null ? this.zone : OffsetDateTimeAdapter.defaultZone;
+	}
+
+	@Override
+	public OffsetDateTime unmarshal(final String value)
+	{
+		return ParserUtils.parseDateTime(value, this.getZone());
+	}
+
+	@Override
+	public String marshal(final OffsetDateTime value)
+	{
+		return ParserUtils.printDateTime(value);
+	}
+}
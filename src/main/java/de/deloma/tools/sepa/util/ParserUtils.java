@@ -1,9 +1,14 @@
 package de.deloma.tools.sepa.util;
 
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.temporal.TemporalAccessor;
 import java.util.Collection;
 import java.util.Date;
 import java.util.GregorianCalendar;
@@ -30,6 +35,24 @@ public class ParserUtils
 	public static DateTimeFormatter formatterLocal = DateTimeFormatter.ISO_LOCAL_DATE;
 	public static DateTimeFormatter formatterINSTANT = DateTimeFormatter.ISO_INSTANT;
 
+	/**
+	 * Shared factory, looking it up is a service loader call. The JDK
+	 * implementation is stateless and therefore safe to share between threads.
+	 */
+	private static final DatatypeFactory DATATYPE_FACTORY = ParserUtils.createDatatypeFactory();
+
+	/**
+	 * xs:dateTime with milliseconds and "Z" for UTC like
+	 * {@link XMLGregorianCalendar#toXMLFormat()}
+	 */
+	private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("uuuu-MM-dd'T'HH:mm:ss.SSSXXX");
+
+	/**
+	 * xs:dateTime with any fraction digits and optional offset
+	 */
+	private static final DateTimeFormatter DATE_TIME_PARSER = new DateTimeFormatterBuilder().append(DateTimeFormatter.ISO_LOCAL_DATE_TIME)
+		.optionalStart().appendOffsetId().optionalEnd().toFormatter();
+
 	/**
 	 * Converts given Date objct to XMLGregorianCalendars
 	 *
@@ -43,29 +66,13 @@ public class ParserUtils
 		final GregorianCalendar cal = new GregorianCalendar();
 		cal.setTime(date);
 		cal.setTimeZone(timeZone != null ? timeZone : TimeZone.getTimeZone(ParserUtils.utcZoneID));
-		try
-		{
-			return DatatypeFactory.newInstance().newXMLGregorianCalendar(cal);
-		}
-		catch (final DatatypeConfigurationException e)
-		{
-			e.printStackTrace();
-			return null;
-		}
+		return ParserUtils.getXMLCalender(cal);
 
 	}
 
 	public static XMLGregorianCalendar gregorianCalendarToXmlGregorian(final GregorianCalendar cal, final TimeZone timeZone)
 	{
-		try
-		{
-			return DatatypeFactory.newInstance().newXMLGregorianCalendar(cal);
-		}
-		catch (final DatatypeConfigurationException e)
-		{
-			e.printStackTrace();
-			return null;
-		}
+		return ParserUtils.getXMLCalender(cal);
 	}
 
 	/**
@@ -101,24 +108,131 @@ public class ParserUtils
 	{
 		if (date == null)
 			return null;
-		final GregorianCalendar cal = new GregorianCalendar();
-		cal.setTime(date);
-		final XMLGregorianCalendar xmlCal = ParserUtils.getXMLCalender(cal);
-		xmlCal.setTimezone(DatatypeConstants.FIELD_UNDEFINED);
-		return xmlCal;
+		return ParserUtils.toXmlGregorian(ParserUtils.toLocalDate(date));
+
+	}
+
+	/**
+	 * Returns a XMLGregorianCalendar of the given date without time and
+	 * timezone in format "YYYY-MM-DD"
+	 *
+	 * @param date
+	 * @return {@link XMLGregorianCalendar} or null if date is null
+	 */
+	public static XMLGregorianCalendar toXmlGregorian(final LocalDate date)
+	{
+		if (date == null)
+			return null;
+		return ParserUtils.DATATYPE_FACTORY.newXMLGregorianCalendarDate(date.getYear(), date.getMonthValue(), date.getDayOfMonth(),
+			DatatypeConstants.FIELD_UNDEFINED);
+	}
+
+	/**
+	 * Returns a XMLGregorianCalendar of the given date time with milliseconds
+	 * and offset, f.e. "2025-01-31T10:15:30.000+01:00"
+	 *
+	 * @param dateTime
+	 * @return {@link XMLGregorianCalendar} or null if dateTime is null
+	 */
+	public static XMLGregorianCalendar toXmlGregorian(final OffsetDateTime dateTime)
+	{
+		if (dateTime == null)
+			return null;
+		return ParserUtils.DATATYPE_FACTORY.newXMLGregorianCalendar(dateTime.getYear(), dateTime.getMonthValue(), dateTime.getDayOfMonth(),
+			dateTime.getHour(), dateTime.getMinute(), dateTime.getSecond(), dateTime.getNano() / 1_000_000,
+			dateTime.getOffset().getTotalSeconds() / 60);
+	}
+
+	/**
+	 * @param date
+	 * @return date part of the given date in the default time zone, null if
+	 *         date is null
+	 */
+	public static LocalDate toLocalDate(final Date date)
+	{
+		return date == null ? null : date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+	}
+
+	/**
+	 * @param cal
+	 * @return date part of the given calendar, null if cal is null
+	 */
+	public static LocalDate toLocalDate(final XMLGregorianCalendar cal)
+	{
+		return cal == null ? null : LocalDate.of(cal.getYear(), cal.getMonth(), cal.getDay());
+	}
+
+	/**
+	 * Lexical xs:date form without creating a XMLGregorianCalendar, f.e. for
+	 * the streaming writers
+	 *
+	 * @param date
+	 * @return "YYYY-MM-DD" or null if date is null
+	 */
+	public static String printDate(final LocalDate date)
+	{
+		return date == null ? null : ParserUtils.formatterLocal.format(date);
+	}
 
+	/**
+	 * Lexical xs:dateTime form with milliseconds and offset as written by
+	 * {@link #toXmlGregorian(OffsetDateTime)}, without creating a
+	 * XMLGregorianCalendar
+	 *
+	 * @param dateTime
+	 * @return f.e. "2025-01-31T10:15:30.000Z" or null if dateTime is null
+	 */
+	public static String printDateTime(final OffsetDateTime dateTime)
+	{
+		return dateTime == null ? null : ParserUtils.DATE_TIME_FORMATTER.format(dateTime);
+	}
+
+	/**
+	 * Parses the lexical xs:date form, a timezone is ignored
+	 *
+	 * @param value
+	 *            f.e. "2025-01-31" or "2025-01-31+01:00"
+	 * @return date or null if value is null
+	 */
+	public static LocalDate parseDate(final String value)
+	{
+		return value == null ? null : LocalDate.parse(value.trim(), DateTimeFormatter.ISO_DATE);
+	}
+
+	/**
+	 * Parses the lexical xs:dateTime form, a value without offset is a local
+	 * date time of the given zone
+	 *
+	 * @param value
+	 *            f.e. "2025-01-31T10:15:30.0+01:00" or "2025-01-31T10:15:30"
+	 * @param zone
+	 *            zone of values without offset, f.e. "Europe/Berlin"
+	 * @return date time or null if value is null
+	 */
+	public static OffsetDateTime parseDateTime(final String value, final ZoneId zone)
+	{
+		if (value == null)
+			return null;
+		final TemporalAccessor dateTime = ParserUtils.DATE_TIME_PARSER.parseBest(value.trim(), OffsetDateTime::from, LocalDateTime::from);
+		if (dateTime instanceof OffsetDateTime)
+			return (OffsetDateTime) dateTime;
+		return ((LocalDateTime) dateTime).atZone(Objects.requireNonNull(zone, "zone must not be null")).toOffsetDateTime();
 	}
 
 	private static XMLGregorianCalendar getXMLCalender(final GregorianCalendar cal)
+	{
+		return ParserUtils.DATATYPE_FACTORY.newXMLGregorianCalendar(cal);
+	}
+
+	private static DatatypeFactory createDatatypeFactory()
 	{
 		try
 		{
-			return DatatypeFactory.newInstance().newXMLGregorianCalendar(cal);
+			return DatatypeFactory.newInstance();
 		}
 		catch (final DatatypeConfigurationException e)
 		{
-			e.printStackTrace();
-			return null;
+			throw new IllegalStateException("no DatatypeFactory available", e);
 		}
 	}
 
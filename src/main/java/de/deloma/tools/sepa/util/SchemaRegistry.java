@@ -0,0 +1,119 @@
+package de.deloma.tools.sepa.util;
+
+import java.net.URL;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.xml.XMLConstants;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+
+import org.xml.sax.SAXException;
+
+/**
+ * Thread-safe registry of the compiled XML schemas bundled under
+ * {@code schema/} on the classpath, keyed by the schema name f.e.
+ * "pain.008.001.08".
+ *
+ * Compiling a schema is expensive, while a compiled {@link Schema} is
+ * immutable and thread-safe. Each schema is therefore compiled only once and
+ * shared by all validating marshallers and unmarshallers.
+ *
+ * @author Marco Janc (c) 2025
+ */
+public final class SchemaRegistry
+{
+	private static final String SCHEMA_DIRECTORY = "/schema/";
+
+	private static final ConcurrentMap<String, Schema> SCHEMAS = new ConcurrentHashMap<>();
+
+	private SchemaRegistry()
+	{
+	}
+
+	/**
+	 * Returns the cached schema of the given name, compiling it on first access
+	 *
+	 * @param name
+	 *            name of the bundled XSD without extension, f.e.
+	 *            "camt.053.001.02"
+	 * @return
+	 * @throws SAXException
+	 *             if the schema is not bundled or cannot be compiled
+	 */
+	public static Schema getSchema(final String name) throws SAXException
+	{
+		Objects.requireNonNull(name, "name must not be null");
+
+		final Schema cached = SchemaRegistry.SCHEMAS.get(name);
+		if (cached != null)
+			return cached;
+
+		try
+		{
+			return SchemaRegistry.SCHEMAS.computeIfAbsent(name, k -> {
+				try
+				{
+					return SchemaRegistry.compile(k);
+				}
+				catch (final SAXException e)
+				{
+					throw new SchemaCompilationException(e);
+				}
+			});
+		}
+		catch (final SchemaCompilationException e)
+		{
+			throw (SAXException) e.getCause();
+		}
+	}
+
+	/**
+	 * Compiles the given schemas ahead of time, f.e. on application startup
+	 *
+	 * @param names
+	 * @throws SAXException
+	 */
+	public static void warmUp(final String... names) throws SAXException
+	{
+		for (final String name : names)
+			SchemaRegistry.getSchema(name);
+	}
+
+	/**
+	 * @return number of cached schemas
+	 */
+	public static int size()
+	{
+		return SchemaRegistry.SCHEMAS.size();
+	}
+
+	private static Schema compile(final String name) throws SAXException
+	{
+		final URL url = SchemaRegistry.class.getResource(SchemaRegistry.SCHEMA_DIRECTORY + name + ".xsd");
+		if (url == null)
+			throw new SAXException("no bundled schema " + name);
+
+		final SchemaFactory factory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+
+		// bundled schemas are self-contained
+		factory.setProperty(XMLConstants.ACCESS_EXTERNAL_DTD, "");
+		factory.setProperty(XMLConstants.ACCESS_EXTERNAL_SCHEMA, "");
+		return factory.newSchema(url);
+	}
+
+	/**
+	 * Transports a checked {@link SAXException} out of
+	 * {@link ConcurrentMap#computeIfAbsent}
+	 */
+	private static final class SchemaCompilationException extends RuntimeException
+	{
+		private static final long serialVersionUID = -2489151339187253541L;
+
+		SchemaCompilationException(final SAXException cause)
+		{
+			super(cause);
+		}
+	}
+}
@@ -0,0 +1,141 @@
+package de.deloma.tools.sepa.util;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Objects;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import de.deloma.tools.sepa.camt.CamtParser.CAMTTYPE;
+import de.deloma.tools.sepa.pain.PainDocumentType;
+
+/**
+ * Detects the camt or pain format of a document from the namespace of its root
+ * element. Only a bounded prefix of the stream is read and then reset, so the
+ * returned stream can be parsed without reading the document twice.
+ *
+ * <pre>
+ * final DetectedFormat format = SepaFormatDetector.detect(is);
+ * if (format.isCamt())
+ * 	document = new CamtParser(format.getCamtType()).parse(format.getInputStream());
+ * </pre>
+ *
+ * @author Marco Janc (c) 2025
+ */
+public class SepaFormatDetector
+{
+	/**
+	 * Default number of bytes examined for the root element
+	 */
+	public static final int DEFAULT_PREFIX_SIZE = 8 * 1024;
+
+	private static final String NAMESPACE_PREFIX = "urn:iso:std:iso:20022:tech:xsd:";
+
+	private static final XMLInputFactory XML_INPUT_FACTORY = SepaFormatDetector.createXmlInputFactory();
+
+	private SepaFormatDetector()
+	{
+	}
+
+	public static DetectedFormat detect(final InputStream is) throws IOException
+	{
+		return SepaFormatDetector.detect(is, SepaFormatDetector.DEFAULT_PREFIX_SIZE);
+	}
+
+	/**
+	 * Detects the format from the first bytes of the given stream
+	 *
+	 * @param is
+	 *            stream, wrapped if it does not support mark / reset
+	 * @param prefixSize
+	 *            maximum number of bytes examined
+	 * @return detected format with the stream to parse the document from
+	 * @throws IOException
+	 */
+	public static DetectedFormat detect(final InputStream is, final int prefixSize) throws IOException
+	{
+		Objects.requireNonNull(is, "is must not be null");
+		if (prefixSize < 1)
+			throw new IllegalArgumentException("prefixSize must be positive: " + prefixSize);
+
+		final InputStream markable = is.markSupported() ? is : new BufferedInputStream(is, prefixSize);
+
+		final byte[] prefix = new byte[prefixSize];
+		int length = 0;
+		markable.mark(prefixSize);
+		try
+		{
+			int read;
+			while (length < prefixSize && (read = markable.read(prefix, length, prefixSize - length)) != -1)
+				length += read;
+		}
+		finally
+		{
+			markable.reset();
+		}
+
+		final String namespaceUri = SepaFormatDetector.getRootNamespace(prefix, length);
+		final String xsdVersion = SepaFormatDetector.getXsdVersion(namespaceUri);
+		return new DetectedFormat(namespaceUri, xsdVersion, CAMTTYPE.fromXsdVersion(xsdVersion), PainDocumentType.fromName(xsdVersion),
+			markable);
+	}
+
+	/**
+	 * @param namespaceUri
+	 * @return message version of an ISO 20022 namespace, f.e.
+	 *         "camt.053.001.02", null for other namespaces
+	 */
+	public static String getXsdVersion(final String namespaceUri)
+	{
+		if (namespaceUri == null || !namespaceUri.startsWith(SepaFormatDetector.NAMESPACE_PREFIX))
+			return null;
+		return namespaceUri.substring(SepaFormatDetector.NAMESPACE_PREFIX.length());
+	}
+
+	/**
+	 * @return namespace of the root element, null if the prefix does not
+	 *         contain it
+	 */
+	private static String getRootNamespace(final byte[] prefix, final int length)
+	{
+		XMLStreamReader xsr = null;
+		try
+		{
+			xsr = SepaFormatDetector.XML_INPUT_FACTORY.createXMLStreamReader(new ByteArrayInputStream(prefix, 0, length));
+			while (xsr.hasNext())
+				if (xsr.next() == XMLStreamConstants.START_ELEMENT)
+					return xsr.getNamespaceURI();
+		}
+		catch (final XMLStreamException e)
+		{
+			// not XML or root element cut off by the prefix
+		}
+		finally
+		{
+			if (xsr != null)
+				try
+				{
+					xsr.close();
+				}
+				catch (final XMLStreamException e)
+				{
+					// nothing to release
+				}
+		}
+		return null;
+	}
+
+	private static XMLInputFactory createXmlInputFactory()
+	{
+		final XMLInputFactory xif = XMLInputFactory.newInstance();
+		xif.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+		xif.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		xif.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		return xif;
+	}
+}
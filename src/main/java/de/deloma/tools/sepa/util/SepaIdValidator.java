@@ -0,0 +1,262 @@
+package de.deloma.tools.sepa.util;
+
+import de.deloma.tools.sepa.exception.PainParserException;
+import de.deloma.tools.sepa.exception.PainParserException.ParserExceptionType;
+
+/**
+ * Structure and checksum validation of IBANs (ISO 13616 mod 97), BICs (ISO
+ * 9362) and SEPA creditor identifiers without allocation: the mod 97 check
+ * is computed char by char instead of over a {@code BigInteger}.
+ *
+ * Besides {@link CharSequence}s the values can be checked on ASCII or UTF-8
+ * bytes, f.e. the string data of a
+ * {@link de.deloma.tools.sepa.pain.wrapper.TransactionBatch}. Only upper case
+ * values without spaces are valid, as required by the pain schemas.
+ *
+ * @author Marco Janc (c) 2025
+ */
+public final class SepaIdValidator
+{
+	private static final int MIN_IBAN_LENGTH = 15;
+
+	private static final int MAX_IBAN_LENGTH = 34;
+
+	/**
+	 * country code, check digits, creditor business code and at least one char
+	 * national identifier
+	 */
+	private static final int MIN_CREDITOR_ID_LENGTH = 8;
+
+	private static final int MAX_CREDITOR_ID_LENGTH = 35;
+
+	/**
+	 * largest value to which 2 more digits can be appended without overflow
+	 */
+	private static final long MOD97_LIMIT = (Long.MAX_VALUE - 99) / 100;
+
+	/**
+	 * IBAN length per country code of the SEPA countries and territories,
+	 * others are only checked structurally
+	 */
+	private static final String IBAN_LENGTHS = "AD24AT20AX18BE16BG22BL27CH21CY28CZ24DE22DK18EE20ES24FI18FR27GB22GF27GG22GI23GP27GR27"
+		+ "HR21HU28IE22IM22IS26IT27JE22LI21LT20LU20LV21MC27MF27MQ27MT31NC27NL18NO15PF27PL28PM27PT25RE27RO24SE24SI19SK24SM27TF27VA22"
+		+ "WF27YT27";
+
+	/**
+	 * IBAN length by {@code (c1 - 'A') * 26 + (c2 - 'A')}, 0 if unknown
+	 */
+	private static final byte[] IBAN_LENGTH = new byte[26 * 26];
+
+	static
+	{
+		final String lengths = SepaIdValidator.IBAN_LENGTHS;
+		for (int i = 0; i < lengths.length(); i += 4)
+			SepaIdValidator.IBAN_LENGTH[(lengths.charAt(i) - 'A') * 26 + lengths.charAt(i + 1) - 'A'] = (byte) Integer
+				.parseInt(lengths.substring(i + 2, i + 4));
+	}
+
+	private SepaIdValidator()
+	{
+	}
+
+	/**
+	 * @param iban
+	 * @return whether the IBAN has a valid structure, length for its country
+	 *         and check digits
+	 */
+	public static boolean isValidIban(final CharSequence iban)
+	{
+		return iban != null && SepaIdValidator.isValidIban(iban, null, 0, iban.length());
+	}
+
+	/**
+	 * @param data
+	 *            ASCII or UTF-8 bytes
+	 * @param from
+	 *            first byte of the IBAN
+	 * @param to
+	 *            end of the IBAN, exclusive
+	 * @return see {@link #isValidIban(CharSequence)}
+	 */
+	public static boolean isValidIban(final byte[] data, final int from, final int to)
+	{
+		return SepaIdValidator.isValidIban(null, data, from, to);
+	}
+
+	/**
+	 * @param bic
+	 * @return whether the BIC has 8 or 11 chars: 4 chars business party
+	 *         prefix, 2 letters country code, 2 chars location and optional 3
+	 *         chars branch
+	 */
+	public static boolean isValidBic(final CharSequence bic)
+	{
+		return bic != null && SepaIdValidator.isValidBic(bic, null, 0, bic.length());
+	}
+
+	/**
+	 * @param data
+	 *            ASCII or UTF-8 bytes
+	 * @param from
+	 *            first byte of the BIC
+	 * @param to
+	 *            end of the BIC, exclusive
+	 * @return see {@link #isValidBic(CharSequence)}
+	 */
+	public static boolean isValidBic(final byte[] data, final int from, final int to)
+	{
+		return SepaIdValidator.isValidBic(null, data, from, to);
+	}
+
+	/**
+	 * @param creditorId
+	 *            f.e. "DE98ZZZ09999999999"
+	 * @return whether the SEPA creditor identifier has a valid structure and
+	 *         check digits, computed over the national identifier and country
+	 *         code without the creditor business code
+	 */
+	public static boolean isValidCreditorId(final CharSequence creditorId)
+	{
+		if (creditorId == null)
+			return false;
+		final int length = creditorId.length();
+		if (length < SepaIdValidator.MIN_CREDITOR_ID_LENGTH || length > SepaIdValidator.MAX_CREDITOR_ID_LENGTH
+			|| !SepaIdValidator.isCountryAndCheckDigits(creditorId, null, 0))
+			return false;
+		for (int i = 4; i < length; i++)
+			if (!SepaIdValidator.isAlphanumeric(creditorId.charAt(i)))
+				return false;
+		return SepaIdValidator.mod97(creditorId, null, 0, length, 7) == 1;
+	}
+
+	/**
+	 * @param iban
+	 * @throws PainParserException
+	 *             if the IBAN is invalid
+	 * @see #isValidIban(CharSequence)
+	 */
+	public static void checkIban(final String iban) throws PainParserException
+	{
+		if (!SepaIdValidator.isValidIban(iban))
+			throw new PainParserException(ParserExceptionType.GENERAL, "Invalid IBAN: " + iban);
+	}
+
+	/**
+	 * @param bic
+	 * @throws PainParserException
+	 *             if the BIC is invalid
+	 * @see #isValidBic(CharSequence)
+	 */
+	public static void checkBic(final String bic) throws PainParserException
+	{
+		if (!SepaIdValidator.isValidBic(bic))
+			throw new PainParserException(ParserExceptionType.GENERAL, "Invalid BIC: " + bic);
+	}
+
+	/**
+	 * @param creditorId
+	 * @throws PainParserException
+	 *             if the creditor identifier is invalid
+	 * @see #isValidCreditorId(CharSequence)
+	 */
+	public static void checkCreditorId(final String creditorId) throws PainParserException
+	{
+		if (!SepaIdValidator.isValidCreditorId(creditorId))
+			throw new PainParserException(ParserExceptionType.GENERAL, "Invalid creditor identifier: " + creditorId);
+	}
+
+	private static boolean isValidIban(final CharSequence chars, final byte[] bytes, final int from, final int to)
+	{
+		final int length = to - from;
+		if (length < SepaIdValidator.MIN_IBAN_LENGTH || length > SepaIdValidator.MAX_IBAN_LENGTH
+			|| !SepaIdValidator.isCountryAndCheckDigits(chars, bytes, from))
+			return false;
+
+		final int countryLength = SepaIdValidator.IBAN_LENGTH[(SepaIdValidator.charAt(chars, bytes, from) - 'A') * 26
+			+ SepaIdValidator.charAt(chars, bytes, from + 1) - 'A'];
+		if (countryLength != 0 && countryLength != length)
+			return false;
+
+		for (int i = from + 4; i < to; i++)
+			if (!SepaIdValidator.isAlphanumeric(SepaIdValidator.charAt(chars, bytes, i)))
+				return false;
+		return SepaIdValidator.mod97(chars, bytes, from, to, 4) == 1;
+	}
+
+	private static boolean isValidBic(final CharSequence chars, final byte[] bytes, final int from, final int to)
+	{
+		final int length = to - from;
+		if (length != 8 && length != 11)
+			return false;
+		for (int i = 0; i < length; i++)
+		{
+			final char c = SepaIdValidator.charAt(chars, bytes, from + i);
+			if (i == 4 || i == 5 ? !SepaIdValidator.isLetter(c) : !SepaIdValidator.isAlphanumeric(c))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * @return whether two letters and two digits start at from
+	 */
+	private static boolean isCountryAndCheckDigits(final CharSequence chars, final byte[] bytes, final int from)
+	{
+		return SepaIdValidator.isLetter(SepaIdValidator.charAt(chars, bytes, from))
+			&& SepaIdValidator.isLetter(SepaIdValidator.charAt(chars, bytes, from + 1))
+			&& SepaIdValidator.isDigit(SepaIdValidator.charAt(chars, bytes, from + 2))
+			&& SepaIdValidator.isDigit(SepaIdValidator.charAt(chars, bytes, from + 3));
+	}
+
+	/**
+	 * ISO 7064 mod 97-10 of the alphanumeric value with its first 4 chars
+	 * moved to the end, letters count as 10 to 35
+	 *
+	 * @param start
+	 *            offset of the chars following the first 4, f.e. 7 to skip
+	 *            the creditor business code
+	 */
+	private static int mod97(final CharSequence chars, final byte[] bytes, final int from, final int to, final int start)
+	{
+		long value = 0;
+		for (int i = from + start; i < to; i++)
+			value = SepaIdValidator.append(value, SepaIdValidator.charAt(chars, bytes, i));
+		for (int i = from; i < from + 4; i++)
+			value = SepaIdValidator.append(value, SepaIdValidator.charAt(chars, bytes, i));
+		return (int) (value % 97);
+	}
+
+	/**
+	 * @return value with the digit or letter appended, congruent mod 97 and
+	 *         reduced only before it could overflow
+	 */
+	private static long append(final long value, final char c)
+	{
+		final long reduced = value > SepaIdValidator.MOD97_LIMIT ? value % 97 : value;
+		return c <= '9' ? reduced * 10 + c - '0' : reduced * 100 + c - 'A' + 10;
+	}
+
+	/**
+	 * @return char at the index, bytes beyond ASCII map to chars which are
+	 *         neither letters nor digits
+	 */
+	private static char charAt(final CharSequence chars, final byte[] bytes, final int index)
+	{
+		return chars != null ? chars.charAt(index) : (char) (bytes[index] & 0xFF);
+	}
+
+	private static boolean isLetter(final char c)
+	{
+		return c >= 'A' && c <= 'Z';
+	}
+
+	private static boolean isDigit(final char c)
+	{
+		return c >= '0' && c <= '9';
+	}
+
+	private static boolean isAlphanumeric(final char c)
+	{
+		return SepaIdValidator.isLetter(c) || SepaIdValidator.isDigit(c);
+	}
+}
@@ -0,0 +1,357 @@
+package de.deloma.tools.sepa.util;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.Arrays;
+import java.util.Objects;
+
+import de.deloma.tools.sepa.pain.wrapper.SepaLocalInstrumentCode;
+import de.deloma.tools.sepa.pain.wrapper.SequenceTypeCode;
+
+/**
+ * TARGET business-day calendar for SEPA collection dates. TARGET is closed on
+ * weekends, New Year's Day, Good Friday, Easter Monday, 1 May, 25 and 26
+ * December.
+ *
+ * The business days of the covered years are precomputed into a bitset with
+ * the number of business days before each 64-day word and the day of each
+ * business day ordinal, so all answers are O(1) without iterating days:
+ * <ul>
+ * <li>{@link #isBusinessDay(LocalDate)}</li>
+ * <li>{@link #addBusinessDays(LocalDate, int)}</li>
+ * <li>{@link #isValidCollectionDate(LocalDate, LocalDate, SepaLocalInstrumentCode, SequenceTypeCode)}</li>
+ * <li>{@link #getNextCollectionDate(LocalDate, LocalDate, SepaLocalInstrumentCode, SequenceTypeCode)}</li>
+ * </ul>
+ *
+ * A collection date must be a business day and the file must be submitted
+ * the lead time in business days before, f.e. D-1: at least one business day
+ * before the collection date. A submission on a closing day counts as on the
+ * next business day. The lead time is 1 business day for all instruments and
+ * sequence types by default, as in the SEPA rulebooks since November 2016,
+ * and can be changed per bank with
+ * {@link #withLeadDays(SepaLocalInstrumentCode, SequenceTypeCode, int)}.
+ *
+ * Immutable and thread-safe.
+ *
+ * @author Marco Janc (c) 2025
+ */
+public final class TargetCalendar
+{
+	/**
+	 * default lead time in business days
+	 */
+	public static final int DEFAULT_LEAD_DAYS = 1;
+
+	private static final MonthDay[] FIXED_HOLIDAYS = { MonthDay.of(1, 1), MonthDay.of(5, 1), MonthDay.of(12, 25), MonthDay.of(12, 26) };
+
+	private static final int SEQUENCE_TYPES = SequenceTypeCode.values().length;
+
+	/**
+	 * epoch day of the first day
+	 */
+	private final long firstDay;
+
+	/**
+	 * number of days
+	 */
+	private final int days;
+
+	/**
+	 * bit per day, set for business days
+	 */
+	private final long[] businessDays;
+
+	/**
+	 * number of business days before each word of {@link #businessDays}
+	 */
+	private final int[] counts;
+
+	/**
+	 * day index per business day ordinal
+	 */
+	private final int[] ordinalDays;
+
+	/**
+	 * lead time in business days by instrument and sequence type ordinal
+	 */
+	private final int[] leadDays;
+
+	/**
+	 * Creates a calendar of the given years
+	 *
+	 * @param fromYear
+	 *            first year
+	 * @param toYear
+	 *            last year, inclusive
+	 */
+	public TargetCalendar(final int fromYear, final int toYear)
+	{
+		if (fromYear > toYear)
+			throw new IllegalArgumentException("fromYear must not be after toYear");
+
+		final LocalDate first = LocalDate.of(fromYear, 1, 1);
+		this.firstDay = first.toEpochDay();
+		this.days = (int) (LocalDate.of(toYear + 1, 1, 1).toEpochDay() - this.firstDay);
+		this.businessDays = new long[(this.days + 63) >>> 6];
+
+		// weekdays, then the holidays are cleared
+		for (int i = 0; i < this.days; i++)
+			if (first.plusDays(i).getDayOfWeek().compareTo(DayOfWeek.SATURDAY) < 0)
+				this.businessDays[i >>> 6] |= 1L << i;
+		for (int year = fromYear; year <= toYear; year++)
+		{
+			for (final MonthDay holiday : TargetCalendar.FIXED_HOLIDAYS)
+				this.clear(holiday.atYear(year));
+			final LocalDate easter = TargetCalendar.getEasterSunday(year);
+			this.clear(easter.minusDays(2));
+			this.clear(easter.plusDays(1));
+		}
+
+		this.counts = new int[this.businessDays.length + 1];
+		for (int w = 0; w < this.businessDays.length; w++)
+			this.counts[w + 1] = this.counts[w] + Long.bitCount(this.businessDays[w]);
+
+		this.ordinalDays = new int[this.counts[this.businessDays.length]];
+		int ordinal = 0;
+		for (int i = 0; i < this.days; i++)
+			if (this.isBusinessDay(i))
+				this.ordinalDays[ordinal++] = i;
+
+		this.leadDays = new int[SepaLocalInstrumentCode.values().length * TargetCalendar.SEQUENCE_TYPES];
+		Arrays.fill(this.leadDays, TargetCalendar.DEFAULT_LEAD_DAYS);
+	}
+
+	private TargetCalendar(final TargetCalendar calendar, final int[] leadDays)
+	{
+		this.firstDay = calendar.firstDay;
+		this.days = calendar.days;
+		this.businessDays = calendar.businessDays;
+		this.counts = calendar.counts;
+		this.ordinalDays = calendar.ordinalDays;
+		this.leadDays = leadDays;
+	}
+
+	/**
+	 * @return calendar of the years 2000 to 2099 with the default lead times
+	 */
+	public static TargetCalendar getDefault()
+	{
+		return DefaultHolder.INSTANCE;
+	}
+
+	/**
+	 * @param sepaLocalInstrumentCode
+	 * @param sequenceTypeCode
+	 * @param leadDays
+	 *            lead time in business days
+	 * @return calendar sharing the business days of this calendar with the
+	 *         given lead time
+	 */
+	public TargetCalendar withLeadDays(final SepaLocalInstrumentCode sepaLocalInstrumentCode, final SequenceTypeCode sequenceTypeCode,
+		final int leadDays)
+	{
+		if (leadDays < 0)
+			throw new IllegalArgumentException("leadDays must not be negative");
+		final int[] copy = this.leadDays.clone();
+		copy[TargetCalendar.leadIndex(sepaLocalInstrumentCode, sequenceTypeCode)] = leadDays;
+		return new TargetCalendar(this, copy);
+	}
+
+	/**
+	 * @param sepaLocalInstrumentCode
+	 * @param sequenceTypeCode
+	 * @return lead time in business days
+	 */
+	public int getLeadDays(final SepaLocalInstrumentCode sepaLocalInstrumentCode, final SequenceTypeCode sequenceTypeCode)
+	{
+		return this.leadDays[TargetCalendar.leadIndex(sepaLocalInstrumentCode, sequenceTypeCode)];
+	}
+
+	/**
+	 * @param date
+	 * @return whether TARGET is open on the date
+	 * @throws IllegalArgumentException
+	 *             if the date is outside of the calendar
+	 */
+	public boolean isBusinessDay(final LocalDate date)
+	{
+		return this.isBusinessDay(this.indexOf(date));
+	}
+
+	/**
+	 * @param date
+	 * @return the date if it is a business day, otherwise the next business
+	 *         day
+	 */
+	public LocalDate getNextBusinessDay(final LocalDate date)
+	{
+		return this.dateOf(this.countBefore(this.indexOf(date)));
+	}
+
+	/**
+	 * @param date
+	 * @param businessDays
+	 *            number of business days, not negative
+	 * @return the given number of business days after the date, for 0 the
+	 *         date if it is a business day, otherwise the next business day
+	 */
+	public LocalDate addBusinessDays(final LocalDate date, final int businessDays)
+	{
+		if (businessDays < 0)
+			throw new IllegalArgumentException("businessDays must not be negative");
+		final int index = this.indexOf(date);
+		if (businessDays == 0 || this.isBusinessDay(index))
+			return this.dateOf(this.countBefore(index) + businessDays);
+		// the next business day is the first day after the date
+		return this.dateOf(this.countBefore(index) + businessDays - 1);
+	}
+
+	/**
+	 * @param from
+	 * @param to
+	 * @return number of business days from the date inclusive to the other
+	 *         exclusive, negative if to is before from
+	 */
+	public int getBusinessDaysBetween(final LocalDate from, final LocalDate to)
+	{
+		return this.countBefore(this.indexOf(to)) - this.countBefore(this.indexOf(from));
+	}
+
+	/**
+	 * @param collectionDate
+	 * @param submissionDate
+	 *            date the file is submitted to the bank
+	 * @param sepaLocalInstrumentCode
+	 * @param sequenceTypeCode
+	 * @return whether the collection date is a business day at least the lead
+	 *         time after the submission
+	 */
+	public boolean isValidCollectionDate(final LocalDate collectionDate, final LocalDate submissionDate,
+		final SepaLocalInstrumentCode sepaLocalInstrumentCode, final SequenceTypeCode sequenceTypeCode)
+	{
+		final int index = this.indexOf(collectionDate);
+		return this.isBusinessDay(index)
+			&& this.countBefore(index) - this.countBefore(this.indexOf(submissionDate)) >= this.getLeadDays(sepaLocalInstrumentCode, sequenceTypeCode);
+	}
+
+	/**
+	 * @param submissionDate
+	 *            date the file is submitted to the bank
+	 * @param sepaLocalInstrumentCode
+	 * @param sequenceTypeCode
+	 * @return earliest valid collection date
+	 */
+	public LocalDate getEarliestCollectionDate(final LocalDate submissionDate, final SepaLocalInstrumentCode sepaLocalInstrumentCode,
+		final SequenceTypeCode sequenceTypeCode)
+	{
+		return this.dateOf(this.countBefore(this.indexOf(submissionDate)) + this.getLeadDays(sepaLocalInstrumentCode, sequenceTypeCode));
+	}
+
+	/**
+	 * @param collectionDate
+	 *            requested collection date
+	 * @param submissionDate
+	 *            date the file is submitted to the bank
+	 * @param sepaLocalInstrumentCode
+	 * @param sequenceTypeCode
+	 * @return the requested collection date if valid, otherwise the next
+	 *         valid collection date
+	 */
+	public LocalDate getNextCollectionDate(final LocalDate collectionDate, final LocalDate submissionDate,
+		final SepaLocalInstrumentCode sepaLocalInstrumentCode, final SequenceTypeCode sequenceTypeCode)
+	{
+		final int earliest = this.countBefore(this.indexOf(submissionDate)) + this.getLeadDays(sepaLocalInstrumentCode, sequenceTypeCode);
+		return this.dateOf(Math.max(earliest, this.countBefore(this.indexOf(collectionDate))));
+	}
+
+	/**
+	 * @return first day of the calendar
+	 */
+	public LocalDate getFirstDay()
+	{
+		return LocalDate.ofEpochDay(this.firstDay);
+	}
+
+	/**
+	 * @return last day of the calendar
+	 */
+	public LocalDate getLastDay()
+	{
+		return LocalDate.ofEpochDay(this.firstDay + this.days - 1);
+	}
+
+	/**
+	 * Easter Sunday of the Gregorian calendar by the anonymous Gregorian
+	 * algorithm
+	 *
+	 * @param year
+	 * @return
+	 */
+	static LocalDate getEasterSunday(final int year)
+	{
+		final int a = year % 19;
+		final int b = year / 100;
+		final int c = year % 100;
+		final int d = b / 4;
+		final int e = b % 4;
+		final int f = (b + 8) / 25;
+		final int g = (b - f + 1) / 3;
+		final int h = (19 * a + b - d - g + 15) % 30;
+		final int i = c / 4;
+		final int k = c % 4;
+		final int l = (32 + 2 * e + 2 * i - h - k) % 7;
+		final int m = (a + 11 * h + 22 * l) / 451;
+		final int month = (h + l - 7 * m + 114) / 31;
+		final int day = (h + l - 7 * m + 114) % 31 + 1;
+		return LocalDate.of(year, month, day);
+	}
+
+	private boolean isBusinessDay(final int index)
+	{
+		return (this.businessDays[index >>> 6] & 1L << index) != 0;
+	}
+
+	/**
+	 * @return number of business days before the day index
+	 */
+	private int countBefore(final int index)
+	{
+		return this.counts[index >>> 6] + Long.bitCount(this.businessDays[index >>> 6] & (1L << index) - 1);
+	}
+
+	/**
+	 * @return date of the business day with the given ordinal
+	 */
+	private LocalDate dateOf(final int ordinal)
+	{
+		if (ordinal >= this.ordinalDays.length)
+			throw new IllegalArgumentException("business day after the end of the calendar " + this.getLastDay());
+		return LocalDate.ofEpochDay(this.firstDay + this.ordinalDays[ordinal]);
+	}
+
+	private int indexOf(final LocalDate date)
+	{
+		Objects.requireNonNull(date, "date must not be null");
+		final long index = date.toEpochDay() - this.firstDay;
+		if (index < 0 || index >= this.days)
+			throw new IllegalArgumentException(date + " outside of the calendar " + this.getFirstDay() + " - " + this.getLastDay());
+		return (int) index;
+	}
+
+	private void clear(final LocalDate date)
+	{
+		final int index = (int) (date.toEpochDay() - this.firstDay);
+		this.businessDays[index >>> 6] &= ~(1L << index);
+	}
+
+	private static int leadIndex(final SepaLocalInstrumentCode sepaLocalInstrumentCode, final SequenceTypeCode sequenceTypeCode)
+	{
+		return sepaLocalInstrumentCode.ordinal() * TargetCalendar.SEQUENCE_TYPES + sequenceTypeCode.ordinal();
+	}
+
+	private static final class DefaultHolder
+	{
+		private static final TargetCalendar INSTANCE = new TargetCalendar(2000, 2099);
+	}
+}
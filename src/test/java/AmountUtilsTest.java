@@ -0,0 +1,93 @@
+package test;
+
+import java.math.BigDecimal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.deloma.tools.sepa.util.AmountUtils;
+
+/**
+ * Unit tests for {@link AmountUtils}, the cents results are compared with
+ * {@link BigDecimal}
+ *
+ * @author Marco Janc (c) 2025
+ */
+public class AmountUtilsTest
+{
+	private static final String[] AMOUNTS = { "0", "1", "1.5", "1.50", "1.500", "1.005", "1.050", "+0.01", "-0.01", "-0", "0.1", ".5", "5.",
+		"007.07", "1234567.89", "9999999999999999.99", "92233720368547758.07", "92233720368547758.08", "92233720368547759",
+		"99999999999999999", "-99999999999999999.00", "1.0000000000000000001" };
+
+	@Test
+	public void testParseCents()
+	{
+		Assert.assertEquals(100, AmountUtils.parseCents("1"));
+		Assert.assertEquals(150, AmountUtils.parseCents("1.5"));
+		Assert.assertEquals(150, AmountUtils.parseCents("1.500"));
+		Assert.assertEquals(AmountUtils.NOT_REPRESENTABLE, AmountUtils.parseCents("1.005"));
+		Assert.assertEquals(1, AmountUtils.parseCents("+0.01"));
+		Assert.assertEquals(-1, AmountUtils.parseCents("-0.01"));
+
+		for (final String amount : AmountUtilsTest.AMOUNTS)
+			Assert.assertEquals(amount, AmountUtils.toCentsOrNotRepresentable(new BigDecimal(amount)), AmountUtils.parseCents(amount));
+	}
+
+	@Test
+	public void testOverflow()
+	{
+		// 16 integer digits fit, 17 do not
+		Assert.assertEquals(999_999_999_999_999_999L, AmountUtils.parseCents("9999999999999999.99"));
+		Assert.assertEquals(AmountUtils.NOT_REPRESENTABLE, AmountUtils.parseCents("99999999999999999"));
+		Assert.assertEquals(AmountUtils.NOT_REPRESENTABLE, AmountUtils.parseCents("-99999999999999999"));
+		Assert.assertEquals(AmountUtils.NOT_REPRESENTABLE, AmountUtils.toCentsOrNotRepresentable(new BigDecimal("99999999999999999")));
+		Assert.assertThrows(ArithmeticException.class, () -> AmountUtils.toCents(new BigDecimal("99999999999999999")));
+		Assert.assertThrows(ArithmeticException.class, () -> AmountUtils.toCents(new BigDecimal("1.005")));
+		Assert.assertEquals(AmountUtils.NOT_REPRESENTABLE, AmountUtils.toCentsOrNotRepresentable(null));
+	}
+
+	@Test
+	public void testWhitespace()
+	{
+		Assert.assertEquals(150, AmountUtils.parseCents(" 1.5"));
+		Assert.assertEquals(150, AmountUtils.parseCents("1.5\n"));
+		Assert.assertEquals(-150, AmountUtils.parseCents("\t-1.50 "));
+		Assert.assertThrows(NumberFormatException.class, () -> AmountUtils.parseCents("1 .5"));
+		Assert.assertThrows(NumberFormatException.class, () -> AmountUtils.parseCents("- 1.5"));
+	}
+
+	@Test
+	public void testNotDecimal()
+	{
+		for (final String value : new String[] { ".", "", " ", "-", "+", "+.", "1.2.3", "1e2", "1,5", "--1", "0x10" })
+			Assert.assertThrows(value, NumberFormatException.class, () -> AmountUtils.parseCents(value));
+	}
+
+	@Test
+	public void testAppendTo()
+	{
+		for (final long cents : new long[] { 0, 1, -1, 5, -5, 10, 99, 100, -105, 123_456_789, Long.MAX_VALUE, Long.MIN_VALUE + 1 })
+		{
+			final String expected = BigDecimal.valueOf(cents, 2).toPlainString();
+			Assert.assertEquals(expected, AmountUtils.toPlainString(cents));
+			Assert.assertEquals(expected, AmountUtils.toBigDecimal(cents).toPlainString());
+			Assert.assertEquals("Amt=" + expected, AmountUtils.appendTo(new StringBuilder("Amt="), cents).toString());
+			// round trip
+			Assert.assertEquals(cents, AmountUtils.parseCents(AmountUtils.toPlainString(cents)));
+		}
+		Assert.assertThrows(ArithmeticException.class, () -> AmountUtils.appendTo(new StringBuilder(), AmountUtils.NOT_REPRESENTABLE));
+		Assert.assertThrows(ArithmeticException.class, () -> AmountUtils.toBigDecimal(AmountUtils.NOT_REPRESENTABLE));
+	}
+
+	@Test
+	public void testAdd()
+	{
+		Assert.assertEquals(251, AmountUtils.add(150, 101));
+		Assert.assertEquals(-1, AmountUtils.add(1, -2));
+		Assert.assertEquals(Long.MAX_VALUE, AmountUtils.add(Long.MAX_VALUE - 1, 1));
+		Assert.assertThrows(ArithmeticException.class, () -> AmountUtils.add(Long.MAX_VALUE, 1));
+		// the sum must not be the marker
+		Assert.assertThrows(ArithmeticException.class, () -> AmountUtils.add(Long.MIN_VALUE + 1, -1));
+		Assert.assertThrows(ArithmeticException.class, () -> AmountUtils.add(AmountUtils.NOT_REPRESENTABLE, 1));
+	}
+}
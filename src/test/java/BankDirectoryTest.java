@@ -0,0 +1,223 @@
+package test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.deloma.tools.sepa.pain.PainDocumentType;
+import de.deloma.tools.sepa.pain.PainStreamWriter;
+import de.deloma.tools.sepa.pain.wrapper.CollectorPaymentInfoPain;
+import de.deloma.tools.sepa.pain.wrapper.PainTransaction;
+import de.deloma.tools.sepa.pain.wrapper.SepaLocalInstrumentCode;
+import de.deloma.tools.sepa.pain.wrapper.SequenceTypeCode;
+import de.deloma.tools.sepa.pain.wrapper.TransactionBatch;
+import de.deloma.tools.sepa.util.BankDirectory;
+
+/**
+ * Unit tests for {@link BankDirectory}
+ *
+ * @author Marco Janc (c) 2025
+ */
+public class BankDirectoryTest
+{
+	/**
+	 * length of a record of the Bundesbank bank code file
+	 */
+	private static final int RECORD_LENGTH = 168;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testReadBundesbank() throws IOException
+	{
+		final String file = String.join("\r\n",
+			BankDirectoryTest.record("37040044", '1', "Commerzbank", "COBADEFFXXX"),
+			// branch of the same bank code, the first BIC is kept
+			BankDirectoryTest.record("37040044", '2', "Commerzbank Filiale", "COBADEFF370"),
+			BankDirectoryTest.record("20050000", '1', "Hamburg Commercial Bank", "HSHNDEHH"),
+			// no BIC
+			BankDirectoryTest.record("10000000", '1', "Bundesbank ohne BIC", ""),
+			// not a payment service provider
+			BankDirectoryTest.record("50010517", '2', "ING-DiBa Filiale", "INGDDEFFXXX"),
+			"");
+		final Path path = this.folder.newFile("blz.txt").toPath();
+		Files.write(path, file.getBytes(StandardCharsets.ISO_8859_1));
+
+		final BankDirectory directory = BankDirectory.readBundesbank(path);
+		Assert.assertEquals(2, directory.size());
+		Assert.assertEquals("COBADEFFXXX", directory.getBic("DE89370400440532013000"));
+		Assert.assertEquals("COBADEFFXXX", directory.getBic("DE", "37040044"));
+		Assert.assertEquals("HSHNDEHH", directory.getBic(PainTestData.CREDITOR_IBAN));
+		Assert.assertNull(directory.getBic("DE", "10000000"));
+		Assert.assertNull(directory.getBic("DE", "50010517"));
+	}
+
+	@Test
+	public void testColumns() throws IOException
+	{
+		// the BIC is read from columns 140-150 only
+		final char[] record = BankDirectoryTest.record("37040044", '1', "Commerzbank", "COBADEFFXXX").toCharArray();
+		record[138] = 'X';
+		record[150] = 'X';
+		final BankDirectory directory = BankDirectoryTest.read(new String(record));
+		Assert.assertEquals("COBADEFFXXX", directory.getBic("DE", "37040044"));
+
+		// too short record
+		Assert.assertThrows(IOException.class,
+			() -> BankDirectoryTest.read(BankDirectoryTest.record("37040044", '1', "Commerzbank", "COBADEFFXXX").substring(0, 149)));
+		// invalid bank code and BIC
+		Assert.assertThrows(IOException.class, () -> BankDirectoryTest.read(BankDirectoryTest.record("3704004X", '1', "Bank", "COBADEFFXXX")));
+		Assert.assertThrows(IOException.class, () -> BankDirectoryTest.read(BankDirectoryTest.record("37040044", '1', "Bank", "COBADE")));
+	}
+
+	@Test
+	public void testBankCodeLength()
+	{
+		final BankDirectory directory = BankDirectory.builder().add("DE", "37040044", "COBADEFFXXX").add("AT", "19043", "BKAUATWWXXX")
+			.add("GB", "WEST", "NWBKGB2LXXX").build();
+		Assert.assertEquals(3, directory.size());
+		Assert.assertEquals("BKAUATWWXXX", directory.getBic("AT611904300234573201"));
+		Assert.assertEquals("NWBKGB2LXXX", directory.getBic("GB82WEST12345698765432"));
+		Assert.assertEquals("COBADEFFXXX", directory.getBic("DE89370400440532013000"));
+		// the length of the country is used, not of another country
+		Assert.assertNull(directory.getBic("DE", "19043"));
+		Assert.assertNull(directory.getBic("AT", "37040044"));
+		// unknown country
+		Assert.assertNull(directory.getBic("FR1420041010050500013M02606"));
+
+		final BankDirectory.Builder builder = BankDirectory.builder().add("DE", "37040044", "COBADEFFXXX");
+		Assert.assertThrows(IllegalArgumentException.class, () -> builder.add("DE", "3704004", "COBADEFFXXX"));
+		Assert.assertThrows(IllegalArgumentException.class, () -> builder.add("DE", "370400440", "COBADEFFXXX"));
+		Assert.assertThrows(IllegalArgumentException.class, () -> builder.add("DE", "12345678901", "COBADEFFXXX"));
+		Assert.assertThrows(IllegalArgumentException.class, () -> builder.add("de", "37040044", "COBADEFFXXX"));
+		Assert.assertThrows(IllegalArgumentException.class, () -> builder.add("DE", "", "COBADEFFXXX"));
+		Assert.assertThrows(IllegalArgumentException.class, () -> builder.add("DE", "12345678", "INVALID"));
+	}
+
+	@Test
+	public void testGetBic()
+	{
+		final BankDirectory directory = BankDirectory.builder().add("DE", "37040044", "COBADEFFXXX").build();
+		for (final String iban : new String[] { null, "", "DE", "DE89", "DE8937040", "de89370400440532013000", "DE89370400450532013000" })
+			Assert.assertNull(iban, directory.getBic(iban));
+		Assert.assertNull(directory.getBic(null, "37040044"));
+		Assert.assertNull(directory.getBic("DEU", "37040044"));
+		Assert.assertNull(directory.getBic("DE", "3704004!"));
+
+		// no lookup allocation, a shared instance is returned
+		Assert.assertSame(directory.getBic("DE89370400440532013000"), directory.getBic(new StringBuilder("DE89370400440532013000")));
+	}
+
+	@Test
+	public void testIsConsistent()
+	{
+		final BankDirectory directory = BankDirectory.builder().add("DE", "37040044", "COBADEFFXXX").build();
+		final String iban = "DE89370400440532013000";
+		Assert.assertTrue(directory.isConsistent(iban, "COBADEFFXXX"));
+		// branch codes are not compared
+		Assert.assertTrue(directory.isConsistent(iban, "COBADEFF"));
+		Assert.assertTrue(directory.isConsistent(iban, "COBADEFF370"));
+		Assert.assertFalse(directory.isConsistent(iban, "DEUTDEFFXXX"));
+		Assert.assertFalse(directory.isConsistent(iban, "COBADEFMXXX"));
+		// unknown bank or no BIC to compare
+		Assert.assertTrue(directory.isConsistent(PainTestData.CREDITOR_IBAN, "DEUTDEFFXXX"));
+		Assert.assertTrue(directory.isConsistent(iban, null));
+		Assert.assertTrue(directory.isConsistent(null, "DEUTDEFFXXX"));
+	}
+
+	@Test
+	public void testPainStreamWriter() throws Exception
+	{
+		final BankDirectory directory = BankDirectory.builder().add("DE", "37040044", "COBADEFFXXX").build();
+		final LocalDate dtOfSgntr = LocalDate.of(2024, 1, 1);
+		final PainTransaction missing = new PainTransaction("E2E-1", 100, "Müller", "DE89370400440532013000", null, "M-1", dtOfSgntr, null, null);
+		final PainTransaction given = new PainTransaction("E2E-2", 200, "Meier", "DE89370400440532013000", "DEUTDEFFXXX", "M-2", dtOfSgntr, null,
+			null);
+		final PainTransaction unknown = new PainTransaction("E2E-3", 300, "Schulz", PainTestData.CREDITOR_IBAN, null, "M-3", dtOfSgntr, null, null);
+
+		for (final PainDocumentType type : PainDocumentType.values())
+		{
+			String xml = BankDirectoryTest.write(type, null, missing, given, unknown);
+			Assert.assertFalse(xml.contains("COBADEFFXXX"));
+			Assert.assertTrue(xml.contains("DEUTDEFFXXX"));
+
+			xml = BankDirectoryTest.write(type, directory, missing, given, unknown);
+			Assert.assertEquals(1, BankDirectoryTest.count(xml, "COBADEFFXXX"));
+			// the given BIC is kept, also if it does not match
+			Assert.assertEquals(1, BankDirectoryTest.count(xml, "DEUTDEFFXXX"));
+			Assert.assertTrue(xml.indexOf("COBADEFFXXX") < xml.indexOf("E2E-2"));
+
+			// the batch path fills the same BICs
+			final TransactionBatch batch = new TransactionBatch();
+			for (final PainTransaction transaction : Arrays.asList(missing, given, unknown))
+				batch.add(transaction);
+			Assert.assertEquals(xml, BankDirectoryTest.write(type, directory, batch));
+		}
+	}
+
+	private static String write(final PainDocumentType type, final BankDirectory directory, final Object... transactions) throws Exception
+	{
+		final ByteArrayOutputStream os = new ByteArrayOutputStream();
+		try (PainStreamWriter writer = new PainStreamWriter(type, PainTestData.createGroupHeaderInfo(), os))
+		{
+			writer.setBankDirectory(directory);
+			writer.beginPaymentInfo(new CollectorPaymentInfoPain(PainTestData.createCreditorInfo(), PainTestData.getPaymentInfoId(0),
+				SepaLocalInstrumentCode.CORE, SequenceTypeCode.FRST, LocalDate.now().plusDays(10), Collections.emptyList()));
+			for (final Object transaction : transactions)
+				if (transaction instanceof TransactionBatch)
+					writer.writeTransactions((TransactionBatch) transaction);
+				else
+					writer.writeTransaction((PainTransaction) transaction);
+			writer.endPaymentInfo();
+			writer.finish();
+		}
+		return os.toString(StandardCharsets.UTF_8);
+	}
+
+	private static int count(final String value, final String part)
+	{
+		int count = 0;
+		for (int i = value.indexOf(part); i >= 0; i = value.indexOf(part, i + 1))
+			count++;
+		return count;
+	}
+
+	private static BankDirectory read(final String file) throws IOException
+	{
+		return BankDirectory.builder().readBundesbank(new BufferedReader(new StringReader(file))).build();
+	}
+
+	/**
+	 * @return fixed-width record with the bank code, feature, name and BIC in
+	 *         their columns, the other columns filled
+	 */
+	private static String record(final String bankCode, final char merkmal, final String name, final String bic)
+	{
+		final char[] record = new char[BankDirectoryTest.RECORD_LENGTH];
+		Arrays.fill(record, '0');
+		BankDirectoryTest.put(record, 0, 8, bankCode);
+		record[8] = merkmal;
+		BankDirectoryTest.put(record, 9, 67, name);
+		BankDirectoryTest.put(record, 139, 150, bic);
+		return new String(record);
+	}
+
+	private static void put(final char[] record, final int start, final int end, final String value)
+	{
+		Arrays.fill(record, start, end, ' ');
+		value.getChars(0, value.length(), record, start);
+	}
+}
@@ -0,0 +1,151 @@
+package test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.deloma.tools.sepa.model.pain.pain0800108.Document;
+import de.deloma.tools.sepa.model.pain.pain0800108.PaymentInstruction29;
+import de.deloma.tools.sepa.pain.PainDocumentType;
+import de.deloma.tools.sepa.pain.PainParser;
+import de.deloma.tools.sepa.util.BaseXmlFactory;
+
+/**
+ * Unit tests for the {@link OutputStream}, {@link Path} and
+ * {@link WritableByteChannel} sinks of {@link BaseXmlFactory}
+ *
+ * @author Marco Janc (c) 2025
+ */
+public class BaseXmlFactoryTest
+{
+	private static final PainDocumentType TYPE = PainDocumentType.PAIN00800108;
+
+	/**
+	 * small buffer so the start of an invalid document is written before the
+	 * validation fails
+	 */
+	private static final int BUFFER_SIZE = 64;
+
+	private static final byte[] OLD_CONTENT = "old content".getBytes(StandardCharsets.UTF_8);
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private byte[] expected;
+
+	@Before
+	public void setUp() throws Exception
+	{
+		this.expected = PainParser.createDocumentXml(BaseXmlFactoryTest.TYPE, PainTestData.createGroupHeaderInfo(),
+			PainTestData.createPaymentInfos(3, 20)).getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void testPath() throws Exception
+	{
+		final Path file = this.folder.getRoot().toPath().resolve("pain.xml");
+		PainParser.createDocumentXml(BaseXmlFactoryTest.TYPE, BaseXmlFactoryTest.createDocument(false), file, BaseXmlFactoryTest.BUFFER_SIZE,
+			true);
+		Assert.assertArrayEquals(this.expected, Files.readAllBytes(file));
+
+		// an existing file is replaced
+		Files.write(file, BaseXmlFactoryTest.OLD_CONTENT);
+		PainParser.createDocumentXml(BaseXmlFactoryTest.TYPE, BaseXmlFactoryTest.createDocument(false), file, BaseXmlFactoryTest.BUFFER_SIZE);
+		Assert.assertArrayEquals(this.expected, Files.readAllBytes(file));
+		Assert.assertEquals(1, this.listFiles().size());
+	}
+
+	@Test
+	public void testPathInvalid() throws Exception
+	{
+		// an existing file is untouched
+		final Path file = this.folder.getRoot().toPath().resolve("pain.xml");
+		Files.write(file, BaseXmlFactoryTest.OLD_CONTENT);
+		Assert.assertThrows(IOException.class, () -> PainParser.createDocumentXml(BaseXmlFactoryTest.TYPE,
+			BaseXmlFactoryTest.createDocument(true), file, BaseXmlFactoryTest.BUFFER_SIZE, true));
+		Assert.assertArrayEquals(BaseXmlFactoryTest.OLD_CONTENT, Files.readAllBytes(file));
+
+		// a missing file is not created
+		final Path missing = this.folder.getRoot().toPath().resolve("missing.xml");
+		Assert.assertThrows(IOException.class, () -> PainParser.createDocumentXml(BaseXmlFactoryTest.TYPE,
+			BaseXmlFactoryTest.createDocument(true), missing, BaseXmlFactoryTest.BUFFER_SIZE, true));
+		Assert.assertFalse(Files.exists(missing));
+
+		// no temporary file is left
+		Assert.assertEquals(List.of(file), this.listFiles());
+	}
+
+	@Test
+	public void testOutputStream() throws Exception
+	{
+		final boolean[] closed = new boolean[1];
+		final ByteArrayOutputStream os = new ByteArrayOutputStream()
+		{
+			@Override
+			public void close()
+			{
+				closed[0] = true;
+			}
+		};
+		PainParser.createDocumentXml(BaseXmlFactoryTest.TYPE, BaseXmlFactoryTest.createDocument(false), os, BaseXmlFactoryTest.BUFFER_SIZE, true);
+		Assert.assertArrayEquals(this.expected, os.toByteArray());
+		Assert.assertFalse(closed[0]);
+
+		Assert.assertThrows(IOException.class, () -> PainParser.createDocumentXml(BaseXmlFactoryTest.TYPE, BaseXmlFactoryTest.createDocument(true),
+			new ByteArrayOutputStream(), BaseXmlFactoryTest.BUFFER_SIZE, true));
+	}
+
+	@Test
+	public void testChannel() throws Exception
+	{
+		final ByteArrayOutputStream os = new ByteArrayOutputStream();
+		try (WritableByteChannel channel = Channels.newChannel(os))
+		{
+			PainParser.createDocumentXml(BaseXmlFactoryTest.TYPE, BaseXmlFactoryTest.createDocument(false), channel,
+				BaseXmlFactoryTest.BUFFER_SIZE);
+			// not closed
+			Assert.assertTrue(channel.isOpen());
+		}
+		Assert.assertArrayEquals(this.expected, os.toByteArray());
+	}
+
+	/**
+	 * @param invalid
+	 *            whether the end to end id of the last transaction is empty,
+	 *            which only the schema rejects
+	 */
+	private static Document createDocument(final boolean invalid) throws Exception
+	{
+		final Document document = (Document) PainParser.createDocument(BaseXmlFactoryTest.TYPE, PainTestData.createGroupHeaderInfo(),
+			PainTestData.createPaymentInfos(3, 20));
+		if (invalid)
+		{
+			final List<PaymentInstruction29> paymentInfos = document.getCstmrDrctDbtInitn().getPmtInves();
+			final PaymentInstruction29 last = paymentInfos.get(paymentInfos.size() - 1);
+			last.getDrctDbtTxInves().get(last.getDrctDbtTxInves().size() - 1).getPmtId().setEndToEndId("");
+		}
+		return document;
+	}
+
+	private List<Path> listFiles() throws IOException
+	{
+		try (Stream<Path> files = Files.list(this.folder.getRoot().toPath()))
+		{
+			return files.collect(Collectors.toList());
+		}
+	}
+}
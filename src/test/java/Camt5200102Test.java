@@ -87,7 +87,7 @@ public class Camt5200102Test implements Serializable
 
 			final GroupHeader42 header = document052.getBkToCstmrAcctRpt().getGrpHdr();
 
-			final Date date = header.getCreDtTm().toGregorianCalendar().getTime();
+			final Date date = Date.from(header.getCreDtTm().toInstant());
 
 			System.out.println(date);
 
@@ -0,0 +1,153 @@
+package test;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.deloma.tools.sepa.camt.CamtEntryReader;
+import de.deloma.tools.sepa.camt.CamtParser;
+import de.deloma.tools.sepa.camt.CamtParser.CAMTTYPE;
+import de.deloma.tools.sepa.model.camt.camt530102.AccountStatement2;
+import de.deloma.tools.sepa.model.camt.camt530102.CreditDebitCode;
+import de.deloma.tools.sepa.model.camt.camt530102.Document;
+import de.deloma.tools.sepa.model.camt.camt530102.EntryTransaction2;
+import de.deloma.tools.sepa.model.camt.camt530102.GroupHeader42;
+import de.deloma.tools.sepa.model.camt.camt530102.ReportEntry2;
+
+/**
+ * Parses a camt.053.001.02 statement built by {@link CamtTestData}
+ *
+ * @author Marco Janc (c) 2025
+ */
+public class Camt5300102Test
+{
+	private static final int STATEMENTS = 2;
+
+	private static final int ENTRIES = 3;
+
+	private CamtParser camtParser53;
+
+	private byte[] xml;
+
+	@Before
+	public void setUp() throws Exception
+	{
+		this.camtParser53 = new CamtParser(CAMTTYPE.CAMT53);
+		this.xml = CamtTestData.create(CAMTTYPE.CAMT53, Camt5300102Test.STATEMENTS, Camt5300102Test.ENTRIES);
+	}
+
+	@Test
+	public void testReadCamt53() throws Exception
+	{
+		final Document document053;
+		try (InputStream is = new ByteArrayInputStream(this.xml))
+		{
+			document053 = this.camtParser53.parse(is, true);
+		}
+
+		Assert.assertEquals(CamtTestData.MSG_ID, document053.getBkToCstmrStmt().getGrpHdr().getMsgId());
+		Assert.assertEquals(Camt5300102Test.STATEMENTS, document053.getBkToCstmrStmt().getStmts().size());
+
+		for (int s = 0; s < Camt5300102Test.STATEMENTS; s++)
+		{
+			final AccountStatement2 statement = document053.getBkToCstmrStmt().getStmts().get(s);
+			Assert.assertEquals(CamtTestData.getReportId(s), statement.getId());
+			Assert.assertEquals(CamtTestData.ACCOUNT_IBAN, statement.getAcct().getId().getIBAN());
+			Assert.assertEquals(Camt5300102Test.ENTRIES, statement.getNtries().size());
+
+			for (int i = 0; i < Camt5300102Test.ENTRIES; i++)
+			{
+				final ReportEntry2 entry = statement.getNtries().get(i);
+				Assert.assertEquals(CamtTestData.getEntryReference(s, i), entry.getNtryRef());
+				Assert.assertEquals(new BigDecimal(CamtTestData.getAmount(i)), entry.getAmt().getValue());
+				Assert.assertEquals(CamtTestData.isCredit(i) ? CreditDebitCode.CRDT : CreditDebitCode.DBIT, entry.getCdtDbtInd());
+				Assert.assertEquals(LocalDate.of(2025, 4, 17), entry.getBookgDt().getDt());
+
+				final EntryTransaction2 transaction = entry.getNtryDtls().get(0).getTxDtls().get(0);
+				Assert.assertEquals(CamtTestData.getEndToEndId(s, i), transaction.getRefs().getEndToEndId());
+				Assert.assertEquals(CamtTestData.getMandateId(i), transaction.getRefs().getMndtId());
+				Assert.assertEquals(CamtTestData.getCounterpartyName(i), CamtTestData.isCredit(i)
+					? transaction.getRltdPties().getDbtr().getNm()
+					: transaction.getRltdPties().getCdtr().getNm());
+			}
+		}
+	}
+
+	/**
+	 * Streams the entries and compares them and the report headers with the
+	 * full parse
+	 */
+	@Test
+	public void testStream() throws Exception
+	{
+		// additional info following the entries
+		final byte[] xml = new String(this.xml, StandardCharsets.UTF_8).replace("</Stmt>", "<AddtlStmtInf>Info</AddtlStmtInf></Stmt>")
+			.getBytes(StandardCharsets.UTF_8);
+		final Document document = this.camtParser53.parse(new ByteArrayInputStream(xml), true);
+		final List<AccountStatement2> expectedReports = document.getBkToCstmrStmt().getStmts();
+
+		final List<AccountStatement2> reports = new ArrayList<>();
+		final List<ReportEntry2> entries = new ArrayList<>();
+		try (CamtEntryReader<GroupHeader42, AccountStatement2, ReportEntry2> reader = this.camtParser53.stream(new ByteArrayInputStream(xml)))
+		{
+			Assert.assertEquals(document.getBkToCstmrStmt().getGrpHdr().getMsgId(), reader.getGroupHeader().getMsgId());
+			Assert.assertEquals(document.getBkToCstmrStmt().getGrpHdr().getCreDtTm(), reader.getGroupHeader().getCreDtTm());
+
+			reader.setReportListener(reports::add);
+			while (reader.hasNext())
+			{
+				final ReportEntry2 entry = reader.next();
+				Assert.assertSame(reports.get(reader.getReportIndex()), reader.getReport());
+				entries.add(entry);
+			}
+		}
+
+		Assert.assertEquals(expectedReports.size(), reports.size());
+		int e = 0;
+		for (int r = 0; r < reports.size(); r++)
+		{
+			final AccountStatement2 expected = expectedReports.get(r);
+			final AccountStatement2 statement = reports.get(r);
+			Assert.assertEquals(expected.getId(), statement.getId());
+			Assert.assertEquals(expected.getCreDtTm(), statement.getCreDtTm());
+			Assert.assertEquals(expected.getAcct().getId().getIBAN(), statement.getAcct().getId().getIBAN());
+			Assert.assertEquals(expected.getBals().size(), statement.getBals().size());
+			Assert.assertEquals("Info", statement.getAddtlStmtInf());
+			Assert.assertEquals(expected.getAddtlStmtInf(), statement.getAddtlStmtInf());
+			// entries are not kept on the report header
+			Assert.assertTrue(statement.getNtries().isEmpty());
+
+			for (final ReportEntry2 expectedEntry : expected.getNtries())
+			{
+				final ReportEntry2 entry = entries.get(e++);
+				Assert.assertEquals(expectedEntry.getNtryRef(), entry.getNtryRef());
+				Assert.assertEquals(expectedEntry.getAmt().getValue(), entry.getAmt().getValue());
+				Assert.assertEquals(expectedEntry.getCdtDbtInd(), entry.getCdtDbtInd());
+				Assert.assertEquals(expectedEntry.getBookgDt().getDt(), entry.getBookgDt().getDt());
+				Assert.assertEquals(expectedEntry.getValDt().getDt(), entry.getValDt().getDt());
+				Assert.assertEquals(expectedEntry.getNtryDtls().get(0).getTxDtls().get(0).getRefs().getEndToEndId(),
+					entry.getNtryDtls().get(0).getTxDtls().get(0).getRefs().getEndToEndId());
+			}
+		}
+		Assert.assertEquals(e, entries.size());
+		Assert.assertEquals(Camt5300102Test.STATEMENTS * Camt5300102Test.ENTRIES, entries.size());
+	}
+
+	@Test
+	public void testGetCamtTypeFromStream() throws Exception
+	{
+		try (InputStream is = new BufferedInputStream(new ByteArrayInputStream(this.xml)))
+		{
+			Assert.assertEquals(CAMTTYPE.CAMT53, CamtParser.getCamtTypeFromStream(is));
+		}
+	}
+}
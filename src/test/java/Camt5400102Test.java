@@ -0,0 +1,152 @@
+package test;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.deloma.tools.sepa.camt.CamtEntryReader;
+import de.deloma.tools.sepa.camt.CamtParser;
+import de.deloma.tools.sepa.camt.CamtParser.CAMTTYPE;
+import de.deloma.tools.sepa.model.camt.camt540102.AccountNotification2;
+import de.deloma.tools.sepa.model.camt.camt540102.CreditDebitCode;
+import de.deloma.tools.sepa.model.camt.camt540102.Document;
+import de.deloma.tools.sepa.model.camt.camt540102.EntryTransaction2;
+import de.deloma.tools.sepa.model.camt.camt540102.GroupHeader42;
+import de.deloma.tools.sepa.model.camt.camt540102.ReportEntry2;
+
+/**
+ * Parses a camt.054.001.02 notification built by {@link CamtTestData}
+ *
+ * @author Marco Janc (c) 2025
+ */
+public class Camt5400102Test
+{
+	private static final int NOTIFICATIONS = 2;
+
+	private static final int ENTRIES = 3;
+
+	private CamtParser camtParser54;
+
+	private byte[] xml;
+
+	@Before
+	public void setUp() throws Exception
+	{
+		this.camtParser54 = new CamtParser(CAMTTYPE.CAMT54);
+		this.xml = CamtTestData.create(CAMTTYPE.CAMT54, Camt5400102Test.NOTIFICATIONS, Camt5400102Test.ENTRIES);
+	}
+
+	@Test
+	public void testReadCamt54() throws Exception
+	{
+		final Document document054;
+		try (InputStream is = new ByteArrayInputStream(this.xml))
+		{
+			document054 = this.camtParser54.parse(is, true);
+		}
+
+		Assert.assertEquals(CamtTestData.MSG_ID, document054.getBkToCstmrDbtCdtNtfctn().getGrpHdr().getMsgId());
+		Assert.assertEquals(Camt5400102Test.NOTIFICATIONS, document054.getBkToCstmrDbtCdtNtfctn().getNtfctns().size());
+
+		for (int n = 0; n < Camt5400102Test.NOTIFICATIONS; n++)
+		{
+			final AccountNotification2 notification = document054.getBkToCstmrDbtCdtNtfctn().getNtfctns().get(n);
+			Assert.assertEquals(CamtTestData.getReportId(n), notification.getId());
+			Assert.assertEquals(CamtTestData.ACCOUNT_IBAN, notification.getAcct().getId().getIBAN());
+			Assert.assertEquals(Camt5400102Test.ENTRIES, notification.getNtries().size());
+
+			for (int i = 0; i < Camt5400102Test.ENTRIES; i++)
+			{
+				final ReportEntry2 entry = notification.getNtries().get(i);
+				Assert.assertEquals(CamtTestData.getEntryReference(n, i), entry.getNtryRef());
+				Assert.assertEquals(new BigDecimal(CamtTestData.getAmount(i)), entry.getAmt().getValue());
+				Assert.assertEquals(CamtTestData.isCredit(i) ? CreditDebitCode.CRDT : CreditDebitCode.DBIT, entry.getCdtDbtInd());
+				Assert.assertEquals(LocalDate.of(2025, 4, 17), entry.getBookgDt().getDt());
+
+				final EntryTransaction2 transaction = entry.getNtryDtls().get(0).getTxDtls().get(0);
+				Assert.assertEquals(CamtTestData.getEndToEndId(n, i), transaction.getRefs().getEndToEndId());
+				Assert.assertEquals(CamtTestData.getMandateId(i), transaction.getRefs().getMndtId());
+				Assert.assertEquals(CamtTestData.getCounterpartyName(i), CamtTestData.isCredit(i)
+					? transaction.getRltdPties().getDbtr().getNm()
+					: transaction.getRltdPties().getCdtr().getNm());
+			}
+		}
+	}
+
+	/**
+	 * Streams the entries and compares them and the report headers with the
+	 * full parse
+	 */
+	@Test
+	public void testStream() throws Exception
+	{
+		// additional info following the entries
+		final byte[] xml = new String(this.xml, StandardCharsets.UTF_8).replace("</Ntfctn>", "<AddtlNtfctnInf>Info</AddtlNtfctnInf></Ntfctn>")
+			.getBytes(StandardCharsets.UTF_8);
+		final Document document = this.camtParser54.parse(new ByteArrayInputStream(xml), true);
+		final List<AccountNotification2> expectedReports = document.getBkToCstmrDbtCdtNtfctn().getNtfctns();
+
+		final List<AccountNotification2> reports = new ArrayList<>();
+		final List<ReportEntry2> entries = new ArrayList<>();
+		try (CamtEntryReader<GroupHeader42, AccountNotification2, ReportEntry2> reader = this.camtParser54.stream(new ByteArrayInputStream(xml)))
+		{
+			Assert.assertEquals(document.getBkToCstmrDbtCdtNtfctn().getGrpHdr().getMsgId(), reader.getGroupHeader().getMsgId());
+			Assert.assertEquals(document.getBkToCstmrDbtCdtNtfctn().getGrpHdr().getCreDtTm(), reader.getGroupHeader().getCreDtTm());
+
+			reader.setReportListener(reports::add);
+			while (reader.hasNext())
+			{
+				final ReportEntry2 entry = reader.next();
+				Assert.assertSame(reports.get(reader.getReportIndex()), reader.getReport());
+				entries.add(entry);
+			}
+		}
+
+		Assert.assertEquals(expectedReports.size(), reports.size());
+		int e = 0;
+		for (int r = 0; r < reports.size(); r++)
+		{
+			final AccountNotification2 expected = expectedReports.get(r);
+			final AccountNotification2 notification = reports.get(r);
+			Assert.assertEquals(expected.getId(), notification.getId());
+			Assert.assertEquals(expected.getCreDtTm(), notification.getCreDtTm());
+			Assert.assertEquals(expected.getAcct().getId().getIBAN(), notification.getAcct().getId().getIBAN());
+			Assert.assertEquals("Info", notification.getAddtlNtfctnInf());
+			Assert.assertEquals(expected.getAddtlNtfctnInf(), notification.getAddtlNtfctnInf());
+			// entries are not kept on the report header
+			Assert.assertTrue(notification.getNtries().isEmpty());
+
+			for (final ReportEntry2 expectedEntry : expected.getNtries())
+			{
+				final ReportEntry2 entry = entries.get(e++);
+				Assert.assertEquals(expectedEntry.getNtryRef(), entry.getNtryRef());
+				Assert.assertEquals(expectedEntry.getAmt().getValue(), entry.getAmt().getValue());
+				Assert.assertEquals(expectedEntry.getCdtDbtInd(), entry.getCdtDbtInd());
+				Assert.assertEquals(expectedEntry.getBookgDt().getDt(), entry.getBookgDt().getDt());
+				Assert.assertEquals(expectedEntry.getValDt().getDt(), entry.getValDt().getDt());
+				Assert.assertEquals(expectedEntry.getNtryDtls().get(0).getTxDtls().get(0).getRefs().getEndToEndId(),
+					entry.getNtryDtls().get(0).getTxDtls().get(0).getRefs().getEndToEndId());
+			}
+		}
+		Assert.assertEquals(e, entries.size());
+		Assert.assertEquals(Camt5400102Test.NOTIFICATIONS * Camt5400102Test.ENTRIES, entries.size());
+	}
+
+	@Test
+	public void testGetCamtTypeFromStream() throws Exception
+	{
+		try (InputStream is = new BufferedInputStream(new ByteArrayInputStream(this.xml)))
+		{
+			Assert.assertEquals(CAMTTYPE.CAMT54, CamtParser.getCamtTypeFromStream(is));
+		}
+	}
+}
@@ -0,0 +1,188 @@
+package test;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.deloma.tools.sepa.camt.CamtBatchParser;
+import de.deloma.tools.sepa.camt.CamtBatchParser.StreamSource;
+import de.deloma.tools.sepa.camt.CamtParseResult;
+import de.deloma.tools.sepa.camt.CamtParser.CAMTTYPE;
+import de.deloma.tools.sepa.pain.PainDocumentType;
+import de.deloma.tools.sepa.pain.PainParser;
+
+/**
+ * Unit tests for {@link CamtBatchParser} with mixed camt types and failing
+ * sources
+ *
+ * @author Marco Janc (c) 2025
+ */
+public class CamtBatchParserTest
+{
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private ExecutorService executor;
+
+	@Before
+	public void setUp()
+	{
+		this.executor = Executors.newFixedThreadPool(4);
+	}
+
+	@After
+	public void tearDown()
+	{
+		this.executor.shutdownNow();
+	}
+
+	@Test
+	public void testParse() throws Exception
+	{
+		final String camt53 = new String(CamtTestData.create(CAMTTYPE.CAMT53, 2, 3), StandardCharsets.UTF_8);
+
+		final Map<String, StreamSource> sources = new LinkedHashMap<>();
+		// the first sources are the slowest, so they finish last
+		sources.put("camt52", CamtBatchParserTest.source(CamtTestData.create(CAMTTYPE.CAMT52_001_02, 1, 2), 200));
+		sources.put("camt53", CamtBatchParserTest.source(camt53.getBytes(StandardCharsets.UTF_8), 100));
+		sources.put("broken", CamtBatchParserTest.source(camt53.substring(0, camt53.length() / 2).getBytes(StandardCharsets.UTF_8), 50));
+		sources.put("camt54", CamtBatchParserTest.source(CamtTestData.create(CAMTTYPE.CAMT54, 2, 2), 0));
+		sources.put("pain", CamtBatchParserTest.source(PainParser.createDocumentXml(PainDocumentType.PAIN00800108,
+			PainTestData.createGroupHeaderInfo(), PainTestData.createPaymentInfos(1, 1)).getBytes(StandardCharsets.UTF_8), 0));
+		sources.put("missing", () -> {
+			throw new FileNotFoundException("missing");
+		});
+		sources.put("camt52v08", CamtBatchParserTest.source(CamtTestData.create(CAMTTYPE.CAMT52_001_08, 1, 1), 0));
+
+		final List<CamtParseResult> results = CamtBatchParser.parse(sources, this.executor);
+		Assert.assertEquals(new ArrayList<>(sources.keySet()), CamtBatchParserTest.getNames(results));
+
+		CamtBatchParserTest.assertSuccess(results.get(0), CAMTTYPE.CAMT52_001_02);
+		CamtBatchParserTest.assertSuccess(results.get(1), CAMTTYPE.CAMT53);
+		final de.deloma.tools.sepa.model.camt.camt530102.Document document053 = results.get(1).getDocument();
+		Assert.assertEquals(2, document053.getBkToCstmrStmt().getStmts().size());
+
+		// detected but not parsed
+		CamtBatchParserTest.assertFailure(results.get(2), CAMTTYPE.CAMT53);
+		CamtBatchParserTest.assertSuccess(results.get(3), CAMTTYPE.CAMT54);
+		final de.deloma.tools.sepa.model.camt.camt540102.Document document054 = results.get(3).getDocument();
+		Assert.assertEquals(2, document054.getBkToCstmrDbtCdtNtfctn().getNtfctns().size());
+		CamtBatchParserTest.assertFailure(results.get(4), null);
+		CamtBatchParserTest.assertFailure(results.get(5), null);
+		Assert.assertTrue(results.get(5).getError() instanceof FileNotFoundException);
+		CamtBatchParserTest.assertSuccess(results.get(6), CAMTTYPE.CAMT52_001_08);
+	}
+
+	@Test
+	public void testValidate() throws Exception
+	{
+		// a statement without the mandatory balance is well-formed but invalid
+		final String camt53 = new String(CamtTestData.create(CAMTTYPE.CAMT53, 1, 1), StandardCharsets.UTF_8).replaceAll("<Bal>.*</Bal>", "");
+		final Map<String, StreamSource> sources = new LinkedHashMap<>();
+		sources.put("valid", CamtBatchParserTest.source(CamtTestData.create(CAMTTYPE.CAMT53, 1, 1), 0));
+		sources.put("invalid", CamtBatchParserTest.source(camt53.getBytes(StandardCharsets.UTF_8), 0));
+
+		List<CamtParseResult> results = CamtBatchParser.parse(sources, this.executor, false);
+		CamtBatchParserTest.assertSuccess(results.get(0), CAMTTYPE.CAMT53);
+		CamtBatchParserTest.assertSuccess(results.get(1), CAMTTYPE.CAMT53);
+
+		results = CamtBatchParser.parse(sources, this.executor, true);
+		CamtBatchParserTest.assertSuccess(results.get(0), CAMTTYPE.CAMT53);
+		CamtBatchParserTest.assertFailure(results.get(1), CAMTTYPE.CAMT53);
+	}
+
+	@Test
+	public void testParseFiles() throws Exception
+	{
+		final List<Path> files = new ArrayList<>();
+		final CAMTTYPE[] types = { CAMTTYPE.CAMT53, CAMTTYPE.CAMT52_001_02, CAMTTYPE.CAMT54, CAMTTYPE.CAMT53, CAMTTYPE.CAMT52_001_08 };
+		for (int i = 0; i < types.length; i++)
+		{
+			final Path file = this.folder.getRoot().toPath().resolve(i + ".xml");
+			Files.write(file, CamtTestData.create(types[i], 1, 2));
+			files.add(file);
+		}
+		final Path broken = this.folder.newFile("broken.xml").toPath();
+		Files.write(broken, "<Document xmlns=\"urn:iso:std:iso:20022:tech:xsd:camt.054.001.02\"><BkToCstmrDbtCdtNtfctn>".getBytes(
+			StandardCharsets.UTF_8));
+		files.add(2, broken);
+		files.add(4, this.folder.getRoot().toPath().resolve("missing.xml"));
+
+		final List<CamtParseResult> results = CamtBatchParser.parseFiles(files, this.executor);
+		Assert.assertEquals(files.size(), results.size());
+		for (int i = 0; i < files.size(); i++)
+			Assert.assertEquals(files.get(i).toString(), results.get(i).getName());
+
+		CamtBatchParserTest.assertSuccess(results.get(0), CAMTTYPE.CAMT53);
+		CamtBatchParserTest.assertSuccess(results.get(1), CAMTTYPE.CAMT52_001_02);
+		CamtBatchParserTest.assertFailure(results.get(2), CAMTTYPE.CAMT54);
+		CamtBatchParserTest.assertSuccess(results.get(3), CAMTTYPE.CAMT54);
+		CamtBatchParserTest.assertFailure(results.get(4), null);
+		Assert.assertTrue(results.get(4).getError() instanceof NoSuchFileException);
+		CamtBatchParserTest.assertSuccess(results.get(5), CAMTTYPE.CAMT53);
+		CamtBatchParserTest.assertSuccess(results.get(6), CAMTTYPE.CAMT52_001_08);
+
+		// common pool
+		Assert.assertEquals(CamtBatchParserTest.getNames(results), CamtBatchParserTest.getNames(CamtBatchParser.parseFiles(files)));
+	}
+
+	private static void assertSuccess(final CamtParseResult result, final CAMTTYPE type)
+	{
+		Assert.assertTrue(result.toString(), result.isSuccess());
+		Assert.assertEquals(type, result.getCamtType());
+		Assert.assertNotNull(result.getDocument());
+		Assert.assertNull(result.getError());
+	}
+
+	private static void assertFailure(final CamtParseResult result, final CAMTTYPE type)
+	{
+		Assert.assertFalse(result.toString(), result.isSuccess());
+		Assert.assertEquals(type, result.getCamtType());
+		Assert.assertNull(result.getDocument());
+		Assert.assertNotNull(result.getError());
+	}
+
+	private static List<String> getNames(final List<CamtParseResult> results)
+	{
+		final List<String> names = new ArrayList<>(results.size());
+		for (final CamtParseResult result : results)
+			names.add(result.getName());
+		return names;
+	}
+
+	/**
+	 * @return source opened after the given delay
+	 */
+	private static StreamSource source(final byte[] xml, final long delayMillis)
+	{
+		return () -> {
+			try
+			{
+				Thread.sleep(delayMillis);
+			}
+			catch (final InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				throw new IOException(e);
+			}
+			return new ByteArrayInputStream(xml);
+		};
+	}
+}
@@ -0,0 +1,169 @@
+package test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+import de.deloma.tools.sepa.camt.CamtEntryDecoder;
+import de.deloma.tools.sepa.camt.CamtEntryRecord;
+import de.deloma.tools.sepa.camt.CamtParser;
+import de.deloma.tools.sepa.camt.CamtParser.CAMTTYPE;
+
+/**
+ * Unit tests for {@link CamtEntryDecoder} with all supported camt types
+ *
+ * @author Marco Janc (c) 2025
+ */
+@RunWith(value = Parameterized.class)
+public class CamtEntryDecoderTest
+{
+	private static final int REPORTS = 2;
+
+	private static final int ENTRIES = 3;
+
+	@Parameter(0)
+	public CAMTTYPE type;
+
+	@Parameters(name = "{0}")
+	public static Collection<Object[]> data()
+	{
+		final List<Object[]> data = new ArrayList<>();
+		for (final CAMTTYPE type : CAMTTYPE.values())
+			data.add(new Object[]
+			{
+				type
+			});
+		return data;
+	}
+
+	@Test
+	public void testDecodeSingleTransaction() throws Exception
+	{
+		final List<CamtEntryRecord> records = this.decode(1);
+		Assert.assertEquals(CamtEntryDecoderTest.REPORTS * CamtEntryDecoderTest.ENTRIES, records.size());
+
+		int index = 0;
+		for (int r = 0; r < CamtEntryDecoderTest.REPORTS; r++)
+			for (int i = 0; i < CamtEntryDecoderTest.ENTRIES; i++)
+			{
+				final CamtEntryRecord record = records.get(index++);
+				this.assertEntry(record, r, i, 1);
+				this.assertTransaction(record, r, i, 0, 1);
+			}
+	}
+
+	@Test
+	public void testDecodeBatchEntries() throws Exception
+	{
+		final int transactions = 4;
+		final List<CamtEntryRecord> records = this.decode(transactions);
+		Assert.assertEquals(CamtEntryDecoderTest.REPORTS * CamtEntryDecoderTest.ENTRIES * transactions, records.size());
+
+		int index = 0;
+		for (int r = 0; r < CamtEntryDecoderTest.REPORTS; r++)
+			for (int i = 0; i < CamtEntryDecoderTest.ENTRIES; i++)
+			{
+				BigDecimal sum = BigDecimal.ZERO;
+				for (int t = 0; t < transactions; t++)
+				{
+					final CamtEntryRecord record = records.get(index++);
+					this.assertEntry(record, r, i, transactions);
+					this.assertTransaction(record, r, i, t, transactions);
+					sum = sum.add(record.getTransactionAmount());
+				}
+				Assert.assertEquals(new BigDecimal(CamtTestData.getAmount(i, transactions)), sum);
+			}
+	}
+
+	@Test
+	public void testDecodeWithoutTransactionDetails() throws Exception
+	{
+		final List<CamtEntryRecord> records = this.decode(0);
+		Assert.assertEquals(CamtEntryDecoderTest.REPORTS * CamtEntryDecoderTest.ENTRIES, records.size());
+
+		int index = 0;
+		for (int r = 0; r < CamtEntryDecoderTest.REPORTS; r++)
+			for (int i = 0; i < CamtEntryDecoderTest.ENTRIES; i++)
+			{
+				final CamtEntryRecord record = records.get(index++);
+				this.assertEntry(record, r, i, 0);
+				Assert.assertEquals(0, record.getTransactionIndex());
+				Assert.assertEquals(0, record.getTransactionCount());
+				Assert.assertNull(record.getTransactionAmount());
+				Assert.assertNull(record.getEndToEndId());
+				Assert.assertNull(record.getCounterpartyIban());
+				Assert.assertNull(record.getRemittanceInformation());
+			}
+	}
+
+	@Test
+	public void testStream() throws Exception
+	{
+		try (InputStream is = new ByteArrayInputStream(CamtTestData.create(this.type, CamtEntryDecoderTest.REPORTS,
+			CamtEntryDecoderTest.ENTRIES, 2)); CamtEntryDecoder decoder = CamtParser.decode(is))
+		{
+			Assert.assertEquals(this.type, decoder.getCamtType());
+			Assert.assertEquals(CamtEntryDecoderTest.REPORTS * CamtEntryDecoderTest.ENTRIES * 2, decoder.stream().count());
+			Assert.assertFalse(decoder.hasNext());
+		}
+	}
+
+	private List<CamtEntryRecord> decode(final int transactions) throws Exception
+	{
+		final byte[] xml = CamtTestData.create(this.type, CamtEntryDecoderTest.REPORTS, CamtEntryDecoderTest.ENTRIES, transactions);
+
+		// the test documents are schema valid
+		final List<CamtEntryRecord> records = new ArrayList<>();
+		try (InputStream is = new ByteArrayInputStream(xml))
+		{
+			Assert.assertNotNull(new CamtParser(this.type).parse(is, true));
+		}
+		try (InputStream is = new ByteArrayInputStream(xml); CamtEntryDecoder decoder = CamtParser.decode(is))
+		{
+			Assert.assertEquals(this.type, decoder.getCamtType());
+			decoder.forEachRemaining(records::add);
+		}
+		return records;
+	}
+
+	private void assertEntry(final CamtEntryRecord record, final int report, final int entry, final int transactions)
+	{
+		Assert.assertEquals(CamtTestData.getReportId(report), record.getReportId());
+		Assert.assertEquals(CamtTestData.ACCOUNT_IBAN, record.getAccountIban());
+		Assert.assertEquals(CamtTestData.getEntryReference(report, entry), record.getEntryReference());
+		Assert.assertEquals(new BigDecimal(CamtTestData.getAmount(entry, transactions)), record.getAmount());
+		Assert.assertEquals(new BigDecimal(CamtTestData.getAmount(entry, transactions)).movePointRight(2).longValueExact(),
+			record.getAmountCents());
+		Assert.assertEquals("EUR", record.getCurrency());
+		Assert.assertEquals(CamtTestData.isCredit(entry), record.isCredit());
+		Assert.assertEquals("BOOK", record.getStatus());
+		Assert.assertEquals(LocalDate.of(2025, 4, 17), record.getBookingDate());
+		Assert.assertEquals(LocalDate.of(2025, 4, 22), record.getValueDate());
+		Assert.assertEquals("PMNT-RDDT-ESDD", record.getBankTransactionCode());
+	}
+
+	private void assertTransaction(final CamtEntryRecord record, final int report, final int entry, final int transaction,
+								   final int transactions)
+	{
+		Assert.assertEquals(transaction, record.getTransactionIndex());
+		Assert.assertEquals(transactions, record.getTransactionCount());
+		Assert.assertEquals(new BigDecimal(CamtTestData.getTransactionAmount(entry, transaction)), record.getTransactionAmount());
+		Assert.assertEquals(CamtTestData.getEndToEndId(report, entry, transaction), record.getEndToEndId());
+		Assert.assertEquals(CamtTestData.getMandateId(entry, transaction), record.getMandateId());
+		Assert.assertEquals(CamtTestData.getCounterpartyName(entry, transaction), record.getCounterpartyName());
+		Assert.assertEquals(CamtTestData.COUNTERPARTY_IBAN, record.getCounterpartyIban());
+		Assert.assertEquals(CamtTestData.COUNTERPARTY_BIC, record.getCounterpartyBic());
+		Assert.assertEquals(CamtTestData.getRemittanceInformation(entry, transaction), record.getRemittanceInformation());
+	}
+}
@@ -0,0 +1,108 @@
+package test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+import de.deloma.tools.sepa.camt.CamtEntryReader;
+import de.deloma.tools.sepa.camt.CamtParser;
+import de.deloma.tools.sepa.camt.CamtParser.CAMTTYPE;
+import de.deloma.tools.sepa.exception.CamtStreamException;
+
+/**
+ * Unit tests for {@link CamtEntryReader} with all supported camt types,
+ * especially that readers which are not closed do not keep pooled
+ * unmarshallers
+ *
+ * @author Marco Janc (c) 2025
+ */
+@RunWith(value = Parameterized.class)
+public class CamtEntryReaderTest
+{
+	private static final int REPORTS = 3;
+
+	private static final int ENTRIES = 4;
+
+	@Parameter(0)
+	public CAMTTYPE type;
+
+	@Parameters(name = "{0}")
+	public static Collection<Object[]> data()
+	{
+		final List<Object[]> data = new ArrayList<>();
+		for (final CAMTTYPE type : CAMTTYPE.values())
+			data.add(new Object[]
+			{
+				type
+			});
+		return data;
+	}
+
+	@Test
+	public void testRead() throws Exception
+	{
+		final byte[] xml = CamtTestData.create(this.type, CamtEntryReaderTest.REPORTS, CamtEntryReaderTest.ENTRIES);
+		try (CamtEntryReader<Object, Object, Object> reader = new CamtParser(this.type).stream(new ByteArrayInputStream(xml)))
+		{
+			Assert.assertNotNull(reader.getGroupHeader());
+			Assert.assertEquals(this.type, reader.getCamtType());
+
+			final List<Object> reports = new ArrayList<>();
+			reader.setReportListener(reports::add);
+			int entries = 0;
+			while (reader.hasNext())
+			{
+				Assert.assertNotNull(reader.next());
+				Assert.assertEquals(entries / CamtEntryReaderTest.ENTRIES, reader.getReportIndex());
+				Assert.assertSame(reports.get(reader.getReportIndex()), reader.getReport());
+				entries++;
+			}
+			Assert.assertEquals(CamtEntryReaderTest.REPORTS * CamtEntryReaderTest.ENTRIES, entries);
+			Assert.assertEquals(CamtEntryReaderTest.REPORTS, reports.size());
+			Assert.assertFalse(reader.hasNext());
+		}
+	}
+
+	@Test
+	public void testNotClosed() throws Exception
+	{
+		final byte[] xml = CamtTestData.create(this.type, CamtEntryReaderTest.REPORTS, CamtEntryReaderTest.ENTRIES);
+		final CamtParser parser = new CamtParser(this.type);
+
+		// more readers than the pool capacity, fully read and abandoned
+		final int readers = CamtParser.getUnmarshallerPool(this.type).getCapacity() + 2;
+		for (int i = 0; i < readers; i++)
+		{
+			Assert.assertEquals(CamtEntryReaderTest.REPORTS * CamtEntryReaderTest.ENTRIES,
+				parser.stream(new ByteArrayInputStream(xml)).stream().count());
+
+			final CamtEntryReader<Object, Object, Object> reader = parser.stream(new ByteArrayInputStream(xml));
+			Assert.assertNotNull(reader.next());
+			Assert.assertEquals(0, CamtParser.getUnmarshallerPool(this.type).getInUse());
+		}
+		Assert.assertEquals(0, CamtParser.getUnmarshallerPool(this.type).getInUse());
+	}
+
+	@Test
+	public void testBrokenDocument() throws Exception
+	{
+		final String xml = new String(CamtTestData.create(this.type, CamtEntryReaderTest.REPORTS, CamtEntryReaderTest.ENTRIES), StandardCharsets.UTF_8);
+		final byte[] truncated = xml.substring(0, xml.length() * 2 / 3).getBytes(StandardCharsets.UTF_8);
+
+		final CamtEntryReader<Object, Object, Object> reader = new CamtParser(this.type).stream(new ByteArrayInputStream(truncated));
+		Assert.assertThrows(CamtStreamException.class, () -> {
+			while (reader.hasNext())
+				reader.next();
+		});
+		Assert.assertEquals(0, CamtParser.getUnmarshallerPool(this.type).getInUse());
+	}
+}
@@ -0,0 +1,221 @@
+package test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import de.deloma.tools.sepa.camt.CamtParser.CAMTTYPE;
+
+/**
+ * Builds small, schema valid camt documents in memory for the camt tests, so
+ * they run without external files.
+ *
+ * Entries alternate between credits and debits, their values are derived
+ * from the report, entry and transaction index, see the static methods. The
+ * amount of an entry is the sum of its transaction amounts.
+ *
+ * @author Marco Janc (c) 2025
+ */
+public final class CamtTestData
+{
+	public static final String MSG_ID = "MSG-1";
+
+	public static final String ACCOUNT_IBAN = "DE87200500001234567890";
+
+	public static final String COUNTERPARTY_IBAN = "DE89370400440532013000";
+
+	public static final String COUNTERPARTY_BIC = "COBADEFFXXX";
+
+	private CamtTestData()
+	{
+	}
+
+	/**
+	 * @param type
+	 * @param reports
+	 *            number of reports, statements or notifications
+	 * @param entries
+	 *            number of entries per report
+	 * @return UTF-8 encoded document with one transaction details per entry
+	 */
+	public static byte[] create(final CAMTTYPE type, final int reports, final int entries)
+	{
+		return CamtTestData.create(type, reports, entries, 1);
+	}
+
+	/**
+	 * @param type
+	 * @param reports
+	 *            number of reports, statements or notifications
+	 * @param entries
+	 *            number of entries per report
+	 * @param transactions
+	 *            number of transaction details per entry, 0 for entries without
+	 *            entry details
+	 * @return UTF-8 encoded document
+	 */
+	public static byte[] create(final CAMTTYPE type, final int reports, final int entries, final int transactions)
+	{
+		final boolean v08 = type.getXsdVersion().endsWith(".08");
+		final String message;
+		final String report;
+		switch (type)
+		{
+			case CAMT53:
+				message = "BkToCstmrStmt";
+				report = "Stmt";
+				break;
+			case CAMT54:
+				message = "BkToCstmrDbtCdtNtfctn";
+				report = "Ntfctn";
+				break;
+			default:
+				message = "BkToCstmrAcctRpt";
+				report = "Rpt";
+				break;
+		}
+
+		final StringBuilder xml = new StringBuilder(1024 + reports * entries * 1024);
+		xml.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		xml.append("<Document xmlns=\"urn:iso:std:iso:20022:tech:xsd:").append(type.getXsdVersion()).append("\">\n");
+		xml.append("<").append(message).append(">\n");
+		xml.append("<GrpHdr><MsgId>").append(CamtTestData.MSG_ID).append("</MsgId><CreDtTm>2025-04-17T18:30:00+02:00</CreDtTm></GrpHdr>\n");
+		for (int r = 0; r < reports; r++)
+		{
+			xml.append("<").append(report).append("><Id>").append(CamtTestData.getReportId(r))
+				.append("</Id><CreDtTm>2025-04-17T18:30:00+02:00</CreDtTm>\n");
+			xml.append("<Acct><Id><IBAN>").append(CamtTestData.ACCOUNT_IBAN).append("</IBAN></Id><Ccy>EUR</Ccy></Acct>\n");
+			// a balance is mandatory in statements
+			if (type != CAMTTYPE.CAMT54)
+				xml.append("<Bal><Tp><CdOrPrtry><Cd>CLBD</Cd></CdOrPrtry></Tp><Amt Ccy=\"EUR\">1000.00</Amt><CdtDbtInd>CRDT</CdtDbtInd>")
+					.append("<Dt><Dt>2025-04-17</Dt></Dt></Bal>\n");
+			for (int i = 0; i < entries; i++)
+				CamtTestData.appendEntry(xml, v08, r, i, transactions);
+			xml.append("</").append(report).append(">\n");
+		}
+		xml.append("</").append(message).append(">\n");
+		xml.append("</Document>\n");
+		return xml.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static void appendEntry(final StringBuilder xml, final boolean v08, final int report, final int entry, final int transactions)
+	{
+		final boolean credit = CamtTestData.isCredit(entry);
+
+		xml.append("<Ntry><NtryRef>").append(CamtTestData.getEntryReference(report, entry)).append("</NtryRef>");
+		xml.append("<Amt Ccy=\"EUR\">").append(CamtTestData.getAmount(entry, transactions)).append("</Amt><CdtDbtInd>")
+			.append(credit ? "CRDT" : "DBIT").append("</CdtDbtInd>");
+		xml.append(v08 ? "<Sts><Cd>BOOK</Cd></Sts>" : "<Sts>BOOK</Sts>");
+		xml.append("<BookgDt><Dt>2025-04-17</Dt></BookgDt><ValDt><Dt>2025-04-22</Dt></ValDt>");
+		xml.append("<BkTxCd><Domn><Cd>PMNT</Cd><Fmly><Cd>RDDT</Cd><SubFmlyCd>ESDD</SubFmlyCd></Fmly></Domn></BkTxCd>\n");
+		if (transactions > 0)
+		{
+			xml.append("<NtryDtls>");
+			for (int t = 0; t < transactions; t++)
+				CamtTestData.appendTransaction(xml, v08, credit, report, entry, t);
+			xml.append("</NtryDtls>");
+		}
+		xml.append("</Ntry>\n");
+	}
+
+	private static void appendTransaction(final StringBuilder xml, final boolean v08, final boolean credit, final int report,
+										  final int entry, final int transaction)
+	{
+		final String party = credit ? "Dbtr" : "Cdtr";
+
+		xml.append("<TxDtls><Refs><EndToEndId>").append(CamtTestData.getEndToEndId(report, entry, transaction)).append("</EndToEndId>");
+		xml.append("<MndtId>").append(CamtTestData.getMandateId(entry, transaction)).append("</MndtId></Refs>");
+		xml.append("<AmtDtls><TxAmt><Amt Ccy=\"EUR\">").append(CamtTestData.getTransactionAmount(entry, transaction))
+			.append("</Amt></TxAmt></AmtDtls>");
+		xml.append("<RltdPties><").append(party).append(">");
+		xml.append(v08 ? "<Pty><Nm>" : "<Nm>").append(CamtTestData.getCounterpartyName(entry, transaction).replace("&", "&amp;"))
+			.append(v08 ? "</Nm></Pty>" : "</Nm>");
+		xml.append("</").append(party).append("><").append(party).append("Acct><Id><IBAN>").append(CamtTestData.COUNTERPARTY_IBAN)
+			.append("</IBAN></Id></").append(party).append("Acct></RltdPties>");
+		xml.append("<RltdAgts><").append(party).append("Agt><FinInstnId>").append(v08 ? "<BICFI>" : "<BIC>")
+			.append(CamtTestData.COUNTERPARTY_BIC).append(v08 ? "</BICFI>" : "</BIC>").append("</FinInstnId></").append(party)
+			.append("Agt></RltdAgts>");
+		xml.append("<RmtInf><Ustrd>Invoice ").append(entry).append('-').append(transaction).append("</Ustrd><Ustrd>April</Ustrd></RmtInf>");
+		xml.append("</TxDtls>\n");
+	}
+
+	public static String getReportId(final int report)
+	{
+		return "RPT-" + report;
+	}
+
+	public static String getEntryReference(final int report, final int entry)
+	{
+		return report + "-" + entry;
+	}
+
+	public static boolean isCredit(final int entry)
+	{
+		return entry % 2 == 0;
+	}
+
+	/**
+	 * @return amount of an entry with a single transaction details
+	 */
+	public static String getAmount(final int entry)
+	{
+		return CamtTestData.getAmount(entry, 1);
+	}
+
+	/**
+	 * @return sum of the transaction amounts, the amount of the first
+	 *         transaction for entries without transaction details
+	 */
+	public static String getAmount(final int entry, final int transactions)
+	{
+		BigDecimal amount = new BigDecimal(CamtTestData.getTransactionAmount(entry, 0));
+		for (int t = 1; t < transactions; t++)
+			amount = amount.add(new BigDecimal(CamtTestData.getTransactionAmount(entry, t)));
+		return amount.toPlainString();
+	}
+
+	/**
+	 * @return amount with 2 decimals
+	 */
+	public static String getTransactionAmount(final int entry, final int transaction)
+	{
+		return (entry + 1) * 10 + transaction + "." + entry % 10 + "5";
+	}
+
+	public static String getEndToEndId(final int report, final int entry)
+	{
+		return CamtTestData.getEndToEndId(report, entry, 0);
+	}
+
+	public static String getEndToEndId(final int report, final int entry, final int transaction)
+	{
+		return "E2E-" + report + "-" + entry + "-" + transaction;
+	}
+
+	public static String getMandateId(final int entry)
+	{
+		return CamtTestData.getMandateId(entry, 0);
+	}
+
+	public static String getMandateId(final int entry, final int transaction)
+	{
+		return "M-" + entry + "-" + transaction;
+	}
+
+	public static String getCounterpartyName(final int entry)
+	{
+		return CamtTestData.getCounterpartyName(entry, 0);
+	}
+
+	public static String getCounterpartyName(final int entry, final int transaction)
+	{
+		return "Müller & Söhne " + entry + "-" + transaction;
+	}
+
+	/**
+	 * @return unstructured remittance lines joined by a space
+	 */
+	public static String getRemittanceInformation(final int entry, final int transaction)
+	{
+		return "Invoice " + entry + "-" + transaction + " April";
+	}
+}
@@ -0,0 +1,125 @@
+package test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.deloma.tools.sepa.util.FingerprintSet;
+
+/**
+ * Unit tests for {@link FingerprintSet}
+ *
+ * @author Marco Janc (c) 2025
+ */
+public class FingerprintSetTest
+{
+	/**
+	 * grows a set of the minimum capacity 1024 four times
+	 */
+	private static final int SIZE = 10_000;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testGrowFile() throws IOException
+	{
+		final Path file = this.folder.getRoot().toPath().resolve("history.fps");
+
+		final long capacity;
+		try (FingerprintSet set = FingerprintSet.open(file, 10))
+		{
+			Assert.assertEquals(1024, set.getCapacity());
+			for (int i = 0; i < FingerprintSetTest.SIZE; i++)
+				Assert.assertTrue(set.add(FingerprintSetTest.fingerprint(i)));
+
+			capacity = set.getCapacity();
+			Assert.assertEquals(16 * 1024, capacity);
+			Assert.assertEquals(FingerprintSetTest.SIZE, set.size());
+			FingerprintSetTest.assertContainsAll(set);
+		}
+
+		// grown in place, no other files
+		try (Stream<Path> files = Files.list(this.folder.getRoot().toPath()))
+		{
+			Assert.assertEquals(1, files.count());
+		}
+
+		try (FingerprintSet set = FingerprintSet.open(file, 10))
+		{
+			Assert.assertEquals(capacity, set.getCapacity());
+			Assert.assertEquals(FingerprintSetTest.SIZE, set.size());
+			FingerprintSetTest.assertContainsAll(set);
+			for (int i = 0; i < FingerprintSetTest.SIZE; i++)
+				Assert.assertFalse(set.add(FingerprintSetTest.fingerprint(i)));
+
+			// grows again after reopening
+			for (int i = FingerprintSetTest.SIZE; i < 2 * FingerprintSetTest.SIZE; i++)
+				Assert.assertTrue(set.add(FingerprintSetTest.fingerprint(i)));
+			Assert.assertEquals(2 * capacity, set.getCapacity());
+		}
+
+		try (FingerprintSet set = FingerprintSet.open(file, 10))
+		{
+			Assert.assertEquals(2 * FingerprintSetTest.SIZE, set.size());
+			for (int i = 0; i < 2 * FingerprintSetTest.SIZE; i++)
+				Assert.assertTrue(set.contains(FingerprintSetTest.fingerprint(i)));
+		}
+	}
+
+	@Test
+	public void testGrowDirectMemory() throws IOException
+	{
+		try (FingerprintSet set = FingerprintSet.create(10))
+		{
+			for (int i = 0; i < FingerprintSetTest.SIZE; i++)
+				Assert.assertTrue(set.add(FingerprintSetTest.fingerprint(i)));
+			Assert.assertEquals(FingerprintSetTest.SIZE, set.size());
+			FingerprintSetTest.assertContainsAll(set);
+		}
+	}
+
+	@Test
+	public void testZeroFingerprint() throws IOException
+	{
+		try (FingerprintSet set = FingerprintSet.create(10))
+		{
+			Assert.assertFalse(set.contains(0));
+			Assert.assertTrue(set.add(0));
+			Assert.assertFalse(set.add(0));
+			Assert.assertTrue(set.contains(0));
+			Assert.assertEquals(1, set.size());
+
+			set.clear();
+			Assert.assertFalse(set.contains(0));
+			Assert.assertTrue(set.isEmpty());
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void testOpenInvalidFile() throws IOException
+	{
+		final Path file = this.folder.newFile("invalid.fps").toPath();
+		Files.write(file, new byte[64]);
+		FingerprintSet.open(file, 10).close();
+	}
+
+	private static void assertContainsAll(final FingerprintSet set)
+	{
+		for (int i = 0; i < FingerprintSetTest.SIZE; i++)
+			Assert.assertTrue(set.contains(FingerprintSetTest.fingerprint(i)));
+		for (int i = 0; i < FingerprintSetTest.SIZE; i++)
+			Assert.assertFalse(set.contains(FingerprintSet.fingerprint("other-" + i)));
+	}
+
+	private static long fingerprint(final int i)
+	{
+		return FingerprintSet.fingerprint("E2E-" + i);
+	}
+}
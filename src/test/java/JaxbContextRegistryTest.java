@@ -0,0 +1,106 @@
+package test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.deloma.tools.sepa.util.JaxbContextRegistry;
+import jakarta.xml.bind.JAXBContext;
+import jakarta.xml.bind.JAXBException;
+import jakarta.xml.bind.annotation.XmlRootElement;
+
+/**
+ * Unit tests for {@link JaxbContextRegistry}, the counters are shared with
+ * the other tests so only their changes are compared
+ *
+ * @author Marco Janc (c) 2025
+ */
+public class JaxbContextRegistryTest
+{
+	@XmlRootElement
+	public static class First
+	{
+	}
+
+	@XmlRootElement
+	public static class Second
+	{
+	}
+
+	@XmlRootElement
+	public static class Concurrent
+	{
+	}
+
+	@Test
+	public void testHitMiss() throws JAXBException
+	{
+		final long hits = JaxbContextRegistry.getHitCount();
+		final long misses = JaxbContextRegistry.getMissCount();
+		final int size = JaxbContextRegistry.size();
+
+		final JAXBContext context = JaxbContextRegistry.getContext(First.class);
+		Assert.assertEquals(misses + 1, JaxbContextRegistry.getMissCount());
+		Assert.assertEquals(hits, JaxbContextRegistry.getHitCount());
+		Assert.assertEquals(size + 1, JaxbContextRegistry.size());
+
+		Assert.assertSame(context, JaxbContextRegistry.getContext(First.class));
+		Assert.assertEquals(misses + 1, JaxbContextRegistry.getMissCount());
+		Assert.assertEquals(hits + 1, JaxbContextRegistry.getHitCount());
+
+		// the order of the classes does not matter, the set does
+		final JAXBContext both = JaxbContextRegistry.getContext(First.class, Second.class);
+		Assert.assertNotSame(context, both);
+		Assert.assertSame(both, JaxbContextRegistry.getContext(Second.class, First.class));
+		Assert.assertSame(both, JaxbContextRegistry.getContext(Second.class, First.class, Second.class));
+		Assert.assertEquals(misses + 2, JaxbContextRegistry.getMissCount());
+		Assert.assertEquals(hits + 3, JaxbContextRegistry.getHitCount());
+		Assert.assertEquals(size + 2, JaxbContextRegistry.size());
+
+		// warming up a cached context is a hit
+		JaxbContextRegistry.warmUp(new Class<?>[] { First.class });
+		Assert.assertEquals(misses + 2, JaxbContextRegistry.getMissCount());
+	}
+
+	@Test
+	public void testConcurrent() throws Exception
+	{
+		final long misses = JaxbContextRegistry.getMissCount();
+
+		final ExecutorService executor = Executors.newFixedThreadPool(8);
+		try
+		{
+			final List<Callable<JAXBContext>> tasks = new ArrayList<>();
+			for (int i = 0; i < 32; i++)
+				tasks.add(() -> JaxbContextRegistry.getContext(Concurrent.class));
+			final List<Future<JAXBContext>> contexts = executor.invokeAll(tasks);
+			for (final Future<JAXBContext> context : contexts)
+				Assert.assertSame(contexts.get(0).get(), context.get());
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+		// created once
+		Assert.assertEquals(misses + 1, JaxbContextRegistry.getMissCount());
+	}
+
+	@Test
+	public void testCreationFailure()
+	{
+		final int size = JaxbContextRegistry.size();
+
+		// an interface cannot be bound, the failure is not cached
+		Assert.assertThrows(JAXBException.class, () -> JaxbContextRegistry.getContext(Runnable.class));
+		Assert.assertThrows(JAXBException.class, () -> JaxbContextRegistry.getContext(Runnable.class));
+		Assert.assertEquals(size, JaxbContextRegistry.size());
+
+		Assert.assertThrows(NullPointerException.class, () -> JaxbContextRegistry.getContext((Class<?>[]) null));
+	}
+}
@@ -0,0 +1,172 @@
+package test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.deloma.tools.sepa.util.JaxbPool;
+import jakarta.xml.bind.JAXBException;
+
+/**
+ * Unit tests for {@link JaxbPool}
+ *
+ * @author Marco Janc (c) 2025
+ */
+public class JaxbPoolTest
+{
+	private final AtomicInteger created = new AtomicInteger();
+
+	@Test
+	public void testReuse() throws JAXBException
+	{
+		final JaxbPool<Object> pool = this.createPool(2, JaxbPool.NO_TIMEOUT);
+
+		final Object instance;
+		try (JaxbPool<Object>.Lease lease = pool.borrow())
+		{
+			instance = lease.get();
+			Assert.assertEquals(1, pool.getInUse());
+		}
+		for (int i = 0; i < 10; i++)
+			try (JaxbPool<Object>.Lease lease = pool.borrow())
+			{
+				Assert.assertSame(instance, lease.get());
+			}
+
+		Assert.assertEquals(1, pool.getCreatedCount());
+		Assert.assertEquals(11, pool.getBorrowCount());
+		Assert.assertEquals(0, pool.getInUse());
+		Assert.assertEquals(1, pool.getIdle());
+	}
+
+	@Test
+	public void testCapacity() throws JAXBException
+	{
+		final JaxbPool<Object> pool = this.createPool(2, 50);
+
+		final JaxbPool<Object>.Lease first = pool.borrow();
+		final JaxbPool<Object>.Lease second = pool.borrow();
+		Assert.assertNotSame(first.get(), second.get());
+		Assert.assertEquals(2, pool.getInUse());
+
+		// the pool timeout and an explicit one
+		Assert.assertThrows(JAXBException.class, () -> pool.borrow());
+		Assert.assertThrows(JAXBException.class, () -> pool.borrow(0, TimeUnit.MILLISECONDS));
+		Assert.assertEquals(2, pool.getCreatedCount());
+
+		// closing twice gives the instance back once
+		second.close();
+		second.close();
+		Assert.assertEquals(1, pool.getInUse());
+		try (JaxbPool<Object>.Lease lease = pool.borrow())
+		{
+			Assert.assertEquals(2, pool.getInUse());
+			Assert.assertThrows(JAXBException.class, () -> pool.borrow(0, TimeUnit.MILLISECONDS));
+		}
+		first.close();
+		Assert.assertEquals(0, pool.getInUse());
+		Assert.assertEquals(2, pool.getIdle());
+		Assert.assertEquals(2, pool.getCreatedCount());
+	}
+
+	@Test
+	public void testWaiting() throws Exception
+	{
+		final JaxbPool<Object> pool = this.createPool(1, JaxbPool.NO_TIMEOUT);
+		final JaxbPool<Object>.Lease lease = pool.borrow();
+		final Object instance = lease.get();
+
+		final AtomicReference<Object> borrowed = new AtomicReference<>();
+		final Thread thread = new Thread(() -> {
+			try (JaxbPool<Object>.Lease waiting = pool.borrow())
+			{
+				borrowed.set(waiting.get());
+			}
+			catch (final JAXBException e)
+			{
+				throw new IllegalStateException(e);
+			}
+		});
+		thread.start();
+		while (pool.getWaiting() == 0)
+			Thread.sleep(1);
+		lease.close();
+		thread.join();
+
+		Assert.assertSame(instance, borrowed.get());
+		Assert.assertEquals(0, pool.getInUse());
+		Assert.assertEquals(1, pool.getCreatedCount());
+		Assert.assertTrue(pool.getMaxWaitNanos() > 0);
+	}
+
+	@Test
+	public void testInterrupt() throws JAXBException
+	{
+		final JaxbPool<Object> pool = this.createPool(1, JaxbPool.NO_TIMEOUT);
+		try (JaxbPool<Object>.Lease lease = pool.borrow())
+		{
+			Thread.currentThread().interrupt();
+			final JAXBException e = Assert.assertThrows(JAXBException.class, () -> pool.borrow());
+			Assert.assertTrue(e.getCause() instanceof InterruptedException);
+			// the interrupt status is kept
+			Assert.assertTrue(Thread.interrupted());
+		}
+		Assert.assertEquals(0, pool.getInUse());
+	}
+
+	@Test
+	public void testFactoryException() throws JAXBException
+	{
+		final JaxbPool<Object> pool = new JaxbPool<>("failing", 1, 50, () -> {
+			if (this.created.incrementAndGet() == 1)
+				throw new JAXBException("first instance");
+			return new Object();
+		});
+
+		Assert.assertThrows(JAXBException.class, () -> pool.borrow());
+		// the permit of the failed creation is released
+		Assert.assertEquals(0, pool.getInUse());
+		try (JaxbPool<Object>.Lease lease = pool.borrow())
+		{
+			Assert.assertNotNull(lease.get());
+		}
+		Assert.assertEquals(1, pool.getCreatedCount());
+	}
+
+	@Test
+	public void testExceptionInUse() throws JAXBException
+	{
+		final JaxbPool<Object> pool = this.createPool(1, 50);
+
+		for (int i = 0; i < 3; i++)
+			try (JaxbPool<Object>.Lease lease = pool.borrow())
+			{
+				throw new IllegalStateException("marshalling failed");
+			}
+			catch (final IllegalStateException e)
+			{
+				// expected
+			}
+
+		Assert.assertEquals(0, pool.getInUse());
+		Assert.assertEquals(1, pool.getCreatedCount());
+	}
+
+	@Test
+	public void testInvalidArguments()
+	{
+		Assert.assertThrows(IllegalArgumentException.class, () -> this.createPool(0, JaxbPool.NO_TIMEOUT));
+		Assert.assertThrows(IllegalArgumentException.class, () -> this.createPool(1, -1));
+	}
+
+	private JaxbPool<Object> createPool(final int capacity, final long borrowTimeoutMillis)
+	{
+		return new JaxbPool<>("test", capacity, borrowTimeoutMillis, () -> {
+			this.created.incrementAndGet();
+			return new Object();
+		});
+	}
+}
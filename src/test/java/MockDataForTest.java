@@ -77,7 +77,7 @@ public class MockDataForTest {
 		groupHeaderSDD.setMsgId("Msg-ID");
 		// CredtTm
 		groupHeaderSDD.setCreDtTm(
-				ParserUtils.dateToXMLGregorianCalendar(new Date(2010, 12, 21, 9, 30, 47), TIME_ZONE_LOCALE));
+				new Date(2010, 12, 21, 9, 30, 47).toInstant().atZone(TIME_ZONE_LOCALE.toZoneId()).toOffsetDateTime());
 		groupHeaderSDD.setCtrlSum(null);
 		PartyIdentificationSEPA1 partyIdentificationSEPA1 = new PartyIdentificationSEPA1();
 		partyIdentificationSEPA1.setNm("Initiator Name");
@@ -112,7 +112,7 @@ public class MockDataForTest {
 		paymentTypeInformationSDD.setLclInstrm(instrumentSEPA);
 		paymentTypeInformationSDD.setSeqTp(SequenceType1Code.FRST);
 
-		pmtInf.setReqdColltnDt(ParserUtils.dateToXMLGregorianCalendar(new Date(2010, 12 - 1, 03), TIME_ZONE_LOCALE));
+		pmtInf.setReqdColltnDt(ParserUtils.toLocalDate(new Date(2010, 12 - 1, 03)));
 
 		// Creditor info
 		PartyIdentificationSEPA5 creditor = new PartyIdentificationSEPA5();
@@ -183,11 +183,11 @@ public class MockDataForTest {
 		entry.setSts(EntryStatus2Code.BOOK);
 		// Booking date
 		DateAndDateTimeChoice bookingDate = new DateAndDateTimeChoice();
-		bookingDate.setDt(ParserUtils.dateToXMLGregorianCalendar(new Date(2013, 12, 30), TIME_ZONE_LOCALE));
+		bookingDate.setDt(ParserUtils.toLocalDate(new Date(2013, 12, 30)));
 		entry.setBookgDt(bookingDate);
 		// Value date
 		DateAndDateTimeChoice valueDate = new DateAndDateTimeChoice();
-		valueDate.setDt(ParserUtils.dateToXMLGregorianCalendar(new Date(2013, 12, 30), TIME_ZONE_LOCALE));
+		valueDate.setDt(ParserUtils.toLocalDate(new Date(2013, 12, 30)));
 		entry.setValDt(valueDate);
 		entry.setAcctSvcrRef("2013122812211780000");
 
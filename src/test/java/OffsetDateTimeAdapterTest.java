@@ -0,0 +1,132 @@
+package test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.deloma.tools.sepa.camt.CamtEntryReader;
+import de.deloma.tools.sepa.camt.CamtParser;
+import de.deloma.tools.sepa.camt.CamtParser.CAMTTYPE;
+import de.deloma.tools.sepa.model.camt.camt530102.AccountStatement2;
+import de.deloma.tools.sepa.model.camt.camt530102.Document;
+import de.deloma.tools.sepa.model.camt.camt530102.GroupHeader42;
+import de.deloma.tools.sepa.model.camt.camt530102.ReportEntry2;
+import de.deloma.tools.sepa.util.OffsetDateTimeAdapter;
+
+/**
+ * Unit tests for {@link OffsetDateTimeAdapter}
+ *
+ * @author Marco Janc (c) 2025
+ */
+public class OffsetDateTimeAdapterTest
+{
+	private static final ZoneId BERLIN = ZoneId.of("Europe/Berlin");
+
+	private ZoneId defaultZone;
+
+	@Before
+	public void setUp()
+	{
+		this.defaultZone = OffsetDateTimeAdapter.getDefaultZone();
+	}
+
+	@After
+	public void tearDown()
+	{
+		OffsetDateTimeAdapter.setDefaultZone(this.defaultZone);
+	}
+
+	@Test
+	public void testOffsetIsKept()
+	{
+		final OffsetDateTimeAdapter adapter = new OffsetDateTimeAdapter(OffsetDateTimeAdapterTest.BERLIN);
+
+		Assert.assertEquals(OffsetDateTime.of(2025, 1, 31, 10, 15, 30, 500_000_000, ZoneOffset.ofHours(1)),
+			adapter.unmarshal("2025-01-31T10:15:30.5+01:00"));
+		Assert.assertEquals(OffsetDateTime.of(2025, 7, 1, 10, 15, 30, 0, ZoneOffset.UTC), adapter.unmarshal("2025-07-01T10:15:30Z"));
+		Assert.assertEquals("2025-01-31T10:15:30.500+01:00", adapter.marshal(adapter.unmarshal(" 2025-01-31T10:15:30.5+01:00 ")));
+		Assert.assertNull(adapter.unmarshal(null));
+	}
+
+	@Test
+	public void testLocalDateTimeInZone()
+	{
+		final OffsetDateTimeAdapter adapter = new OffsetDateTimeAdapter(OffsetDateTimeAdapterTest.BERLIN);
+
+		// winter and summer time, the local time is kept
+		Assert.assertEquals(OffsetDateTime.of(2025, 1, 31, 10, 15, 30, 0, ZoneOffset.ofHours(1)), adapter.unmarshal("2025-01-31T10:15:30"));
+		Assert.assertEquals(OffsetDateTime.of(2025, 7, 1, 10, 15, 30, 0, ZoneOffset.ofHours(2)), adapter.unmarshal("2025-07-01T10:15:30"));
+		Assert.assertEquals("2025-07-01T10:15:30.000+02:00", adapter.marshal(adapter.unmarshal("2025-07-01T10:15:30.0")));
+	}
+
+	@Test
+	public void testDefaultZone()
+	{
+		final OffsetDateTimeAdapter adapter = new OffsetDateTimeAdapter();
+
+		OffsetDateTimeAdapter.setDefaultZone(ZoneId.of("America/New_York"));
+		Assert.assertEquals(ZoneOffset.ofHours(-5), adapter.unmarshal("2025-01-31T10:15:30").getOffset());
+
+		// the zone is resolved when unmarshalling
+		OffsetDateTimeAdapter.setDefaultZone(OffsetDateTimeAdapterTest.BERLIN);
+		Assert.assertEquals(ZoneOffset.ofHours(1), adapter.unmarshal("2025-01-31T10:15:30").getOffset());
+	}
+
+	@Test
+	public void testParseCamtWithoutOffset() throws Exception
+	{
+		OffsetDateTimeAdapter.setDefaultZone(OffsetDateTimeAdapterTest.BERLIN);
+
+		final OffsetDateTime creationDateTime = OffsetDateTimeAdapterTest.parseCreationDateTime(new CamtParser(CAMTTYPE.CAMT53));
+		Assert.assertEquals(LocalDateTime.of(2025, 4, 17, 18, 30), creationDateTime.toLocalDateTime());
+		Assert.assertEquals(ZoneOffset.ofHours(2), creationDateTime.getOffset());
+	}
+
+	@Test
+	public void testParserZone() throws Exception
+	{
+		OffsetDateTimeAdapter.setDefaultZone(ZoneOffset.UTC);
+		final CamtParser parser = new CamtParser(CAMTTYPE.CAMT53);
+		parser.setZone(ZoneId.of("America/New_York"));
+
+		// parse and stream, the pooled unmarshallers keep the default zone
+		for (int i = 0; i < 2; i++)
+		{
+			Assert.assertEquals(ZoneOffset.ofHours(-4), OffsetDateTimeAdapterTest.parseCreationDateTime(parser).getOffset());
+			Assert.assertEquals(ZoneOffset.UTC, OffsetDateTimeAdapterTest.parseCreationDateTime(new CamtParser(CAMTTYPE.CAMT53)).getOffset());
+		}
+		try (CamtEntryReader<GroupHeader42, AccountStatement2, ReportEntry2> reader = parser.stream(OffsetDateTimeAdapterTest.createCamt()))
+		{
+			Assert.assertEquals(ZoneOffset.ofHours(-4), reader.getGroupHeader().getCreDtTm().getOffset());
+		}
+		Assert.assertEquals(ZoneOffset.UTC, OffsetDateTimeAdapterTest.parseCreationDateTime(new CamtParser(CAMTTYPE.CAMT53)).getOffset());
+	}
+
+	private static OffsetDateTime parseCreationDateTime(final CamtParser parser) throws Exception
+	{
+		try (InputStream is = OffsetDateTimeAdapterTest.createCamt())
+		{
+			final Document document053 = parser.parse(is, true);
+			return document053.getBkToCstmrStmt().getGrpHdr().getCreDtTm();
+		}
+	}
+
+	/**
+	 * @return camt.053 with a creation date time without offset
+	 */
+	private static InputStream createCamt()
+	{
+		final String xml = new String(CamtTestData.create(CAMTTYPE.CAMT53, 1, 1), StandardCharsets.UTF_8).replace("2025-04-17T18:30:00+02:00",
+			"2025-04-17T18:30:00");
+		return new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,323 @@
+package test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.transform.stream.StreamSource;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import de.deloma.tools.sepa.exception.PainParserException;
+import de.deloma.tools.sepa.pain.PainDocumentType;
+import de.deloma.tools.sepa.pain.PainFileSplitter;
+import de.deloma.tools.sepa.pain.PainParser;
+import de.deloma.tools.sepa.pain.PainSplitManifest;
+import de.deloma.tools.sepa.pain.wrapper.CollectorPaymentInfoPain;
+import de.deloma.tools.sepa.pain.wrapper.GroupHeaderInfo;
+
+/**
+ * Unit tests for {@link PainFileSplitter} with all pain types
+ *
+ * @author Marco Janc (c) 2025
+ */
+@RunWith(value = Parameterized.class)
+public class PainFileSplitterTest
+{
+	private static final int PAYMENT_INFOS = 3;
+
+	private static final int TRANSACTIONS = 10;
+
+	@Parameter(0)
+	public PainDocumentType type;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private ExecutorService executor;
+
+	@Parameters(name = "{0}")
+	public static Collection<Object[]> data()
+	{
+		final List<Object[]> data = new ArrayList<>();
+		for (final PainDocumentType type : PainDocumentType.values())
+			data.add(new Object[]
+			{
+				type
+			});
+		return data;
+	}
+
+	@Before
+	public void setUp()
+	{
+		this.executor = Executors.newFixedThreadPool(2);
+	}
+
+	@After
+	public void tearDown()
+	{
+		this.executor.shutdownNow();
+	}
+
+	@Test
+	public void testUnlimited() throws Exception
+	{
+		final PainSplitManifest manifest = this.write(new PainFileSplitter(PainFileSplitter.UNLIMITED, Long.MAX_VALUE, PainFileSplitter.UNLIMITED),
+			PainTestData.createGroupHeaderInfo());
+
+		// no suffixes for a single file
+		Assert.assertEquals(1, manifest.getParts().size());
+		final PainSplitManifest.Part part = manifest.getParts().get(0);
+		Assert.assertEquals(PainTestData.MSG_ID, part.getMsgId());
+		Assert.assertEquals(PainTestData.MSG_ID + ".xml", part.getFile().getFileName().toString());
+		Assert.assertEquals(PainFileSplitterTest.PAYMENT_INFOS, part.getNumberOfPaymentInfos());
+		Assert.assertEquals(PainTestData.getPaymentInfoId(0), this.parse(part).paymentInfoIds.get(0));
+	}
+
+	@Test
+	public void testMaxTransactions() throws Exception
+	{
+		final PainSplitManifest manifest = this.write(new PainFileSplitter(7, Long.MAX_VALUE, PainFileSplitter.UNLIMITED),
+			PainTestData.createGroupHeaderInfo());
+
+		// 30 transactions in files of 7, 7, 7, 7 and 2
+		Assert.assertEquals(5, manifest.getParts().size());
+		for (int i = 0; i < manifest.getParts().size(); i++)
+			Assert.assertEquals(i < 4 ? 7 : 2, manifest.getParts().get(i).getNumberOfTransactions());
+
+		// payment infos of 10 transactions split into 7+3, 4+6 and 1+7+2
+		final List<String> paymentInfoIds = new ArrayList<>();
+		for (final PainSplitManifest.Part part : manifest.getParts())
+			paymentInfoIds.addAll(this.parse(part).paymentInfoIds);
+		Assert.assertEquals(Arrays.asList("PMT-0-1", "PMT-0-2", "PMT-1-1", "PMT-1-2", "PMT-2-1", "PMT-2-2", "PMT-2-3"), paymentInfoIds);
+		Assert.assertEquals(2, manifest.getParts().get(1).getNumberOfPaymentInfos());
+	}
+
+	@Test
+	public void testMaxBytes() throws Exception
+	{
+		final long maxBytes = 8 * 1024;
+		final PainSplitManifest manifest = this.write(new PainFileSplitter(PainFileSplitter.UNLIMITED, maxBytes, PainFileSplitter.UNLIMITED),
+			PainTestData.createGroupHeaderInfo());
+
+		Assert.assertTrue(manifest.getParts().size() > 1);
+		for (final PainSplitManifest.Part part : manifest.getParts())
+		{
+			Assert.assertTrue(part.getSize() <= maxBytes);
+			Assert.assertEquals(Files.size(part.getFile()), part.getSize());
+		}
+	}
+
+	@Test
+	public void testMaxPaymentInfos() throws Exception
+	{
+		final PainSplitManifest manifest = this.write(new PainFileSplitter(PainFileSplitter.UNLIMITED, Long.MAX_VALUE, 2),
+			PainTestData.createGroupHeaderInfo());
+
+		// payment infos are not split
+		Assert.assertEquals(2, manifest.getParts().size());
+		Assert.assertEquals(2, manifest.getParts().get(0).getNumberOfPaymentInfos());
+		Assert.assertEquals(1, manifest.getParts().get(1).getNumberOfPaymentInfos());
+		final List<String> paymentInfoIds = new ArrayList<>();
+		for (final PainSplitManifest.Part part : manifest.getParts())
+			paymentInfoIds.addAll(this.parse(part).paymentInfoIds);
+		for (int p = 0; p < PainFileSplitterTest.PAYMENT_INFOS; p++)
+			Assert.assertEquals(PainTestData.getPaymentInfoId(p), paymentInfoIds.get(p));
+	}
+
+	@Test
+	public void testFileName() throws Exception
+	{
+		final String msgId = "2025/10/MSG:1?";
+		final PainSplitManifest manifest = this.write(new PainFileSplitter(PainFileSplitter.UNLIMITED, Long.MAX_VALUE, 1),
+			PainTestData.createGroupHeaderInfo(msgId));
+
+		for (int i = 0; i < manifest.getParts().size(); i++)
+		{
+			final PainSplitManifest.Part part = manifest.getParts().get(i);
+			Assert.assertEquals(msgId + "-" + (i + 1), part.getMsgId());
+			Assert.assertEquals("2025_10_MSG_1_-" + (i + 1) + ".xml", part.getFile().getFileName().toString());
+			Assert.assertEquals(this.folder.getRoot().toPath(), part.getFile().getParent());
+		}
+		Assert.assertEquals("_.._x.xml", PainFileSplitter.getFileName("... x"));
+	}
+
+	@Test
+	public void testExistingFile() throws Exception
+	{
+		final PainFileSplitter splitter = new PainFileSplitter(PainFileSplitter.UNLIMITED, Long.MAX_VALUE, 1);
+		final PainSplitManifest manifest = this.write(splitter, PainTestData.createGroupHeaderInfo("A/B"));
+		final List<byte[]> contents = new ArrayList<>();
+		for (final PainSplitManifest.Part part : manifest.getParts())
+			contents.add(Files.readAllBytes(part.getFile()));
+
+		// another message with the same file names does not overwrite them
+		Assert.assertThrows(FileAlreadyExistsException.class, () -> splitter.write(this.type, PainTestData.createGroupHeaderInfo("A:B"),
+			PainTestData.createPaymentInfos(PainFileSplitterTest.PAYMENT_INFOS, PainFileSplitterTest.TRANSACTIONS), this.folder.getRoot().toPath(),
+			this.executor));
+		Assert.assertEquals(manifest.getParts().size(), this.countFiles());
+		for (int i = 0; i < contents.size(); i++)
+			Assert.assertArrayEquals(contents.get(i), Files.readAllBytes(manifest.getParts().get(i).getFile()));
+	}
+
+	@Test
+	public void testExistingFileCleanup() throws Exception
+	{
+		// only the files written by the failed call are deleted
+		final Path existing = this.folder.getRoot().toPath().resolve(PainFileSplitter.getFileName("MSG-2"));
+		Files.write(existing, "other".getBytes(StandardCharsets.UTF_8));
+
+		Assert.assertThrows(FileAlreadyExistsException.class,
+			() -> new PainFileSplitter(PainFileSplitter.UNLIMITED, Long.MAX_VALUE, 1).write(this.type, PainTestData.createGroupHeaderInfo("MSG"),
+				PainTestData.createPaymentInfos(PainFileSplitterTest.PAYMENT_INFOS, PainFileSplitterTest.TRANSACTIONS),
+				this.folder.getRoot().toPath(), this.executor));
+		Assert.assertEquals(1, this.countFiles());
+		Assert.assertEquals("other", new String(Files.readAllBytes(existing), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testTransactionExceedsMaxBytes() throws Exception
+	{
+		try
+		{
+			this.write(new PainFileSplitter(PainFileSplitter.UNLIMITED, 1024, PainFileSplitter.UNLIMITED), PainTestData.createGroupHeaderInfo());
+			Assert.fail("transaction exceeds the file size limit");
+		}
+		catch (final PainParserException e)
+		{
+			// no files written
+			Assert.assertEquals(0, this.countFiles());
+		}
+	}
+
+	/**
+	 * Writes the test payment infos and checks the common properties of each
+	 * split: the files match the schema and the manifest, {@code MsgId}
+	 * suffixes, the order of the transactions and the total counts.
+	 */
+	private PainSplitManifest write(final PainFileSplitter splitter, final GroupHeaderInfo groupHeaderInfo) throws Exception
+	{
+		final List<CollectorPaymentInfoPain> paymentInfos = PainTestData.createPaymentInfos(PainFileSplitterTest.PAYMENT_INFOS,
+			PainFileSplitterTest.TRANSACTIONS);
+		final PainSplitManifest manifest = splitter.write(this.type, groupHeaderInfo, paymentInfos, this.folder.getRoot().toPath(), this.executor);
+
+		final List<String> endToEndIds = new ArrayList<>();
+		for (int i = 0; i < manifest.getParts().size(); i++)
+		{
+			final PainSplitManifest.Part part = manifest.getParts().get(i);
+			final ParsedFile file = this.parse(part);
+
+			final String msgId = manifest.getParts().size() == 1 ? groupHeaderInfo.getMsgId() : groupHeaderInfo.getMsgId() + "-" + (i + 1);
+			Assert.assertEquals(msgId, part.getMsgId());
+			Assert.assertEquals(msgId, file.msgId);
+			Assert.assertEquals(PainFileSplitter.getFileName(msgId), part.getFile().getFileName().toString());
+
+			Assert.assertEquals(part.getNumberOfTransactions(), file.numberOfTransactions);
+			Assert.assertEquals(part.getNumberOfTransactions(), file.endToEndIds.size());
+			Assert.assertEquals(0, part.getCtrlSum().compareTo(file.ctrlSum));
+			Assert.assertEquals(part.getNumberOfPaymentInfos(), file.paymentInfoIds.size());
+			Assert.assertEquals(Files.size(part.getFile()), part.getSize());
+			endToEndIds.addAll(file.endToEndIds);
+		}
+
+		final List<String> expected = new ArrayList<>();
+		for (int p = 0; p < PainFileSplitterTest.PAYMENT_INFOS; p++)
+			for (int t = 0; t < PainFileSplitterTest.TRANSACTIONS; t++)
+				expected.add(PainTestData.getEndToEndId(p, t));
+		Assert.assertEquals(expected, endToEndIds);
+		Assert.assertEquals(expected.size(), manifest.getNumberOfTransactions());
+		Assert.assertEquals(0, CollectorPaymentInfoPain.getTotalAmount(paymentInfos).compareTo(manifest.getCtrlSum()));
+		return manifest;
+	}
+
+	private long countFiles() throws IOException
+	{
+		try (Stream<Path> files = Files.list(this.folder.getRoot().toPath()))
+		{
+			return files.count();
+		}
+	}
+
+	private ParsedFile parse(final PainSplitManifest.Part part) throws Exception
+	{
+		PainParser.getSchema(this.type).newValidator().validate(new StreamSource(part.getFile().toFile()));
+
+		final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+		factory.setNamespaceAware(true);
+		final Document document;
+		try (InputStream is = Files.newInputStream(part.getFile()))
+		{
+			document = factory.newDocumentBuilder().parse(is);
+		}
+
+		final Element groupHeader = (Element) document.getElementsByTagNameNS("*", "GrpHdr").item(0);
+		final ParsedFile file = new ParsedFile();
+		file.msgId = PainFileSplitterTest.getText(groupHeader, "MsgId").get(0);
+		file.numberOfTransactions = Integer.parseInt(PainFileSplitterTest.getText(groupHeader, "NbOfTxs").get(0));
+		// the optional control sum of the group header is not written
+		file.ctrlSum = BigDecimal.ZERO;
+		final NodeList paymentInfos = document.getElementsByTagNameNS("*", "PmtInf");
+		for (int i = 0; i < paymentInfos.getLength(); i++)
+		{
+			final Element paymentInfo = (Element) paymentInfos.item(i);
+			final List<String> ctrlSums = PainFileSplitterTest.getText(paymentInfo, "CtrlSum");
+			Assert.assertEquals(1, ctrlSums.size());
+			Assert.assertEquals(PainFileSplitterTest.getText(paymentInfo, "NbOfTxs").get(0),
+				String.valueOf(PainFileSplitterTest.getText(paymentInfo, "EndToEndId").size()));
+			file.ctrlSum = file.ctrlSum.add(new BigDecimal(ctrlSums.get(0)));
+		}
+		file.paymentInfoIds = PainFileSplitterTest.getText(document.getDocumentElement(), "PmtInfId");
+		file.endToEndIds = PainFileSplitterTest.getText(document.getDocumentElement(), "EndToEndId");
+		return file;
+	}
+
+	private static List<String> getText(final Element element, final String name)
+	{
+		final NodeList nodes = element.getElementsByTagNameNS("*", name);
+		final List<String> values = new ArrayList<>(nodes.getLength());
+		for (int i = 0; i < nodes.getLength(); i++)
+			values.add(nodes.item(i).getTextContent());
+		return values;
+	}
+
+	/**
+	 * group header and ids of a written file
+	 */
+	private static class ParsedFile
+	{
+		private String msgId;
+
+		private int numberOfTransactions;
+
+		private BigDecimal ctrlSum;
+
+		private List<String> paymentInfoIds;
+
+		private List<String> endToEndIds;
+	}
+}
@@ -0,0 +1,123 @@
+package test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+import de.deloma.tools.sepa.pain.PainDocumentType;
+import de.deloma.tools.sepa.pain.PainParser;
+import de.deloma.tools.sepa.pain.PainStreamWriter;
+import de.deloma.tools.sepa.pain.wrapper.CollectorPaymentInfoPain;
+import de.deloma.tools.sepa.pain.wrapper.GroupHeaderInfo;
+import de.deloma.tools.sepa.util.BaseXmlFactory;
+
+/**
+ * Checks that the {@link PainStreamWriter} and the parallel marshalling of
+ * {@link PainParser} write exactly the bytes of the sequential JAXB output
+ *
+ * @author Marco Janc (c) 2025
+ */
+@RunWith(value = Parameterized.class)
+public class PainOutputEqualityTest
+{
+	@Parameter(0)
+	public PainDocumentType type;
+
+	private ExecutorService executor;
+
+	@Parameters(name = "{0}")
+	public static Collection<Object[]> data()
+	{
+		final List<Object[]> data = new ArrayList<>();
+		for (final PainDocumentType type : PainDocumentType.values())
+			data.add(new Object[]
+			{
+				type
+			});
+		return data;
+	}
+
+	@Before
+	public void setUp()
+	{
+		this.executor = Executors.newFixedThreadPool(4);
+	}
+
+	@After
+	public void tearDown()
+	{
+		this.executor.shutdownNow();
+	}
+
+	@Test
+	public void testSingleTransaction() throws Exception
+	{
+		this.assertEqualOutput(PainTestData.createGroupHeaderInfo(), PainTestData.createPaymentInfos(1, 1));
+	}
+
+	@Test
+	public void testPaymentInfos() throws Exception
+	{
+		// with and without ultimate debtor, all sequence types
+		this.assertEqualOutput(PainTestData.createGroupHeaderInfo("2025/10/MSG:1"), PainTestData.createPaymentInfos(5, 7));
+	}
+
+	@Test
+	public void testTransactionChunks() throws Exception
+	{
+		// more transactions than a chunk of the parallel marshaller
+		this.assertEqualOutput(PainTestData.createGroupHeaderInfo(), PainTestData.createPaymentInfos(2, 3000));
+	}
+
+	@Test
+	public void testWindow() throws Exception
+	{
+		// more payment instructions and chunks than parts in flight
+		this.assertEqualOutput(PainTestData.createGroupHeaderInfo(), PainTestData.createPaymentInfos(10, 2100));
+	}
+
+	private void assertEqualOutput(final GroupHeaderInfo groupHeaderInfo, final List<CollectorPaymentInfoPain> paymentInfos) throws Exception
+	{
+		final byte[] expected = PainParser.createDocumentXml(this.type, groupHeaderInfo, paymentInfos).getBytes(StandardCharsets.UTF_8);
+		Assert.assertTrue(new String(expected, StandardCharsets.UTF_8).contains("Müller &amp; Söhne &lt;0-0&gt;"));
+
+		final ByteArrayOutputStream stream = new ByteArrayOutputStream(expected.length);
+		PainStreamWriter.write(this.type, groupHeaderInfo, paymentInfos, stream);
+		PainOutputEqualityTest.assertEquals("stream", expected, stream.toByteArray());
+
+		final ByteArrayOutputStream lazy = new ByteArrayOutputStream(expected.length);
+		PainStreamWriter.write(this.type, groupHeaderInfo, paymentInfos, paymentInfo -> paymentInfo.getTransactions().stream(), lazy);
+		PainOutputEqualityTest.assertEquals("lazy stream", expected, lazy.toByteArray());
+
+		final Object document = PainParser.createDocument(this.type, groupHeaderInfo, paymentInfos);
+		final ByteArrayOutputStream parallel = new ByteArrayOutputStream(expected.length);
+		PainParser.createDocumentXml(this.type, document, parallel, BaseXmlFactory.DEFAULT_BUFFER_SIZE, this.executor);
+		PainOutputEqualityTest.assertEquals("parallel", expected, parallel.toByteArray());
+
+		final ByteArrayOutputStream validating = new ByteArrayOutputStream(expected.length);
+		PainParser.createDocumentXml(this.type, document, validating, BaseXmlFactory.DEFAULT_BUFFER_SIZE, this.executor, true);
+		PainOutputEqualityTest.assertEquals("parallel validating", expected, validating.toByteArray());
+	}
+
+	/**
+	 * compares the text first for a readable failure message
+	 */
+	private static void assertEquals(final String message, final byte[] expected, final byte[] actual)
+	{
+		Assert.assertEquals(message, new String(expected, StandardCharsets.UTF_8), new String(actual, StandardCharsets.UTF_8));
+		Assert.assertArrayEquals(message, expected, actual);
+	}
+}
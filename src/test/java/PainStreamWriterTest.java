@@ -0,0 +1,240 @@
+package test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.deloma.tools.sepa.exception.PainParserException;
+import de.deloma.tools.sepa.pain.PainDocumentType;
+import de.deloma.tools.sepa.pain.PainParser;
+import de.deloma.tools.sepa.pain.PainStreamWriter;
+import de.deloma.tools.sepa.pain.wrapper.CollectorPaymentInfoPain;
+import de.deloma.tools.sepa.pain.wrapper.PainTransaction;
+import de.deloma.tools.sepa.pain.wrapper.SepaLocalInstrumentCode;
+import de.deloma.tools.sepa.pain.wrapper.SequenceTypeCode;
+import de.deloma.tools.sepa.pain.wrapper.TransactionBatch;
+
+/**
+ * Unit tests for {@link PainStreamWriter}
+ *
+ * @author Marco Janc (c) 2025
+ */
+public class PainStreamWriterTest
+{
+	private static final PainDocumentType TYPE = PainDocumentType.PAIN00800108;
+
+	private static final LocalDate DT_OF_SGNTR = LocalDate.of(2024, 1, 1);
+
+	/**
+	 * transactions failing {@link PainTransaction#validate(PainTransaction)}
+	 */
+	private static final List<PainTransaction> INVALID_TRANSACTIONS = Arrays.asList(
+		new PainTransaction(null, 100, "Müller", PainTestData.DEBTOR_IBAN, null, "M-1", PainStreamWriterTest.DT_OF_SGNTR, null, "Rechnung"),
+		new PainTransaction("E2E-1", 100, "Müller", null, null, "M-1", PainStreamWriterTest.DT_OF_SGNTR, null, "Rechnung"),
+		new PainTransaction("E2E-1", 100, "Müller", PainTestData.DEBTOR_IBAN, null, "", PainStreamWriterTest.DT_OF_SGNTR, null, "Rechnung"),
+		new PainTransaction("E2E-1", 100, null, PainTestData.DEBTOR_IBAN, null, "M-1", PainStreamWriterTest.DT_OF_SGNTR, null, "Rechnung"),
+		new PainTransaction("E2E-1", 100, "Müller", PainTestData.DEBTOR_IBAN, null, "M-1", null, null, "Rechnung"),
+		new PainTransaction("E2E-1", 0, "Müller", PainTestData.DEBTOR_IBAN, null, "M-1", PainStreamWriterTest.DT_OF_SGNTR, null, "Rechnung"),
+		new PainTransaction("E2E-1", 100, "Müller", PainTestData.DEBTOR_IBAN, null, "M-1", PainStreamWriterTest.DT_OF_SGNTR, null,
+			PainStreamWriterTest.repeat('x', 141)),
+		new PainTransaction("E2E-1", new BigDecimal("1.005"), "Müller", PainTestData.DEBTOR_IBAN, null, "M-1", PainStreamWriterTest.DT_OF_SGNTR,
+			null, "Rechnung"));
+
+	@Test
+	public void testInvalidTransaction() throws Exception
+	{
+		for (final PainTransaction transaction : PainStreamWriterTest.INVALID_TRANSACTIONS)
+		{
+			Assert.assertThrows(PainParserException.class, () -> PainTransaction.validate(transaction));
+
+			// list path
+			final CollectorPaymentInfoPain paymentInfo = PainStreamWriterTest.createPaymentInfo(Collections.singletonList(transaction));
+			Assert.assertThrows(PainParserException.class, () -> CollectorPaymentInfoPain.validate(paymentInfo));
+			Assert.assertThrows(PainParserException.class, () -> PainStreamWriter.write(PainStreamWriterTest.TYPE,
+				PainTestData.createGroupHeaderInfo(), Collections.singletonList(paymentInfo), new ByteArrayOutputStream()));
+
+			// incremental path, fails when the payment info ends
+			try (PainStreamWriter writer = new PainStreamWriter(PainStreamWriterTest.TYPE, PainTestData.createGroupHeaderInfo(),
+				new ByteArrayOutputStream()))
+			{
+				writer.beginPaymentInfo(paymentInfo);
+				writer.writeTransaction(PainTestData.createTransaction(0, 0));
+				writer.writeTransaction(transaction);
+				writer.writeTransaction(PainTestData.createTransaction(0, 1));
+				Assert.assertThrows(PainParserException.class, () -> writer.endPaymentInfo());
+			}
+		}
+	}
+
+	@Test
+	public void testMissingAmount()
+	{
+		final PainTransaction transaction = new PainTransaction("E2E-1", (BigDecimal) null, "Müller", PainTestData.DEBTOR_IBAN, null, "M-1",
+			PainStreamWriterTest.DT_OF_SGNTR, null, "Rechnung");
+		Assert.assertThrows(PainParserException.class, () -> PainTransaction.validate(transaction));
+	}
+
+	@Test
+	public void testInvalidBatchTransaction() throws Exception
+	{
+		for (final PainTransaction transaction : PainStreamWriterTest.INVALID_TRANSACTIONS)
+		{
+			if (!transaction.hasAmountCents())
+				continue;
+			final TransactionBatch batch = new TransactionBatch();
+			batch.add(PainTestData.createTransaction(0, 0));
+			batch.add(transaction);
+
+			try (PainStreamWriter writer = new PainStreamWriter(PainStreamWriterTest.TYPE, PainTestData.createGroupHeaderInfo(),
+				new ByteArrayOutputStream()))
+			{
+				writer.beginPaymentInfo(PainStreamWriterTest.createPaymentInfo(Collections.emptyList()));
+				writer.writeTransactions(batch);
+				Assert.assertThrows(PainParserException.class, () -> writer.endPaymentInfo());
+			}
+		}
+	}
+
+	@Test
+	public void testValidTransactions() throws Exception
+	{
+		final List<PainTransaction> transactions = PainTestData.createPaymentInfos(1, 3).get(0).getTransactions();
+		final TransactionBatch batch = new TransactionBatch();
+		for (final PainTransaction transaction : transactions)
+			batch.add(transaction);
+
+		final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		PainStreamWriter.write(PainStreamWriterTest.TYPE, PainTestData.createGroupHeaderInfo(),
+			Collections.singletonList(PainStreamWriterTest.createPaymentInfo(transactions)), expected);
+
+		final ByteArrayOutputStream os = new ByteArrayOutputStream();
+		try (PainStreamWriter writer = new PainStreamWriter(PainStreamWriterTest.TYPE, PainTestData.createGroupHeaderInfo(), os))
+		{
+			writer.beginPaymentInfo(PainStreamWriterTest.createPaymentInfo(Collections.emptyList()));
+			writer.writeTransactions(batch);
+			writer.endPaymentInfo();
+			writer.finish();
+		}
+		Assert.assertArrayEquals(expected.toByteArray(), os.toByteArray());
+	}
+
+	@Test
+	public void testTransactionSources() throws Exception
+	{
+		final List<CollectorPaymentInfoPain> paymentInfos = PainTestData.createPaymentInfos(3, 40);
+		final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		PainStreamWriter.write(PainStreamWriterTest.TYPE, PainTestData.createGroupHeaderInfo(), paymentInfos, expected);
+
+		// iterator, spliterator and parallel stream in encounter order
+		for (int source = 0; source < 3; source++)
+		{
+			final AtomicInteger closed = new AtomicInteger();
+			final ByteArrayOutputStream os = new ByteArrayOutputStream();
+			try (PainStreamWriter writer = new PainStreamWriter(PainStreamWriterTest.TYPE, PainTestData.createGroupHeaderInfo(), os))
+			{
+				for (final CollectorPaymentInfoPain paymentInfo : paymentInfos)
+				{
+					final List<PainTransaction> transactions = paymentInfo.getTransactions();
+					writer.beginPaymentInfo(paymentInfo);
+					if (source == 0)
+						writer.writeTransactions(transactions.iterator());
+					else if (source == 1)
+						writer.writeTransactions(transactions.spliterator());
+					else
+						writer.writeTransactions(transactions.parallelStream().onClose(closed::incrementAndGet));
+					writer.endPaymentInfo();
+				}
+				writer.finish();
+			}
+			Assert.assertArrayEquals(expected.toByteArray(), os.toByteArray());
+			// a stream given to the writer is not closed
+			Assert.assertEquals(0, closed.get());
+		}
+	}
+
+	@Test
+	public void testStreamsClosed() throws Exception
+	{
+		final List<CollectorPaymentInfoPain> paymentInfos = PainTestData.createPaymentInfos(4, 25);
+		final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+		PainStreamWriter.write(PainStreamWriterTest.TYPE, PainTestData.createGroupHeaderInfo(), paymentInfos, expected);
+
+		// opened one after the other, each closed once written
+		final AtomicInteger opened = new AtomicInteger();
+		final AtomicInteger open = new AtomicInteger();
+		final ByteArrayOutputStream os = new ByteArrayOutputStream();
+		PainParser.writeDocumentXml(PainStreamWriterTest.TYPE, PainTestData.createGroupHeaderInfo(), paymentInfos, paymentInfo -> {
+			Assert.assertEquals(0, open.getAndIncrement());
+			opened.incrementAndGet();
+			return paymentInfo.getTransactions().stream().onClose(open::decrementAndGet);
+		}, os);
+		Assert.assertArrayEquals(expected.toByteArray(), os.toByteArray());
+		Assert.assertEquals(paymentInfos.size(), opened.get());
+		Assert.assertEquals(0, open.get());
+
+		// closed if writing fails, later streams are not opened
+		opened.set(0);
+		Assert.assertThrows(PainParserException.class, () -> PainStreamWriter.write(PainStreamWriterTest.TYPE,
+			PainTestData.createGroupHeaderInfo(), paymentInfos, paymentInfo -> {
+				open.incrementAndGet();
+				final Stream<PainTransaction> stream = opened.incrementAndGet() == 2
+					? Stream.of(PainStreamWriterTest.INVALID_TRANSACTIONS.get(0))
+					: paymentInfo.getTransactions().stream();
+				return stream.onClose(open::decrementAndGet);
+			}, new ByteArrayOutputStream()));
+		Assert.assertEquals(2, opened.get());
+		Assert.assertEquals(0, open.get());
+
+		// closed if the stream fails
+		Assert.assertThrows(IllegalStateException.class, () -> PainStreamWriter.write(PainStreamWriterTest.TYPE,
+			PainTestData.createGroupHeaderInfo(), paymentInfos, paymentInfo -> {
+				open.incrementAndGet();
+				return paymentInfo.getTransactions().stream().<PainTransaction> map(transaction -> {
+					throw new IllegalStateException("cursor failed");
+				}).onClose(open::decrementAndGet);
+			}, new ByteArrayOutputStream()));
+		Assert.assertEquals(0, open.get());
+	}
+
+	@Test
+	@SuppressWarnings("deprecation")
+	public void testDateOfSignature()
+	{
+		// the time of a Date is kept, only the date is written
+		final Date dtOfSgntr = Date.from(ZonedDateTime.of(2024, 1, 1, 13, 45, 0, 0, ZoneId.systemDefault()).toInstant());
+		final PainTransaction transaction = new PainTransaction("E2E-1", new BigDecimal("1.00"), "Müller", PainTestData.DEBTOR_IBAN, null, "M-1",
+			dtOfSgntr, null, "Rechnung");
+		Assert.assertEquals(dtOfSgntr, transaction.getDtOfSgntr());
+		Assert.assertNotSame(dtOfSgntr, transaction.getDtOfSgntr());
+		Assert.assertEquals(PainStreamWriterTest.DT_OF_SGNTR, transaction.getDtOfSgntrLocalDate());
+
+		final PainTransaction localDate = new PainTransaction("E2E-1", 100, "Müller", PainTestData.DEBTOR_IBAN, null, "M-1",
+			PainStreamWriterTest.DT_OF_SGNTR, null, "Rechnung");
+		Assert.assertEquals(Date.from(PainStreamWriterTest.DT_OF_SGNTR.atStartOfDay(ZoneId.systemDefault()).toInstant()),
+			localDate.getDtOfSgntr());
+	}
+
+	private static CollectorPaymentInfoPain createPaymentInfo(final List<PainTransaction> transactions)
+	{
+		return new CollectorPaymentInfoPain(PainTestData.createCreditorInfo(), PainTestData.getPaymentInfoId(0), SepaLocalInstrumentCode.CORE,
+			SequenceTypeCode.FRST, LocalDate.now().plusDays(10), transactions);
+	}
+
+	private static String repeat(final char c, final int count)
+	{
+		final char[] chars = new char[count];
+		Arrays.fill(chars, c);
+		return new String(chars);
+	}
+}
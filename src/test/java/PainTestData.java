@@ -0,0 +1,106 @@
+package test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import de.deloma.tools.sepa.pain.wrapper.CollectorPaymentInfoPain;
+import de.deloma.tools.sepa.pain.wrapper.CreditorInfo;
+import de.deloma.tools.sepa.pain.wrapper.GroupHeaderInfo;
+import de.deloma.tools.sepa.pain.wrapper.PainTransaction;
+import de.deloma.tools.sepa.pain.wrapper.SepaLocalInstrumentCode;
+import de.deloma.tools.sepa.pain.wrapper.SequenceTypeCode;
+
+/**
+ * Builds valid pain.008 wrapper objects for the pain tests, so they run
+ * without external files.
+ *
+ * Names contain non-ASCII characters and characters escaped in XML. Every
+ * odd transaction has no ultimate debtor name. The
+ * values are derived from the payment info and transaction index, see the
+ * static methods.
+ *
+ * @author Marco Janc (c) 2025
+ */
+public final class PainTestData
+{
+	public static final String MSG_ID = "MSG-1";
+
+	public static final OffsetDateTime CREATION_DATE_TIME = OffsetDateTime.of(2025, 4, 17, 18, 30, 0, 0, ZoneOffset.ofHours(2));
+
+	public static final String CREDITOR_IBAN = "DE87200500001234567890";
+
+	public static final String DEBTOR_IBAN = "DE89370400440532013000";
+
+	private PainTestData()
+	{
+	}
+
+	public static GroupHeaderInfo createGroupHeaderInfo()
+	{
+		return PainTestData.createGroupHeaderInfo(PainTestData.MSG_ID);
+	}
+
+	public static GroupHeaderInfo createGroupHeaderInfo(final String msgId)
+	{
+		return new GroupHeaderInfo(msgId, PainTestData.CREATION_DATE_TIME, "Gläubiger & Söhne GmbH");
+	}
+
+	public static CreditorInfo createCreditorInfo()
+	{
+		return new CreditorInfo("Gläubiger & Söhne GmbH", PainTestData.CREDITOR_IBAN, "BANKDEFFXXX", "DE98ZZZ09999999999");
+	}
+
+	/**
+	 * @param paymentInfos
+	 *            number of payment infos
+	 * @param transactions
+	 *            number of transactions per payment info
+	 * @return payment infos collected in 10 days, the sequence types alternate
+	 */
+	public static List<CollectorPaymentInfoPain> createPaymentInfos(final int paymentInfos, final int transactions)
+	{
+		// the collection date must be in the future
+		final LocalDate collectionDate = LocalDate.now().plusDays(10);
+		final CreditorInfo creditorInfo = PainTestData.createCreditorInfo();
+
+		final List<CollectorPaymentInfoPain> list = new ArrayList<>(paymentInfos);
+		for (int p = 0; p < paymentInfos; p++)
+		{
+			final List<PainTransaction> paymentTransactions = new ArrayList<>(transactions);
+			for (int t = 0; t < transactions; t++)
+				paymentTransactions.add(PainTestData.createTransaction(p, t));
+			list.add(new CollectorPaymentInfoPain(creditorInfo, PainTestData.getPaymentInfoId(p), SepaLocalInstrumentCode.CORE,
+				SequenceTypeCode.values()[p % SequenceTypeCode.values().length], collectionDate, paymentTransactions));
+		}
+		return list;
+	}
+
+	public static PainTransaction createTransaction(final int paymentInfo, final int transaction)
+	{
+		return new PainTransaction(PainTestData.getEndToEndId(paymentInfo, transaction), PainTestData.getAmount(paymentInfo, transaction),
+			"Müller & Söhne <" + paymentInfo + "-" + transaction + ">", PainTestData.DEBTOR_IBAN, "COBADEFFXXX", "M-" + paymentInfo + "-" + transaction,
+			LocalDate.of(2024, 1, 1 + transaction % 28), transaction % 2 == 0 ? "Größe Ä" + transaction : null, "Rechnung Nr. " + transaction + " é€");
+	}
+
+	public static String getPaymentInfoId(final int paymentInfo)
+	{
+		return "PMT-" + paymentInfo;
+	}
+
+	public static String getEndToEndId(final int paymentInfo, final int transaction)
+	{
+		return "E2E-" + paymentInfo + "-" + transaction;
+	}
+
+	/**
+	 * @return amount with 2 decimals
+	 */
+	public static BigDecimal getAmount(final int paymentInfo, final int transaction)
+	{
+		return new BigDecimal((paymentInfo + 1) * 10 + transaction + "." + transaction % 10 + "5");
+	}
+}
@@ -0,0 +1,234 @@
+package test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.deloma.tools.sepa.pain.PainDocumentType;
+import de.deloma.tools.sepa.pain.PainStreamWriter;
+import de.deloma.tools.sepa.pain.PaymentInfoGrouper;
+import de.deloma.tools.sepa.pain.wrapper.CollectorPaymentInfoPain;
+import de.deloma.tools.sepa.pain.wrapper.CreditorInfo;
+import de.deloma.tools.sepa.pain.wrapper.DirectDebit;
+import de.deloma.tools.sepa.pain.wrapper.PainTransaction;
+import de.deloma.tools.sepa.pain.wrapper.SepaLocalInstrumentCode;
+import de.deloma.tools.sepa.pain.wrapper.SequenceTypeCode;
+
+/**
+ * Unit tests for {@link PaymentInfoGrouper} with and without spilling to
+ * disk
+ *
+ * @author Marco Janc (c) 2025
+ */
+public class PaymentInfoGrouperTest
+{
+	private static final int DEBITS = 2000;
+
+	private static final PainDocumentType TYPE = PainDocumentType.PAIN00800108;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testInMemory() throws Exception
+	{
+		try (PaymentInfoGrouper grouper = this.createGrouper(PaymentInfoGrouper.DEFAULT_MAX_GROUPS, PaymentInfoGrouper.DEFAULT_MAX_BYTES))
+		{
+			this.assertGroups(grouper, PaymentInfoGrouperTest.createDebits());
+			Assert.assertEquals(0, grouper.getNumberOfSpills());
+			Assert.assertEquals(0, this.countFiles());
+		}
+	}
+
+	@Test
+	public void testSpillMaxGroups() throws Exception
+	{
+		try (PaymentInfoGrouper grouper = this.createGrouper(3, PaymentInfoGrouper.DEFAULT_MAX_BYTES))
+		{
+			this.assertGroups(grouper, PaymentInfoGrouperTest.createDebits());
+			Assert.assertTrue(grouper.getNumberOfSpills() > 10);
+			Assert.assertEquals(1, this.countFiles());
+		}
+		Assert.assertEquals(0, this.countFiles());
+	}
+
+	@Test
+	public void testSpillMaxBytes() throws Exception
+	{
+		try (PaymentInfoGrouper grouper = this.createGrouper(PaymentInfoGrouper.DEFAULT_MAX_GROUPS, 16 * 1024))
+		{
+			this.assertGroups(grouper, PaymentInfoGrouperTest.createDebits());
+			Assert.assertTrue(grouper.getNumberOfSpills() > 10);
+			Assert.assertEquals(1, this.countFiles());
+		}
+		Assert.assertEquals(0, this.countFiles());
+	}
+
+	@Test
+	public void testAddAfterRead() throws Exception
+	{
+		// the last group in order has a single early segment, reading it
+		// leaves the read position inside the spill file
+		final List<DirectDebit> debits = PaymentInfoGrouperTest.createDebits();
+		final DirectDebit first = debits.get(0);
+		debits.add(100, new DirectDebit(new CreditorInfo("Dritter Gläubiger", "GB82WEST12345698765432", "COBADEFFXXX", "DE98ZZZ09999999999"),
+			SepaLocalInstrumentCode.CORE, SequenceTypeCode.FRST, first.getCollectionDate(), PainTestData.createTransaction(9, 0)));
+
+		try (PaymentInfoGrouper grouper = new PaymentInfoGrouper("PMT-", 3, PaymentInfoGrouper.DEFAULT_MAX_BYTES, this.folder.getRoot().toPath()))
+		{
+			final int half = debits.size() / 2;
+			grouper.addAll(debits.subList(0, half).stream());
+			Assert.assertTrue(grouper.getNumberOfSpills() > 0);
+			Assert.assertEquals(half, CollectorPaymentInfoPain.getNumberOfTransactions(grouper.toPaymentInfos()));
+			try (PainStreamWriter writer = new PainStreamWriter(PaymentInfoGrouperTest.TYPE, PainTestData.createGroupHeaderInfo(),
+				new ByteArrayOutputStream()))
+			{
+				grouper.write(writer);
+			}
+
+			grouper.addAll(debits.subList(half, debits.size()).stream());
+			this.assertGroups(grouper, debits);
+		}
+	}
+
+	@Test
+	public void testClose() throws Exception
+	{
+		final PaymentInfoGrouper grouper = this.createGrouper(1, PaymentInfoGrouper.DEFAULT_MAX_BYTES);
+		Assert.assertEquals(1, this.countFiles());
+
+		grouper.close();
+		Assert.assertEquals(0, this.countFiles());
+		// closing twice is allowed
+		grouper.close();
+		Assert.assertThrows(IllegalStateException.class, () -> grouper.toPaymentInfos());
+		Assert.assertThrows(IllegalStateException.class, () -> grouper.add(PaymentInfoGrouperTest.createDebits().get(0)));
+	}
+
+	private PaymentInfoGrouper createGrouper(final int maxGroups, final long maxBytes) throws IOException
+	{
+		final PaymentInfoGrouper grouper = new PaymentInfoGrouper("PMT-", maxGroups, maxBytes, this.folder.getRoot().toPath());
+		grouper.addAll(PaymentInfoGrouperTest.createDebits().stream());
+		return grouper;
+	}
+
+	/**
+	 * Compares the payment infos and the written document of the grouper with
+	 * the payment infos grouped in memory. Both may be called several times.
+	 */
+	private void assertGroups(final PaymentInfoGrouper grouper, final List<DirectDebit> debits) throws Exception
+	{
+		final List<CollectorPaymentInfoPain> expected = PaymentInfoGrouperTest.group(debits);
+		Assert.assertEquals(expected.size(), grouper.getNumberOfGroups());
+		Assert.assertEquals(debits.size(), grouper.getNumberOfTransactions());
+
+		for (int k = 0; k < 2; k++)
+		{
+			final List<CollectorPaymentInfoPain> paymentInfos = grouper.toPaymentInfos();
+			Assert.assertEquals(expected.size(), paymentInfos.size());
+			for (int i = 0; i < expected.size(); i++)
+				PaymentInfoGrouperTest.assertPaymentInfo(expected.get(i), paymentInfos.get(i));
+
+			final ByteArrayOutputStream expectedXml = new ByteArrayOutputStream();
+			PainStreamWriter.write(PaymentInfoGrouperTest.TYPE, PainTestData.createGroupHeaderInfo(), expected, expectedXml);
+			final ByteArrayOutputStream xml = new ByteArrayOutputStream();
+			try (PainStreamWriter writer = new PainStreamWriter(PaymentInfoGrouperTest.TYPE, PainTestData.createGroupHeaderInfo(), xml))
+			{
+				grouper.write(writer);
+				writer.finish();
+			}
+			Assert.assertArrayEquals(expectedXml.toByteArray(), xml.toByteArray());
+		}
+	}
+
+	private static void assertPaymentInfo(final CollectorPaymentInfoPain expected, final CollectorPaymentInfoPain actual)
+	{
+		Assert.assertEquals(expected.getPaymentInfoId(), actual.getPaymentInfoId());
+		Assert.assertEquals(expected.getCreditorInfo().getIban(), actual.getCreditorInfo().getIban());
+		Assert.assertEquals(expected.getSepaLocalInstrumentCode(), actual.getSepaLocalInstrumentCode());
+		Assert.assertEquals(expected.getSequenceTypeCode(), actual.getSequenceTypeCode());
+		Assert.assertEquals(expected.getCollectionLocalDate(), actual.getCollectionLocalDate());
+		Assert.assertEquals(expected.getNumberOfTransactions(), actual.getNumberOfTransactions());
+		Assert.assertEquals(0, expected.getTotalAmount().compareTo(actual.getTotalAmount()));
+
+		final List<PainTransaction> expectedTransactions = expected.getTransactions();
+		final List<PainTransaction> transactions = actual.getTransactions();
+		Assert.assertEquals(expectedTransactions.size(), transactions.size());
+		for (int i = 0; i < transactions.size(); i++)
+		{
+			final PainTransaction expectedTransaction = expectedTransactions.get(i);
+			final PainTransaction transaction = transactions.get(i);
+			Assert.assertEquals(expectedTransaction.getEndToEndId(), transaction.getEndToEndId());
+			Assert.assertEquals(expectedTransaction.getAmountCents(), transaction.getAmountCents());
+			Assert.assertEquals(expectedTransaction.getDbtrName(), transaction.getDbtrName());
+			Assert.assertEquals(expectedTransaction.getDbtrIban(), transaction.getDbtrIban());
+			Assert.assertEquals(expectedTransaction.getDbtrBic(), transaction.getDbtrBic());
+			Assert.assertEquals(expectedTransaction.getMandateId(), transaction.getMandateId());
+			Assert.assertEquals(expectedTransaction.getDtOfSgntrLocalDate(), transaction.getDtOfSgntrLocalDate());
+			Assert.assertEquals(expectedTransaction.getUltDbtrName(), transaction.getUltDbtrName());
+			Assert.assertEquals(expectedTransaction.getUstrdRemInf(), transaction.getUstrdRemInf());
+		}
+	}
+
+	/**
+	 * @return debits of 2 creditors, all sequence types and 2 collection dates
+	 *         in mixed order
+	 */
+	private static List<DirectDebit> createDebits()
+	{
+		final List<CreditorInfo> creditorInfos = Arrays.asList(PainTestData.createCreditorInfo(),
+			new CreditorInfo("Zweiter Gläubiger", "DE89370400440532013000", "COBADEFFXXX", "DE98ZZZ09999999999"));
+		final LocalDate collectionDate = LocalDate.now().plusDays(10);
+		final SequenceTypeCode[] sequenceTypeCodes = SequenceTypeCode.values();
+
+		final List<DirectDebit> debits = new ArrayList<>(PaymentInfoGrouperTest.DEBITS);
+		for (int i = 0; i < PaymentInfoGrouperTest.DEBITS; i++)
+			debits.add(new DirectDebit(creditorInfos.get(i % 2), SepaLocalInstrumentCode.CORE, sequenceTypeCodes[i / 2 % sequenceTypeCodes.length],
+				collectionDate.plusDays(i / 7 % 2), PainTestData.createTransaction(i % 5, i)));
+		return debits;
+	}
+
+	/**
+	 * @return payment infos grouped in memory in order of their first debit
+	 */
+	private static List<CollectorPaymentInfoPain> group(final List<DirectDebit> debits)
+	{
+		final Map<List<Object>, List<DirectDebit>> groups = new LinkedHashMap<>();
+		for (final DirectDebit debit : debits)
+			groups.computeIfAbsent(Arrays.asList(debit.getCreditorInfo().getIban(), debit.getSequenceTypeCode(), debit.getCollectionDate()),
+				key -> new ArrayList<>()).add(debit);
+
+		final List<CollectorPaymentInfoPain> paymentInfos = new ArrayList<>(groups.size());
+		for (final List<DirectDebit> group : groups.values())
+		{
+			final List<PainTransaction> transactions = new ArrayList<>(group.size());
+			for (final DirectDebit debit : group)
+				transactions.add(debit.getTransaction());
+			final DirectDebit first = group.get(0);
+			paymentInfos.add(new CollectorPaymentInfoPain(first.getCreditorInfo(), "PMT-" + (paymentInfos.size() + 1),
+				first.getSepaLocalInstrumentCode(), first.getSequenceTypeCode(), first.getCollectionDate(), transactions));
+		}
+		return paymentInfos;
+	}
+
+	private long countFiles() throws IOException
+	{
+		try (Stream<Path> files = Files.list(this.folder.getRoot().toPath()))
+		{
+			return files.count();
+		}
+	}
+}
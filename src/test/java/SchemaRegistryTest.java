@@ -0,0 +1,84 @@
+package test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.xml.validation.Schema;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.xml.sax.SAXException;
+
+import de.deloma.tools.sepa.camt.CamtParser.CAMTTYPE;
+import de.deloma.tools.sepa.pain.PainDocumentType;
+import de.deloma.tools.sepa.util.SchemaRegistry;
+
+/**
+ * Unit tests for {@link SchemaRegistry}
+ *
+ * @author Marco Janc (c) 2025
+ */
+public class SchemaRegistryTest
+{
+	@Test
+	public void testBundledSchemas() throws SAXException
+	{
+		final List<String> names = new ArrayList<>();
+		for (final PainDocumentType type : PainDocumentType.values())
+			names.add(type.getName());
+		for (final CAMTTYPE type : CAMTTYPE.values())
+			names.add(type.getXsdVersion());
+
+		SchemaRegistry.warmUp(names.toArray(new String[0]));
+		final int size = SchemaRegistry.size();
+		Assert.assertTrue(size >= names.size());
+
+		// compiled once
+		for (final String name : names)
+		{
+			final Schema schema = SchemaRegistry.getSchema(name);
+			Assert.assertNotNull(name, schema);
+			Assert.assertSame(name, schema, SchemaRegistry.getSchema(name));
+		}
+		Assert.assertEquals(size, SchemaRegistry.size());
+	}
+
+	@Test
+	public void testConcurrent() throws Exception
+	{
+		final ExecutorService executor = Executors.newFixedThreadPool(8);
+		try
+		{
+			final List<Callable<Schema>> tasks = new ArrayList<>();
+			for (int i = 0; i < 32; i++)
+				tasks.add(() -> SchemaRegistry.getSchema(CAMTTYPE.CAMT54.getXsdVersion()));
+			final List<Future<Schema>> schemas = executor.invokeAll(tasks);
+			for (final Future<Schema> schema : schemas)
+				Assert.assertSame(schemas.get(0).get(), schema.get());
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testMissingSchema() throws SAXException
+	{
+		SchemaRegistry.warmUp(CAMTTYPE.CAMT53.getXsdVersion());
+		final int size = SchemaRegistry.size();
+
+		final SAXException e = Assert.assertThrows(SAXException.class, () -> SchemaRegistry.getSchema("pain.001.001.03"));
+		Assert.assertTrue(e.getMessage(), e.getMessage().contains("pain.001.001.03"));
+		// the failure is not cached
+		Assert.assertThrows(SAXException.class, () -> SchemaRegistry.getSchema("pain.001.001.03"));
+		Assert.assertThrows(SAXException.class, () -> SchemaRegistry.warmUp(CAMTTYPE.CAMT53.getXsdVersion(), "camt.053.001.99"));
+		Assert.assertEquals(size, SchemaRegistry.size());
+
+		Assert.assertThrows(NullPointerException.class, () -> SchemaRegistry.getSchema(null));
+	}
+}
@@ -0,0 +1,192 @@
+package test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.deloma.tools.sepa.camt.CamtParser;
+import de.deloma.tools.sepa.camt.CamtParser.CAMTTYPE;
+import de.deloma.tools.sepa.pain.PainDocumentType;
+import de.deloma.tools.sepa.pain.PainParser;
+import de.deloma.tools.sepa.util.DetectedFormat;
+import de.deloma.tools.sepa.util.SepaFormatDetector;
+
+/**
+ * Unit tests for {@link SepaFormatDetector}
+ *
+ * @author Marco Janc (c) 2025
+ */
+public class SepaFormatDetectorTest
+{
+	@Test
+	public void testCamt() throws Exception
+	{
+		for (final CAMTTYPE type : CAMTTYPE.values())
+		{
+			final byte[] xml = CamtTestData.create(type, 1, 2);
+			final DetectedFormat format = SepaFormatDetectorTest.assertDetected(xml, type.getXsdVersion());
+			Assert.assertEquals(type, format.getCamtType());
+			Assert.assertTrue(format.isCamt());
+			Assert.assertFalse(format.isPain());
+			Assert.assertNull(format.getPainType());
+		}
+
+		// the returned stream is parsed as is
+		final DetectedFormat format = SepaFormatDetector
+			.detect(new NonMarkableInputStream(CamtTestData.create(CAMTTYPE.CAMT53, 2, 3)));
+		Assert.assertNotNull(new CamtParser(format.getCamtType()).parse(format.getInputStream(), true));
+	}
+
+	@Test
+	public void testPain() throws Exception
+	{
+		for (final PainDocumentType type : PainDocumentType.values())
+		{
+			final byte[] xml = PainParser.createDocumentXml(type, PainTestData.createGroupHeaderInfo(), PainTestData.createPaymentInfos(1, 2))
+				.getBytes(StandardCharsets.UTF_8);
+			final DetectedFormat format = SepaFormatDetectorTest.assertDetected(xml, type.getName());
+			Assert.assertEquals(type, format.getPainType());
+			Assert.assertTrue(format.isPain());
+			Assert.assertFalse(format.isCamt());
+			Assert.assertNull(format.getCamtType());
+		}
+	}
+
+	@Test
+	public void testNonMarkable() throws Exception
+	{
+		// one byte per read, the prefix is read completely and the stream
+		// starts at byte 0 again
+		final byte[] xml = CamtTestData.create(CAMTTYPE.CAMT54, 3, 40);
+		Assert.assertTrue(xml.length > SepaFormatDetector.DEFAULT_PREFIX_SIZE);
+		final DetectedFormat format = SepaFormatDetector.detect(new NonMarkableInputStream(xml)
+		{
+			@Override
+			public int read(final byte[] b, final int off, final int len) throws IOException
+			{
+				return super.read(b, off, Math.min(1, len));
+			}
+		});
+		Assert.assertEquals(CAMTTYPE.CAMT54, format.getCamtType());
+		Assert.assertTrue(format.getInputStream().markSupported());
+		Assert.assertArrayEquals(xml, SepaFormatDetectorTest.readAll(format.getInputStream()));
+	}
+
+	@Test
+	public void testRootPastPrefix() throws Exception
+	{
+		final StringBuilder comment = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<!--");
+		while (comment.length() < SepaFormatDetector.DEFAULT_PREFIX_SIZE)
+			comment.append(" padding");
+		final String camt = new String(CamtTestData.create(CAMTTYPE.CAMT53, 1, 1), StandardCharsets.UTF_8);
+		final byte[] xml = (comment + " -->\n" + camt.substring(camt.indexOf("<Document"))).getBytes(StandardCharsets.UTF_8);
+
+		// unknown, but the stream is unchanged
+		DetectedFormat format = SepaFormatDetector.detect(new NonMarkableInputStream(xml));
+		Assert.assertNull(format.getNamespaceUri());
+		Assert.assertFalse(format.isKnown());
+		Assert.assertArrayEquals(xml, SepaFormatDetectorTest.readAll(format.getInputStream()));
+
+		// detected with a larger prefix
+		format = SepaFormatDetector.detect(new NonMarkableInputStream(xml), 2 * SepaFormatDetector.DEFAULT_PREFIX_SIZE);
+		Assert.assertEquals(CAMTTYPE.CAMT53, format.getCamtType());
+		Assert.assertArrayEquals(xml, SepaFormatDetectorTest.readAll(format.getInputStream()));
+	}
+
+	@Test
+	public void testNonSepa() throws Exception
+	{
+		DetectedFormat format = SepaFormatDetectorTest.detect("<?xml version=\"1.0\"?><invoice xmlns=\"urn:example:invoice\"><id>1</id></invoice>");
+		Assert.assertEquals("urn:example:invoice", format.getNamespaceUri());
+		Assert.assertNull(format.getXsdVersion());
+		Assert.assertFalse(format.isKnown());
+
+		// unknown ISO 20022 message
+		format = SepaFormatDetectorTest.detect("<Document xmlns=\"urn:iso:std:iso:20022:tech:xsd:pain.001.001.03\"/>");
+		Assert.assertEquals("pain.001.001.03", format.getXsdVersion());
+		Assert.assertFalse(format.isCamt());
+		Assert.assertFalse(format.isPain());
+		Assert.assertFalse(format.isKnown());
+
+		for (final String xml : new String[] { "<Document/>", "not xml", "" })
+		{
+			format = SepaFormatDetectorTest.detect(xml);
+			Assert.assertNull(xml, format.getNamespaceUri());
+			Assert.assertFalse(xml, format.isKnown());
+			Assert.assertEquals(xml, new String(SepaFormatDetectorTest.readAll(format.getInputStream()), StandardCharsets.UTF_8));
+		}
+	}
+
+	@Test
+	public void testInvalidPrefixSize()
+	{
+		Assert.assertThrows(IllegalArgumentException.class, () -> SepaFormatDetector.detect(new ByteArrayInputStream(new byte[0]), 0));
+	}
+
+	/**
+	 * Detects the format from a markable and a non markable stream
+	 */
+	private static DetectedFormat assertDetected(final byte[] xml, final String xsdVersion) throws IOException
+	{
+		DetectedFormat format = null;
+		for (final InputStream is : new InputStream[] { new ByteArrayInputStream(xml), new NonMarkableInputStream(xml) })
+		{
+			format = SepaFormatDetector.detect(is);
+			Assert.assertEquals(xsdVersion, format.getXsdVersion());
+			Assert.assertEquals("urn:iso:std:iso:20022:tech:xsd:" + xsdVersion, format.getNamespaceUri());
+			Assert.assertTrue(format.isKnown());
+			Assert.assertArrayEquals(xml, SepaFormatDetectorTest.readAll(format.getInputStream()));
+		}
+		return format;
+	}
+
+	private static DetectedFormat detect(final String xml) throws IOException
+	{
+		return SepaFormatDetector.detect(new NonMarkableInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	private static byte[] readAll(final InputStream is) throws IOException
+	{
+		final ByteArrayOutputStream os = new ByteArrayOutputStream();
+		final byte[] buffer = new byte[4096];
+		int read;
+		while ((read = is.read(buffer)) != -1)
+			os.write(buffer, 0, read);
+		return os.toByteArray();
+	}
+
+	/**
+	 * stream without mark / reset like a socket or file stream
+	 */
+	private static class NonMarkableInputStream extends FilterInputStream
+	{
+		NonMarkableInputStream(final byte[] data)
+		{
+			super(new ByteArrayInputStream(data));
+		}
+
+		@Override
+		public boolean markSupported()
+		{
+			return false;
+		}
+
+		@Override
+		public synchronized void mark(final int readlimit)
+		{
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public synchronized void reset() throws IOException
+		{
+			throw new IOException("mark / reset not supported");
+		}
+	}
+}
@@ -0,0 +1,186 @@
+package test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.deloma.tools.sepa.exception.PainParserException;
+import de.deloma.tools.sepa.pain.wrapper.TransactionBatch;
+import de.deloma.tools.sepa.util.SepaIdValidator;
+
+/**
+ * Unit tests for {@link SepaIdValidator}
+ *
+ * @author Marco Janc (c) 2025
+ */
+public class SepaIdValidatorTest
+{
+	private static final String[] VALID_IBANS = { "DE89370400440532013000", "GB82WEST12345698765432", "NO9386011117947", "FR1420041010050500013M02606",
+		"MT84MALT011000012345MTLCAST001S", "CH9300762011623852957" };
+
+	private static final String[] INVALID_IBANS = { "", "DE89", "DE8937040044053201300", "DE893704004405320130000", "de89370400440532013000",
+		"DE89 3704 0044 0532 0130 00", "DEAB370400440532013000", "DE8937040044053201300A", "XX89370400440532013000", "NO938601111794",
+		"DE89370400440532013000DE89370400440532013000" };
+
+	private static final String[] VALID_BICS = { "COBADEFF", "COBADEFFXXX", "DEUTDEDB", "SPUEDE2UXXX", "BANKDEFFXXX" };
+
+	private static final String[] INVALID_BICS = { "", "COBADEF", "COBADEFFX", "COBADEFFXX", "COBADEFFXXXX", "COBA1EFFXXX", "cobadeff",
+		"COBADEFF XX" };
+
+	/**
+	 * transactions per validation chunk of a {@link TransactionBatch}
+	 */
+	private static final int CHUNK = 64 * 1024;
+
+	@Test
+	public void testValidIban()
+	{
+		for (final String iban : SepaIdValidatorTest.VALID_IBANS)
+			Assert.assertTrue(iban, SepaIdValidator.isValidIban(iban));
+		Assert.assertFalse(SepaIdValidator.isValidIban(null));
+	}
+
+	@Test
+	public void testInvalidIban()
+	{
+		for (final String iban : SepaIdValidatorTest.INVALID_IBANS)
+			Assert.assertFalse(iban, SepaIdValidator.isValidIban(iban));
+	}
+
+	@Test
+	public void testChangedDigit()
+	{
+		// the check digits detect any single changed digit
+		for (final String iban : Arrays.asList("DE89370400440532013000", "GB82WEST12345698765432", "NO9386011117947"))
+			for (final String changed : SepaIdValidatorTest.changeDigits(iban))
+				Assert.assertFalse(changed, SepaIdValidator.isValidIban(changed));
+	}
+
+	@Test
+	public void testCountryLength()
+	{
+		// Norway has the shortest IBAN with 15 chars
+		Assert.assertTrue(SepaIdValidator.isValidIban("NO9386011117947"));
+		Assert.assertFalse(SepaIdValidator.isValidIban("NO938601111794"));
+		Assert.assertFalse(SepaIdValidator.isValidIban("NO93860111179470"));
+	}
+
+	@Test
+	public void testBic()
+	{
+		for (final String bic : SepaIdValidatorTest.VALID_BICS)
+			Assert.assertTrue(bic, SepaIdValidator.isValidBic(bic));
+		for (final String bic : SepaIdValidatorTest.INVALID_BICS)
+			Assert.assertFalse(bic, SepaIdValidator.isValidBic(bic));
+		Assert.assertFalse(SepaIdValidator.isValidBic(null));
+	}
+
+	@Test
+	public void testCreditorId()
+	{
+		Assert.assertTrue(SepaIdValidator.isValidCreditorId("DE98ZZZ09999999999"));
+		// the creditor business code is not part of the check digits
+		Assert.assertTrue(SepaIdValidator.isValidCreditorId("DE98ABC09999999999"));
+
+		for (final String changed : SepaIdValidatorTest.changeDigits("DE98ZZZ09999999999"))
+			Assert.assertFalse(changed, SepaIdValidator.isValidCreditorId(changed));
+		Assert.assertFalse(SepaIdValidator.isValidCreditorId("DE98ZZZ"));
+		Assert.assertFalse(SepaIdValidator.isValidCreditorId("DE98ZZZ0999999999-"));
+		Assert.assertFalse(SepaIdValidator.isValidCreditorId(null));
+	}
+
+	@Test
+	public void testBytes()
+	{
+		final List<String> ibans = new ArrayList<>(Arrays.asList(SepaIdValidatorTest.VALID_IBANS));
+		ibans.addAll(Arrays.asList(SepaIdValidatorTest.INVALID_IBANS));
+		for (final String iban : SepaIdValidatorTest.VALID_IBANS)
+			ibans.addAll(SepaIdValidatorTest.changeDigits(iban));
+		for (final String iban : ibans)
+		{
+			final byte[] data = ("Ä#" + iban + "#").getBytes(StandardCharsets.UTF_8);
+			Assert.assertEquals(iban, SepaIdValidator.isValidIban(iban), SepaIdValidator.isValidIban(data, 3, data.length - 1));
+			Assert.assertEquals(iban, SepaIdValidator.isValidIban(iban), SepaIdValidator.isValidIban(new StringBuilder(iban)));
+		}
+
+		final List<String> bics = new ArrayList<>(Arrays.asList(SepaIdValidatorTest.VALID_BICS));
+		bics.addAll(Arrays.asList(SepaIdValidatorTest.INVALID_BICS));
+		for (final String bic : bics)
+		{
+			final byte[] data = ("Ä#" + bic + "#").getBytes(StandardCharsets.UTF_8);
+			Assert.assertEquals(bic, SepaIdValidator.isValidBic(bic), SepaIdValidator.isValidBic(data, 3, data.length - 1));
+		}
+	}
+
+	@Test
+	public void testCheck() throws PainParserException
+	{
+		SepaIdValidator.checkIban("DE89370400440532013000");
+		SepaIdValidator.checkBic("COBADEFFXXX");
+		SepaIdValidator.checkCreditorId("DE98ZZZ09999999999");
+		for (final String iban : SepaIdValidatorTest.INVALID_IBANS)
+			try
+			{
+				SepaIdValidator.checkIban(iban);
+				Assert.fail(iban);
+			}
+			catch (final PainParserException e)
+			{
+				// expected
+			}
+	}
+
+	@Test
+	public void testValidateAccounts()
+	{
+		final int size = 2 * SepaIdValidatorTest.CHUNK + 10;
+		final BitSet expected = new BitSet(size);
+		for (final int i : new int[] { 0, 63, 64, SepaIdValidatorTest.CHUNK - 1, SepaIdValidatorTest.CHUNK, SepaIdValidatorTest.CHUNK + 1,
+			2 * SepaIdValidatorTest.CHUNK - 1, 2 * SepaIdValidatorTest.CHUNK, size - 1 })
+			expected.set(i);
+
+		final TransactionBatch batch = new TransactionBatch(size);
+		final LocalDate dtOfSgntr = LocalDate.of(2024, 1, 1);
+		for (int i = 0; i < size; i++)
+		{
+			// invalid IBAN or BIC, the BIC is optional
+			final boolean invalid = expected.get(i);
+			final String iban = invalid && i % 2 == 0 ? "DE89370400440532013001" : "DE89370400440532013000";
+			final String bic = invalid && i % 2 == 1 ? "COBADEFFX" : i % 3 == 0 ? null : "COBADEFFXXX";
+			batch.add("E2E-" + i, 100, "Müller", iban, bic, "M-" + i, dtOfSgntr, null, null);
+		}
+
+		Assert.assertEquals(expected, batch.validateAccounts());
+
+		// ranges across the chunk boundary
+		final BitSet range = new BitSet(size);
+		Assert.assertEquals(3, batch.validateAccounts(SepaIdValidatorTest.CHUNK - 1, SepaIdValidatorTest.CHUNK + 2, range::set));
+		Assert.assertEquals(expected.get(SepaIdValidatorTest.CHUNK - 1, SepaIdValidatorTest.CHUNK + 2),
+			range.get(SepaIdValidatorTest.CHUNK - 1, SepaIdValidatorTest.CHUNK + 2));
+		Assert.assertEquals(0, batch.validateAccounts(1, 63, i -> Assert.fail("valid " + i)));
+	}
+
+	/**
+	 * @return the id with each digit after the country code changed once
+	 */
+	private static List<String> changeDigits(final String id)
+	{
+		final List<String> changed = new ArrayList<>();
+		for (int i = 2; i < id.length(); i++)
+		{
+			final char c = id.charAt(i);
+			if (c < '0' || c > '9')
+				continue;
+			final char[] chars = id.toCharArray();
+			chars[i] = (char) ('0' + (c - '0' + 1) % 10);
+			changed.add(new String(chars));
+		}
+		return changed;
+	}
+}
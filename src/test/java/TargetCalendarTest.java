@@ -0,0 +1,176 @@
+package test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.deloma.tools.sepa.pain.wrapper.SepaLocalInstrumentCode;
+import de.deloma.tools.sepa.pain.wrapper.SequenceTypeCode;
+import de.deloma.tools.sepa.util.TargetCalendar;
+
+/**
+ * Unit tests for {@link TargetCalendar}
+ *
+ * @author Marco Janc (c) 2025
+ */
+public class TargetCalendarTest
+{
+	/**
+	 * Good Friday and Easter Monday of years with different Easter dates
+	 */
+	private static final String[][] EASTER_HOLIDAYS = { { "2024-03-29", "2024-04-01" }, { "2025-04-18", "2025-04-21" },
+		{ "2026-04-03", "2026-04-06" } };
+
+	private static final LocalDate THURSDAY_BEFORE_EASTER = LocalDate.of(2025, 4, 17);
+
+	private static final LocalDate GOOD_FRIDAY = LocalDate.of(2025, 4, 18);
+
+	private final TargetCalendar calendar = TargetCalendar.getDefault();
+
+	@Test
+	public void testEasterHolidays()
+	{
+		for (final String[] holidays : TargetCalendarTest.EASTER_HOLIDAYS)
+		{
+			final LocalDate goodFriday = LocalDate.parse(holidays[0]);
+			final LocalDate easterMonday = LocalDate.parse(holidays[1]);
+			Assert.assertFalse(holidays[0], this.calendar.isBusinessDay(goodFriday));
+			Assert.assertFalse(holidays[1], this.calendar.isBusinessDay(easterMonday));
+			Assert.assertTrue(this.calendar.isBusinessDay(goodFriday.minusDays(1)));
+			Assert.assertTrue(this.calendar.isBusinessDay(easterMonday.plusDays(1)));
+			Assert.assertEquals(easterMonday.plusDays(1), this.calendar.getNextBusinessDay(goodFriday));
+		}
+	}
+
+	@Test
+	public void testClosingDays()
+	{
+		// the only closing days besides weekends and Easter
+		for (int year = 2024; year <= 2026; year++)
+		{
+			int closed = 0;
+			for (LocalDate date = LocalDate.of(year, 1, 1); date.getYear() == year; date = date.plusDays(1))
+				if (date.getDayOfWeek() != DayOfWeek.SATURDAY && date.getDayOfWeek() != DayOfWeek.SUNDAY && !this.calendar.isBusinessDay(date))
+					closed++;
+			final int fixed = TargetCalendarTest.countWeekdays(LocalDate.of(year, 1, 1), LocalDate.of(year, 5, 1), LocalDate.of(year, 12, 25),
+				LocalDate.of(year, 12, 26));
+			Assert.assertEquals(String.valueOf(year), fixed + 2, closed);
+		}
+		Assert.assertFalse(this.calendar.isBusinessDay(LocalDate.of(2025, 12, 25)));
+		Assert.assertFalse(this.calendar.isBusinessDay(LocalDate.of(2025, 12, 26)));
+		Assert.assertFalse(this.calendar.isBusinessDay(LocalDate.of(2026, 1, 1)));
+		Assert.assertFalse(this.calendar.isBusinessDay(LocalDate.of(2025, 4, 19)));
+		Assert.assertTrue(this.calendar.isBusinessDay(LocalDate.of(2025, 12, 24)));
+	}
+
+	@Test
+	public void testAddBusinessDays()
+	{
+		Assert.assertEquals(TargetCalendarTest.THURSDAY_BEFORE_EASTER, this.calendar.addBusinessDays(TargetCalendarTest.THURSDAY_BEFORE_EASTER, 0));
+		Assert.assertEquals(LocalDate.of(2025, 4, 22), this.calendar.addBusinessDays(TargetCalendarTest.THURSDAY_BEFORE_EASTER, 1));
+		Assert.assertEquals(LocalDate.of(2025, 4, 23), this.calendar.addBusinessDays(TargetCalendarTest.THURSDAY_BEFORE_EASTER, 2));
+
+		// starting on closing days: Good Friday, Saturday and Easter Monday,
+		// the first business day after them is Tuesday
+		for (final LocalDate closed : new LocalDate[] { TargetCalendarTest.GOOD_FRIDAY, LocalDate.of(2025, 4, 19), LocalDate.of(2025, 4, 21) })
+		{
+			Assert.assertEquals(LocalDate.of(2025, 4, 22), this.calendar.addBusinessDays(closed, 0));
+			Assert.assertEquals(LocalDate.of(2025, 4, 22), this.calendar.addBusinessDays(closed, 1));
+			Assert.assertEquals(LocalDate.of(2025, 4, 23), this.calendar.addBusinessDays(closed, 2));
+		}
+
+		// the same as counting day by day
+		for (LocalDate date = LocalDate.of(2024, 1, 1); date.getYear() < 2027; date = date.plusDays(1))
+		{
+			Assert.assertEquals(this.calendar.getNextBusinessDay(date), this.calendar.addBusinessDays(date, 0));
+			LocalDate expected = date;
+			for (int businessDays = 1; businessDays < 5; businessDays++)
+			{
+				do
+					expected = expected.plusDays(1);
+				while (!this.calendar.isBusinessDay(expected));
+				Assert.assertEquals(date + " + " + businessDays, expected, this.calendar.addBusinessDays(date, businessDays));
+			}
+		}
+
+		Assert.assertEquals(2, this.calendar.getBusinessDaysBetween(TargetCalendarTest.THURSDAY_BEFORE_EASTER, LocalDate.of(2025, 4, 23)));
+		Assert.assertEquals(-2, this.calendar.getBusinessDaysBetween(LocalDate.of(2025, 4, 23), TargetCalendarTest.THURSDAY_BEFORE_EASTER));
+	}
+
+	@Test
+	public void testCollectionDate()
+	{
+		// D-1 from Thursday before Easter
+		Assert.assertEquals(TargetCalendar.DEFAULT_LEAD_DAYS, this.calendar.getLeadDays(SepaLocalInstrumentCode.CORE, SequenceTypeCode.FRST));
+		Assert.assertEquals(LocalDate.of(2025, 4, 22), this.calendar.getEarliestCollectionDate(TargetCalendarTest.THURSDAY_BEFORE_EASTER,
+			SepaLocalInstrumentCode.CORE, SequenceTypeCode.FRST));
+		Assert.assertFalse(this.calendar.isValidCollectionDate(TargetCalendarTest.GOOD_FRIDAY, TargetCalendarTest.THURSDAY_BEFORE_EASTER,
+			SepaLocalInstrumentCode.CORE, SequenceTypeCode.FRST));
+		Assert.assertTrue(this.calendar.isValidCollectionDate(LocalDate.of(2025, 4, 22), TargetCalendarTest.THURSDAY_BEFORE_EASTER,
+			SepaLocalInstrumentCode.CORE, SequenceTypeCode.FRST));
+
+		// requested on a closing day
+		Assert.assertEquals(LocalDate.of(2025, 4, 22), this.calendar.getNextCollectionDate(TargetCalendarTest.GOOD_FRIDAY,
+			TargetCalendarTest.THURSDAY_BEFORE_EASTER, SepaLocalInstrumentCode.CORE, SequenceTypeCode.FRST));
+		Assert.assertEquals(LocalDate.of(2025, 4, 24), this.calendar.getNextCollectionDate(LocalDate.of(2025, 4, 24),
+			TargetCalendarTest.THURSDAY_BEFORE_EASTER, SepaLocalInstrumentCode.CORE, SequenceTypeCode.FRST));
+
+		// submitted on a closing day counts as submitted on the next business day
+		Assert.assertEquals(LocalDate.of(2025, 4, 23), this.calendar.getNextCollectionDate(TargetCalendarTest.GOOD_FRIDAY,
+			TargetCalendarTest.GOOD_FRIDAY, SepaLocalInstrumentCode.CORE, SequenceTypeCode.RCUR));
+		Assert.assertEquals(LocalDate.of(2025, 4, 23), this.calendar.getEarliestCollectionDate(LocalDate.of(2025, 4, 19),
+			SepaLocalInstrumentCode.CORE, SequenceTypeCode.RCUR));
+	}
+
+	@Test
+	public void testLeadDays()
+	{
+		final TargetCalendar calendar = this.calendar.withLeadDays(SepaLocalInstrumentCode.CORE, SequenceTypeCode.FRST, 2);
+
+		// D-2 only for the given instrument and sequence type
+		Assert.assertEquals(2, calendar.getLeadDays(SepaLocalInstrumentCode.CORE, SequenceTypeCode.FRST));
+		Assert.assertEquals(LocalDate.of(2025, 4, 23), calendar.getEarliestCollectionDate(TargetCalendarTest.THURSDAY_BEFORE_EASTER,
+			SepaLocalInstrumentCode.CORE, SequenceTypeCode.FRST));
+		Assert.assertFalse(calendar.isValidCollectionDate(LocalDate.of(2025, 4, 22), TargetCalendarTest.THURSDAY_BEFORE_EASTER,
+			SepaLocalInstrumentCode.CORE, SequenceTypeCode.FRST));
+		Assert.assertEquals(LocalDate.of(2025, 4, 22), calendar.getEarliestCollectionDate(TargetCalendarTest.THURSDAY_BEFORE_EASTER,
+			SepaLocalInstrumentCode.CORE, SequenceTypeCode.RCUR));
+
+		// the original calendar is unchanged
+		Assert.assertEquals(TargetCalendar.DEFAULT_LEAD_DAYS, this.calendar.getLeadDays(SepaLocalInstrumentCode.CORE, SequenceTypeCode.FRST));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNegativeLeadDays()
+	{
+		this.calendar.withLeadDays(SepaLocalInstrumentCode.CORE, SequenceTypeCode.FRST, -1);
+	}
+
+	@Test
+	public void testRangeEnd()
+	{
+		final TargetCalendar calendar = new TargetCalendar(2025, 2025);
+		Assert.assertEquals(LocalDate.of(2025, 1, 1), calendar.getFirstDay());
+		Assert.assertEquals(LocalDate.of(2025, 12, 31), calendar.getLastDay());
+		Assert.assertEquals(LocalDate.of(2025, 12, 31), calendar.addBusinessDays(LocalDate.of(2025, 12, 30), 1));
+
+		Assert.assertThrows(IllegalArgumentException.class, () -> calendar.addBusinessDays(LocalDate.of(2025, 12, 31), 1));
+		Assert.assertThrows(IllegalArgumentException.class, () -> calendar.getEarliestCollectionDate(LocalDate.of(2025, 12, 31), SepaLocalInstrumentCode.CORE,
+			SequenceTypeCode.FRST));
+		Assert.assertThrows(IllegalArgumentException.class, () -> calendar.isBusinessDay(LocalDate.of(2026, 1, 2)));
+		Assert.assertThrows(IllegalArgumentException.class, () -> calendar.isBusinessDay(LocalDate.of(2024, 12, 31)));
+		Assert.assertThrows(IllegalArgumentException.class, () -> calendar.addBusinessDays(LocalDate.of(2025, 6, 2), -1));
+		Assert.assertThrows(IllegalArgumentException.class, () -> new TargetCalendar(2026, 2025));
+	}
+
+	private static int countWeekdays(final LocalDate... dates)
+	{
+		int count = 0;
+		for (final LocalDate date : dates)
+			if (date.getDayOfWeek() != DayOfWeek.SATURDAY && date.getDayOfWeek() != DayOfWeek.SUNDAY)
+				count++;
+		return count;
+	}
+}
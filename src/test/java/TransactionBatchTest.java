@@ -0,0 +1,183 @@
+package test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.deloma.tools.sepa.pain.wrapper.PainTransaction;
+import de.deloma.tools.sepa.pain.wrapper.TransactionBatch;
+import de.deloma.tools.sepa.util.AmountUtils;
+
+/**
+ * Unit tests for {@link TransactionBatch}
+ *
+ * @author Marco Janc (c) 2025
+ */
+public class TransactionBatchTest
+{
+	/**
+	 * transactions per parallel validation task of the batch
+	 */
+	private static final int CHUNK = 64 * 1024;
+
+	private static final LocalDate DT_OF_SGNTR = LocalDate.of(2024, 1, 1);
+
+	@Test
+	public void testNullStrings()
+	{
+		final TransactionBatch batch = new TransactionBatch(1);
+		batch.add("E2E-1", 100, "Müller", PainTestData.DEBTOR_IBAN, "COBADEFFXXX", "M-1", TransactionBatchTest.DT_OF_SGNTR, "Ultimate", "Rechnung");
+		// all null, empty strings are kept apart from null
+		batch.add(null, 200, null, null, null, null, null, null, null);
+		batch.add("", 300, "", "", "", "", null, "", "");
+		batch.add("E2E-4", 400, "Meier", PainTestData.DEBTOR_IBAN, null, "M-4", TransactionBatchTest.DT_OF_SGNTR, null, "Rechnung");
+
+		Assert.assertEquals(4, batch.size());
+		TransactionBatchTest.assertTransaction(batch, 0, "E2E-1", 100, "Müller", PainTestData.DEBTOR_IBAN, "COBADEFFXXX", "M-1",
+			TransactionBatchTest.DT_OF_SGNTR, "Ultimate", "Rechnung");
+		TransactionBatchTest.assertTransaction(batch, 1, null, 200, null, null, null, null, null, null, null);
+		TransactionBatchTest.assertTransaction(batch, 2, "", 300, "", "", "", "", null, "", "");
+		TransactionBatchTest.assertTransaction(batch, 3, "E2E-4", 400, "Meier", PainTestData.DEBTOR_IBAN, null, "M-4",
+			TransactionBatchTest.DT_OF_SGNTR, null, "Rechnung");
+		Assert.assertNull(batch.get(1).getDtOfSgntr());
+	}
+
+	@Test
+	public void testUtf8()
+	{
+		final String[] names = { "Müller-Lüdenscheidt", "Ærøskøbing Åse", "Œuvre ĳ ß", "日本語テキスト", "emoji 😀 🇩🇪",
+			"\u0000control\t", "" };
+
+		// starting with capacity 1, the arrays grow
+		final TransactionBatch batch = new TransactionBatch(1);
+		final int size = 5000;
+		for (int i = 0; i < size; i++)
+		{
+			final String name = names[i % names.length];
+			batch.add("E2E-" + i, i + 1, name, PainTestData.DEBTOR_IBAN, null, "M-" + i, TransactionBatchTest.DT_OF_SGNTR.plusDays(i), name + i,
+				i % 2 == 0 ? null : name + name);
+			if (i == size / 2)
+				batch.trimToSize();
+		}
+
+		for (int i = 0; i < size; i++)
+		{
+			final String name = names[i % names.length];
+			TransactionBatchTest.assertTransaction(batch, i, "E2E-" + i, i + 1, name, PainTestData.DEBTOR_IBAN, null, "M-" + i,
+				TransactionBatchTest.DT_OF_SGNTR.plusDays(i), name + i, i % 2 == 0 ? null : name + name);
+		}
+		Assert.assertEquals((long) size * (size + 1) / 2, batch.getTotalAmountCents());
+
+		final long sizeInBytes = batch.getSizeInBytes();
+		batch.trimToSize();
+		Assert.assertTrue(batch.getSizeInBytes() <= sizeInBytes);
+		Assert.assertEquals(names[3], batch.getDbtrName(3));
+	}
+
+	@Test
+	public void testAmounts()
+	{
+		final TransactionBatch batch = new TransactionBatch();
+		Assert.assertTrue(batch.isEmpty());
+		batch.add(new PainTransaction("E2E-1", new BigDecimal("12.5"), "Müller", PainTestData.DEBTOR_IBAN, null, "M-1",
+			TransactionBatchTest.DT_OF_SGNTR, null, null));
+		batch.add("E2E-2", Long.MAX_VALUE - 1250, "Müller", PainTestData.DEBTOR_IBAN, null, "M-2", TransactionBatchTest.DT_OF_SGNTR, null, null);
+		Assert.assertEquals(Long.MAX_VALUE, batch.getTotalAmountCents());
+		Assert.assertEquals(new BigDecimal("12.50"), batch.get(0).getAmount());
+		Assert.assertEquals("12.50", batch.get(0).getAmountPlainString());
+
+		// a failed add leaves the batch unchanged
+		Assert.assertThrows(ArithmeticException.class,
+			() -> batch.add("E2E-3", 1, "Müller", PainTestData.DEBTOR_IBAN, null, "M-3", TransactionBatchTest.DT_OF_SGNTR, null, null));
+		Assert.assertThrows(IllegalArgumentException.class, () -> batch.add("E2E-3", AmountUtils.NOT_REPRESENTABLE, "Müller",
+			PainTestData.DEBTOR_IBAN, null, "M-3", TransactionBatchTest.DT_OF_SGNTR, null, null));
+		Assert.assertThrows(ArithmeticException.class, () -> batch.add(new PainTransaction("E2E-3", new BigDecimal("1.005"), "Müller",
+			PainTestData.DEBTOR_IBAN, null, "M-3", TransactionBatchTest.DT_OF_SGNTR, null, null)));
+		Assert.assertEquals(2, batch.size());
+		Assert.assertEquals(Long.MAX_VALUE, batch.getTotalAmountCents());
+	}
+
+	@Test
+	public void testViews()
+	{
+		final TransactionBatch batch = new TransactionBatch();
+		final List<PainTransaction> list = batch.asList();
+		Assert.assertTrue(list.isEmpty());
+
+		for (int i = 0; i < 3; i++)
+			batch.add(PainTestData.createTransaction(0, i));
+		// reflects later additions
+		Assert.assertEquals(3, list.size());
+		Assert.assertEquals(PainTestData.getEndToEndId(0, 2), list.get(2).getEndToEndId());
+		Assert.assertEquals(Date.from(PainTestData.createTransaction(0, 1).getDtOfSgntrLocalDate().atStartOfDay(ZoneId.systemDefault()).toInstant()),
+			list.get(1).getDtOfSgntr());
+
+		int i = 0;
+		for (final Iterator<PainTransaction> iterator = batch.iterator(); iterator.hasNext(); i++)
+			Assert.assertEquals(PainTestData.getAmount(0, i), iterator.next().getAmount());
+		Assert.assertEquals(3, i);
+
+		Assert.assertThrows(UnsupportedOperationException.class, () -> list.add(PainTestData.createTransaction(0, 3)));
+		Assert.assertThrows(UnsupportedOperationException.class, () -> list.remove(0));
+		Assert.assertThrows(IndexOutOfBoundsException.class, () -> batch.get(3));
+		Assert.assertThrows(IndexOutOfBoundsException.class, () -> batch.getDbtrName(-1));
+	}
+
+	@Test
+	public void testValidateAccounts()
+	{
+		Assert.assertTrue(new TransactionBatch().validateAccounts().isEmpty());
+
+		// invalid accounts at the chunk and word boundaries, a missing IBAN is
+		// invalid
+		final int size = TransactionBatchTest.CHUNK + 1;
+		final BitSet expected = new BitSet(size);
+		for (final int i : new int[] { 1, 64, TransactionBatchTest.CHUNK - 64, TransactionBatchTest.CHUNK - 1, TransactionBatchTest.CHUNK })
+			expected.set(i);
+
+		final TransactionBatch batch = new TransactionBatch(size);
+		for (int i = 0; i < size; i++)
+		{
+			final String iban = !expected.get(i) ? PainTestData.DEBTOR_IBAN : i % 2 == 0 ? null : "DE00" + PainTestData.DEBTOR_IBAN.substring(4);
+			batch.add("E2E-" + i, 100, "Müller", iban, null, "M-" + i, TransactionBatchTest.DT_OF_SGNTR, null, null);
+		}
+		Assert.assertEquals(expected, batch.validateAccounts());
+		Assert.assertEquals(expected.cardinality(), batch.validateAccounts(0, size, i -> Assert.assertTrue(expected.get(i))));
+		Assert.assertThrows(IndexOutOfBoundsException.class, () -> batch.validateAccounts(0, size + 1, i -> {
+		}));
+	}
+
+	private static void assertTransaction(final TransactionBatch batch, final int index, final String endToEndId, final long amountCents,
+		final String dbtrName, final String dbtrIban, final String dbtrBic, final String mandateId, final LocalDate dtOfSgntr,
+		final String ultDbtrName, final String ustrdRemInf)
+	{
+		Assert.assertEquals(endToEndId, batch.getEndToEndId(index));
+		Assert.assertEquals(amountCents, batch.getAmountCents(index));
+		Assert.assertEquals(dbtrName, batch.getDbtrName(index));
+		Assert.assertEquals(dbtrIban, batch.getDbtrIban(index));
+		Assert.assertEquals(dbtrBic, batch.getDbtrBic(index));
+		Assert.assertEquals(mandateId, batch.getMandateId(index));
+		Assert.assertEquals(dtOfSgntr, batch.getDtOfSgntr(index));
+		Assert.assertEquals(ultDbtrName, batch.getUltDbtrName(index));
+		Assert.assertEquals(ustrdRemInf, batch.getUstrdRemInf(index));
+
+		// flyweight view
+		final PainTransaction transaction = batch.get(index);
+		Assert.assertEquals(endToEndId, transaction.getEndToEndId());
+		Assert.assertEquals(amountCents, transaction.getAmountCents());
+		Assert.assertEquals(dbtrName, transaction.getDbtrName());
+		Assert.assertEquals(dbtrIban, transaction.getDbtrIban());
+		Assert.assertEquals(dbtrBic, transaction.getDbtrBic());
+		Assert.assertEquals(mandateId, transaction.getMandateId());
+		Assert.assertEquals(dtOfSgntr, transaction.getDtOfSgntrLocalDate());
+		Assert.assertEquals(ultDbtrName, transaction.getUltDbtrName());
+		Assert.assertEquals(ustrdRemInf, transaction.getUstrdRemInf());
+	}
+}
@@ -0,0 +1,277 @@
+package test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.deloma.tools.sepa.exception.PainParserException;
+import de.deloma.tools.sepa.exception.ValidationReportException;
+import de.deloma.tools.sepa.pain.ValidationReport;
+import de.deloma.tools.sepa.pain.ValidationReport.ErrorCode;
+import de.deloma.tools.sepa.pain.ValidationReport.Field;
+import de.deloma.tools.sepa.pain.wrapper.CollectorPaymentInfoPain;
+import de.deloma.tools.sepa.pain.wrapper.CreditorInfo;
+import de.deloma.tools.sepa.pain.wrapper.GroupHeaderInfo;
+import de.deloma.tools.sepa.pain.wrapper.PainTransaction;
+import de.deloma.tools.sepa.pain.wrapper.SepaLocalInstrumentCode;
+import de.deloma.tools.sepa.pain.wrapper.SequenceTypeCode;
+
+/**
+ * Unit tests for {@link ValidationReport}, every input rejected by the
+ * {@code validate} methods of the wrappers must be reported
+ *
+ * @author Marco Janc (c) 2025
+ */
+public class ValidationReportTest
+{
+	private static final LocalDate DT_OF_SGNTR = LocalDate.of(2024, 1, 1);
+
+	@Test
+	public void testValid() throws Exception
+	{
+		final List<CollectorPaymentInfoPain> paymentInfos = PainTestData.createPaymentInfos(3, 5);
+		for (final CollectorPaymentInfoPain paymentInfo : paymentInfos)
+			CollectorPaymentInfoPain.validate(paymentInfo);
+
+		final ValidationReport report = ValidationReport.validate(PainTestData.createGroupHeaderInfo(), paymentInfos);
+		Assert.assertTrue(report.toString(), report.isValid());
+		Assert.assertEquals(0, report.size());
+		report.check();
+	}
+
+	@Test
+	public void testGroupHeader()
+	{
+		ValidationReportTest.assertGroupHeader(new GroupHeaderInfo("", PainTestData.CREATION_DATE_TIME, "Initiator"), Field.MSG_ID,
+			ErrorCode.MISSING);
+		ValidationReportTest.assertGroupHeader(
+			new GroupHeaderInfo(ValidationReportTest.repeat(PainTransaction.MAX_ID_LENGTH + 1), PainTestData.CREATION_DATE_TIME, "Initiator"),
+			Field.MSG_ID, ErrorCode.LENGTH);
+		ValidationReportTest.assertGroupHeader(new GroupHeaderInfo(PainTestData.MSG_ID, PainTestData.CREATION_DATE_TIME, ""), Field.INITIATOR,
+			ErrorCode.MISSING);
+		ValidationReportTest.assertGroupHeader(new GroupHeaderInfo(PainTestData.MSG_ID, PainTestData.CREATION_DATE_TIME,
+			ValidationReportTest.repeat(PainTransaction.MAX_NAME_LENGTH + 1)), Field.INITIATOR, ErrorCode.LENGTH);
+	}
+
+	@Test
+	public void testPaymentInfo()
+	{
+		final String name = "Gläubiger";
+		final String bic = "BANKDEFFXXX";
+		final String creditorId = "DE98ZZZ09999999999";
+		final String iban = PainTestData.CREDITOR_IBAN;
+
+		ValidationReportTest.assertCreditor(new CreditorInfo("", iban, bic, creditorId), Field.CREDITOR_NAME, ErrorCode.MISSING);
+		ValidationReportTest.assertCreditor(new CreditorInfo(ValidationReportTest.repeat(PainTransaction.MAX_NAME_LENGTH + 1), iban, bic, creditorId),
+			Field.CREDITOR_NAME, ErrorCode.LENGTH);
+		ValidationReportTest.assertCreditor(new CreditorInfo(name, "DE87", bic, creditorId), Field.CREDITOR_IBAN, ErrorCode.INVALID);
+		ValidationReportTest.assertCreditor(new CreditorInfo(name, iban + ValidationReportTest.repeat(13), bic, creditorId), Field.CREDITOR_IBAN,
+			ErrorCode.INVALID);
+		ValidationReportTest.assertCreditor(new CreditorInfo(name, iban, "BANK", creditorId), Field.CREDITOR_BIC, ErrorCode.INVALID);
+		ValidationReportTest.assertCreditor(new CreditorInfo(name, iban, "BANKDEFFXXXX", creditorId), Field.CREDITOR_BIC, ErrorCode.INVALID);
+		ValidationReportTest.assertCreditor(new CreditorInfo(name, iban, bic, ""), Field.CREDITOR_ID, ErrorCode.MISSING);
+		ValidationReportTest.assertCreditor(new CreditorInfo(name, iban, bic, ValidationReportTest.repeat(PainTransaction.MAX_ID_LENGTH + 1)),
+			Field.CREDITOR_ID, ErrorCode.LENGTH);
+
+		final List<PainTransaction> transactions = Collections.singletonList(PainTestData.createTransaction(0, 0));
+		final LocalDate collectionDate = LocalDate.now().plusDays(10);
+		ValidationReportTest.assertPaymentInfo(ValidationReportTest.createPaymentInfo("", collectionDate, transactions), Field.PAYMENT_INFO_ID,
+			ErrorCode.MISSING);
+		ValidationReportTest.assertPaymentInfo(
+			ValidationReportTest.createPaymentInfo(ValidationReportTest.repeat(PainTransaction.MAX_ID_LENGTH + 1), collectionDate, transactions),
+			Field.PAYMENT_INFO_ID, ErrorCode.LENGTH);
+		ValidationReportTest.assertPaymentInfo(ValidationReportTest.createPaymentInfo("PMT-1", null, transactions), Field.COLLECTION_DATE,
+			ErrorCode.MISSING);
+		ValidationReportTest.assertPaymentInfo(ValidationReportTest.createPaymentInfo("PMT-1", LocalDate.now(), transactions),
+			Field.COLLECTION_DATE, ErrorCode.RANGE);
+		ValidationReportTest.assertPaymentInfo(ValidationReportTest.createPaymentInfo("PMT-1", collectionDate, Collections.emptyList()),
+			Field.TRANSACTIONS, ErrorCode.MISSING);
+	}
+
+	@Test
+	public void testTransaction()
+	{
+		final String iban = PainTestData.DEBTOR_IBAN;
+		final LocalDate date = ValidationReportTest.DT_OF_SGNTR;
+		final String id35 = ValidationReportTest.repeat(PainTransaction.MAX_ID_LENGTH + 1);
+		final String name71 = ValidationReportTest.repeat(PainTransaction.MAX_NAME_LENGTH + 1);
+
+		ValidationReportTest.assertTransaction(new PainTransaction(null, 100, "Müller", iban, null, "M-1", date, null, null), Field.END_TO_END_ID,
+			ErrorCode.MISSING);
+		ValidationReportTest.assertTransaction(new PainTransaction(id35, 100, "Müller", iban, null, "M-1", date, null, null), Field.END_TO_END_ID,
+			ErrorCode.LENGTH);
+		ValidationReportTest.assertTransaction(new PainTransaction("E2E-1", 0, "Müller", iban, null, "M-1", date, null, null), Field.AMOUNT,
+			ErrorCode.RANGE);
+		ValidationReportTest.assertTransaction(new PainTransaction("E2E-1", -100, "Müller", iban, null, "M-1", date, null, null), Field.AMOUNT,
+			ErrorCode.RANGE);
+		ValidationReportTest.assertTransaction(
+			new PainTransaction("E2E-1", PainTransaction.MAX_AMOUNT_CENTS + 1, "Müller", iban, null, "M-1", date, null, null), Field.AMOUNT,
+			ErrorCode.RANGE);
+		ValidationReportTest.assertTransaction(
+			new PainTransaction("E2E-1", new BigDecimal("1.005"), "Müller", iban, null, "M-1", date, null, null), Field.AMOUNT, ErrorCode.INVALID);
+		ValidationReportTest.assertTransaction(new PainTransaction("E2E-1", 100, null, iban, null, "M-1", date, null, null), Field.DBTR_NAME,
+			ErrorCode.MISSING);
+		ValidationReportTest.assertTransaction(new PainTransaction("E2E-1", 100, name71, iban, null, "M-1", date, null, null), Field.DBTR_NAME,
+			ErrorCode.LENGTH);
+		ValidationReportTest.assertTransaction(new PainTransaction("E2E-1", 100, "Müller", null, null, "M-1", date, null, null), Field.DBTR_IBAN,
+			ErrorCode.MISSING);
+		// too long for the wrapper, an invalid IBAN for the report
+		ValidationReportTest.assertTransaction(
+			new PainTransaction("E2E-1", 100, "Müller", iban + ValidationReportTest.repeat(13), null, "M-1", date, null, null), Field.DBTR_IBAN,
+			ErrorCode.INVALID);
+		ValidationReportTest.assertTransaction(new PainTransaction("E2E-1", 100, "Müller", iban, null, "", date, null, null), Field.MANDATE_ID,
+			ErrorCode.MISSING);
+		ValidationReportTest.assertTransaction(new PainTransaction("E2E-1", 100, "Müller", iban, null, id35, date, null, null), Field.MANDATE_ID,
+			ErrorCode.LENGTH);
+		ValidationReportTest.assertTransaction(new PainTransaction("E2E-1", 100, "Müller", iban, null, "M-1", (LocalDate) null, null, null),
+			Field.DT_OF_SGNTR, ErrorCode.MISSING);
+		ValidationReportTest.assertTransaction(new PainTransaction("E2E-1", 100, "Müller", iban, null, "M-1", date, name71, null),
+			Field.ULT_DBTR_NAME, ErrorCode.LENGTH);
+		ValidationReportTest.assertTransaction(new PainTransaction("E2E-1", 100, "Müller", iban, null, "M-1", date, null,
+			ValidationReportTest.repeat(PainTransaction.MAX_REMITTANCE_INFO_LENGTH + 1)), Field.USTRD_REM_INF, ErrorCode.LENGTH);
+	}
+
+	@Test
+	public void testCollectAll()
+	{
+		// all violations of all payment infos located by their indexes
+		final List<CollectorPaymentInfoPain> paymentInfos = PainTestData.createPaymentInfos(2, 3);
+		final List<PainTransaction> transactions = new ArrayList<>(paymentInfos.get(1).getTransactions());
+		transactions.set(1, new PainTransaction(null, 0, "Müller", "DE00", null, "M-1", ValidationReportTest.DT_OF_SGNTR, null, null));
+		paymentInfos.set(1, ValidationReportTest.createPaymentInfo("", LocalDate.now(), transactions));
+
+		final ValidationReport report = ValidationReport.validate(new GroupHeaderInfo("", PainTestData.CREATION_DATE_TIME, "Initiator"),
+			paymentInfos);
+		Assert.assertEquals(Arrays.asList("MSG_ID MISSING", "PmtInf[1].PAYMENT_INFO_ID MISSING", "PmtInf[1].COLLECTION_DATE RANGE",
+			"PmtInf[1].Tx[1].END_TO_END_ID MISSING", "PmtInf[1].Tx[1].AMOUNT RANGE", "PmtInf[1].Tx[1].DBTR_IBAN INVALID"),
+			ValidationReportTest.toStrings(report));
+		Assert.assertEquals(6, report.getViolationCount());
+		Assert.assertEquals(ValidationReport.NONE, report.getPaymentInfoIndex(0));
+		Assert.assertEquals(ValidationReport.NONE, report.getTransactionIndex(0));
+		Assert.assertEquals(1, report.getPaymentInfoIndex(5));
+		Assert.assertEquals(1, report.getTransactionIndex(5));
+		Assert.assertEquals(Field.DBTR_IBAN, report.getField(5));
+		Assert.assertEquals(ErrorCode.INVALID, report.getErrorCode(5));
+	}
+
+	@Test
+	public void testMaxViolations()
+	{
+		final ValidationReport report = new ValidationReport(2);
+		for (int i = 0; i < 5; i++)
+			report.add(0, i, Field.AMOUNT, ErrorCode.RANGE);
+
+		Assert.assertFalse(report.isValid());
+		Assert.assertEquals(2, report.size());
+		Assert.assertEquals(5, report.getViolationCount());
+		Assert.assertEquals(1, report.getTransactionIndex(1));
+		Assert.assertThrows(IndexOutOfBoundsException.class, () -> report.getField(2));
+		Assert.assertTrue(report.toString(), report.toString().startsWith("ValidationReport [violations=5: PmtInf[0].Tx[0].AMOUNT RANGE"));
+
+		// only counted
+		final ValidationReport counting = new ValidationReport(0);
+		counting.add(ValidationReport.NONE, ValidationReport.NONE, Field.MSG_ID, ErrorCode.MISSING);
+		Assert.assertFalse(counting.isValid());
+		Assert.assertEquals(0, counting.size());
+		Assert.assertEquals(1, counting.getViolationCount());
+
+		// growing past the initial capacity
+		final ValidationReport growing = new ValidationReport(100);
+		for (int i = 0; i < 1000; i++)
+			growing.add(i, ValidationReport.NONE, Field.TRANSACTIONS, ErrorCode.MISSING);
+		Assert.assertEquals(100, growing.size());
+		Assert.assertEquals(99, growing.getPaymentInfoIndex(99));
+		Assert.assertEquals(1000, growing.getViolationCount());
+
+		Assert.assertThrows(IllegalArgumentException.class, () -> new ValidationReport(-1));
+	}
+
+	@Test
+	public void testException()
+	{
+		final ValidationReport report = new ValidationReport();
+		report.add(0, 1, Field.DBTR_IBAN, ErrorCode.INVALID);
+
+		final ValidationReportException e = Assert.assertThrows(ValidationReportException.class, () -> report.check());
+		Assert.assertTrue(e instanceof PainParserException);
+		Assert.assertSame(report, e.getReport());
+		Assert.assertEquals(0, e.getStackTrace().length);
+		Assert.assertTrue(e.getMessage(), e.getMessage().contains("PmtInf[0].Tx[1].DBTR_IBAN INVALID"));
+	}
+
+	private static void assertGroupHeader(final GroupHeaderInfo groupHeaderInfo, final Field field, final ErrorCode errorCode)
+	{
+		Assert.assertThrows(PainParserException.class, () -> GroupHeaderInfo.validate(groupHeaderInfo));
+		ValidationReportTest.assertReported(report -> {
+			report.validate(groupHeaderInfo);
+			return report;
+		}, field, errorCode);
+	}
+
+	private static void assertCreditor(final CreditorInfo creditorInfo, final Field field, final ErrorCode errorCode)
+	{
+		final CollectorPaymentInfoPain paymentInfo = new CollectorPaymentInfoPain(creditorInfo, "PMT-1", SepaLocalInstrumentCode.CORE,
+			SequenceTypeCode.FRST, LocalDate.now().plusDays(10), Collections.singletonList(PainTestData.createTransaction(0, 0)));
+		ValidationReportTest.assertPaymentInfo(paymentInfo, field, errorCode);
+	}
+
+	private static void assertTransaction(final PainTransaction transaction, final Field field, final ErrorCode errorCode)
+	{
+		final List<PainTransaction> transactions = Arrays.asList(PainTestData.createTransaction(0, 0), transaction);
+		ValidationReportTest.assertPaymentInfo(ValidationReportTest.createPaymentInfo("PMT-1", LocalDate.now().plusDays(10), transactions), field,
+			errorCode);
+	}
+
+	/**
+	 * Asserts that the wrapper rejects the payment info and the report
+	 * contains the violation
+	 */
+	private static void assertPaymentInfo(final CollectorPaymentInfoPain paymentInfo, final Field field, final ErrorCode errorCode)
+	{
+		Assert.assertThrows(field.name(), PainParserException.class, () -> CollectorPaymentInfoPain.validate(paymentInfo));
+		ValidationReportTest.assertReported(report -> {
+			report.validate(Collections.singletonList(paymentInfo));
+			return report;
+		}, field, errorCode);
+	}
+
+	private static void assertReported(final Function<ValidationReport, ValidationReport> validation, final Field field, final ErrorCode errorCode)
+	{
+		final ValidationReport report = validation.apply(new ValidationReport());
+		Assert.assertFalse(report.isValid());
+		Assert.assertEquals(report.size(), report.getViolationCount());
+		for (int i = 0; i < report.size(); i++)
+			if (report.getField(i) == field && report.getErrorCode(i) == errorCode)
+				return;
+		Assert.fail(field + " " + errorCode + " not in " + report);
+	}
+
+	private static CollectorPaymentInfoPain createPaymentInfo(final String paymentInfoId, final LocalDate collectionDate,
+		final List<PainTransaction> transactions)
+	{
+		return new CollectorPaymentInfoPain(PainTestData.createCreditorInfo(), paymentInfoId, SepaLocalInstrumentCode.CORE, SequenceTypeCode.FRST,
+			collectionDate, transactions);
+	}
+
+	private static List<String> toStrings(final ValidationReport report)
+	{
+		final List<String> violations = new ArrayList<>(report.size());
+		for (int i = 0; i < report.size(); i++)
+			violations.add(report.toString(i));
+		return violations;
+	}
+
+	private static String repeat(final int count)
+	{
+		final char[] chars = new char[count];
+		Arrays.fill(chars, '1');
+		return new String(chars);
+	}
+}